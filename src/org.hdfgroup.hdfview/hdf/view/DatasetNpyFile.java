@@ -0,0 +1,897 @@
+/*****************************************************************************
+ * Copyright by The HDF Group.                                               *
+ * All rights reserved.                                                      *
+ *                                                                           *
+ * This file is part of the HDF Java Products distribution.                  *
+ * The full copyright notice, including terms governing use, modification,   *
+ * and redistribution, is contained in the COPYING file, which can be found  *
+ * at the root of the source code distribution tree,                         *
+ * or in https://www.hdfgroup.org/licenses.                                  *
+ * If you do not have access to either file, you may request a copy from     *
+ * help@hdfgroup.org.                                                        *
+ ****************************************************************************/
+
+package hdf.view;
+
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongConsumer;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import hdf.object.CompoundDS;
+import hdf.object.DataBuffer;
+import hdf.object.Dataset;
+import hdf.object.Datatype;
+import hdf.object.ScalarDS;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads and writes a dataset as a NumPy .npy file, or as a single array in a .npz archive, so that
+ * arrays can be exchanged with Python without converting them to text.
+ *
+ * A scalar dataset of integers or floating-point values is stored as an array of the same shape and
+ * type. A compound dataset is stored as an array of a structured type with one field for each selected
+ * member; array members become fields with a sub-array shape and fixed-length string members become
+ * byte string fields. Values are always written in little-endian order; any byte order can be read.
+ *
+ * A whole dataset is transferred block by block along the first dimension, with
+ * {@link Dataset#blockIterator(long[], long[], long[], long)} for export and
+ * {@link Dataset#writeBlock(long[], long[], long[], Object)} for import, so it does not need to fit in
+ * memory and its current selection is neither used nor changed. The data of the current selection, as
+ * shown by a table, can be exported and imported as well.
+ *
+ * <pre>
+ * DatasetNpyFile.exportDataset(dataset, new File("data.npy"), null);
+ * DatasetNpyFile.importDataset(dataset, new File("data.npz"), rows -&gt; System.out.println(rows));
+ * </pre>
+ */
+public final class DatasetNpyFile {
+    private static final Logger log = LoggerFactory.getLogger(DatasetNpyFile.class);
+
+    private static final byte[] MAGIC = {(byte)0x93, 'N', 'U', 'M', 'P', 'Y'};
+
+    /** The header of a .npy file is padded so that the data starts at a multiple of this size. */
+    private static final int HEADER_ALIGNMENT = 64;
+
+    private DatasetNpyFile() {}
+
+    /**
+     * Returns true if a file name has the extension of a NumPy .npz archive.
+     *
+     * @param file
+     *            the file.
+     *
+     * @return true for a .npz file; false for a .npy file.
+     */
+    public static boolean isNpzFile(File file) { return file.getName().toLowerCase().endsWith(".npz"); }
+
+    /**
+     * Exports a whole dataset to a .npy file, or to a .npz archive with a single array named after the
+     * dataset, replacing the file if it exists. The dataset is read from file block by block.
+     *
+     * @param dataset
+     *            the ScalarDS or CompoundDS to export.
+     * @param file
+     *            the .npy or .npz file to write.
+     * @param progress
+     *            called with the number of indices of the first dimension written so far after each
+     *            block; may be null.
+     *
+     * @throws Exception
+     *             if the data can not be read or written, or if its datatype has no NumPy equivalent
+     */
+    public static void exportDataset(Dataset dataset, File file, LongConsumer progress) throws Exception
+    {
+        if (!dataset.isInited())
+            dataset.init();
+
+        long[] dims   = dataset.getDims().clone();
+        Layout layout = Layout.fromDataset(dataset, dims);
+        long written  = 0;
+        try (WritableByteChannel channel = openOutput(dataset, file)) {
+            writeHeader(channel, layout.getDescr(), dims);
+
+            Iterator<Object> blocks = dataset.blockIterator(new long[dims.length], null, dims, 0);
+            while (blocks.hasNext()) {
+                written += writeBlock(channel, layout, blocks.next());
+                if (progress != null)
+                    progress.accept(written / layout.rowSize);
+            }
+        }
+        catch (IllegalStateException ex) {
+            // blockIterator() reports read errors as unchecked exceptions
+            if (ex.getCause() instanceof Exception)
+                throw (Exception)ex.getCause();
+            throw ex;
+        }
+
+        log.trace("exportDataset(): {} records of {} written to {}", written, dataset.getName(), file);
+    }
+
+    /**
+     * Exports data held in memory for the current selection of a dataset, such as the data shown by
+     * a table view, to a .npy file or a .npz archive.
+     *
+     * @param dataset
+     *            the ScalarDS or CompoundDS that the data belongs to.
+     * @param data
+     *            the data of the current selection, as returned by getData().
+     * @param file
+     *            the .npy or .npz file to write.
+     *
+     * @throws Exception
+     *             if the data can not be written, or if its datatype has no NumPy equivalent
+     */
+    public static void exportData(Dataset dataset, Object data, File file) throws Exception
+    {
+        long[] selected = dataset.getSelectedDims().clone();
+        Layout layout   = Layout.fromDataset(dataset, selected);
+        try (WritableByteChannel channel = openOutput(dataset, file)) {
+            writeHeader(channel, layout.getDescr(), selected);
+            writeBlock(channel, layout, data);
+        }
+    }
+
+    /**
+     * Imports the array of a .npy file, or the first array of a .npz archive, into a whole dataset in
+     * file. The array must have the shape of the dataset and the same type, or for a compound dataset
+     * the same fields, as the dataset. The data is written block by block; the data held in memory by
+     * the dataset is not updated.
+     *
+     * @param dataset
+     *            the ScalarDS or CompoundDS to import into.
+     * @param file
+     *            the .npy or .npz file to read.
+     * @param progress
+     *            called with the number of indices of the first dimension written so far after each
+     *            block; may be null.
+     *
+     * @return the number of indices of the first dimension written.
+     *
+     * @throws Exception
+     *             if the file can not be read, does not match the dataset or the data can not be written
+     */
+    public static long importDataset(Dataset dataset, File file, LongConsumer progress) throws Exception
+    {
+        if (!dataset.isInited())
+            dataset.init();
+
+        long[] dims = dataset.getDims().clone();
+
+        return importArray(dataset, file, new long[dims.length], null, dims, progress);
+    }
+
+    /**
+     * Imports the array of a .npy file, or the first array of a .npz archive, into the current
+     * selection of a dataset in file, such as the data shown by a table view. The array must have the
+     * shape of the selection, as exportData() writes it. The data held in memory by the dataset is not
+     * updated.
+     *
+     * @param dataset
+     *            the ScalarDS or CompoundDS to import into.
+     * @param file
+     *            the .npy or .npz file to read.
+     *
+     * @return the number of indices of the first dimension written.
+     *
+     * @throws Exception
+     *             if the file can not be read, does not match the selection or the data can not be
+     *             written
+     */
+    public static long importData(Dataset dataset, File file) throws Exception
+    {
+        if (!dataset.isInited())
+            dataset.init();
+
+        long[] start  = dataset.getStartDims().clone();
+        long[] stride = dataset.getStride().clone();
+        long[] count  = dataset.getSelectedDims().clone();
+
+        return importArray(dataset, file, start, stride, count, null);
+    }
+
+    private static long importArray(Dataset dataset, File file, long[] start, long[] stride, long[] count,
+                                    LongConsumer progress) throws Exception
+    {
+        if ((dataset.getFileFormat() != null) && dataset.getFileFormat().isReadOnly())
+            throw new Exception("cannot write to file opened as read-only");
+
+        Layout layout = Layout.fromDataset(dataset, count);
+
+        if (!isNpzFile(file)) {
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                return importArray(dataset, layout, channel, start, stride, count, progress);
+            }
+        }
+
+        try (ZipFile zip = new ZipFile(file)) {
+            ZipEntry entry = findArray(zip, dataset.getName());
+            if (entry == null)
+                throw new IOException(file.getName() + " does not contain a .npy array");
+
+            try (InputStream in = zip.getInputStream(entry);
+                 ReadableByteChannel channel = Channels.newChannel(in)) {
+                return importArray(dataset, layout, channel, start, stride, count, progress);
+            }
+        }
+    }
+
+    private static WritableByteChannel openOutput(Dataset dataset, File file) throws IOException
+    {
+        if (!isNpzFile(file))
+            return FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+
+        // an archive holds a single array, named after the dataset as numpy.savez() names its arrays
+        ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+        zip.setLevel(Deflater.BEST_SPEED);
+        zip.putNextEntry(new ZipEntry(dataset.getName().replace('/', '_') + ".npy"));
+
+        return Channels.newChannel(zip);
+    }
+
+    /**
+     * Finds the array of an archive named after the dataset, or else its first array.
+     */
+    private static ZipEntry findArray(ZipFile zip, String name)
+    {
+        ZipEntry first = null;
+        Enumeration<? extends ZipEntry> entries = zip.entries();
+        while (entries.hasMoreElements()) {
+            ZipEntry entry = entries.nextElement();
+            if (!entry.getName().endsWith(".npy"))
+                continue;
+            if (entry.getName().equals(name.replace('/', '_') + ".npy"))
+                return entry;
+            if (first == null)
+                first = entry;
+        }
+
+        return first;
+    }
+
+    private static void writeHeader(WritableByteChannel channel, String descr, long[] shape)
+        throws IOException
+    {
+        StringBuilder dict = new StringBuilder(128);
+        dict.append("{'descr': ").append(descr).append(", 'fortran_order': False, 'shape': (");
+        for (int i = 0; i < shape.length; i++)
+            dict.append(shape[i]).append((shape.length == 1) ? "," : (i < shape.length - 1) ? ", " : "");
+        dict.append("), }");
+
+        // version 1.0 has a 2-byte header length and latin-1 text, 2.0 a 4-byte length and 3.0 UTF-8 text
+        boolean isLatin1 = dict.chars().allMatch(c -> c < 256);
+        int prefix       = 10;
+        int total        = align(prefix + dict.length() + 1);
+        if (!isLatin1 || (total - prefix > 0xFFFF))
+            prefix = 12;
+
+        Charset charset = isLatin1 ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8;
+        byte[] text     = dict.toString().getBytes(charset);
+        total           = align(prefix + text.length + 1);
+
+        ByteBuffer header = ByteBuffer.allocate(total).order(ByteOrder.LITTLE_ENDIAN);
+        header.put(MAGIC);
+        header.put((byte)((prefix == 10) ? 1 : isLatin1 ? 2 : 3)).put((byte)0);
+        if (prefix == 10)
+            header.putShort((short)(total - prefix));
+        else
+            header.putInt(total - prefix);
+        header.put(text);
+        while (header.position() < total - 1)
+            header.put((byte)' ');
+        header.put((byte)'\n');
+
+        header.flip();
+        while (header.hasRemaining())
+            channel.write(header);
+    }
+
+    private static int align(int length)
+    {
+        return (length + HEADER_ALIGNMENT - 1) / HEADER_ALIGNMENT * HEADER_ALIGNMENT;
+    }
+
+    /**
+     * Writes one block of data of the selection and returns the number of records written.
+     */
+    private static long writeBlock(WritableByteChannel channel, Layout layout, Object data) throws IOException
+    {
+        if (layout.isScalar()) {
+            DataBuffer buf = toNativeWidth(data, layout.fields[0]);
+            buf.write(channel, ByteOrder.LITTLE_ENDIAN);
+            return buf.size();
+        }
+
+        // byte string members may be held as bytes rather than Strings
+        List<?> members = (List<?>)data;
+        Object first    = members.get(0);
+        Field field0    = layout.fields[0];
+        int valueLength = ((field0.kind == 'S') && (first instanceof byte[])) ? field0.size : 1;
+        int nrecords    = Array.getLength(first) / valueLength / field0.count;
+        ByteBuffer bb   = ByteBuffer.allocateDirect(nrecords * layout.itemSize);
+        bb.order(ByteOrder.LITTLE_ENDIAN);
+
+        for (int m = 0; m < layout.fields.length; m++) {
+            Field field   = layout.fields[m];
+            Object member = members.get(m);
+
+            if (field.kind == 'S') {
+                for (int i = 0; i < nrecords * field.count; i++) {
+                    int pos = field.getPosition(i, layout.itemSize);
+                    byte[] bytes;
+                    if (member instanceof byte[]) {
+                        bytes = new byte[field.size];
+                        System.arraycopy(member, i * field.size, bytes, 0, field.size);
+                    }
+                    else
+                        bytes = String.valueOf(Array.get(member, i)).getBytes(StandardCharsets.UTF_8);
+                    bb.put(pos, bytes, 0, Math.min(bytes.length, field.size));
+                }
+                continue;
+            }
+
+            DataBuffer buf = toNativeWidth(member, field);
+            for (int i = 0; i < nrecords * field.count; i++) {
+                int pos = field.getPosition(i, layout.itemSize);
+                putValue(bb, pos, field.typeClass, buf, i);
+            }
+        }
+
+        while (bb.hasRemaining())
+            channel.write(bb);
+
+        return nrecords;
+    }
+
+    /**
+     * Wraps a primitive buffer, converting unsigned integers widened by the read back to their width.
+     */
+    private static DataBuffer toNativeWidth(Object data, Field field)
+    {
+        DataBuffer buf = DataBuffer.wrap(data);
+        if ((buf != null) && (field.kind == 'u') && (buf.getElementSize() > field.size))
+            buf = DataBuffer.wrap(Dataset.convertToUnsignedC(data, null));
+        if ((buf == null) || (buf.getElementSize() != field.size))
+            throw new UnsupportedOperationException("unexpected data buffer for NumPy type " +
+                                                    field.getCode());
+
+        return buf;
+    }
+
+    private static void putValue(ByteBuffer bb, int pos, char typeClass, DataBuffer buf, int index)
+    {
+        switch (typeClass) {
+        case 'B':
+            bb.put(pos, (byte)buf.getLong(index));
+            break;
+        case 'S':
+            bb.putShort(pos, (short)buf.getLong(index));
+            break;
+        case 'I':
+            bb.putInt(pos, (int)buf.getLong(index));
+            break;
+        case 'J':
+            bb.putLong(pos, buf.getLong(index));
+            break;
+        case 'F':
+            bb.putFloat(pos, (float)buf.getDouble(index));
+            break;
+        default:
+            bb.putDouble(pos, buf.getDouble(index));
+            break;
+        }
+    }
+
+    /**
+     * Imports an array into the hyperslab of the given start, stride and count, which the shape of
+     * the array must match.
+     */
+    private static long importArray(Dataset dataset, Layout layout, ReadableByteChannel channel,
+                                    long[] start, long[] stride, long[] count, LongConsumer progress)
+        throws Exception
+    {
+        Map<?, ?> header = readHeader(channel);
+        if (Boolean.TRUE.equals(header.get("fortran_order")))
+            throw new UnsupportedOperationException("arrays in Fortran order are not supported");
+
+        Layout fileLayout = Layout.fromDescr(header.get("descr"));
+        if (!layout.matches(fileLayout))
+            throw new IllegalArgumentException("the array type " + fileLayout.getDescr() +
+                                               " does not match the dataset type " + layout.getDescr());
+
+        List<?> shape = (List<?>)header.get("shape");
+        boolean match = (shape.size() == count.length);
+        for (int i = 0; match && (i < count.length); i++)
+            match = (((Number)shape.get(i)).longValue() == count[i]);
+        if (!match)
+            throw new IllegalArgumentException("the array shape " + shape +
+                                               " does not match the dataset shape " + Arrays.toString(count));
+
+        long[] blockStart = start.clone();
+        long[] blockCount = count.clone();
+        long rowStride    = (stride == null) ? 1 : stride[0];
+        long totalRows    = count[0];
+        long blockRows    = Math.max(1, Math.min(dataset.getDefaultBlockSize(),
+                                                 Integer.MAX_VALUE / (layout.rowSize * layout.itemSize)));
+        ByteBuffer bytes  = null;
+
+        long row = 0;
+        while (row < totalRows) {
+            blockCount[0] = Math.min(blockRows, totalRows - row);
+            blockStart[0] = start[0] + row * rowStride;
+            int nblock    = (int)(blockCount[0] * layout.rowSize);
+            int nbytes = nblock * fileLayout.itemSize;
+            if ((bytes == null) || (bytes.capacity() < nbytes))
+                bytes = ByteBuffer.allocateDirect(nbytes);
+            bytes.clear().limit(nbytes);
+            readFully(channel, bytes);
+            bytes.flip();
+
+            Object data;
+            if (layout.isScalar()) {
+                Field field = fileLayout.fields[0];
+                data        = DataBuffer.allocate(layout.fields[0].typeClass, nblock).array();
+                DataBuffer.wrap(data).put(0, nblock, bytes.order(field.byteOrder));
+            }
+            else
+                data = readRecords(bytes, fileLayout, nblock);
+
+            dataset.writeBlock(blockStart, stride, blockCount, data);
+
+            row += blockCount[0];
+            if (progress != null)
+                progress.accept(row);
+        }
+
+        log.trace("importArray(): {} rows of {} imported", row, dataset.getName());
+
+        return row;
+    }
+
+    /**
+     * Decodes the members of a block of records into the arrays which CompoundDS.write() takes.
+     */
+    private static List<Object> readRecords(ByteBuffer bytes, Layout fileLayout, int nrecords)
+    {
+        List<Object> members = new ArrayList<>(fileLayout.fields.length);
+        for (Field field : fileLayout.fields) {
+            int n = nrecords * field.count;
+            bytes.order(field.byteOrder);
+
+            if (field.kind == 'S') {
+                String[] strings = new String[n];
+                byte[] scratch   = new byte[field.size];
+                for (int i = 0; i < n; i++) {
+                    int pos = field.getPosition(i, fileLayout.itemSize);
+                    bytes.get(pos, scratch);
+                    int length = 0;
+                    while ((length < field.size) && (scratch[length] != 0))
+                        length++;
+                    strings[i] = new String(scratch, 0, length, StandardCharsets.UTF_8);
+                }
+                members.add(strings);
+                continue;
+            }
+
+            DataBuffer buf = DataBuffer.allocate(field.typeClass, n);
+            for (int i = 0; i < n; i++) {
+                int pos = field.getPosition(i, fileLayout.itemSize);
+                switch (field.typeClass) {
+                case 'B':
+                    buf.setLong(i, bytes.get(pos));
+                    break;
+                case 'S':
+                    buf.setLong(i, bytes.getShort(pos));
+                    break;
+                case 'I':
+                    buf.setLong(i, bytes.getInt(pos));
+                    break;
+                case 'J':
+                    buf.setLong(i, bytes.getLong(pos));
+                    break;
+                case 'F':
+                    buf.setDouble(i, bytes.getFloat(pos));
+                    break;
+                default:
+                    buf.setDouble(i, bytes.getDouble(pos));
+                    break;
+                }
+            }
+            members.add(buf.array());
+        }
+
+        return members;
+    }
+
+    private static void readFully(ReadableByteChannel channel, ByteBuffer bb) throws IOException
+    {
+        while (bb.hasRemaining()) {
+            if (channel.read(bb) < 0)
+                throw new EOFException("unexpected end of the .npy data");
+        }
+    }
+
+    private static Map<?, ?> readHeader(ReadableByteChannel channel) throws IOException
+    {
+        ByteBuffer prefix = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(channel, prefix);
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (prefix.get(i) != MAGIC[i])
+                throw new IOException("not a NumPy .npy file");
+        }
+
+        int major            = prefix.get(6);
+        ByteBuffer lengthBuf = ByteBuffer.allocate((major == 1) ? 2 : 4).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(channel, lengthBuf);
+        int length = (major == 1) ? (lengthBuf.getShort(0) & 0xFFFF) : lengthBuf.getInt(0);
+
+        ByteBuffer text = ByteBuffer.allocate(length);
+        readFully(channel, text);
+        Charset charset = (major >= 3) ? StandardCharsets.UTF_8 : StandardCharsets.ISO_8859_1;
+
+        Object header = new LiteralParser(new String(text.array(), charset)).parse();
+        if (!(header instanceof Map) || !(((Map<?, ?>)header).get("shape") instanceof List))
+            throw new IOException("invalid .npy header");
+
+        return (Map<?, ?>)header;
+    }
+
+    /** One field of a record: the whole value of a scalar dataset or one member of a compound one. */
+    private static final class Field {
+        final String name;
+
+        /** The NumPy kind: i, u, f or S. */
+        final char kind;
+
+        /** The size in bytes of one value. */
+        final int size;
+
+        /** The number of values of the field in each record. */
+        final int count;
+
+        final ByteOrder byteOrder;
+
+        /** The type class of the Java primitive which holds the values, see DataBuffer.getTypeClass(). */
+        final char typeClass;
+
+        /** The byte offset of the field in a record. */
+        int offset;
+
+        Field(String name, char kind, int size, int count, ByteOrder byteOrder)
+        {
+            this.name      = name;
+            this.kind      = kind;
+            this.size      = size;
+            this.count     = count;
+            this.byteOrder = byteOrder;
+            this.typeClass = getTypeClass(kind, size);
+        }
+
+        /** Float16 values are held in shorts, as they are read from file. */
+        private static char getTypeClass(char kind, int size)
+        {
+            if (kind == 'S')
+                return ' ';
+            if ((kind == 'f') && (size == 4))
+                return 'F';
+            if ((kind == 'f') && (size == 8))
+                return 'D';
+
+            switch (size) {
+            case 1:
+                return 'B';
+            case 2:
+                return 'S';
+            case 4:
+                return 'I';
+            default:
+                return 'J';
+            }
+        }
+
+        /** Returns the byte position in a block of records of the value at an index of the field. */
+        int getPosition(int index, int itemSize)
+        {
+            return (index / count) * itemSize + offset + (index % count) * size;
+        }
+
+        String getCode() { return (((kind == 'S') || (size == 1)) ? "|" : "<") + kind + size; }
+    }
+
+    /** The record layout of a dataset or of a .npy array. */
+    private static final class Layout {
+        final Field[] fields;
+
+        /** The size in bytes of a record. */
+        final int itemSize;
+
+        /** The number of records for each index of the first dimension. */
+        long rowSize = 1;
+
+        /** Whether the array has a plain type rather than a structured one. */
+        private final boolean isPlain;
+
+        Layout(Field[] fields, boolean isPlain)
+        {
+            this.fields  = fields;
+            this.isPlain = isPlain;
+
+            int offset = 0;
+            for (Field field : fields) {
+                field.offset = offset;
+                offset += field.size * field.count;
+            }
+            itemSize = offset;
+        }
+
+        boolean isScalar() { return isPlain; }
+
+        /**
+         * Builds the layout of a dataset for an array of the given shape.
+         */
+        static Layout fromDataset(Dataset dataset, long[] shape)
+        {
+            Field[] fields;
+            if (dataset instanceof ScalarDS) {
+                fields = new Field[] {toField(null, dataset.getDatatype(), 1)};
+                if (fields[0].kind == 'S')
+                    throw new UnsupportedOperationException(
+                        "String datasets can not be saved as NumPy arrays");
+            }
+            else if (dataset instanceof CompoundDS) {
+                CompoundDS compound = (CompoundDS)dataset;
+                String[] names      = compound.getSelectedMemberNames();
+                Datatype[] types    = compound.getSelectedMemberTypes();
+                int[] orders        = compound.getSelectedMemberOrders();
+                fields              = new Field[names.length];
+                for (int m = 0; m < names.length; m++) {
+                    Datatype type = types[m].isArray() ? types[m].getDatatypeBase() : types[m];
+                    fields[m] = toField(names[m].replace(CompoundDS.SEPARATOR, "."), type, orders[m]);
+                }
+            }
+            else
+                throw new UnsupportedOperationException(
+                    "Only scalar and compound datasets can be saved as NumPy arrays");
+
+            Layout layout = new Layout(fields, dataset instanceof ScalarDS);
+
+            for (int i = 1; i < shape.length; i++)
+                layout.rowSize *= shape[i];
+
+            return layout;
+        }
+
+        private static Field toField(String name, Datatype type, int count)
+        {
+            int size = (int)type.getDatatypeSize();
+            char kind;
+            if (type.isInteger() && ((size == 1) || (size == 2) || (size == 4) || (size == 8)))
+                kind = type.isUnsigned() ? 'u' : 'i';
+            else if (type.isFloat() && ((size == 2) || (size == 4) || (size == 8)))
+                kind = 'f';
+            else if (type.isString() && !type.isVarStr() && (size > 0))
+                kind = 'S';
+            else
+                throw new UnsupportedOperationException(type.getDescription() +
+                                                        ((name == null) ? "" : " member " + name) +
+                                                        " has no NumPy equivalent");
+
+            return new Field(name, kind, size, count, ByteOrder.LITTLE_ENDIAN);
+        }
+
+        /**
+         * Builds the layout of the 'descr' entry of a .npy header: a type code such as '&lt;f8', or a
+         * list of fields such as [('x', '&lt;i4'), ('v', '&lt;f8', (3,))].
+         */
+        static Layout fromDescr(Object descr)
+        {
+            if (descr instanceof String)
+                return new Layout(new Field[] {parseField(null, (String)descr, 1)}, true);
+
+            List<?> list   = (List<?>)descr;
+            Field[] fields = new Field[list.size()];
+            for (int i = 0; i < fields.length; i++) {
+                List<?> entry = (List<?>)list.get(i);
+                if (!(entry.get(1) instanceof String))
+                    throw new UnsupportedOperationException("nested structured types are not supported");
+
+                int count = 1;
+                if (entry.size() > 2) {
+                    for (Object dim : (List<?>)entry.get(2))
+                        count *= ((Number)dim).intValue();
+                }
+                fields[i] = parseField((String)entry.get(0), (String)entry.get(1), count);
+            }
+
+            return new Layout(fields, false);
+        }
+
+        private static Field parseField(String name, String code, int count)
+        {
+            ByteOrder order = ByteOrder.nativeOrder();
+            int i           = 0;
+            if ((code.charAt(0) == '<') || (code.charAt(0) == '|'))
+                order = ByteOrder.LITTLE_ENDIAN;
+            else if (code.charAt(0) == '>')
+                order = ByteOrder.BIG_ENDIAN;
+            if ("<>|=".indexOf(code.charAt(0)) >= 0)
+                i++;
+
+            char kind = code.charAt(i);
+            int size  = Integer.parseInt(code.substring(i + 1));
+            if (kind == 'b')
+                kind = 'u';
+            if (("iufS".indexOf(kind) < 0) || ((kind != 'S') && (Integer.bitCount(size) != 1 || size > 8)))
+                throw new UnsupportedOperationException("NumPy type " + code + " is not supported");
+
+            return new Field(name, kind, size, count, order);
+        }
+
+        /**
+         * Returns true if an array with the given layout can be imported into this layout: the fields
+         * have the same kinds, sizes and counts, except that byte strings may differ in length.
+         */
+        boolean matches(Layout other)
+        {
+            if ((isPlain != other.isPlain) || (fields.length != other.fields.length))
+                return false;
+
+            for (int i = 0; i < fields.length; i++) {
+                Field a = fields[i];
+                Field b = other.fields[i];
+                if ((a.kind != b.kind) || (a.count != b.count) || ((a.kind != 'S') && (a.size != b.size)))
+                    return false;
+            }
+
+            return true;
+        }
+
+        String getDescr()
+        {
+            if (isPlain)
+                return "'" + fields[0].getCode() + "'";
+
+            StringBuilder sb = new StringBuilder("[");
+            for (int i = 0; i < fields.length; i++) {
+                Field field = fields[i];
+                String name = (field.name == null) ? "f" + i : field.name;
+                sb.append((i > 0) ? ", " : "").append("('");
+                sb.append(name.replace("\\", "\\\\").replace("'", "\\'"));
+                sb.append("', '").append(field.getCode());
+                sb.append((field.count > 1) ? "', (" + field.count + ",))" : "')");
+            }
+
+            return sb.append(']').toString();
+        }
+    }
+
+    /**
+     * Parses the Python literal of a .npy header: a dict of strings, integers, booleans, lists and
+     * tuples. Tuples are returned as lists.
+     */
+    private static final class LiteralParser {
+        private final String text;
+
+        private int pos = 0;
+
+        LiteralParser(String text) { this.text = text; }
+
+        Object parse()
+        {
+            skipSpaces();
+            if (pos >= text.length())
+                throw error();
+
+            char c = text.charAt(pos);
+            if (c == '{') {
+                Map<Object, Object> map = new LinkedHashMap<>();
+                pos++;
+                while (!consume('}')) {
+                    Object key = parse();
+                    if (!consume(':'))
+                        throw error();
+                    map.put(key, parse());
+                    if (!consume(',') && !peek('}'))
+                        throw error();
+                }
+                return map;
+            }
+            if ((c == '[') || (c == '(')) {
+                char close        = (c == '[') ? ']' : ')';
+                List<Object> list = new ArrayList<>();
+                pos++;
+                while (!consume(close)) {
+                    list.add(parse());
+                    if (!consume(',') && !peek(close))
+                        throw error();
+                }
+                return list;
+            }
+            if ((c == '\'') || (c == '"')) {
+                StringBuilder sb = new StringBuilder();
+                pos++;
+                while ((pos < text.length()) && (text.charAt(pos) != c)) {
+                    if ((text.charAt(pos) == '\\') && (pos + 1 < text.length()))
+                        pos++;
+                    sb.append(text.charAt(pos++));
+                }
+                pos++;
+                return sb.toString();
+            }
+
+            int start = pos;
+            while ((pos < text.length()) &&
+                   (Character.isLetterOrDigit(text.charAt(pos)) || (text.charAt(pos) == '-')))
+                pos++;
+            String token = text.substring(start, pos);
+            switch (token) {
+            case "True":
+                return Boolean.TRUE;
+            case "False":
+                return Boolean.FALSE;
+            case "None":
+                return null;
+            default:
+                try {
+                    return Long.valueOf(token.endsWith("L") ? token.substring(0, token.length() - 1) : token);
+                }
+                catch (NumberFormatException ex) {
+                    throw error();
+                }
+            }
+        }
+
+        private void skipSpaces()
+        {
+            while ((pos < text.length()) && Character.isWhitespace(text.charAt(pos)))
+                pos++;
+        }
+
+        private boolean peek(char c)
+        {
+            skipSpaces();
+            return (pos < text.length()) && (text.charAt(pos) == c);
+        }
+
+        private boolean consume(char c)
+        {
+            if (!peek(c))
+                return false;
+            pos++;
+            return true;
+        }
+
+        private IllegalArgumentException error()
+        {
+            return new IllegalArgumentException("invalid .npy header at position " + pos + ": " +
+                                                text.trim());
+        }
+    }
+}
@@ -0,0 +1,673 @@
+/*****************************************************************************
+ * Copyright by The HDF Group.                                               *
+ * All rights reserved.                                                      *
+ *                                                                           *
+ * This file is part of the HDF Java Products distribution.                  *
+ * The full copyright notice, including terms governing use, modification,   *
+ * and redistribution, is contained in the COPYING file, which can be found  *
+ * at the root of the source code distribution tree,                         *
+ * or in https://www.hdfgroup.org/licenses.                                  *
+ * If you do not have access to either file, you may request a copy from     *
+ * help@hdfgroup.org.                                                        *
+ ****************************************************************************/
+
+package hdf.view;
+
+import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+import hdf.object.CompoundDS;
+import hdf.object.DataBuffer;
+import hdf.object.Dataset;
+import hdf.object.Datatype;
+import hdf.object.ScalarDS;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Finds the data points of a dataset whose values match a criterion: a value, a range of values, NaN or
+ * the fill value of the dataset.
+ *
+ * The whole extent of the dataset is searched, not only the current selection, by reading blocks of its
+ * first dimension with {@link Dataset#blockIterator(long[], long[], long[], long)}, which reads through a
+ * selection of its own so that the selection shown in a table is neither used nor changed. Of a compound
+ * dataset, the selected numeric members are searched.
+ *
+ * Blocks are read in order by the calling thread and scanned in parallel by a pool of worker threads;
+ * the matches of each block are passed to the listener on the calling thread, in row-major order of the
+ * dataset, as soon as the block and the blocks before it are scanned. A search can be cancelled from any
+ * thread.
+ *
+ * <pre>
+ * DatasetSearcher searcher = new DatasetSearcher(dataset);
+ * searcher.search(DatasetSearcher.Criterion.between(0, 1),
+ *                 match -&gt; System.out.println(Arrays.toString(match.getCoordinates())), null);
+ * </pre>
+ */
+public class DatasetSearcher {
+    private static final Logger log = LoggerFactory.getLogger(DatasetSearcher.class);
+
+    /** The default largest number of matches passed to the listener by a search. */
+    public static final long DEFAULT_MAX_MATCHES = 100000;
+
+    private final Dataset dataset;
+
+    private int nThreads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+
+    private long maxMatches = DEFAULT_MAX_MATCHES;
+
+    private long blockSize = 0;
+
+    private volatile boolean isCancelled = false;
+
+    /** The dimension sizes of the dataset when the search started. */
+    private long[] dims;
+
+    /** The number of data points for each index of the first dimension. */
+    private long rowSize;
+
+    /**
+     * What a search looks for. Integer values are compared as longs against the bounds rounded to the
+     * integers inside them, so that 64-bit values are compared exactly; for 32-bit floats the value
+     * searched for is rounded to a float first, so that the float nearest to it is found.
+     */
+    public static final class Criterion {
+        private enum Kind { EQUAL, RANGE, NAN, FILL }
+
+        /** The largest unsigned 64-bit value. */
+        private static final BigDecimal UINT64_MAX = new BigDecimal("18446744073709551615");
+
+        private final Kind kind;
+        private final double min;
+        private final double max;
+
+        /** The exact bounds of EQUAL and RANGE, or null for a bound that is not a finite number. */
+        private final BigDecimal exactMin;
+        private final BigDecimal exactMax;
+
+        /** The bounds for integer values set by forBuffer(); unsigned values are compared unsigned. */
+        private boolean isInteger  = false;
+        private boolean isUnsigned = false;
+        private long longMin;
+        private long longMax;
+
+        private Criterion(Kind kind, double min, double max)
+        {
+            this(kind, min, max, toExact(min), toExact(max));
+        }
+
+        private Criterion(Kind kind, double min, double max, BigDecimal exactMin, BigDecimal exactMax)
+        {
+            this.kind     = kind;
+            this.min      = min;
+            this.max      = max;
+            this.exactMin = exactMin;
+            this.exactMax = exactMax;
+        }
+
+        /**
+         * Matches values equal to a value.
+         *
+         * @param value
+         *            the value to find.
+         *
+         * @return the criterion.
+         */
+        public static Criterion equalTo(double value) { return new Criterion(Kind.EQUAL, value, value); }
+
+        /**
+         * Matches values equal to a value given exactly, such as a 64-bit integer that a double can not
+         * hold.
+         *
+         * @param value
+         *            the value to find.
+         *
+         * @return the criterion.
+         */
+        public static Criterion equalTo(BigDecimal value)
+        {
+            return new Criterion(Kind.EQUAL, value.doubleValue(), value.doubleValue(), value, value);
+        }
+
+        /**
+         * Matches values in a closed range.
+         *
+         * @param min
+         *            the smallest value to find.
+         * @param max
+         *            the largest value to find.
+         *
+         * @return the criterion.
+         */
+        public static Criterion between(double min, double max)
+        {
+            return new Criterion(Kind.RANGE, Math.min(min, max), Math.max(min, max));
+        }
+
+        /**
+         * Matches values in a closed range given exactly.
+         *
+         * @param min
+         *            the smallest value to find.
+         * @param max
+         *            the largest value to find.
+         *
+         * @return the criterion.
+         */
+        public static Criterion between(BigDecimal min, BigDecimal max)
+        {
+            BigDecimal lo = min.min(max);
+            BigDecimal hi = min.max(max);
+            return new Criterion(Kind.RANGE, lo.doubleValue(), hi.doubleValue(), lo, hi);
+        }
+
+        /**
+         * Matches NaN values.
+         *
+         * @return the criterion.
+         */
+        public static Criterion isNaN() { return new Criterion(Kind.NAN, Double.NaN, Double.NaN); }
+
+        /**
+         * Matches the fill value of the dataset.
+         *
+         * @return the criterion.
+         */
+        public static Criterion isFillValue() { return new Criterion(Kind.FILL, Double.NaN, Double.NaN); }
+
+        private static BigDecimal toExact(double value)
+        {
+            return (Double.isNaN(value) || Double.isInfinite(value)) ? null : new BigDecimal(value);
+        }
+
+        /** Returns the criterion for the values of a buffer of a datatype. */
+        Criterion forBuffer(DataBuffer buf, Datatype dtype)
+        {
+            char typeClass = isFloat16(dtype) ? 'F' : buf.getTypeClass();
+            if (((kind != Kind.EQUAL) && (kind != Kind.RANGE)) || (typeClass == 'D'))
+                return this;
+
+            if (typeClass == 'F')
+                return new Criterion(kind, (float)min, (float)max);
+
+            Criterion test  = new Criterion(kind, min, max, exactMin, exactMax);
+            test.isInteger  = true;
+            test.isUnsigned = buf.isUnsigned();
+
+            BigDecimal lowest  = test.isUnsigned ? BigDecimal.ZERO : BigDecimal.valueOf(Long.MIN_VALUE);
+            BigDecimal highest = test.isUnsigned ? UINT64_MAX : BigDecimal.valueOf(Long.MAX_VALUE);
+            BigDecimal lo      = lowest;
+            BigDecimal hi      = highest;
+            if (exactMin != null)
+                lo = exactMin.setScale(0, RoundingMode.CEILING).max(lowest);
+            if (exactMax != null)
+                hi = exactMax.setScale(0, RoundingMode.FLOOR).min(highest);
+            if (Double.isNaN(min) || Double.isNaN(max) || (lo.compareTo(hi) > 0)) {
+                // no integer is in the range
+                test.longMin = 1;
+                test.longMax = 0;
+            }
+            else {
+                test.longMin = lo.toBigInteger().longValue();
+                test.longMax = hi.toBigInteger().longValue();
+            }
+
+            return test;
+        }
+
+        /** Returns true if the value at an index of a buffer matches. */
+        boolean test(DataBuffer buf, int index, Datatype dtype)
+        {
+            if (isInteger) {
+                long value = buf.getLong(index);
+                if (isUnsigned)
+                    return (Long.compareUnsigned(value, longMin) >= 0) &&
+                           (Long.compareUnsigned(value, longMax) <= 0);
+                return (value >= longMin) && (value <= longMax);
+            }
+
+            return test(getValue(buf, index, dtype));
+        }
+
+        boolean test(double value)
+        {
+            switch (kind) {
+            case NAN:
+                return Double.isNaN(value);
+            default:
+                return (value >= min) && (value <= max);
+            }
+        }
+
+        @Override
+        public String toString()
+        {
+            switch (kind) {
+            case EQUAL:
+                return "= " + format(exactMin, min);
+            case RANGE:
+                return "in [" + format(exactMin, min) + ", " + format(exactMax, max) + "]";
+            case NAN:
+                return "NaN";
+            default:
+                return "fill value";
+            }
+        }
+
+        /** Formats a bound, with integers written in full. */
+        private static String format(BigDecimal exact, double value)
+        {
+            if ((exact != null) && (exact.stripTrailingZeros().scale() <= 0))
+                return exact.toBigInteger().toString();
+
+            return String.valueOf(value);
+        }
+    }
+
+    /** A data point whose value matches the criterion of a search. */
+    public static final class Match {
+        private final long[] coordinates;
+        private final int member;
+        private final double value;
+
+        Match(long[] coordinates, int member, double value)
+        {
+            this.coordinates = coordinates;
+            this.member      = member;
+            this.value       = value;
+        }
+
+        /**
+         * Returns the coordinates of the data point in the dataset.
+         *
+         * @return the index of each dimension.
+         */
+        public long[] getCoordinates() { return coordinates; }
+
+        /**
+         * Returns the index of the matching member in the selected members of a compound dataset.
+         *
+         * @return the member index, or -1 for a scalar dataset.
+         */
+        public int getMember() { return member; }
+
+        /**
+         * Returns the matching value.
+         *
+         * @return the value.
+         */
+        public double getValue() { return value; }
+    }
+
+    /**
+     * Creates a searcher for a dataset.
+     *
+     * @param dataset
+     *            the ScalarDS or CompoundDS to search; scalar datasets must have an integer or
+     *            floating-point datatype.
+     */
+    public DatasetSearcher(Dataset dataset)
+    {
+        if (!(dataset instanceof ScalarDS) && !(dataset instanceof CompoundDS))
+            throw new IllegalArgumentException("Only scalar and compound datasets can be searched");
+
+        this.dataset = dataset;
+    }
+
+    /**
+     * Sets the number of threads which scan blocks for matches.
+     *
+     * @param nThreads
+     *            the number of scanning threads; the default is one less than the number of processors.
+     */
+    public void setThreadCount(int nThreads) { this.nThreads = Math.max(1, nThreads); }
+
+    /**
+     * Sets the largest number of matches that a search passes to its listener before it stops.
+     *
+     * @param maxMatches
+     *            the largest number of matches; the default is {@link #DEFAULT_MAX_MATCHES}.
+     */
+    public void setMaxMatches(long maxMatches) { this.maxMatches = Math.max(1, maxMatches); }
+
+    /**
+     * Sets the number of indices of the first dimension read and scanned at a time.
+     *
+     * @param blockSize
+     *            the block size, or 0 for the chunk size of the first dimension of chunked datasets and
+     *            blocks of a few megabytes otherwise.
+     */
+    public void setBlockSize(long blockSize) { this.blockSize = Math.max(0, blockSize); }
+
+    /** Stops a running search after the block being read; it can be called from any thread. */
+    public void cancel() { isCancelled = true; }
+
+    /**
+     * Returns the number of indices of the first dimension that search() reads, which is the total
+     * reported to its progress listener.
+     *
+     * @return the size of the first dimension.
+     */
+    public long getTotalRows()
+    {
+        if (!dataset.isInited())
+            dataset.init();
+
+        return dataset.getDims()[0];
+    }
+
+    /**
+     * Searches the dataset for values which match a criterion.
+     *
+     * @param criterion
+     *            what to find.
+     * @param listener
+     *            called on the calling thread with each match.
+     * @param progress
+     *            called on the calling thread with the number of indices of the first dimension
+     *            searched so far after each block; may be null.
+     *
+     * @return the number of matches passed to the listener.
+     *
+     * @throws Exception
+     *             if the data can not be read, or it has no numeric values to search
+     */
+    public long search(Criterion criterion, Consumer<Match> listener, LongConsumer progress) throws Exception
+    {
+        if (!dataset.isInited())
+            dataset.init();
+
+        if (dataset.getRank() < 1)
+            throw new UnsupportedOperationException(dataset.getName() + " has no dimensions to search");
+
+        isCancelled        = false;
+        Datatype[] types   = getTypes();
+        Criterion resolved = criterion;
+        if (criterion.kind == Criterion.Kind.FILL) {
+            Object fill = (dataset instanceof ScalarDS) ? dataset.getFillValue() : null;
+            if ((fill == null) || !fill.getClass().isArray() || (Array.getLength(fill) == 0))
+                throw new UnsupportedOperationException(dataset.getName() + " has no fill value");
+
+            DataBuffer fillBuf = wrap(fill, types[0]);
+            char typeClass     = isFloat16(types[0]) ? 'F' : fillBuf.getTypeClass();
+            if ((typeClass != 'F') && (typeClass != 'D')) {
+                long fillValue = fillBuf.getLong(0);
+                resolved       = Criterion.equalTo(fillBuf.isUnsigned()
+                                                       ? new BigDecimal(Long.toUnsignedString(fillValue))
+                                                       : BigDecimal.valueOf(fillValue));
+            }
+            else {
+                double fillValue = getValue(fillBuf, 0, types[0]);
+                resolved = Double.isNaN(fillValue) ? Criterion.isNaN() : Criterion.equalTo(fillValue);
+            }
+        }
+
+        ExecutorService workers = Executors.newFixedThreadPool(nThreads, r -> {
+            Thread t = new Thread(r, "hdf-view-search");
+            t.setDaemon(true);
+            return t;
+        });
+
+        // bounds the number of blocks held in memory while waiting to be reported
+        final int maxPending                = 2 * nThreads;
+        Deque<Future<BlockMatches>> pending = new ArrayDeque<>();
+        final Criterion test                = resolved;
+        long matches                        = 0;
+
+        int rank = dataset.getRank();
+        dims     = dataset.getDims().clone();
+        rowSize  = 1;
+        for (int i = 1; i < rank; i++)
+            rowSize *= dims[i];
+
+        try {
+            long blockRows          = getBlockRows();
+            Iterator<Object> blocks = dataset.blockIterator(new long[rank], null, dims, blockRows);
+            long next               = 0;
+            while (blocks.hasNext() && !isCancelled && (matches < maxMatches)) {
+                final long first  = next;
+                final long rows   = Math.min(blockRows, dims[0] - first);
+                final Object data = blocks.next();
+                next += rows;
+                pending.add(workers.submit(() -> scanBlock(data, first, rows, types, test)));
+
+                if (pending.size() >= maxPending)
+                    matches = report(pending.poll(), listener, progress, matches);
+            }
+
+            while (!pending.isEmpty() && !isCancelled && (matches < maxMatches))
+                matches = report(pending.poll(), listener, progress, matches);
+        }
+        catch (IllegalStateException ex) {
+            // blockIterator() reports read errors as unchecked exceptions
+            if (ex.getCause() instanceof Exception)
+                throw (Exception)ex.getCause();
+            throw ex;
+        }
+        finally {
+            workers.shutdownNow();
+        }
+
+        log.trace("search(): {} matches of {} in {}", matches, criterion, dataset.getName());
+
+        return matches;
+    }
+
+    /**
+     * Returns the datatype of each member searched: the datatype of a scalar dataset, or the base
+     * datatypes of the selected members of a compound dataset, with null for non-numeric members.
+     */
+    private Datatype[] getTypes()
+    {
+        Datatype[] types;
+        if (dataset instanceof CompoundDS) {
+            Datatype[] memberTypes = ((CompoundDS)dataset).getSelectedMemberTypes();
+            types                  = new Datatype[memberTypes.length];
+            for (int m = 0; m < types.length; m++) {
+                Datatype type = memberTypes[m].isArray() ? memberTypes[m].getDatatypeBase() : memberTypes[m];
+                types[m]      = (type.isInteger() || type.isFloat()) ? type : null;
+            }
+        }
+        else
+            types = new Datatype[] {dataset.getDatatype()};
+
+        for (Datatype type : types) {
+            if ((type != null) && (type.isInteger() || type.isFloat()))
+                return types;
+        }
+
+        throw new UnsupportedOperationException(dataset.getName() + " has no numeric values to search");
+    }
+
+    /**
+     * Returns the number of indices of the first dimension read at a time: the block size if set,
+     * otherwise the chunk size of the first dimension for chunked datasets or blocks of a few
+     * megabytes, larger than those of Dataset.getDefaultBlockSize() since a block is scanned rather
+     * than held.
+     */
+    private long getBlockRows()
+    {
+        if (blockSize > 0)
+            return blockSize;
+
+        long[] chunk = dataset.getChunkSize();
+        if ((chunk != null) && (chunk[0] > 0))
+            return chunk[0];
+
+        return Math.max(1, 4 * Dataset.DEFAULT_BLOCK_BYTES /
+                               Math.max(1, rowSize * dataset.getDatatype().getDatatypeSize()));
+    }
+
+    /** The matches found in one block: the record index in the block and the member of each match. */
+    private static final class BlockMatches {
+        final long firstRow;
+        final long rows;
+        long[] records  = new long[16];
+        int[] members   = new int[16];
+        double[] values = new double[16];
+        int size        = 0;
+
+        BlockMatches(long firstRow, long rows)
+        {
+            this.firstRow = firstRow;
+            this.rows     = rows;
+        }
+
+        void add(long record, int member, double value)
+        {
+            if (size == records.length) {
+                records = Arrays.copyOf(records, 2 * size);
+                members = Arrays.copyOf(members, 2 * size);
+                values  = Arrays.copyOf(values, 2 * size);
+            }
+            records[size]  = record;
+            members[size]  = member;
+            values[size++] = value;
+        }
+    }
+
+    private BlockMatches scanBlock(Object data, long firstRow, long rows, Datatype[] types,
+                                   Criterion criterion)
+    {
+        List<?> members   = (dataset instanceof CompoundDS) ? (List<?>)data : null;
+        int nmembers      = types.length;
+        DataBuffer[] bufs = new DataBuffer[nmembers];
+        int[] orders      = new int[nmembers];
+        int nrecords      = 0;
+        for (int m = 0; m < nmembers; m++) {
+            Object values = (members != null) ? members.get(m) : data;
+            if (types[m] != null)
+                bufs[m] = wrap(values, types[m]);
+            if (m == 0) {
+                int length = (bufs[0] != null) ? bufs[0].size()
+                             : (values instanceof List) ? ((List<?>)values).size() : Array.getLength(values);
+                orders[0]  = (members != null) ? ((CompoundDS)dataset).getSelectedMemberOrders()[0] : 1;
+                nrecords   = length / Math.max(1, orders[0]);
+            }
+            else
+                orders[m] = ((CompoundDS)dataset).getSelectedMemberOrders()[m];
+        }
+
+        BlockMatches found = new BlockMatches(firstRow, rows);
+        for (int m = 0; m < nmembers; m++) {
+            if (bufs[m] == null)
+                continue;
+
+            Criterion test = criterion.forBuffer(bufs[m], types[m]);
+            int n          = Math.min(bufs[m].size(), nrecords * Math.max(1, orders[m]));
+            for (int i = 0; i < n; i++) {
+                if (test.test(bufs[m], i, types[m]))
+                    found.add(i / Math.max(1, orders[m]), (members != null) ? m : -1,
+                              getValue(bufs[m], i, types[m]));
+            }
+        }
+
+        // the matches of compound members are reported in record order
+        if ((members != null) && (found.size > 1))
+            sortByRecord(found);
+
+        return found;
+    }
+
+    private long report(Future<BlockMatches> future, Consumer<Match> listener, LongConsumer progress,
+                        long matches) throws Exception
+    {
+        BlockMatches found;
+        try {
+            found = future.get();
+        }
+        catch (ExecutionException ex) {
+            if (ex.getCause() instanceof Exception)
+                throw (Exception)ex.getCause();
+            throw ex;
+        }
+
+        for (int i = 0; (i < found.size) && (matches < maxMatches) && !isCancelled; i++) {
+            listener.accept(new Match(toCoordinates(found.firstRow, found.records[i]), found.members[i],
+                                      found.values[i]));
+            matches++;
+        }
+
+        if (progress != null)
+            progress.accept(found.firstRow + found.rows);
+
+        return matches;
+    }
+
+    /** Converts the index of a record in a block to its coordinates in the dataset. */
+    private long[] toCoordinates(long firstRow, long record)
+    {
+        int rank      = dims.length;
+        long[] coords = new long[rank];
+        long rest     = record % rowSize;
+        for (int d = rank - 1; d > 0; d--) {
+            coords[d] = rest % dims[d];
+            rest /= dims[d];
+        }
+        coords[0] = firstRow + record / rowSize;
+
+        return coords;
+    }
+
+    private static void sortByRecord(BlockMatches found)
+    {
+        Integer[] order = new Integer[found.size];
+        for (int i = 0; i < order.length; i++)
+            order[i] = i;
+        Arrays.sort(order, (a, b) -> (found.records[a] != found.records[b])
+                                         ? Long.compare(found.records[a], found.records[b])
+                                         : Integer.compare(found.members[a], found.members[b]));
+
+        long[] records  = new long[found.size];
+        int[] members   = new int[found.size];
+        double[] values = new double[found.size];
+        for (int i = 0; i < order.length; i++) {
+            records[i] = found.records[order[i]];
+            members[i] = found.members[order[i]];
+            values[i]  = found.values[order[i]];
+        }
+        found.records = records;
+        found.members = members;
+        found.values  = values;
+    }
+
+    private static boolean isFloat16(Datatype dtype)
+    {
+        return dtype.isFloat() && (dtype.getDatatypeSize() == 2);
+    }
+
+    /** Returns a value of a buffer as a double; 16-bit floats are held as shorts. */
+    private static double getValue(DataBuffer buf, int index, Datatype dtype)
+    {
+        if (isFloat16(dtype))
+            return Float.float16ToFloat((short)buf.getLong(index));
+
+        return buf.getDouble(index);
+    }
+
+    /**
+     * Wraps a primitive buffer of integers or floating-point values in a DataBuffer, with unsigned
+     * values read as unsigned if they are in their native width.
+     */
+    private static DataBuffer wrap(Object data, Datatype dtype)
+    {
+        DataBuffer buf = DataBuffer.wrap(data);
+        if ((buf != null) && dtype.isUnsigned() && (buf.getElementSize() == dtype.getDatatypeSize()))
+            buf.setUnsigned(true);
+
+        return buf;
+    }
+}
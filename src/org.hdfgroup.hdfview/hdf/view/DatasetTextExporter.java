@@ -0,0 +1,342 @@
+/*****************************************************************************
+ * Copyright by The HDF Group.                                               *
+ * All rights reserved.                                                      *
+ *                                                                           *
+ * This file is part of the HDF Java Products distribution.                  *
+ * The full copyright notice, including terms governing use, modification,   *
+ * and redistribution, is contained in the COPYING file, which can be found  *
+ * at the root of the source code distribution tree,                         *
+ * or in https://www.hdfgroup.org/licenses.                                  *
+ * If you do not have access to either file, you may request a copy from     *
+ * help@hdfgroup.org.                                                        *
+ ****************************************************************************/
+
+package hdf.view;
+
+import java.io.File;
+import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.LongConsumer;
+
+import hdf.object.CompoundDS;
+import hdf.object.DataBuffer;
+import hdf.object.Dataset;
+import hdf.object.Datatype;
+import hdf.object.ScalarDS;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Exports a whole dataset to a delimited text file, reading it from file block by block so that
+ * datasets larger than the heap can be exported.
+ *
+ * The blocks are read in order along the first dimension by
+ * {@link Dataset#blockIterator(long[], long[], long[], long)} on the calling thread, through a selection
+ * of their own so that the selection shown in a table is neither used nor changed. They are formatted
+ * into text in parallel by a pool of worker threads, and written to the file in order through a
+ * FileChannel. Only a few blocks are in memory at any time.
+ *
+ * A scalar dataset is written with one line per row of its last dimension; a one-dimensional dataset has
+ * one value per line. A compound dataset is written with one line per record, with the values of its
+ * selected members, including each element of array members, separated by the delimiter.
+ *
+ * <pre>
+ * DatasetTextExporter exporter = new DatasetTextExporter(dataset, DatasetTextExporter.getDefaultDelimiter());
+ * exporter.export(new File("data.txt"), rows -&gt; System.out.println(rows + " rows written"));
+ * </pre>
+ */
+public class DatasetTextExporter {
+    private static final Logger log = LoggerFactory.getLogger(DatasetTextExporter.class);
+
+    private final Dataset dataset;
+
+    private final String delimiter;
+
+    private int nThreads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+
+    private long blockSize = 0;
+
+    /** The number of values on each line of a scalar dataset. */
+    private long lineLength;
+
+    /** The number of data points for each index of the first dimension. */
+    private long rowSize;
+
+    /**
+     * Creates an exporter for a dataset.
+     *
+     * @param dataset
+     *            the ScalarDS or CompoundDS to export.
+     * @param delimiter
+     *            the text written between values.
+     */
+    public DatasetTextExporter(Dataset dataset, String delimiter)
+    {
+        if (!(dataset instanceof ScalarDS) && !(dataset instanceof CompoundDS))
+            throw new IllegalArgumentException("Only scalar and compound datasets can be exported to text");
+
+        this.dataset   = dataset;
+        this.delimiter = delimiter;
+    }
+
+    /**
+     * Returns the delimiter chosen in the user options, see ViewProperties.getDataDelimiter().
+     *
+     * @return the delimiter text.
+     */
+    public static String getDefaultDelimiter()
+    {
+        String delName = ViewProperties.getDataDelimiter();
+
+        if (delName.equalsIgnoreCase(ViewProperties.DELIMITER_SPACE))
+            return " ";
+        else if (delName.equalsIgnoreCase(ViewProperties.DELIMITER_COMMA))
+            return ",";
+        else if (delName.equalsIgnoreCase(ViewProperties.DELIMITER_COLON))
+            return ":";
+        else if (delName.equalsIgnoreCase(ViewProperties.DELIMITER_SEMI_COLON))
+            return ";";
+
+        return "\t";
+    }
+
+    /**
+     * Sets the number of threads which format blocks into text.
+     *
+     * @param nThreads
+     *            the number of formatting threads; the default is one less than the number of processors.
+     */
+    public void setThreadCount(int nThreads) { this.nThreads = Math.max(1, nThreads); }
+
+    /**
+     * Sets the number of indices of the first dimension read and formatted at a time.
+     *
+     * @param blockSize
+     *            the block size, or 0 for {@link Dataset#getDefaultBlockSize()}.
+     */
+    public void setBlockSize(long blockSize) { this.blockSize = Math.max(0, blockSize); }
+
+    /**
+     * Returns the number of indices of the first dimension that export() writes, which is the total
+     * reported to its progress listener.
+     *
+     * @return the size of the first dimension.
+     */
+    public long getTotalRows()
+    {
+        if (!dataset.isInited())
+            dataset.init();
+
+        return dataset.getDims()[0];
+    }
+
+    /**
+     * Exports all of the data points of the dataset to a text file, replacing the file if it exists.
+     *
+     * @param file
+     *            the text file to write.
+     * @param progress
+     *            called on the calling thread with the number of indices of the first dimension
+     *            written so far after each block; may be null.
+     *
+     * @throws Exception
+     *             if the data can not be read, formatted or written
+     */
+    public void export(File file, LongConsumer progress) throws Exception
+    {
+        if (!dataset.isInited())
+            dataset.init();
+
+        int rank    = dataset.getRank();
+        long[] dims = dataset.getDims().clone();
+        lineLength  = (rank > 1) ? dims[rank - 1] : 1;
+        rowSize     = 1;
+        for (int i = 1; i < rank; i++)
+            rowSize *= dims[i];
+
+        ExecutorService workers = Executors.newFixedThreadPool(nThreads, r -> {
+            Thread t = new Thread(r, "hdf-view-export");
+            t.setDaemon(true);
+            return t;
+        });
+
+        // bounds the number of blocks held in memory while waiting to be written
+        final int maxPending             = 2 * nThreads;
+        Deque<Future<TextBlock>> pending = new ArrayDeque<>();
+        long written                     = 0;
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                                                    StandardOpenOption.TRUNCATE_EXISTING,
+                                                    StandardOpenOption.WRITE)) {
+            Iterator<Object> blocks = dataset.blockIterator(new long[rank], null, dims, blockSize);
+            while (blocks.hasNext()) {
+                final Object block = blocks.next();
+                pending.add(workers.submit(() -> formatBlock(block)));
+
+                if (pending.size() >= maxPending)
+                    written = writeBlock(channel, pending.poll(), written, progress);
+            }
+
+            while (!pending.isEmpty())
+                written = writeBlock(channel, pending.poll(), written, progress);
+        }
+        catch (IllegalStateException ex) {
+            // blockIterator() reports read errors as unchecked exceptions
+            if (ex.getCause() instanceof Exception)
+                throw (Exception)ex.getCause();
+            throw ex;
+        }
+        finally {
+            workers.shutdownNow();
+        }
+
+        log.trace("export(): {} rows of {} written to {}", written, dataset.getName(), file);
+    }
+
+    private static long writeBlock(FileChannel channel, Future<TextBlock> future, long written,
+                                   LongConsumer progress) throws Exception
+    {
+        TextBlock block;
+        try {
+            block = future.get();
+        }
+        catch (ExecutionException ex) {
+            if (ex.getCause() instanceof Exception)
+                throw (Exception)ex.getCause();
+            throw ex;
+        }
+
+        while (block.bytes.hasRemaining())
+            channel.write(block.bytes);
+
+        written += block.rows;
+        if (progress != null)
+            progress.accept(written);
+
+        return written;
+    }
+
+    /**
+     * Formats one block read from the dataset into the encoded text of its lines.
+     */
+    private TextBlock formatBlock(Object data)
+    {
+        StringBuilder sb = new StringBuilder(8192);
+        long rows;
+
+        if (dataset instanceof CompoundDS)
+            rows = formatCompound(sb, (List<?>)data);
+        else
+            rows = formatScalar(sb, data);
+
+        ByteBuffer bytes = StandardCharsets.UTF_8.encode(CharBuffer.wrap(sb));
+
+        return new TextBlock(bytes, rows);
+    }
+
+    private long formatScalar(StringBuilder sb, Object data)
+    {
+        Datatype dtype  = dataset.getDatatype();
+        boolean isFLT16 = dtype.isFloat() && (dtype.getDatatypeSize() == 2);
+        DataBuffer buf  = wrap(data, dtype);
+        List<?> list    = (data instanceof List) ? (List<?>)data : null;
+        int n           = (buf != null) ? buf.size() : (list != null) ? list.size() : Array.getLength(data);
+
+        NumberTextFormatter formatter = NumberTextFormatter.get();
+        for (int i = 0; i < n; i++) {
+            if (isFLT16 && (buf != null))
+                sb.append(Float.float16ToFloat((short)buf.getLong(i)));
+            else if (buf != null)
+                NumberTextFormatter.appendValue(sb, buf, i);
+            else
+                formatter.appendValue(sb, (list != null) ? list.get(i) : Array.get(data, i));
+
+            sb.append(((i + 1) % lineLength == 0) ? "\n" : delimiter);
+        }
+
+        return n / rowSize;
+    }
+
+    private long formatCompound(StringBuilder sb, List<?> members)
+    {
+        CompoundDS compound = (CompoundDS)dataset;
+        int[] orders        = compound.getSelectedMemberOrders();
+        Datatype[] types    = compound.getSelectedMemberTypes();
+        int nMembers        = members.size();
+        DataBuffer[] bufs   = new DataBuffer[nMembers];
+        int nrecords        = 0;
+
+        for (int m = 0; m < nMembers; m++) {
+            Object member = members.get(m);
+            Datatype type = types[m].isArray() ? types[m].getDatatypeBase() : types[m];
+            bufs[m]       = wrap(member, type);
+            if (m == 0) {
+                int length = (member instanceof List) ? ((List<?>)member).size() : Array.getLength(member);
+                nrecords   = length / Math.max(1, orders[0]);
+            }
+        }
+
+        NumberTextFormatter formatter = NumberTextFormatter.get();
+        for (int r = 0; r < nrecords; r++) {
+            for (int m = 0; m < nMembers; m++) {
+                Object member = members.get(m);
+                for (int k = 0; k < orders[m]; k++) {
+                    if ((m > 0) || (k > 0))
+                        sb.append(delimiter);
+
+                    int index = r * orders[m] + k;
+                    if (bufs[m] != null)
+                        NumberTextFormatter.appendValue(sb, bufs[m], index);
+                    else if (member instanceof List)
+                        formatter.appendValue(sb, ((List<?>)member).get(index));
+                    else
+                        formatter.appendValue(sb, Array.get(member, index));
+                }
+            }
+            sb.append('\n');
+        }
+
+        return nrecords / rowSize;
+    }
+
+    /**
+     * Wraps a primitive buffer of integers or floating-point values in a DataBuffer, with unsigned
+     * values read as unsigned if they are in their native width.
+     */
+    private static DataBuffer wrap(Object data, Datatype dtype)
+    {
+        if (!dtype.isInteger() && !dtype.isFloat())
+            return null;
+
+        DataBuffer buf = DataBuffer.wrap(data);
+        if ((buf != null) && dtype.isUnsigned() && (buf.getElementSize() == dtype.getDatatypeSize()))
+            buf.setUnsigned(true);
+
+        return buf;
+    }
+
+    /** The encoded text of one block and the number of first-dimension indices it holds. */
+    private static final class TextBlock {
+        final ByteBuffer bytes;
+        final long rows;
+
+        TextBlock(ByteBuffer bytes, long rows)
+        {
+            this.bytes = bytes;
+            this.rows  = rows;
+        }
+    }
+}
@@ -0,0 +1,549 @@
+/*****************************************************************************
+ * Copyright by The HDF Group.                                               *
+ * All rights reserved.                                                      *
+ *                                                                           *
+ * This file is part of the HDF Java Products distribution.                  *
+ * The full copyright notice, including terms governing use, modification,   *
+ * and redistribution, is contained in the COPYING file, which can be found  *
+ * at the root of the source code distribution tree,                         *
+ * or in https://www.hdfgroup.org/licenses.                                  *
+ * If you do not have access to either file, you may request a copy from     *
+ * help@hdfgroup.org.                                                        *
+ ****************************************************************************/
+
+package hdf.view;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.LongConsumer;
+
+import hdf.object.DataBuffer;
+import hdf.object.Datatype;
+import hdf.object.ScalarDS;
+import hdf.object.Selection;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Imports the values of a delimited text file into a whole scalar dataset, writing them to file block
+ * by block so that text files larger than the heap can be imported.
+ *
+ * The text file is memory-mapped a few megabytes at a time and split on line boundaries by the calling
+ * thread. The blocks of lines are parsed in parallel by a pool of worker threads straight from the
+ * mapped bytes, without creating a String for each value, and the parsed values are written to the
+ * dataset in order with hyperslab writes of whole rows of its first dimension. The writes go through
+ * {@link ScalarDS#write(hdf.object.Selection, Object)}, so the format of the dataset must support it,
+ * and neither use nor change the selection shown in a table.
+ *
+ * The values are read in row-major order of the dataset; the delimiter, spaces, tabs and line breaks
+ * all separate values, so the text written by {@link DatasetTextExporter} can be read back. Values after
+ * the end of the dataset are ignored, and so is a last incomplete row.
+ *
+ * <pre>
+ * DatasetTextImporter importer = new DatasetTextImporter(dataset, DatasetTextExporter.getDefaultDelimiter());
+ * importer.importFile(new File("data.txt"), rows -&gt; System.out.println(rows + " rows imported"));
+ * </pre>
+ */
+public class DatasetTextImporter {
+    private static final Logger log = LoggerFactory.getLogger(DatasetTextImporter.class);
+
+    /** The default number of bytes of text parsed at a time. */
+    public static final int DEFAULT_BLOCK_BYTES = 4 * 1024 * 1024;
+
+    /** The powers of ten which are exactly representable as a double. */
+    private static final double[] POW10 = {1e0,  1e1,  1e2,  1e3,  1e4,  1e5,  1e6,  1e7,
+                                           1e8,  1e9,  1e10, 1e11, 1e12, 1e13, 1e14, 1e15,
+                                           1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
+    private final ScalarDS dataset;
+
+    /** Whether each byte value separates two values. */
+    private final boolean[] isSeparator = new boolean[256];
+
+    private int nThreads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+
+    private int blockBytes = DEFAULT_BLOCK_BYTES;
+
+    /** The type class of the values of the dataset, see DataBuffer.getTypeClass(). */
+    private char typeClass;
+
+    private boolean isUnsigned;
+
+    /** The dimension sizes of the dataset. */
+    private long[] dims;
+
+    /** The number of data points for each index of the first dimension. */
+    private long rowSize;
+
+    /**
+     * Creates an importer into a scalar dataset.
+     *
+     * @param dataset
+     *            the dataset to import into; its datatype must be an integer or floating-point type of
+     *            1, 2, 4 or 8 bytes.
+     * @param delimiter
+     *            the text between values; spaces, tabs and line breaks separate values as well.
+     */
+    public DatasetTextImporter(ScalarDS dataset, String delimiter)
+    {
+        this.dataset = dataset;
+
+        isSeparator[' ']  = true;
+        isSeparator['\t'] = true;
+        isSeparator['\r'] = true;
+        isSeparator['\n'] = true;
+        for (char c : delimiter.toCharArray()) {
+            if (c < 256)
+                isSeparator[c] = true;
+        }
+    }
+
+    /**
+     * Sets the number of threads which parse the text.
+     *
+     * @param nThreads
+     *            the number of parsing threads; the default is one less than the number of processors.
+     */
+    public void setThreadCount(int nThreads) { this.nThreads = Math.max(1, nThreads); }
+
+    /**
+     * Sets the number of bytes of text parsed at a time.
+     *
+     * @param blockBytes
+     *            the block size in bytes; a block is extended to the end of its last line.
+     */
+    public void setBlockBytes(int blockBytes) { this.blockBytes = Math.max(1, blockBytes); }
+
+    /**
+     * Returns the number of indices of the first dimension of the dataset, which is the most that
+     * importFile() writes and the total reported to its progress listener.
+     *
+     * @return the size of the first dimension.
+     */
+    public long getTotalRows()
+    {
+        if (!dataset.isInited())
+            dataset.init();
+
+        return dataset.getDims()[0];
+    }
+
+    /**
+     * Imports the values of a text file into the dataset in file. The data held in memory by the
+     * dataset is not updated.
+     *
+     * @param file
+     *            the text file to read.
+     * @param progress
+     *            called on the calling thread with the number of indices of the first dimension
+     *            written so far after each write; may be null.
+     *
+     * @return the number of indices of the first dimension written.
+     *
+     * @throws Exception
+     *             if the text can not be read or parsed, or the data can not be written
+     */
+    public long importFile(File file, LongConsumer progress) throws Exception
+    {
+        if (!dataset.isInited())
+            dataset.init();
+
+        if ((dataset.getFileFormat() != null) && dataset.getFileFormat().isReadOnly())
+            throw new Exception("cannot write to file opened as read-only");
+
+        if (!dataset.canWriteSelection())
+            throw new UnsupportedOperationException("Text import into " + dataset.getName() +
+                                                    " is not supported by its file format");
+
+        Datatype dtype = dataset.getDatatype();
+        typeClass      = DataBuffer.getTypeClass(dtype);
+        if (typeClass == ' ')
+            throw new UnsupportedOperationException("Text import of " + dtype.getDescription() +
+                                                    " data is not supported");
+        isUnsigned = dtype.isUnsigned();
+
+        int rank = dataset.getRank();
+        dims     = dataset.getDims().clone();
+        rowSize  = 1;
+        for (int i = 1; i < rank; i++)
+            rowSize *= dims[i];
+
+        ExecutorService workers = Executors.newFixedThreadPool(nThreads, r -> {
+            Thread t = new Thread(r, "hdf-view-import");
+            t.setDaemon(true);
+            return t;
+        });
+
+        // bounds the number of blocks held in memory while waiting to be written
+        final int maxPending              = 2 * nThreads;
+        Deque<Future<DataBuffer>> pending = new ArrayDeque<>();
+        RowWriter writer                  = new RowWriter(progress);
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            long position = 0;
+            while ((position < fileSize) && !writer.isFull()) {
+                final ByteBuffer text = mapLines(channel, position, fileSize);
+                position += text.limit();
+                pending.add(workers.submit(() -> parseBlock(text)));
+
+                if (pending.size() >= maxPending)
+                    writer.write(getValues(pending.poll()));
+            }
+
+            while (!pending.isEmpty() && !writer.isFull())
+                writer.write(getValues(pending.poll()));
+        }
+        finally {
+            workers.shutdownNow();
+        }
+
+        log.trace("importFile(): {} rows of {} imported from {}", writer.rows, dataset.getName(), file);
+
+        return writer.rows;
+    }
+
+    /**
+     * Maps the next block of whole lines of the text file, starting at the given position.
+     */
+    private ByteBuffer mapLines(FileChannel channel, long position, long fileSize) throws Exception
+    {
+        long length = Math.min(blockBytes, fileSize - position);
+        while (true) {
+            ByteBuffer text = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+            if (position + length == fileSize)
+                return text;
+
+            for (int end = (int)length - 1; end >= 0; end--) {
+                if (text.get(end) == '\n')
+                    return text.limit(end + 1);
+            }
+
+            // a line longer than the block
+            length = Math.min(Math.min(2 * length, Integer.MAX_VALUE), fileSize - position);
+        }
+    }
+
+    private static DataBuffer getValues(Future<DataBuffer> future) throws Exception
+    {
+        try {
+            return future.get();
+        }
+        catch (ExecutionException ex) {
+            if (ex.getCause() instanceof Exception)
+                throw (Exception)ex.getCause();
+            throw ex;
+        }
+    }
+
+    /**
+     * Parses the values of a block of lines. The values are counted first, so that they are parsed
+     * into a single array of the exact size.
+     */
+    private DataBuffer parseBlock(ByteBuffer text)
+    {
+        int length = text.limit();
+        int count  = 0;
+        boolean in = false;
+        for (int i = 0; i < length; i++) {
+            boolean sep = isSeparator[text.get(i) & 0xFF];
+            if (!sep && !in)
+                count++;
+            in = !sep;
+        }
+
+        DataBuffer values = DataBuffer.allocate(typeClass, count);
+        int n             = 0;
+        int i             = 0;
+        while (n < count) {
+            while (isSeparator[text.get(i) & 0xFF])
+                i++;
+            int start = i;
+            while ((i < length) && !isSeparator[text.get(i) & 0xFF])
+                i++;
+
+            if ((typeClass == 'F') || (typeClass == 'D'))
+                values.setDouble(n++, parseDouble(text, start, i, typeClass == 'F'));
+            else
+                values.setLong(n++, parseLong(text, start, i));
+        }
+
+        return values;
+    }
+
+    /**
+     * Parses an integer value, checking that it is in the range of the datatype of the dataset.
+     * Unsigned values are returned with the bits of their native width.
+     */
+    private long parseLong(ByteBuffer text, int start, int end)
+    {
+        int i            = start;
+        boolean negative = false;
+        byte c           = text.get(i);
+        if ((c == '-') || (c == '+')) {
+            negative = (c == '-');
+            i++;
+        }
+
+        long value = 0;
+        int digits = 0;
+        while ((i < end) && ((c = text.get(i)) >= '0') && (c <= '9')) {
+            value = value * 10 + (c - '0');
+            digits++;
+            i++;
+        }
+
+        if ((i < end) || (digits == 0) || (digits > 18)) {
+            // a decimal or exponent form, or a value that may not fit in a long
+            String token = toString(text, start, end);
+            try {
+                if ((typeClass == 'J') && isUnsigned)
+                    return Long.parseUnsignedLong(token);
+                return checkRange(Long.parseLong(token), token);
+            }
+            catch (NumberFormatException ex) {
+                return parseIntegral(token);
+            }
+        }
+
+        return checkRange(negative ? -value : value, null);
+    }
+
+    /**
+     * Parses an integer written in a decimal or exponent form, e.g. 1e3 or 2.0. A value that is not an
+     * integer, such as 1.5 or NaN, is an error, as it is when a value is pasted into the table.
+     */
+    private long parseIntegral(String token)
+    {
+        BigInteger integer;
+        try {
+            BigDecimal decimal = new BigDecimal(token);
+            if (decimal.precision() - decimal.scale() > 20)
+                throw new NumberFormatException("value " + token + " is out of range");
+            integer = decimal.toBigIntegerExact();
+        }
+        catch (ArithmeticException ex) {
+            throw new NumberFormatException("value " + token + " is not an integer");
+        }
+
+        if ((typeClass == 'J') && isUnsigned) {
+            if ((integer.signum() < 0) || (integer.bitLength() > 64))
+                throw new NumberFormatException("value " + token + " is out of range");
+            return integer.longValue();
+        }
+
+        if (integer.bitLength() > 63)
+            throw new NumberFormatException("value " + token + " is out of range");
+
+        return checkRange(integer.longValue(), token);
+    }
+
+    private long checkRange(long value, String token)
+    {
+        long min;
+        long max;
+        switch (typeClass) {
+        case 'B':
+            min = isUnsigned ? 0 : Byte.MIN_VALUE;
+            max = isUnsigned ? 0xFF : Byte.MAX_VALUE;
+            break;
+        case 'S':
+            min = isUnsigned ? 0 : Short.MIN_VALUE;
+            max = isUnsigned ? 0xFFFF : Short.MAX_VALUE;
+            break;
+        case 'I':
+            min = isUnsigned ? 0 : Integer.MIN_VALUE;
+            max = isUnsigned ? 0xFFFFFFFFL : Integer.MAX_VALUE;
+            break;
+        default:
+            min = isUnsigned ? 0 : Long.MIN_VALUE;
+            max = Long.MAX_VALUE;
+            break;
+        }
+
+        if ((value < min) || (value > max))
+            throw new NumberFormatException("value " + ((token != null) ? token : String.valueOf(value)) +
+                                            " is out of range [" + min + ", " + max + "]");
+
+        return value;
+    }
+
+    /**
+     * Parses a floating-point value. Values with few significant digits and a small exponent, which
+     * are most values written as text, are computed exactly from their digits; any other value is
+     * parsed by Double.parseDouble().
+     */
+    private static double parseDouble(ByteBuffer text, int start, int end, boolean isFloat)
+    {
+        int i            = start;
+        boolean negative = false;
+        byte c           = text.get(i);
+        if ((c == '-') || (c == '+')) {
+            negative = (c == '-');
+            i++;
+        }
+
+        long mantissa = 0;
+        int digits    = 0;
+        int exp10     = 0;
+        boolean any   = false;
+        while ((i < end) && ((c = text.get(i)) >= '0') && (c <= '9')) {
+            mantissa = mantissa * 10 + (c - '0');
+            if (mantissa != 0)
+                digits++;
+            any = true;
+            i++;
+            if (digits > 15)
+                return parseSlow(text, start, end, isFloat);
+        }
+        if ((i < end) && (text.get(i) == '.')) {
+            i++;
+            while ((i < end) && ((c = text.get(i)) >= '0') && (c <= '9')) {
+                mantissa = mantissa * 10 + (c - '0');
+                if (mantissa != 0)
+                    digits++;
+                exp10--;
+                any = true;
+                i++;
+                if (digits > 15)
+                    return parseSlow(text, start, end, isFloat);
+            }
+        }
+        if (any && (i < end) && (((c = text.get(i)) == 'e') || (c == 'E'))) {
+            i++;
+            boolean negativeExp = false;
+            if ((i < end) && (((c = text.get(i)) == '-') || (c == '+'))) {
+                negativeExp = (c == '-');
+                i++;
+            }
+            int exp     = 0;
+            int expEnd  = i;
+            while ((i < end) && ((c = text.get(i)) >= '0') && (c <= '9') && (exp < 1000)) {
+                exp = exp * 10 + (c - '0');
+                i++;
+            }
+            if (i == expEnd)
+                return parseSlow(text, start, end, isFloat);
+            exp10 += negativeExp ? -exp : exp;
+        }
+
+        // NaN, Infinity, hexadecimal and malformed values
+        if (!any || (i < end))
+            return parseSlow(text, start, end, isFloat);
+
+        // both operands are exact, so the result is correctly rounded; for floats the operands are
+        // exact floats, so rounding the double result to a float is correct as well
+        int maxExp = isFloat ? 10 : 22;
+        if (isFloat && (mantissa >= (1L << 24)))
+            return parseSlow(text, start, end, isFloat);
+        if ((exp10 < -maxExp) || (exp10 > maxExp))
+            return (mantissa == 0) ? (negative ? -0.0 : 0.0) : parseSlow(text, start, end, isFloat);
+
+        double value = (exp10 < 0) ? mantissa / POW10[-exp10] : mantissa * POW10[exp10];
+        if (isFloat)
+            value = (float)value;
+
+        return negative ? -value : value;
+    }
+
+    private static double parseSlow(ByteBuffer text, int start, int end, boolean isFloat)
+    {
+        String token = toString(text, start, end);
+
+        return isFloat ? Float.parseFloat(token) : Double.parseDouble(token);
+    }
+
+    private static String toString(ByteBuffer text, int start, int end)
+    {
+        byte[] bytes = new byte[end - start];
+        text.get(start, bytes);
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes parsed values to the dataset in whole rows of its first dimension, keeping the values of
+     * an incomplete row until the next block completes it.
+     */
+    private final class RowWriter {
+        private final LongConsumer progress;
+
+        private final long totalRows = dims[0];
+
+        /** The values of an incomplete row. */
+        private final DataBuffer partial = DataBuffer.allocate(typeClass, (int)rowSize);
+
+        private int partialCount = 0;
+
+        /** The number of rows written so far. */
+        long rows = 0;
+
+        RowWriter(LongConsumer progress) { this.progress = progress; }
+
+        boolean isFull() { return rows >= totalRows; }
+
+        void write(DataBuffer values) throws Exception
+        {
+            int n    = values.size();
+            int from = 0;
+
+            if (partialCount > 0) {
+                int count = Math.min(n, (int)rowSize - partialCount);
+                System.arraycopy(values.array(), 0, partial.array(), partialCount, count);
+                partialCount += count;
+                from = count;
+                if (partialCount < rowSize)
+                    return;
+
+                writeRows(partial.array(), 1);
+                partialCount = 0;
+            }
+
+            long nrows = Math.min((n - from) / rowSize, totalRows - rows);
+            if (nrows > 0) {
+                int count  = (int)(nrows * rowSize);
+                Object buf = values.array();
+                if ((from > 0) || (count < n)) {
+                    buf = DataBuffer.allocate(typeClass, count).array();
+                    System.arraycopy(values.array(), from, buf, 0, count);
+                }
+                writeRows(buf, nrows);
+                from += count;
+            }
+
+            if (!isFull() && (from < n)) {
+                partialCount = n - from;
+                System.arraycopy(values.array(), from, partial.array(), 0, partialCount);
+            }
+        }
+
+        private void writeRows(Object buf, long nrows) throws Exception
+        {
+            if (isFull())
+                return;
+
+            long[] start = new long[dims.length];
+            long[] count = dims.clone();
+            start[0]     = rows;
+            count[0]     = nrows;
+
+            dataset.write(new Selection(dims).addHyperslab(start, null, count), buf);
+            rows += nrows;
+
+            if (progress != null)
+                progress.accept(rows);
+        }
+    }
+}
@@ -410,6 +410,21 @@ public class DefaultFileFilter {
         return filter;
     }
 
+    /**
+     * Get a file filter for NumPy array file
+     *
+     * @return a file filter for NumPy .npy and .npz files.
+     */
+    public static DefaultFileFilter getFileFilterNumpy()
+    {
+        DefaultFileFilter filter = new DefaultFileFilter();
+        filter.addExtension("npy");
+        filter.addExtension("npz");
+        filter.setDescription("NumPy");
+
+        return filter;
+    }
+
     /**
      * Get a file filter for binary file
      *
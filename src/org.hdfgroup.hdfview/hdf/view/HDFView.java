@@ -1346,9 +1346,19 @@ public class HDFView implements DataViewManager {
             public void drop(DropTargetEvent e)
             {
                 if (fileTransfer.isSupportedType(e.currentDataType)) {
-                    String[] files = (String[])e.data;
-                    for (int i = 0; i < files.length; i++)
-                        openLocalFile(files[i], -1);
+                    String[] files         = (String[])e.data;
+                    List<String> fileNames = new ArrayList<>(files.length);
+                    for (int i = 0; i < files.length; i++) {
+                        if (new File(files[i]).isFile())
+                            fileNames.add(files[i]);
+                        else
+                            openLocalFile(files[i], -1);
+                    }
+
+                    if (fileNames.size() == 1)
+                        openLocalFile(fileNames.get(0), -1);
+                    else if (fileNames.size() > 1)
+                        openLocalFiles(fileNames);
                 }
             }
         });
@@ -1921,6 +1931,40 @@ public class HDFView implements DataViewManager {
             it.next().setEnabled(b);
     }
 
+    /** Returns the file access mode selected by the "is read only" and "read SWMR" properties */
+    private static int getDefaultAccessMode()
+    {
+        if (ViewProperties.isReadOnly())
+            return FileFormat.READ;
+        else if (ViewProperties.isReadSWMR())
+            return FileFormat.READ | FileFormat.MULTIREAD;
+        else
+            return FileFormat.WRITE;
+    }
+
+    /** Open several local files at once, adding them to the tree as they are opened */
+    private void openLocalFiles(List<String> filenames)
+    {
+        log.trace("openLocalFiles {} files", filenames.size());
+
+        for (String filename : filenames) {
+            try {
+                urlBar.remove(filename);
+            }
+            catch (Exception ex) {
+                log.trace("unable to remove {} from urlBar", filename);
+            }
+
+            // first entry is always the workdir
+            urlBar.add(filename, 1);
+        }
+        urlBar.select(1);
+
+        currentFile = filenames.get(filenames.size() - 1);
+
+        treeView.openFiles(filenames, getDefaultAccessMode());
+    }
+
     /** Open local file */
     private void openLocalFile(String filename, int fileAccessID)
     {
@@ -1933,14 +1977,8 @@ public class HDFView implements DataViewManager {
          * default file access mode when opening a file.
          */
         int accessMode = fileAccessID;
-        if (accessMode < 0) {
-            if (ViewProperties.isReadOnly())
-                accessMode = FileFormat.READ;
-            else if (ViewProperties.isReadSWMR())
-                accessMode = FileFormat.READ | FileFormat.MULTIREAD;
-            else
-                accessMode = FileFormat.WRITE;
-        }
+        if (accessMode < 0)
+            accessMode = getDefaultAccessMode();
 
         String[] selectedFilenames = null;
         File[] chosenFiles         = null;
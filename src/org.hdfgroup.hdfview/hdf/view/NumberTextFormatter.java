@@ -0,0 +1,227 @@
+/*****************************************************************************
+ * Copyright by The HDF Group.                                               *
+ * All rights reserved.                                                      *
+ *                                                                           *
+ * This file is part of the HDF Java Products distribution.                  *
+ * The full copyright notice, including terms governing use, modification,   *
+ * and redistribution, is contained in the COPYING file, which can be found  *
+ * at the root of the source code distribution tree,                         *
+ * or in https://www.hdfgroup.org/licenses.                                  *
+ * If you do not have access to either file, you may request a copy from     *
+ * help@hdfgroup.org.                                                        *
+ ****************************************************************************/
+
+package hdf.view;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.text.FieldPosition;
+import java.text.NumberFormat;
+
+import hdf.object.DataBuffer;
+
+/**
+ * Formats numeric data values as text for the table views, the clipboard and the text exporters.
+ *
+ * Values are appended to a caller-supplied StringBuilder instead of being converted to intermediate
+ * Strings. Floating-point values are written in the shortest form that reads back to the same value,
+ * which StringBuilder.append(double) and append(float) produce without allocating; integers are written
+ * directly and hexadecimal and binary renderings are built digit by digit.
+ *
+ * The static methods are thread-safe. An instance holds scratch buffers, so each thread uses its own
+ * one from {@link #get()}. A NumberFormat is not thread-safe either: threads that format in parallel
+ * must each pass their own copy.
+ *
+ * <pre>
+ * NumberTextFormatter formatter = NumberTextFormatter.get();
+ * StringBuilder line            = new StringBuilder();
+ * formatter.appendValue(line, 3.25).append(',');
+ * NumberTextFormatter.appendHex(line, 42543, 4); // "3.25,0000A62F"
+ * formatter.write(out, line);
+ * </pre>
+ */
+public final class NumberTextFormatter {
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+    private static final ThreadLocal<NumberTextFormatter> INSTANCES =
+        ThreadLocal.withInitial(NumberTextFormatter::new);
+
+    /** The scratch buffer for NumberFormat, which only formats into a StringBuffer. */
+    private final StringBuffer formatBuffer = new StringBuffer(32);
+
+    private final FieldPosition fieldPosition = new FieldPosition(0);
+
+    /** The scratch buffer used to write text to a Writer without converting it to a String. */
+    private char[] writeBuffer = new char[8192];
+
+    private NumberTextFormatter() {}
+
+    /**
+     * Returns the formatter of the current thread.
+     *
+     * @return the formatter of the current thread.
+     */
+    public static NumberTextFormatter get() { return INSTANCES.get(); }
+
+    /**
+     * Appends a data value to a StringBuilder. Boxed primitive values are appended without
+     * converting them to a String first; any other object is appended with toString().
+     *
+     * @param sb
+     *            the StringBuilder to append to.
+     * @param value
+     *            the value to append.
+     *
+     * @return the StringBuilder.
+     */
+    public StringBuilder appendValue(StringBuilder sb, Object value)
+    {
+        if (value instanceof Double)
+            return sb.append(((Double)value).doubleValue());
+        if (value instanceof Float)
+            return sb.append(((Float)value).floatValue());
+        if ((value instanceof Long) || (value instanceof Integer) || (value instanceof Short) ||
+            (value instanceof Byte))
+            return sb.append(((Number)value).longValue());
+
+        return sb.append(value);
+    }
+
+    /**
+     * Appends a data value to a StringBuilder using a NumberFormat, such as the scientific or
+     * custom format of a table view.
+     *
+     * @param sb
+     *            the StringBuilder to append to.
+     * @param value
+     *            the value to append.
+     * @param format
+     *            the format of the value; if null, the value is appended as with appendValue(sb, value).
+     *
+     * @return the StringBuilder.
+     */
+    public StringBuilder appendValue(StringBuilder sb, Object value, NumberFormat format)
+    {
+        if (format == null)
+            return appendValue(sb, value);
+
+        formatBuffer.setLength(0);
+        format.format(value, formatBuffer, fieldPosition);
+
+        return sb.append(formatBuffer);
+    }
+
+    /**
+     * Appends the value at an index of a DataBuffer to a StringBuilder without boxing it.
+     * Unsigned views are written as unsigned decimal values.
+     *
+     * @param sb
+     *            the StringBuilder to append to.
+     * @param buf
+     *            the buffer that holds the value.
+     * @param index
+     *            the index of the value in the buffer.
+     *
+     * @return the StringBuilder.
+     */
+    public static StringBuilder appendValue(StringBuilder sb, DataBuffer buf, int index)
+    {
+        switch (buf.getTypeClass()) {
+        case 'F':
+            return sb.append((float)buf.getDouble(index));
+        case 'D':
+            return sb.append(buf.getDouble(index));
+        default:
+            if (buf.isUnsigned())
+                return appendUnsigned(sb, buf.getLong(index));
+            return sb.append(buf.getLong(index));
+        }
+    }
+
+    /**
+     * Appends a long value, read as an unsigned 64-bit integer, in decimal.
+     *
+     * @param sb
+     *            the StringBuilder to append to.
+     * @param v
+     *            the value to append.
+     *
+     * @return the StringBuilder.
+     */
+    public static StringBuilder appendUnsigned(StringBuilder sb, long v)
+    {
+        if (v >= 0)
+            return sb.append(v);
+
+        // v / 10 as an unsigned value fits in a signed long
+        long quotient = (v >>> 1) / 5;
+        return sb.append(quotient).append((char)('0' + (v - quotient * 10)));
+    }
+
+    /**
+     * Appends the low nbytes bytes of a long value as an unsigned hexadecimal integer padded with
+     * zeros, e.g. "0000A62F" for v=42543 and nbytes=4. This is the format of Tools.toHexString().
+     *
+     * @param sb
+     *            the StringBuilder to append to.
+     * @param v
+     *            the value to append.
+     * @param nbytes
+     *            the number of bytes of the integer.
+     *
+     * @return the StringBuilder.
+     */
+    public static StringBuilder appendHex(StringBuilder sb, long v, int nbytes)
+    {
+        for (int shift = nbytes * 8 - 4; shift >= 0; shift -= 4)
+            sb.append(HEX_DIGITS[(int)(v >>> shift) & 0x0F]);
+
+        return sb;
+    }
+
+    /**
+     * Appends the low nbytes bytes of a long value as an unsigned binary integer padded with zeros,
+     * with a space between bytes, e.g. "00000000 00001111" for v=15 and nbytes=2. This is the
+     * format of Tools.toBinaryString().
+     *
+     * @param sb
+     *            the StringBuilder to append to.
+     * @param v
+     *            the value to append.
+     * @param nbytes
+     *            the number of bytes of the integer.
+     *
+     * @return the StringBuilder.
+     */
+    public static StringBuilder appendBinary(StringBuilder sb, long v, int nbytes)
+    {
+        for (int shift = nbytes * 8 - 1; shift >= 0; shift--) {
+            sb.append((char)('0' + ((v >>> shift) & 1)));
+            if (((shift & 7) == 0) && (shift > 0))
+                sb.append(' ');
+        }
+
+        return sb;
+    }
+
+    /**
+     * Writes the content of a StringBuilder to a Writer without converting it to a String.
+     *
+     * @param out
+     *            the Writer to write to.
+     * @param sb
+     *            the text to write.
+     *
+     * @throws IOException
+     *             if the text can not be written
+     */
+    public void write(Writer out, StringBuilder sb) throws IOException
+    {
+        int length = sb.length();
+        if (writeBuffer.length < length)
+            writeBuffer = new char[Math.max(length, writeBuffer.length * 2)];
+
+        sb.getChars(0, length, writeBuffer, 0);
+        out.write(writeBuffer, 0, length);
+    }
+}
@@ -23,6 +23,7 @@ import hdf.object.CompoundDataFormat;
 import hdf.object.DataFormat;
 import hdf.object.Datatype;
 import hdf.object.h5.H5Datatype;
+import hdf.view.NumberTextFormatter;
 import hdf.view.Tools;
 
 import hdf.hdf5lib.exceptions.HDF5Exception;
@@ -711,7 +712,6 @@ public class DataDisplayConverterFactory {
 
         private final StringBuilder buffer;
         private final long typeSize;
-        private final boolean isUINT64;
         private final boolean isFLT16;
 
         NumericalDataDisplayConverter(final Datatype dtype) throws Exception
@@ -727,7 +727,6 @@ public class DataDisplayConverterFactory {
             buffer = new StringBuilder();
 
             typeSize = dtype.getDatatypeSize();
-            isUINT64 = dtype.isUnsigned() && (typeSize == 8);
             isFLT16  = dtype.isFloat() && (typeSize == 2);
         }
 
@@ -747,24 +746,12 @@ public class DataDisplayConverterFactory {
             buffer.setLength(0); // clear the old string
 
             try {
-                if (showAsHex) {
-                    if (isUINT64)
-                        buffer.append(Tools.toHexString((BigInteger)value, 8));
-                    else
-                        buffer.append(Tools.toHexString(Long.valueOf(value.toString()), (int)typeSize));
-                }
-                else if (showAsBin) {
-                    if (isUINT64)
-                        buffer.append(Tools.toBinaryString((BigInteger)value, 8));
-                    else
-                        buffer.append(Tools.toBinaryString(Long.valueOf(value.toString()), (int)typeSize));
-                }
-                else if (numberFormat != null) {
-                    buffer.append(numberFormat.format(value));
-                }
-                else {
-                    buffer.append(value.toString());
-                }
+                if (showAsHex)
+                    NumberTextFormatter.appendHex(buffer, toRawBits(value), (int)typeSize);
+                else if (showAsBin)
+                    NumberTextFormatter.appendBinary(buffer, toRawBits(value), (int)typeSize);
+                else
+                    NumberTextFormatter.get().appendValue(buffer, value, numberFormat);
             }
             catch (Exception ex) {
                 log.debug("canonicalToDisplayValue({}): failure: ", value, ex);
@@ -774,6 +761,19 @@ public class DataDisplayConverterFactory {
 
             return buffer;
         }
+
+        /**
+         * Returns the bits of an integer value for the hex and binary displays; an unsigned
+         * 64-bit BigInteger gives its low 64 bits.
+         */
+        private long toRawBits(Object value)
+        {
+            if ((value instanceof Long) || (value instanceof Integer) || (value instanceof Short) ||
+                (value instanceof Byte) || (value instanceof BigInteger))
+                return ((Number)value).longValue();
+
+            return Long.parseLong(value.toString());
+        }
     }
 
     private static class EnumDataDisplayConverter extends HDFDisplayConverter {
@@ -17,6 +17,7 @@ import java.lang.reflect.Array;
 import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -26,6 +27,7 @@ import java.util.StringTokenizer;
 import java.util.Vector;
 
 import hdf.object.CompoundDataFormat;
+import hdf.object.DataBuffer;
 import hdf.object.DataFormat;
 import hdf.object.Datatype;
 import hdf.object.FileFormat;
@@ -147,6 +149,19 @@ public class DataProviderFactory {
          */
         protected Object dataBuf;
 
+        /**
+         * A primitive-typed view over dataBuf, used to read cell values without
+         * reflection; null if dataBuf is not a primitive array.
+         */
+        protected DataBuffer typedBuf;
+
+        /**
+         * The size of an unsigned integer or character datatype, or 0 for other types.
+         * Buffers of unsigned values in their native width are read through an
+         * unsigned view instead of being converted to a wider array.
+         */
+        private final long unsignedTypeSize;
+
         /** the data value */
         protected Object theValue;
 
@@ -156,6 +171,12 @@ public class DataProviderFactory {
         /** if the data value has changed */
         protected boolean isValueChanged;
 
+        /**
+         * The indices of the changed elements of dataBuf, or null if the changes are not
+         * known element by element, e.g. after a whole-buffer import.
+         */
+        private BitSet changedIndices = new BitSet();
+
         /** the type of the parent */
         protected final boolean isContainerType;
 
@@ -172,6 +193,14 @@ public class DataProviderFactory {
         /** the row */
         protected long rowCount;
 
+        /** the distance in the data buffer between vertically adjacent cells */
+        private long rowStep;
+        /** the distance in the data buffer between horizontally adjacent cells */
+        private long colStep;
+
+        /** the order in which the rows of the data buffer are shown, or null for their natural order */
+        private RowOrder rowOrder = null;
+
         /**
          * Create the HDF extended Data Display Provider for the supplied data object
          *
@@ -187,12 +216,16 @@ public class DataProviderFactory {
         HDFDataProvider(final Datatype dtype, final Object dataBuf, final boolean dataTransposed)
             throws Exception
         {
-            this.dataBuf = dataBuf;
+            this.unsignedTypeSize =
+                ((dtype.isInteger() || dtype.isChar()) && dtype.isUnsigned()) ? dtype.getDatatypeSize() : 0;
+
+            this.dataBuf  = dataBuf;
+            this.typedBuf = wrapDataBuffer(dataBuf);
 
             this.originalFormatClass = dataFormatReference.getOriginalClass();
 
             char runtimeTypeClass = Utils.getJavaObjectRuntimeClass(dataBuf);
-            if (runtimeTypeClass == ' ') {
+            if ((runtimeTypeClass == ' ') && (typedBuf == null)) {
                 log.debug("invalid data value runtime type class: runtimeTypeClass={}", runtimeTypeClass);
                 throw new IllegalStateException("Invalid data value runtime type class: " + runtimeTypeClass);
             }
@@ -211,6 +244,7 @@ public class DataProviderFactory {
                 rowCount = (int)dataFormatReference.getSelectedDims()[0];
                 colCount = 1;
             }
+            updateIndexMapping();
             log.trace("constructor:class={} rowCount={} colCount={}", runtimeTypeClass, rowCount, colCount);
 
             theValue       = null;
@@ -220,6 +254,42 @@ public class DataProviderFactory {
                                this instanceof VlenDataProvider);
         }
 
+        /**
+         * Wraps a data buffer in a primitive-typed view. If the buffer holds unsigned
+         * values in their native width, the view reads them as unsigned, e.g. an
+         * unsigned byte is returned as a Short without converting the whole buffer.
+         *
+         * @param buf
+         *        the data buffer to wrap
+         *
+         * @return the view over the buffer, or null if it is not a primitive array
+         */
+        private DataBuffer wrapDataBuffer(Object buf)
+        {
+            DataBuffer view = DataBuffer.wrap(buf);
+            if ((view != null) && (unsignedTypeSize > 0) && (view.getElementSize() == unsignedTypeSize))
+                view.setUnsigned(true);
+
+            return view;
+        }
+
+        /**
+         * Computes the buffer steps used by physicalLocationToBufIndex() for the current
+         * row and column counts. A transposed table walks the buffer down its columns,
+         * whether or not the data is in its original order.
+         */
+        private void updateIndexMapping()
+        {
+            if ((rank > 1) && isDataTransposed) {
+                rowStep = 1;
+                colStep = rowCount;
+            }
+            else {
+                rowStep = colCount;
+                colStep = 1;
+            }
+        }
+
         /**
          * A utility method used to translate a set of physical table coordinates to an
          * index into a data buffer.
@@ -233,28 +303,62 @@ public class DataProviderFactory {
          */
         public int physicalLocationToBufIndex(int rowIndex, int columnIndex)
         {
-            long index = rowIndex * colCount + columnIndex;
+            // called for every visible cell, so the mapping is precomputed and not logged
+            return bufIndex(getDataRow(rowIndex), columnIndex);
+        }
 
-            if (rank > 1) {
-                log.trace(
-                    "physicalLocationToBufIndex({}, {}): rank > 1; adjusting for multi-dimensional dataset",
-                    rowIndex, columnIndex);
-
-                if (isDataTransposed && isNaturalOrder)
-                    index = columnIndex * rowCount + rowIndex;
-                else if (!isDataTransposed && !isNaturalOrder)
-                    // Reshape Data
-                    index = rowIndex * colCount + columnIndex;
-                else if (isDataTransposed && !isNaturalOrder)
-                    // Transpose Data
-                    index = columnIndex * rowCount + rowIndex;
-                else
-                    index = rowIndex * colCount + columnIndex;
-            }
+        private int bufIndex(int row, int columnIndex) { return (int)(row * rowStep + columnIndex * colStep); }
+
+        /**
+         * Translates a row of the table to the row of the data buffer it shows, which differs
+         * if the rows are sorted or filtered.
+         *
+         * @param rowIndex
+         *        the row of the table
+         *
+         * @return the row of the data buffer
+         */
+        public final int getDataRow(int rowIndex)
+        {
+            return (rowOrder == null) ? rowIndex : rowOrder.getRow(rowIndex);
+        }
+
+        /**
+         * Get the order in which the rows of the data buffer are shown.
+         *
+         * @return the order, or null if the rows are shown in their natural order
+         */
+        final RowOrder getRowOrder() { return rowOrder; }
+
+        /**
+         * Set the order in which the rows of the data buffer are shown. The order is reset
+         * when the data buffer is updated.
+         *
+         * @param order
+         *        the order, or null to show the rows in their natural order
+         */
+        final void setRowOrder(RowOrder order)
+        {
+            if ((rowOrder != null) && (rowOrder != order))
+                rowOrder.close();
+            rowOrder = order;
+        }
 
-            log.trace("physicalLocationToBufIndex({}, {}, {}): finish", rowIndex, columnIndex, index);
+        /**
+         * Get a column of the data buffer to sort or filter the rows of the table by.
+         *
+         * @param columnIndex
+         *        the column of the table
+         *
+         * @return the column, or null if its values are not plain numbers
+         */
+        RowOrder.Column getSortColumn(final int columnIndex)
+        {
+            DataBuffer buf = getNumericBuffer();
+            if (buf == null)
+                return null;
 
-            return (int)index;
+            return new RowOrder.Column(buf, row -> bufIndex(row, columnIndex));
         }
 
         @Override
@@ -262,7 +366,9 @@ public class DataProviderFactory {
         {
             try {
                 int bufIndex = physicalLocationToBufIndex(rowIndex, columnIndex);
-                if (dataBuf instanceof ArrayList)
+                if (typedBuf != null)
+                    theValue = typedBuf.getValue(bufIndex);
+                else if (dataBuf instanceof ArrayList)
                     theValue = ((ArrayList)dataBuf).get(bufIndex);
                 else
                     theValue = Array.get(dataBuf, bufIndex);
@@ -272,8 +378,6 @@ public class DataProviderFactory {
                 theValue = DataFactoryUtils.errStr;
             }
 
-            log.trace("getDataValue({}, {})=({}): finish", rowIndex, columnIndex, theValue);
-
             return theValue;
         }
 
@@ -329,7 +433,11 @@ public class DataProviderFactory {
         public Object getDataValue(Object obj, int index)
         {
             try {
-                if (obj instanceof ArrayList)
+                if ((obj == dataBuf) && (typedBuf != null))
+                    theValue = typedBuf.getValue(index);
+                else if (obj instanceof DataBuffer)
+                    theValue = ((DataBuffer)obj).getValue(index);
+                else if (obj instanceof ArrayList)
                     theValue = ((ArrayList)obj).get(index);
                 else
                     theValue = Array.get(obj, index);
@@ -339,8 +447,6 @@ public class DataProviderFactory {
                 theValue = DataFactoryUtils.errStr;
             }
 
-            log.trace("getDataValue({})=({}): finish", index, theValue);
-
             return theValue;
         }
 
@@ -437,7 +543,12 @@ public class DataProviderFactory {
             }
 
             // No need to update if values are the same
-            int buf_size = Array.getLength(bufObject);
+            // Unsigned values in their native width are parsed as unsigned through the view
+            if ((bufObject == dataBuf) && (typedBuf != null) && typedBuf.isUnsigned())
+                bufObject = typedBuf;
+
+            int buf_size = (bufObject instanceof DataBuffer) ? ((DataBuffer)bufObject).size()
+                                                             : Array.getLength(bufObject);
             log.trace("updateAtomicValue(): bufObject size is {}", buf_size);
             if (buf_size > 0) {
                 Object oldVal = this.getDataValue(bufObject, bufIndex);
@@ -447,6 +558,18 @@ public class DataProviderFactory {
                 }
             }
 
+            if (bufObject instanceof DataBuffer) {
+                DataBuffer view = (DataBuffer)bufObject;
+                log.trace("updateAtomicValue(): DataBuffer typeClass={}", view.getTypeClass());
+                if ((view.getTypeClass() == 'F') || (view.getTypeClass() == 'D'))
+                    view.setDouble(bufIndex, Double.parseDouble((String)newValue));
+                else
+                    view.setLong(bufIndex, view.parseLong((String)newValue));
+
+                markValueChanged(bufObject, bufIndex);
+                return;
+            }
+
             String bname = bufObject.getClass().getName();
             String nname = newValue.getClass().getName();
             log.trace("updateArrayOfAtomicElements(): bufObject cname={} of data newValue={}", bname, nname);
@@ -536,7 +659,29 @@ public class DataProviderFactory {
                 break;
             }
 
+            markValueChanged(bufObject, bufIndex);
+        }
+
+        /**
+         * Marks the data value as changed and records the changed element if bufObject
+         * is the data buffer of this provider.
+         *
+         * @param bufObject
+         *        the data object that was updated
+         * @param bufIndex
+         *        the index of the updated element
+         */
+        protected final void markValueChanged(Object bufObject, int bufIndex)
+        {
             isValueChanged = true;
+
+            if (changedIndices == null)
+                return;
+
+            if ((bufObject == dataBuf) || (bufObject == typedBuf))
+                changedIndices.set(bufIndex);
+            else
+                changedIndices = null;
         }
 
         @Override
@@ -548,7 +693,7 @@ public class DataProviderFactory {
         @Override
         public int getRowCount()
         {
-            return (int)rowCount;
+            return (rowOrder != null) ? rowOrder.size() : (int)rowCount;
         }
 
         /**
@@ -557,7 +702,21 @@ public class DataProviderFactory {
          * @param isChanged
          *        if the data value is changed
          */
-        public final void setIsValueChanged(boolean isChanged) { isValueChanged = isChanged; }
+        public final void setIsValueChanged(boolean isChanged)
+        {
+            isValueChanged = isChanged;
+            changedIndices = isChanged ? null : new BitSet();
+        }
+
+        /**
+         * Get the primitive-typed view of the data buffer if the cell values are plain
+         * numbers read straight from it, so that many cells can be formatted or parsed
+         * without going through getDataValue() and setDataValue().
+         *
+         * @return the view over the data buffer, or null if the cell values are
+         *         converted or are not numbers
+         */
+        public DataBuffer getNumericBuffer() { return null; }
 
         /**
          * Check if the datavalue has changed
@@ -566,6 +725,15 @@ public class DataProviderFactory {
          */
         public final boolean getIsValueChanged() { return isValueChanged; }
 
+        /**
+         * Get the indices of the elements of the data buffer that have changed since
+         * the value was last marked as unchanged.
+         *
+         * @return the changed indices, or null if they are not known, e.g. for
+         *         compound, array and variable-length data
+         */
+        public final BitSet getChangedIndices() { return isContainerType ? null : changedIndices; }
+
         /**
          * Update the data buffer for this HDFDataProvider. This is necessary for when
          * the data that has been read is invalidated, such as when flipping through
@@ -576,7 +744,10 @@ public class DataProviderFactory {
          */
         public final void updateDataBuffer(Object newBuf)
         {
-            this.dataBuf = newBuf;
+            this.dataBuf        = newBuf;
+            this.typedBuf       = wrapDataBuffer(newBuf);
+            this.changedIndices = isValueChanged ? null : new BitSet();
+            setRowOrder(null);
 
             if (rank > 1) {
                 rowCount = dataFormatReference.getHeight();
@@ -586,6 +757,7 @@ public class DataProviderFactory {
                 rowCount = (int)dataFormatReference.getSelectedDims()[0];
                 colCount = 1;
             }
+            updateIndexMapping();
             log.trace("updateDataBuffer: rowCount={} colCount={}", rowCount, colCount);
         }
     }
@@ -676,7 +848,7 @@ public class DataProviderFactory {
         {
             try {
                 int fieldIdx = columnIndex;
-                int rowIdx   = rowIndex;
+                int rowIdx   = getDataRow(rowIndex);
 
                 if (nSubColumns > 1) { // multi-dimension compound dataset
                     /*
@@ -687,7 +859,7 @@ public class DataProviderFactory {
                     fieldIdx %= selectedMemberTypes.length;
 
                     int realColIdx = columnIndex / selectedMemberTypes.length;
-                    rowIdx         = rowIndex * nSubColumns + realColIdx;
+                    rowIdx         = rowIdx * nSubColumns + realColIdx;
                 }
 
                 int providerIndex = baseProviderIndexMap.get(fieldIdx);
@@ -811,7 +983,7 @@ public class DataProviderFactory {
 
             try {
                 int fieldIdx = columnIndex;
-                int rowIdx   = rowIndex;
+                int rowIdx   = getDataRow(rowIndex);
 
                 if (nSubColumns > 1) { // multi-dimension compound dataset
                     /*
@@ -822,7 +994,7 @@ public class DataProviderFactory {
                     fieldIdx %= selectedMemberTypes.length;
 
                     int realColIdx = columnIndex / selectedMemberTypes.length;
-                    rowIdx         = rowIndex * nSubColumns + realColIdx;
+                    rowIdx         = rowIdx * nSubColumns + realColIdx;
                 }
 
                 int providerIndex = baseProviderIndexMap.get(fieldIdx);
@@ -918,7 +1090,30 @@ public class DataProviderFactory {
         @Override
         public int getRowCount()
         {
-            return nRows;
+            return (getRowOrder() != null) ? getRowOrder().size() : nRows;
+        }
+
+        @Override
+        RowOrder.Column getSortColumn(int columnIndex)
+        {
+            int fieldIdx   = columnIndex % selectedMemberTypes.length;
+            int realColIdx = columnIndex / selectedMemberTypes.length;
+
+            // only atomic numeric members are held in a primitive array of their own
+            Datatype type = selectedMemberTypes[fieldIdx];
+            if (!(type.isInteger() || type.isFloat()) || (type.isFloat() && (type.getDatatypeSize() == 2)))
+                return null;
+
+            DataBuffer buf = DataBuffer.wrap(((List<?>)dataBuf).get(baseProviderIndexMap.get(fieldIdx)));
+            if (buf == null)
+                return null;
+            if (type.isUnsigned() && (buf.getElementSize() == type.getDatatypeSize()))
+                buf.setUnsigned(true);
+
+            if (nSubColumns > 1)
+                return new RowOrder.Column(buf, row -> row * nSubColumns + realColIdx);
+            else
+                return new RowOrder.Column(buf, row -> row);
         }
     }
 
@@ -1563,6 +1758,8 @@ public class DataProviderFactory {
 
         private void updateStringBytes(Object curBuf, Object newValue, int bufStartIndex)
         {
+            int index = bufStartIndex;
+
             if (curBuf instanceof String[]) {
                 Array.set(curBuf, bufStartIndex, newValue);
             }
@@ -1585,7 +1782,7 @@ public class DataProviderFactory {
                     curBytes[bufStartIndex + i] = ' ';
             }
 
-            isValueChanged = true;
+            markValueChanged(curBuf, index);
         }
     }
 
@@ -1634,45 +1831,66 @@ public class DataProviderFactory {
         @Override
         public Object getDataValue(int columnIndex, int rowIndex)
         {
-            super.getDataValue(columnIndex, rowIndex);
+            if (!isFLT16 && !isUINT64)
+                return super.getDataValue(columnIndex, rowIndex);
+
+            if (typedBuf == null)
+                return convertValue(super.getDataValue(columnIndex, rowIndex));
 
             try {
-                if (isFLT16)
-                    theValue = Float.float16ToFloat((short)theValue);
-                else if (isUINT64)
-                    theValue = Tools.convertUINT64toBigInt(Long.valueOf((long)theValue));
+                theValue = convertValue(typedBuf.getLong(physicalLocationToBufIndex(rowIndex, columnIndex)));
             }
             catch (Exception ex) {
                 log.debug("getDataValue({}, {}): failure: ", rowIndex, columnIndex, ex);
                 theValue = DataFactoryUtils.errStr;
             }
 
-            log.trace("getDataValue({}, {})=({}): finish", rowIndex, columnIndex, theValue);
-
             return theValue;
         }
 
+        /** 16-bit floats are held as shorts, so their cells are converted when read. */
+        @Override
+        public DataBuffer getNumericBuffer()
+        {
+            return isFLT16 ? null : typedBuf;
+        }
+
         @Override
         public Object getDataValue(Object obj, int index)
         {
             super.getDataValue(obj, index);
 
+            if (isFLT16 || isUINT64)
+                return convertValue(theValue);
+
+            return theValue;
+        }
+
+        /**
+         * Converts a raw value read from the buffer to the value to display: a Float for a
+         * 16-bit float, or a BigInteger for an unsigned 64-bit integer.
+         */
+        private Object convertValue(Object rawValue)
+        {
             try {
-                if (isFLT16)
-                    theValue = Float.float16ToFloat((short)theValue);
-                else if (isUINT64)
-                    theValue = Tools.convertUINT64toBigInt(Long.valueOf((long)theValue));
+                theValue = convertValue(((Number)rawValue).longValue());
             }
             catch (Exception ex) {
-                log.debug("getDataValue({}): failure: ", index, ex);
+                log.debug("convertValue({}): failure: ", rawValue, ex);
                 theValue = DataFactoryUtils.errStr;
             }
 
-            log.trace("getDataValue({})=({}): finish", index, theValue);
-
             return theValue;
         }
 
+        private Object convertValue(long rawValue)
+        {
+            if (isFLT16)
+                return Float.float16ToFloat((short)rawValue);
+
+            return Tools.convertUINT64toBigInt(rawValue);
+        }
+
         /**
          * update the data value of a type.
          *
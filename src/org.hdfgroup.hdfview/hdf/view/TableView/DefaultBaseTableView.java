@@ -16,7 +16,7 @@ package hdf.view.TableView;
 import java.awt.Toolkit;
 import java.awt.datatransfer.Clipboard;
 import java.awt.datatransfer.DataFlavor;
-import java.awt.datatransfer.StringSelection;
+import java.awt.datatransfer.Transferable;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.DataOutputStream;
@@ -30,6 +30,8 @@ import java.io.PrintWriter;
 import java.lang.reflect.Array;
 import java.lang.reflect.Constructor;
 import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.text.DecimalFormat;
 import java.text.NumberFormat;
 import java.util.ArrayList;
@@ -40,8 +42,14 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.StringTokenizer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.LongPredicate;
 
 import hdf.object.CompoundDS;
+import hdf.object.DataBuffer;
 import hdf.object.DataFormat;
 import hdf.object.Dataset;
 import hdf.object.Datatype;
@@ -52,15 +60,19 @@ import hdf.object.ScalarDS;
 import hdf.object.h5.H5Datatype;
 import hdf.object.h5.H5ReferenceType;
 import hdf.view.Chart;
+import hdf.view.DatasetNpyFile;
+import hdf.view.DatasetSearcher;
 import hdf.view.DataView.DataViewManager;
 import hdf.view.DefaultFileFilter;
 import hdf.view.HDFView;
+import hdf.view.NumberTextFormatter;
 import hdf.view.TableView.DataDisplayConverterFactory.HDFDisplayConverter;
 import hdf.view.TableView.DataProviderFactory.HDFDataProvider;
 import hdf.view.Tools;
 import hdf.view.TreeView.TreeView;
 import hdf.view.ViewProperties;
 import hdf.view.ViewProperties.BITMASK_OP;
+import hdf.view.dialog.FindDataDialog;
 import hdf.view.dialog.InputDialog;
 import hdf.view.dialog.MathConversionDialog;
 import hdf.view.dialog.NewDatasetDialog;
@@ -103,6 +115,7 @@ import org.eclipse.nebula.widgets.nattable.painter.cell.decorator.BeveledBorderD
 import org.eclipse.nebula.widgets.nattable.painter.cell.decorator.LineBorderDecorator;
 import org.eclipse.nebula.widgets.nattable.selection.SelectionLayer;
 import org.eclipse.nebula.widgets.nattable.selection.command.SelectAllCommand;
+import org.eclipse.nebula.widgets.nattable.selection.command.SelectCellCommand;
 import org.eclipse.nebula.widgets.nattable.style.CellStyleAttributes;
 import org.eclipse.nebula.widgets.nattable.style.DisplayMode;
 import org.eclipse.nebula.widgets.nattable.style.HorizontalAlignmentEnum;
@@ -852,6 +865,72 @@ public abstract class DefaultBaseTableView implements TableView {
             }
         });
 
+        item = new MenuItem(tableMenu, SWT.PUSH);
+        item.setText("Find...");
+        item.setAccelerator(SWT.CTRL | 'F');
+        item.setEnabled((dataObject instanceof ScalarDS) || (dataObject instanceof CompoundDS));
+        item.addSelectionListener(new SelectionAdapter() {
+            @Override
+            public void widgetSelected(SelectionEvent e)
+            {
+                new FindDataDialog(shell, (Dataset)dataObject, match -> {
+                    try {
+                        showDataPoint(match.getCoordinates(), match.getMember());
+                    }
+                    catch (Exception ex) {
+                        log.debug("Find: show data point:", ex);
+                        theShell.getDisplay().beep();
+                        Tools.showError(theShell, "Find", ex.getMessage());
+                    }
+                }).open();
+            }
+        });
+
+        new MenuItem(tableMenu, SWT.SEPARATOR);
+
+        item = new MenuItem(tableMenu, SWT.PUSH);
+        item.setText("Sort Rows Ascending");
+        item.addSelectionListener(new SelectionAdapter() {
+            @Override
+            public void widgetSelected(SelectionEvent e)
+            {
+                sortRows(false, false);
+            }
+        });
+
+        item = new MenuItem(tableMenu, SWT.PUSH);
+        item.setText("Sort Rows Descending");
+        item.addSelectionListener(new SelectionAdapter() {
+            @Override
+            public void widgetSelected(SelectionEvent e)
+            {
+                sortRows(true, false);
+            }
+        });
+
+        item = new MenuItem(tableMenu, SWT.PUSH);
+        item.setText("Filter Rows...");
+        item.addSelectionListener(new SelectionAdapter() {
+            @Override
+            public void widgetSelected(SelectionEvent e)
+            {
+                sortRows(false, true);
+            }
+        });
+
+        item = new MenuItem(tableMenu, SWT.PUSH);
+        item.setText("Show All Rows");
+        item.addSelectionListener(new SelectionAdapter() {
+            @Override
+            public void widgetSelected(SelectionEvent e)
+            {
+                if (dataProvider.getRowOrder() != null) {
+                    dataProvider.setRowOrder(null);
+                    dataTable.doCommand(new StructuralRefreshCommand());
+                }
+            }
+        });
+
         new MenuItem(tableMenu, SWT.SEPARATOR);
 
         item = new MenuItem(tableMenu, SWT.PUSH);
@@ -955,8 +1034,17 @@ public abstract class DefaultBaseTableView implements TableView {
                     double[] minmax = new double[2];
                     double[] stat   = new double[2];
 
-                    Tools.findMinMax(theData, minmax, fillValue);
-                    if (Tools.computeStatistics(theData, stat, fillValue) > 0) {
+                    /*
+                     * Unsigned integers are kept in their native width, so read them
+                     * through an unsigned view.
+                     */
+                    DataBuffer theBuf = DataBuffer.wrap(theData);
+                    if ((theBuf != null) && (dataObject instanceof ScalarDS) &&
+                        (theBuf.getElementSize() == dataObject.getDatatype().getDatatypeSize()))
+                        theBuf.setUnsigned(dataObject.getDatatype().isUnsigned());
+
+                    Tools.findMinMax(theBuf, minmax, fillValue);
+                    if (Tools.computeStatistics(theBuf, stat, fillValue) > 0) {
                         String stats = "Min                      = " + minmax[0] +
                                        "\nMax                      = " + minmax[1] +
                                        "\nMean                     = " + stat[0] +
@@ -1062,6 +1150,23 @@ public abstract class DefaultBaseTableView implements TableView {
             }
         });
 
+        item = new MenuItem(exportMenu, SWT.PUSH);
+        item.setText("NumPy File");
+        item.setEnabled(dataObject instanceof Dataset);
+        item.addSelectionListener(new SelectionAdapter() {
+            @Override
+            public void widgetSelected(SelectionEvent e)
+            {
+                try {
+                    saveAsNumpy();
+                }
+                catch (Exception ex) {
+                    theShell.getDisplay().beep();
+                    Tools.showError(theShell, "Save", ex.getMessage());
+                }
+            }
+        });
+
         item = new MenuItem(importExportMenu, SWT.CASCADE);
         item.setText("Import Data from");
 
@@ -1112,6 +1217,23 @@ public abstract class DefaultBaseTableView implements TableView {
             }
         });
 
+        item = new MenuItem(importMenu, SWT.PUSH);
+        item.setText("NumPy File");
+        item.setEnabled(!isReadOnly && (dataObject instanceof Dataset));
+        item.addSelectionListener(new SelectionAdapter() {
+            @Override
+            public void widgetSelected(SelectionEvent e)
+            {
+                try {
+                    importNumpyData();
+                }
+                catch (Exception ex) {
+                    theShell.getDisplay().beep();
+                    Tools.showError(theShell, "Import", ex.getMessage());
+                }
+            }
+        });
+
         return menuBar;
     }
 
@@ -1232,7 +1354,11 @@ public abstract class DefaultBaseTableView implements TableView {
         }
 
         try {
-            dataObject.write();
+            // only write the edited regions of a dataset instead of its whole buffer
+            if (dataObject instanceof Dataset)
+                ((Dataset)dataObject).writeChanges(dataProvider.getChangedIndices());
+            else
+                dataObject.write();
         }
         catch (Exception ex) {
             shell.getDisplay().beep();
@@ -1410,15 +1536,10 @@ public abstract class DefaultBaseTableView implements TableView {
         shell.setCursor(display.getSystemCursor(SWT.CURSOR_WAIT));
 
         try {
-            dataValue = dataObject.getData();
-
             /*
-             * TODO: Converting data from unsigned C integers to Java integers
-             *       is currently unsupported for Compound Datasets.
+             * Unsigned integer data is kept in its native width and read through
+             * an unsigned view by the data provider.
              */
-            if (!(dataObject instanceof CompoundDS))
-                dataObject.convertFromUnsignedC();
-
             dataValue = dataObject.getData();
         }
         catch (Exception ex) {
@@ -1431,18 +1552,189 @@ public abstract class DefaultBaseTableView implements TableView {
             shell.setCursor(null);
         }
 
+        boolean isOrdered = (dataProvider.getRowOrder() != null);
         dataProvider.updateDataBuffer(dataValue);
 
-        dataTable.doCommand(new VisualRefreshCommand());
+        // the rows of the new frame are shown in their natural order
+        if (isOrdered)
+            dataTable.doCommand(new StructuralRefreshCommand());
+        else
+            dataTable.doCommand(new VisualRefreshCommand());
     }
 
     /**
-     * Copy data from the spreadsheet to the system clipboard.
+     * Selects the cell of a data point of the dataset, such as a match found by DatasetSearcher. If the
+     * point is in another frame, the table flips to that frame; if it is outside the data loaded, the
+     * selection is moved, keeping its size and stride, so that the point is loaded.
+     *
+     * @param coords
+     *            the coordinates of the data point in the dataset.
+     * @param member
+     *            the index of the selected compound member to select, or -1 for a scalar dataset.
      */
-    private void copyData()
+    private void showDataPoint(long[] coords, int member)
+    {
+        int rank = dataObject.getRank();
+        if ((coords == null) || (coords.length != rank))
+            return;
+
+        long[] start        = dataObject.getStartDims();
+        long[] stride       = dataObject.getStride();
+        long[] count        = dataObject.getSelectedDims();
+        int[] selectedIndex = dataObject.getSelectedIndex();
+        int rowDim          = selectedIndex[0];
+        int colDim          = (rank > 1) ? selectedIndex[1] : -1;
+        int frameDim        = (rank > 2) ? selectedIndex[2] : -1;
+
+        boolean isLoaded = true;
+        for (int d = 0; d < rank; d++) {
+            if (d == frameDim)
+                continue;
+
+            long offset = coords[d] - start[d];
+            if ((offset < 0) || (offset % stride[d] != 0) || (offset / stride[d] >= count[d]))
+                isLoaded = false;
+        }
+
+        if (isLoaded) {
+            if ((frameDim >= 0) && (coords[frameDim] != start[frameDim]))
+                gotoFrame(coords[frameDim]);
+        }
+        else {
+            // Make sure to save any changes to the data shown before moving the selection
+            if (dataProvider.getIsValueChanged())
+                updateValueInFile();
+
+            for (int d = 0; d < rank; d++) {
+                if (d == frameDim)
+                    start[d] = coords[d];
+                else
+                    start[d] = coords[d] - Math.min(count[d] - 1, coords[d] / stride[d]) * stride[d];
+            }
+
+            if (frameDim >= 0) {
+                curDataFrame = start[frameDim] + indexBase;
+                frameField.setText(String.valueOf(curDataFrame));
+            }
+
+            refreshDataTable();
+        }
+
+        int row = (int)((coords[rowDim] - start[rowDim]) / stride[rowDim]);
+        int col = (colDim >= 0) ? (int)((coords[colDim] - start[colDim]) / stride[colDim]) : 0;
+
+        RowOrder order = dataProvider.getRowOrder();
+        if ((order != null) && ((row = order.positionOf(row)) < 0)) {
+            // the row is filtered out, so show all rows again
+            row = (int)((coords[rowDim] - start[rowDim]) / stride[rowDim]);
+            dataProvider.setRowOrder(null);
+            dataTable.doCommand(new StructuralRefreshCommand());
+        }
+        if ((member >= 0) && (dataObject instanceof CompoundDS))
+            col = col * ((CompoundDS)dataObject).getSelectedMemberCount() + member;
+
+        SelectCellCommand command = new SelectCellCommand(selectionLayer, col, row, false, false);
+        command.setForcingEntireCellIntoViewport(true);
+        dataTable.doCommand(command);
+    }
+
+    /**
+     * Sorts the rows of the table by the values of the selected column, or shows only the rows whose
+     * values in the selected column are in a range. The order of the rows is built in the background; it
+     * lasts until the data is reloaded, e.g. by flipping to another frame.
+     *
+     * @param descending
+     *            true to show the largest values first.
+     * @param filter
+     *            true to ask for the range of values of the rows to show.
+     */
+    private void sortRows(final boolean descending, final boolean filter)
     {
-        StringBuilder sb = new StringBuilder();
+        int[] selectedCols = selectionLayer.getSelectedColumnPositions();
+        if (selectedCols.length <= 0) {
+            Tools.showInformation(shell, "Sort", "Select a cell of the column to sort by.");
+            return;
+        }
+
+        final RowOrder.Column column =
+            dataProvider.getSortColumn(selectionLayer.getColumnIndexByPosition(selectedCols[0]));
+        if (column == null) {
+            shell.getDisplay().beep();
+            Tools.showError(shell, "Sort", "Only columns of numbers can be sorted or filtered.");
+            return;
+        }
+
+        LongPredicate range = null;
+        if (filter) {
+            String text = new InputDialog(shell, "Filter Rows",
+                                          "Show the rows with values in the selected column from (min, max):")
+                              .open();
+            if ((text == null) || (text.trim().length() < 1))
+                return;
+
+            try {
+                StringTokenizer st = new StringTokenizer(text, ", \t");
+                double min         = Double.parseDouble(st.nextToken());
+                double max         = st.hasMoreTokens() ? Double.parseDouble(st.nextToken()) : min;
+                range              = column.range(min, max);
+            }
+            catch (Exception ex) {
+                shell.getDisplay().beep();
+                Tools.showError(shell, "Filter Rows", "Enter a minimum and a maximum value, e.g. 0, 10");
+                return;
+            }
+        }
+
+        final LongPredicate rowFilter = range;
+        final Object sortedBuf        = dataValue;
+        final int nRows               = (int)dataObject.getHeight();
 
+        shell.setCursor(display.getSystemCursor(SWT.CURSOR_WAIT));
+        CompletableFuture
+            .supplyAsync(() -> {
+                try {
+                    return RowOrder.sort(column, nRows, descending, rowFilter);
+                }
+                catch (Exception ex) {
+                    throw new CompletionException(ex);
+                }
+            })
+            .whenComplete((order, err) -> {
+                if (display.isDisposed())
+                    return;
+
+                display.asyncExec(() -> {
+                    if (!shell.isDisposed())
+                        shell.setCursor(null);
+
+                    if (err != null) {
+                        Throwable cause = (err instanceof CompletionException) ? err.getCause() : err;
+                        log.debug("sortRows(): ", cause);
+                        shell.getDisplay().beep();
+                        Tools.showError(shell, "Sort", cause.getMessage());
+                        return;
+                    }
+
+                    // the data was reloaded while sorting
+                    if (shell.isDisposed() || (dataValue != sortedBuf)) {
+                        order.close();
+                        return;
+                    }
+
+                    dataProvider.setRowOrder(order);
+                    dataTable.doCommand(new StructuralRefreshCommand());
+                    viewer.showStatus(filter ? (order.size() + " of " + nRows + " rows shown")
+                                             : (nRows + " rows sorted"));
+                });
+            });
+    }
+
+    /**
+     * Copy data from the spreadsheet to the system clipboard. Plain numeric data is formatted in the
+     * background; a selection too large to hold in memory may be copied to a temporary file instead.
+     */
+    private void copyData()
+    {
         Rectangle selection = selectionLayer.getLastSelectedRegion();
         if (selection == null) {
             Tools.showError(shell, "Copy", "Select data to copy.");
@@ -1457,36 +1749,119 @@ public abstract class DefaultBaseTableView implements TableView {
 
         int nr = selectionLayer.getSelectedRowCount();
         int nc = selectionLayer.getSelectedColumnPositions().length;
-        int r1 = r0 + nr; // finish row
-        int c1 = c0 + nc; // finishing column
 
-        try {
-            for (int i = r0; i < r1; i++) {
-                sb.append(selectionLayer.getDataValueByPosition(c0, i).toString());
-                for (int j = c0 + 1; j < c1; j++)
-                    sb.append("\t").append(selectionLayer.getDataValueByPosition(j, i).toString());
-                sb.append("\n");
+        int[] rows = new int[nr];
+        for (int i = 0; i < nr; i++)
+            rows[i] = selectionLayer.getRowIndexByPosition(r0 + i);
+        int[] cols = new int[nc];
+        for (int j = 0; j < nc; j++)
+            cols[j] = selectionLayer.getColumnIndexByPosition(c0 + j);
+
+        final TableClipboard clipboard = new TableClipboard(dataProvider, rows, cols);
+
+        File spillFile = null;
+        long size      = clipboard.estimateSize();
+        if (size > TableClipboard.getSpillThreshold()) {
+            String msg = "The selected data is about " + (size / (1024 * 1024)) +
+                         " MB of text and may not fit in memory.\n" +
+                         "Do you want to copy it to a temporary file instead?";
+            if (Tools.showConfirm(shell, "Copy", msg)) {
+                try {
+                    spillFile = File.createTempFile("hdfview-copy", ".txt");
+                    spillFile.deleteOnExit();
+                }
+                catch (IOException ex) {
+                    shell.getDisplay().beep();
+                    Tools.showError(shell, "Copy", "Unable to create a temporary file: " + ex.getMessage());
+                    return;
+                }
             }
         }
-        catch (java.lang.OutOfMemoryError err) {
-            shell.getDisplay().beep();
-            Tools.showError(
-                shell, "Copy",
-                "Copying data to system clipboard failed. \nUse \"export/import data\" for copying/pasting large data.");
+
+        final File file = spillFile;
+        log.trace("copyData(): {} x {} cells, about {} chars, file={}", nr, nc, size, file);
+
+        // values read through the data provider must be read on this thread
+        if (!clipboard.isParallel()) {
+            try {
+                Transferable contents = (file == null) ? clipboard.copyToText() : clipboard.copyToFile(file);
+                setClipboardContents(contents, file, (long)nr * nc);
+            }
+            catch (Exception | OutOfMemoryError ex) {
+                showCopyError(ex);
+            }
             return;
         }
 
-        Clipboard cb             = Toolkit.getDefaultToolkit().getSystemClipboard();
-        StringSelection contents = new StringSelection(sb.toString());
+        viewer.showStatus("Copying " + ((long)nr * nc) + " values");
+        ExecutorService runner = newTransferRunner("hdf-view-copy");
+        CompletableFuture
+            .supplyAsync(() -> {
+                try {
+                    return (file == null) ? clipboard.copyToText() : clipboard.copyToFile(file);
+                }
+                catch (Exception ex) {
+                    throw new CompletionException(ex);
+                }
+            }, runner)
+            .whenComplete((contents, err) -> {
+                runner.shutdown();
+                if (display.isDisposed())
+                    return;
+
+                display.asyncExec(() -> {
+                    if (err != null)
+                        showCopyError((err instanceof CompletionException) ? err.getCause() : err);
+                    else
+                        setClipboardContents(contents, file, (long)nr * nc);
+                });
+            });
+    }
+
+    /**
+     * Returns the thread that runs one clipboard transfer. The transfer waits on the pool of
+     * TableClipboard and may write a file, so it is not run in the common pool.
+     */
+    private static ExecutorService newTransferRunner(String name)
+    {
+        return Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, name);
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    private void setClipboardContents(Transferable contents, File file, long ncells)
+    {
+        Clipboard cb = Toolkit.getDefaultToolkit().getSystemClipboard();
         cb.setContents(contents, null);
+
+        if (file == null)
+            viewer.showStatus(ncells + " values copied");
+        else
+            viewer.showStatus(ncells + " values copied to: " + file.getAbsolutePath());
+    }
+
+    private void showCopyError(Throwable err)
+    {
+        log.debug("copyData(): ", err);
+        shell.getDisplay().beep();
+        if (err instanceof OutOfMemoryError)
+            Tools.showError(
+                shell, "Copy",
+                "Copying data to system clipboard failed. \nUse \"export/import data\" for copying/pasting large data.");
+        else
+            Tools.showError(shell, "Copy", err.getMessage());
     }
 
     /**
-     * Paste data from the system clipboard to the spreadsheet.
+     * Paste data from the system clipboard to the spreadsheet. The text is parsed in the background
+     * and the pasted values are written to file.
      */
     private void pasteData()
     {
-        if (!Tools.showConfirm(shell, "Clipboard Data", "Do you want to paste selected data?"))
+        if (!Tools.showConfirm(shell, "Clipboard Data",
+                               "Do you want to paste selected data?\nThe changed values are saved to file."))
             return;
 
         int cols = selectionLayer.getPreferredColumnCount();
@@ -1504,55 +1879,69 @@ public abstract class DefaultBaseTableView implements TableView {
             c0 = 0;
         if (r0 < 0)
             r0 = 0;
-        int r = r0;
-        int c = c0;
 
-        Clipboard cb = Toolkit.getDefaultToolkit().getSystemClipboard();
-        String line  = "";
+        String text;
         try {
-            String s = (String)cb.getData(DataFlavor.stringFlavor);
-
-            StringTokenizer st = new StringTokenizer(s, "\n");
-            // read line by line
-            while (st.hasMoreTokens() && (r < rows)) {
-                line = st.nextToken();
-
-                if (fixedDataLength < 1) {
-                    // separate by delimiter
-                    StringTokenizer lt = new StringTokenizer(line, "\t");
-                    while (lt.hasMoreTokens() && (c < cols)) {
-                        try {
-                            dataProvider.setDataValue(c, r, lt.nextToken());
-                        }
-                        catch (Exception ex) {
-                            continue;
-                        }
-                        c++;
-                    }
-                    r = r + 1;
-                    c = c0;
-                }
-                else {
-                    // the data has fixed length
-                    int n = line.length();
-                    String theVal;
-                    for (int i = 0; i < n; i = i + fixedDataLength) {
-                        try {
-                            theVal = line.substring(i, i + fixedDataLength);
-                            dataProvider.setDataValue(c, r, theVal);
-                        }
-                        catch (Exception ex) {
-                            continue;
-                        }
-                        c++;
-                    }
-                }
-            }
+            Clipboard cb = Toolkit.getDefaultToolkit().getSystemClipboard();
+            text         = (String)cb.getData(DataFlavor.stringFlavor);
         }
         catch (Exception ex) {
             shell.getDisplay().beep();
             Tools.showError(shell, "Paste", ex.getMessage());
+            return;
         }
+
+        // only the rows that the lines of text reach
+        long nlines = 1;
+        for (int i = text.indexOf('\n'); (i >= 0) && (i < text.length() - 1); i = text.indexOf('\n', i + 1))
+            nlines++;
+
+        int[] rowIndices = new int[(int)Math.max(0, Math.min(rows - r0, nlines))];
+        for (int i = 0; i < rowIndices.length; i++)
+            rowIndices[i] = selectionLayer.getRowIndexByPosition(r0 + i);
+        int[] colIndices = new int[Math.max(0, cols - c0)];
+        for (int j = 0; j < colIndices.length; j++)
+            colIndices[j] = selectionLayer.getColumnIndexByPosition(c0 + j);
+
+        final TableClipboard clipboard = new TableClipboard(dataProvider, rowIndices, colIndices);
+        final int fixedLength          = fixedDataLength;
+
+        shell.setCursor(display.getSystemCursor(SWT.CURSOR_WAIT));
+        ExecutorService runner = newTransferRunner("hdf-view-paste");
+        CompletableFuture
+            .supplyAsync(() -> {
+                try {
+                    return clipboard.parse(text, fixedLength);
+                }
+                catch (Exception ex) {
+                    throw new CompletionException(ex);
+                }
+            }, runner)
+            .whenComplete((cells, err) -> {
+                runner.shutdown();
+                if (display.isDisposed())
+                    return;
+
+                display.asyncExec(() -> {
+                    if (!shell.isDisposed())
+                        shell.setCursor(null);
+
+                    try {
+                        if (err != null)
+                            throw (err instanceof CompletionException) ? err.getCause() : err;
+
+                        int count = clipboard.apply(cells);
+                        dataTable.doCommand(new VisualRefreshCommand());
+                        updateValueInFile();
+                        viewer.showStatus(count + " values pasted");
+                    }
+                    catch (Throwable ex) {
+                        log.debug("pasteData(): ", ex);
+                        shell.getDisplay().beep();
+                        Tools.showError(shell, "Paste", ex.getMessage());
+                    }
+                });
+            });
     }
 
     /**
@@ -1635,12 +2024,14 @@ public abstract class DefaultBaseTableView implements TableView {
         int cols = selectionLayer.getPreferredColumnCount();
         int rows = selectionLayer.getPreferredRowCount();
 
+        NumberTextFormatter formatter = NumberTextFormatter.get();
+        StringBuilder line            = new StringBuilder();
         for (int i = 0; i < rows; i++) {
-            out.print(selectionLayer.getDataValueByPosition(0, i));
-            for (int j = 1; j < cols; j++) {
-                out.print(delimiter);
-                out.print(selectionLayer.getDataValueByPosition(j, i));
-            }
+            line.setLength(0);
+            formatter.appendValue(line, selectionLayer.getDataValueByPosition(0, i));
+            for (int j = 1; j < cols; j++)
+                formatter.appendValue(line.append(delimiter), selectionLayer.getDataValueByPosition(j, i));
+            formatter.write(out, line);
             out.println();
         }
 
@@ -1810,26 +2201,133 @@ public abstract class DefaultBaseTableView implements TableView {
                 return;
         }
 
-        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(chosenFile))) {
-            if (dataObject instanceof ScalarDS) {
-                ((ScalarDS)dataObject).convertToUnsignedC();
-                Object data  = dataObject.getData();
-                ByteOrder bo = ByteOrder.nativeOrder();
+        if (!(dataObject instanceof ScalarDS)) {
+            viewer.showError("Data not saved - not a ScalarDS");
+            return;
+        }
 
-                if (binaryOrder == 1)
-                    bo = ByteOrder.nativeOrder();
-                else if (binaryOrder == 2)
-                    bo = ByteOrder.LITTLE_ENDIAN;
-                else if (binaryOrder == 3)
-                    bo = ByteOrder.BIG_ENDIAN;
+        ((ScalarDS)dataObject).convertToUnsignedC();
+        Object data  = dataObject.getData();
+        ByteOrder bo = ByteOrder.nativeOrder();
 
-                Tools.saveAsBinary(out, data, bo);
+        if (binaryOrder == 1)
+            bo = ByteOrder.nativeOrder();
+        else if (binaryOrder == 2)
+            bo = ByteOrder.LITTLE_ENDIAN;
+        else if (binaryOrder == 3)
+            bo = ByteOrder.BIG_ENDIAN;
 
-                viewer.showStatus("Data saved to: " + fname);
+        DataBuffer buf = DataBuffer.wrap(data);
+        if (buf != null) {
+            // stream the values to the file through a direct buffer
+            try (FileChannel channel = FileChannel.open(chosenFile.toPath(), StandardOpenOption.CREATE,
+                                                        StandardOpenOption.TRUNCATE_EXISTING,
+                                                        StandardOpenOption.WRITE)) {
+                buf.write(channel, bo);
+            }
+        }
+        else {
+            try (DataOutputStream out = new DataOutputStream(new FileOutputStream(chosenFile))) {
+                Tools.saveAsBinary(out, data, bo);
             }
-            else
-                viewer.showError("Data not saved - not a ScalarDS");
         }
+
+        viewer.showStatus("Data saved to: " + fname);
+    }
+
+    /**
+     * Save the data shown in the table as a NumPy .npy or .npz file.
+     *
+     * @throws Exception
+     *             if a failure occurred
+     */
+    protected void saveAsNumpy() throws Exception
+    {
+        String currentDir = ((HObject)dataObject).getFileFormat().getParent();
+
+        String filename = null;
+        if (((HDFView)viewer).getTestState()) {
+            filename = currentDir + File.separator + new InputDialog(shell, "Enter a file name", "").open();
+        }
+        else {
+            FileDialog fChooser = new FileDialog(shell, SWT.SAVE);
+            fChooser.setFilterPath(currentDir);
+
+            DefaultFileFilter filter = DefaultFileFilter.getFileFilterNumpy();
+            fChooser.setFilterExtensions(new String[] {"*", filter.getExtensions()});
+            fChooser.setFilterNames(new String[] {"All Files", filter.getDescription()});
+            fChooser.setFilterIndex(1);
+            fChooser.setText("Save Current Data To NumPy File --- " + ((HObject)dataObject).getName());
+            fChooser.setFileName(((HObject)dataObject).getName() + ".npy");
+
+            filename = fChooser.open();
+        }
+        if (filename == null)
+            return;
+
+        File chosenFile = new File(filename);
+        if (chosenFile.exists() && !Tools.showConfirm(shell, "Save", "File exists. Do you want to replace it?"))
+            return;
+
+        log.trace("saveAsNumpy: file={}", chosenFile);
+
+        DatasetNpyFile.exportData((Dataset)dataObject, dataObject.getData(), chosenFile);
+
+        viewer.showStatus("Data saved to: " + chosenFile.getAbsolutePath());
+    }
+
+    /**
+     * Import the array of a NumPy .npy or .npz file into the selection shown in the
+     * table, writing it to file and reloading the table.
+     *
+     * @throws Exception
+     *             if a failure occurred
+     */
+    protected void importNumpyData() throws Exception
+    {
+        String currentDir = ((HObject)dataObject).getFileFormat().getParent();
+
+        String filename = null;
+        if (((HDFView)viewer).getTestState()) {
+            filename = currentDir + File.separator + new InputDialog(shell, "Enter a file name", "").open();
+        }
+        else {
+            FileDialog fChooser = new FileDialog(shell, SWT.OPEN);
+            fChooser.setFilterPath(currentDir);
+
+            DefaultFileFilter filter = DefaultFileFilter.getFileFilterNumpy();
+            fChooser.setFilterExtensions(new String[] {"*", filter.getExtensions()});
+            fChooser.setFilterNames(new String[] {"All Files", filter.getDescription()});
+            fChooser.setFilterIndex(1);
+
+            filename = fChooser.open();
+        }
+        if (filename == null)
+            return;
+
+        File chosenFile = new File(filename);
+        if (!chosenFile.exists()) {
+            Tools.showError(shell, "Import Data from NumPy File",
+                            "Data import error: " + chosenFile.getName() + " does not exist.");
+            return;
+        }
+
+        if (!Tools.showConfirm(shell, "Import Data from NumPy File",
+                               "Do you want to replace the data in the table? Unsaved changes are discarded."))
+            return;
+
+        // the array is written to file and the table reloaded from it
+        shell.setCursor(display.getSystemCursor(SWT.CURSOR_WAIT));
+        try {
+            DatasetNpyFile.importData((Dataset)dataObject, chosenFile);
+        }
+        finally {
+            shell.setCursor(null);
+        }
+
+        dataProvider.setIsValueChanged(false);
+        refreshDataTable();
+        viewer.showStatus("Data imported from: " + chosenFile.getAbsolutePath());
     }
 
     /**
@@ -2000,7 +2498,15 @@ public abstract class DefaultBaseTableView implements TableView {
             bo = ByteOrder.BIG_ENDIAN;
 
         try {
-            if (Tools.getBinaryDataFromFile(dataValue, chosenFile.getAbsolutePath(), bo))
+            DataBuffer buf = DataBuffer.wrap(dataValue);
+            if (buf != null) {
+                // decode the values straight from the memory-mapped file
+                try (FileChannel channel = FileChannel.open(chosenFile.toPath(), StandardOpenOption.READ)) {
+                    if (buf.read(channel, bo) > 0)
+                        dataProvider.setIsValueChanged(true);
+                }
+            }
+            else if (Tools.getBinaryDataFromFile(dataValue, chosenFile.getAbsolutePath(), bo))
                 dataProvider.setIsValueChanged(true);
 
             dataTable.doCommand(new StructuralRefreshCommand());
@@ -2601,12 +3107,17 @@ public abstract class DefaultBaseTableView implements TableView {
         {
             this.rank          = theDataObject.getRank();
             this.dims          = theDataObject.getSelectedDims();
+            this.startArray    = theDataObject.getStartDims();
+            this.strideArray   = theDataObject.getStride();
             this.selectedIndex = theDataObject.getSelectedIndex();
 
             if (rank > 1)
                 this.nrows = (int)theDataObject.getHeight();
             else
                 this.nrows = (int)dims[0];
+
+            start  = (int)startArray[selectedIndex[0]];
+            stride = (int)strideArray[selectedIndex[0]];
         }
 
         @Override
@@ -2618,13 +3129,15 @@ public abstract class DefaultBaseTableView implements TableView {
         @Override
         public int getRowCount()
         {
-            return nrows;
+            return ((dataProvider != null) && (dataProvider.getRowOrder() != null)) ? dataProvider.getRowCount()
+                                                                                     : nrows;
         }
 
         @Override
         public Object getDataValue(int columnIndex, int rowIndex)
         {
-            return String.valueOf(start + indexBase + (rowIndex * stride));
+            int row = (dataProvider != null) ? dataProvider.getDataRow(rowIndex) : rowIndex;
+            return String.valueOf(start + indexBase + ((long)row * stride));
         }
 
         @Override
@@ -717,7 +717,7 @@ public class DefaultCompoundDSTableView extends DefaultBaseTableView implements
 
                 int nSubColumns = (int)dataFormat.getWidth();
                 int fieldIndex  = event.getColumnPosition();
-                int rowIdx      = event.getRowPosition();
+                int rowIdx      = dataProvider.getDataRow(event.getRowPosition());
 
                 if (nSubColumns > 1) { // multi-dimension compound dataset
                     /*
@@ -730,7 +730,7 @@ public class DefaultCompoundDSTableView extends DefaultBaseTableView implements
                         fieldIndex = selectedMemberTypes.length;
 
                     int realColIdx = event.getColumnPosition() / selectedMemberTypes.length;
-                    rowIdx         = event.getRowPosition() * nSubColumns + realColIdx;
+                    rowIdx         = rowIdx * nSubColumns + realColIdx;
                 }
                 log.trace("CompoundDSCellSelectionListener: CellSelected fieldIndex={}:{}", rowIdx,
                           fieldIndex);
@@ -751,8 +751,9 @@ public class DefaultCompoundDSTableView extends DefaultBaseTableView implements
                 int rowStart  = ((RowHeaderDataProvider)rowHeaderDataProvider).start;
                 int rowStride = ((RowHeaderDataProvider)rowHeaderDataProvider).stride;
 
-                int rowIndex = rowStart + indexBase +
-                               dataTable.getRowIndexByPosition(event.getRowPosition()) * rowStride;
+                int rowIndex =
+                    rowStart + indexBase +
+                    dataProvider.getDataRow(dataTable.getRowIndexByPosition(event.getRowPosition())) * rowStride;
                 Object fieldName = columnHeaderDataProvider.getDataValue(
                     dataTable.getColumnIndexByPosition(event.getColumnPosition()), 0);
 
@@ -163,8 +163,10 @@ public class DefaultScalarDSTableView extends DefaultBaseTableView implements Ta
                 indexBaseGroup.setText(title);
             }
 
-            dataObject.convertFromUnsignedC();
-
+            /*
+             * Unsigned integer data is kept in its native width; the data provider reads
+             * it through an unsigned view instead of converting it to a wider array.
+             */
             dataValue = dataObject.getData();
         }
         catch (Exception ex) {
@@ -190,10 +192,13 @@ public class DefaultScalarDSTableView extends DefaultBaseTableView implements Ta
          * and short[] (converted from unsigned byte)
          */
         if (isDisplayTypeChar && ((runtimeTypeClass == 'B') || (runtimeTypeClass == 'S'))) {
-            int n           = Array.getLength(dataValue);
-            char[] charData = new char[n];
+            boolean isUnsigned = dataObject.getDatatype().isUnsigned();
+            int n              = Array.getLength(dataValue);
+            char[] charData    = new char[n];
             for (int i = 0; i < n; i++) {
-                if (runtimeTypeClass == 'B')
+                if ((runtimeTypeClass == 'B') && isUnsigned)
+                    charData[i] = (char)Byte.toUnsignedInt(Array.getByte(dataValue, i));
+                else if (runtimeTypeClass == 'B')
                     charData[i] = (char)Array.getByte(dataValue, i);
                 else if (runtimeTypeClass == 'S')
                     charData[i] = (char)Array.getShort(dataValue, i);
@@ -1508,15 +1513,14 @@ public class DefaultScalarDSTableView extends DefaultBaseTableView implements Ta
                     dataTable.getDataValueByPosition(event.getColumnPosition(), event.getRowPosition());
                 String strVal = null;
 
-                String[] columnNames =
-                    ((ScalarDSColumnHeaderDataProvider)columnHeaderDataProvider).columnNames;
                 int rowStart  = ((RowHeaderDataProvider)rowHeaderDataProvider).start;
                 int rowStride = ((RowHeaderDataProvider)rowHeaderDataProvider).stride;
+                int dataRow   = dataProvider.getDataRow(dataTable.getRowIndexByPosition(event.getRowPosition()));
 
                 cellLabel.setText(
-                    String.valueOf(rowStart + indexBase +
-                                   dataTable.getRowIndexByPosition(event.getRowPosition()) * rowStride) +
-                    ", " + columnNames[dataTable.getColumnIndexByPosition(event.getColumnPosition())] +
+                    String.valueOf(rowStart + indexBase + dataRow * rowStride) + ", " +
+                    columnHeaderDataProvider.getDataValue(
+                        dataTable.getColumnIndexByPosition(event.getColumnPosition()), 0) +
                     "  =  ");
 
                 if (val == null) {
@@ -1844,13 +1848,8 @@ public class DefaultScalarDSTableView extends DefaultBaseTableView implements Ta
             if (rank > 1) {
                 ncols = (int)theDataObject.getWidth();
 
-                int start  = (int)startArray[selectedIndex[1]];
-                int stride = (int)strideArray[selectedIndex[1]];
-
-                columnNames = new String[ncols];
-
-                for (int i = 0; i < ncols; i++)
-                    columnNames[i] = String.valueOf(start + indexBase + i * stride);
+                // names follow the start of the selection, which moves when showing a search match
+                columnNames = null;
             }
             else {
                 ncols = 1;
@@ -1874,7 +1873,11 @@ public class DefaultScalarDSTableView extends DefaultBaseTableView implements Ta
         @Override
         public Object getDataValue(int columnIndex, int rowIndex)
         {
-            return columnNames[columnIndex];
+            if (columnNames != null)
+                return columnNames[columnIndex];
+
+            return String.valueOf(startArray[selectedIndex[1]] + indexBase +
+                                  columnIndex * strideArray[selectedIndex[1]]);
         }
 
         @Override
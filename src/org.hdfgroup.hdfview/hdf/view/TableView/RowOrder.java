@@ -0,0 +1,590 @@
+/*****************************************************************************
+ * Copyright by The HDF Group.                                               *
+ * All rights reserved.                                                      *
+ *                                                                           *
+ * This file is part of the HDF Java Products distribution.                  *
+ * The full copyright notice, including terms governing use, modification,   *
+ * and redistribution, is contained in the COPYING file, which can be found  *
+ * at the root of the source code distribution tree,                         *
+ * or in https://www.hdfgroup.org/licenses.                                  *
+ * If you do not have access to either file, you may request a copy from     *
+ * help@hdfgroup.org.                                                        *
+ ****************************************************************************/
+
+package hdf.view.TableView;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.LongSummaryStatistics;
+import java.util.PriorityQueue;
+import java.util.function.IntUnaryOperator;
+import java.util.function.LongPredicate;
+import java.util.stream.IntStream;
+
+import hdf.object.DataBuffer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The order in which a table view shows the rows of its data: a permutation of the row numbers of the
+ * data buffer, sorted by the values of one column and optionally limited to the rows whose values are in
+ * a range.
+ *
+ * The order is built by packing the sort key of each row and its row number into one long, so that the
+ * rows are sorted with a single primitive Arrays.parallelSort(). If the key does not fit in the bits left
+ * over by the row number, only its high bits are packed, and the rows that tie on those bits are sorted
+ * again by the full key. If the packed rows take more than a fraction of the heap, they are sorted in
+ * runs that are written to temporary files and merged into a file of row numbers, which is mapped into
+ * memory instead of being held on the heap.
+ */
+public final class RowOrder {
+    private static final Logger log = LoggerFactory.getLogger(RowOrder.class);
+
+    /** The number of rows sorted in memory at a time when the order is built on disk. */
+    private static final int RUN_ROWS = 4 * 1024 * 1024;
+
+    /** The number of longs read or written by one file operation. */
+    private static final int IO_LONGS = 64 * 1024;
+
+    /**
+     * A numeric column of the data buffer. The sort key of a row is a long that compares as the value of
+     * the column does, with NaN after all other values.
+     */
+    public static final class Column {
+        private final DataBuffer buf;
+
+        private final IntUnaryOperator bufIndex;
+
+        private final boolean isFloat;
+
+        private final boolean isUnsignedLong;
+
+        /**
+         * Creates a column over a data buffer.
+         *
+         * @param buf
+         *            the values of the column.
+         * @param bufIndex
+         *            maps a row number to the index of its value in buf.
+         */
+        public Column(DataBuffer buf, IntUnaryOperator bufIndex)
+        {
+            this.buf            = buf;
+            this.bufIndex       = bufIndex;
+            this.isFloat        = (buf.getTypeClass() == 'F') || (buf.getTypeClass() == 'D');
+            this.isUnsignedLong = !isFloat && buf.isUnsigned() && (buf.getElementSize() == 8);
+        }
+
+        /**
+         * Returns the sort key of a row.
+         *
+         * @param row
+         *            the row number.
+         *
+         * @return the sort key.
+         */
+        long key(int row)
+        {
+            int index = bufIndex.applyAsInt(row);
+            if (isFloat)
+                return keyOf(buf.getDouble(index));
+            else if (isUnsignedLong)
+                return buf.getLong(index) ^ Long.MIN_VALUE;
+            else
+                return buf.getLong(index);
+        }
+
+        /**
+         * Returns a filter that accepts the sort keys of the values between min and max, inclusive. NaN
+         * values are never accepted.
+         *
+         * @param min
+         *            the smallest value accepted.
+         * @param max
+         *            the largest value accepted.
+         *
+         * @return the filter of sort keys.
+         */
+        public LongPredicate range(double min, double max)
+        {
+            if (Double.isNaN(min) || Double.isNaN(max) || (min > max) || (isUnsignedLong && (max < 0)))
+                return key -> false;
+
+            final long lo;
+            final long hi;
+            if (isFloat) {
+                lo = keyOf(min);
+                hi = keyOf(max);
+            }
+            else if (isUnsignedLong) {
+                lo = (long)Math.ceil(Math.max(0, min)) ^ Long.MIN_VALUE;
+                hi = (long)Math.floor(max) ^ Long.MIN_VALUE;
+            }
+            else {
+                lo = (long)Math.ceil(min);
+                hi = (long)Math.floor(max);
+            }
+
+            return key -> (key >= lo) && (key <= hi);
+        }
+
+        private static long keyOf(double value)
+        {
+            // one NaN and one zero, so that equal values have equal keys
+            long bits = Double.doubleToLongBits(Double.isNaN(value) ? Double.NaN : value + 0.0);
+            return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+        }
+    }
+
+    /** The row numbers, in the order they are shown. */
+    private final IntBuffer rows;
+
+    /** The file mapped by rows, or null if the order is held in memory. */
+    private final File file;
+
+    /** The number of rows of the data buffer. */
+    private final int nRows;
+
+    /** The row of the table that shows each row of the data buffer, or -1; built by positionOf(). */
+    private int[] positions = null;
+
+    private RowOrder(IntBuffer rows, File file, int nRows)
+    {
+        this.rows  = rows;
+        this.file  = file;
+        this.nRows = nRows;
+    }
+
+    /**
+     * Returns the heap size above which the packed rows are sorted on disk.
+     *
+     * @return the size in bytes.
+     */
+    public static long getSpillThreshold() { return Runtime.getRuntime().maxMemory() / 8; }
+
+    /**
+     * Sorts the rows of a table by the values of a column. Rows with equal values keep their order.
+     *
+     * @param column
+     *            the column to sort by.
+     * @param nRows
+     *            the number of rows of the data buffer.
+     * @param descending
+     *            true to show the largest values first.
+     * @param filter
+     *            accepts the sort keys of the rows to show, see Column.range(); null to show all rows.
+     *
+     * @return the order of the rows.
+     *
+     * @throws IOException
+     *             if the order could not be built on disk.
+     */
+    public static RowOrder sort(Column column, int nRows, boolean descending, LongPredicate filter)
+        throws IOException
+    {
+        return sort(column, nRows, descending, filter, getSpillThreshold());
+    }
+
+    /**
+     * Sorts the rows of a table by the values of a column, building the order on disk if the packed rows
+     * take more than the given size. Rows with equal values keep their order.
+     *
+     * @param column
+     *            the column to sort by.
+     * @param nRows
+     *            the number of rows of the data buffer.
+     * @param descending
+     *            true to show the largest values first.
+     * @param filter
+     *            accepts the sort keys of the rows to show, see Column.range(); null to show all rows.
+     * @param spillThreshold
+     *            the size in bytes above which the packed rows are sorted on disk, in runs of at most
+     *            this size.
+     *
+     * @return the order of the rows.
+     *
+     * @throws IOException
+     *             if the order could not be built on disk.
+     */
+    public static RowOrder sort(Column column, int nRows, boolean descending, LongPredicate filter,
+                                long spillThreshold) throws IOException
+    {
+        final Sorter sorter = new Sorter(column, nRows, descending, filter);
+        log.trace("sort(): nRows={} size={} descending={} shift={}", nRows, sorter.size, descending,
+                  sorter.shift);
+
+        if (sorter.size == 0)
+            return new RowOrder(IntBuffer.allocate(0), null, nRows);
+
+        if ((long)sorter.size * Long.BYTES <= spillThreshold) {
+            long[] packed = new long[sorter.size];
+            sorter.pack(0, nRows, packed);
+            Arrays.parallelSort(packed);
+            sorter.sortTies(packed, packed.length);
+
+            int[] order = new int[packed.length];
+            Arrays.parallelSetAll(order, i -> sorter.row(packed[i]));
+            return new RowOrder(IntBuffer.wrap(order), null, nRows);
+        }
+
+        int runRows = (int)Math.max(1, Math.min(RUN_ROWS, spillThreshold / Long.BYTES));
+        return sorter.sortOnDisk(runRows);
+    }
+
+    /**
+     * Returns the number of rows shown.
+     *
+     * @return the number of rows.
+     */
+    public int size() { return rows.limit(); }
+
+    /**
+     * Returns the row number of the data buffer shown at a row of the table.
+     *
+     * @param position
+     *            the row of the table.
+     *
+     * @return the row number in the data buffer.
+     */
+    public int getRow(int position) { return rows.get(position); }
+
+    /**
+     * Returns the row of the table that shows a row of the data buffer. The inverse of the order is
+     * built by the first call, so that later calls take constant time.
+     *
+     * @param row
+     *            the row number in the data buffer.
+     *
+     * @return the row of the table, or -1 if the row is filtered out.
+     */
+    public int positionOf(int row)
+    {
+        if ((row < 0) || (row >= nRows))
+            return -1;
+
+        if (positions == null) {
+            int[] inverse = new int[nRows];
+            Arrays.fill(inverse, -1);
+            for (int i = 0; i < rows.limit(); i++)
+                inverse[rows.get(i)] = i;
+            positions = inverse;
+        }
+
+        return positions[row];
+    }
+
+    /**
+     * Deletes the file of the order if it was built on disk. The mapping itself is released when the order
+     * is garbage collected.
+     */
+    public void close()
+    {
+        if ((file != null) && !file.delete())
+            file.deleteOnExit();
+    }
+
+    /**
+     * Packs sort keys and row numbers. A packed row holds the key, less the smallest key and shifted right
+     * if needed, in its high bits and the row number in its low bits, so packed rows compare as their keys
+     * and then their row numbers.
+     */
+    private static final class Sorter {
+        private final Column column;
+
+        private final int nRows;
+
+        private final boolean descending;
+
+        private final LongPredicate filter;
+
+        /** The number of rows accepted by the filter. */
+        private final int size;
+
+        private final int indexBits;
+
+        private final long indexMask;
+
+        private final long minKey;
+
+        /** The number of low bits of the keys dropped; if not 0, packed rows may tie. */
+        private final int shift;
+
+        Sorter(Column column, int nRows, boolean descending, LongPredicate filter)
+        {
+            this.column     = column;
+            this.nRows      = nRows;
+            this.descending = descending;
+            this.filter     = filter;
+
+            indexBits = Math.max(1, 32 - Integer.numberOfLeadingZeros(Math.max(0, nRows - 1)));
+            indexMask = (1L << indexBits) - 1;
+
+            LongSummaryStatistics stats = IntStream.range(0, nRows)
+                                              .parallel()
+                                              .filter(this::accept)
+                                              .mapToLong(this::key)
+                                              .summaryStatistics();
+            size   = (int)stats.getCount();
+            minKey = stats.getMin();
+
+            int keyBits = 64 - Long.numberOfLeadingZeros(stats.getMax() - minKey);
+            shift       = Math.max(0, keyBits - (63 - indexBits));
+        }
+
+        private boolean accept(int row) { return (filter == null) || filter.test(column.key(row)); }
+
+        private long key(int row) { return descending ? ~column.key(row) : column.key(row); }
+
+        private long pack(int row) { return (((key(row) - minKey) >>> shift) << indexBits) | row; }
+
+        int row(long packed) { return (int)(packed & indexMask); }
+
+        /**
+         * Packs the accepted rows of a range into an array.
+         *
+         * @return the number of rows packed.
+         */
+        int pack(int from, int to, long[] packed)
+        {
+            if ((filter == null) && (from == 0) && (packed.length == to)) {
+                Arrays.parallelSetAll(packed, this::pack);
+                return to;
+            }
+
+            int n = 0;
+            for (int row = from; row < to; row++) {
+                if (accept(row))
+                    packed[n++] = pack(row);
+            }
+
+            return n;
+        }
+
+        /**
+         * Sorts the runs of sorted packed rows that tie on their packed key by their full key.
+         */
+        void sortTies(long[] packed, int length)
+        {
+            if (shift == 0)
+                return;
+
+            int i = 0;
+            while (i < length) {
+                long high = packed[i] >>> indexBits;
+                int j     = i + 1;
+                while ((j < length) && ((packed[j] >>> indexBits) == high))
+                    j++;
+
+                if (j - i > 1)
+                    sortTie(packed, i, j, high);
+                i = j;
+            }
+        }
+
+        /**
+         * Sorts a tie by replacing the packed key with the rank of the full key among the keys of the tie,
+         * which fits in the bits of the row number.
+         */
+        private void sortTie(long[] packed, int from, int to, long high)
+        {
+            long[] keys = new long[to - from];
+            for (int i = from; i < to; i++)
+                keys[i - from] = key(row(packed[i]));
+
+            long[] distinct = keys.clone();
+            Arrays.sort(distinct);
+            int nDistinct = 1;
+            for (int i = 1; i < distinct.length; i++) {
+                if (distinct[i] != distinct[nDistinct - 1])
+                    distinct[nDistinct++] = distinct[i];
+            }
+            if (nDistinct == 1)
+                return;
+
+            for (int i = from; i < to; i++) {
+                long rank = Arrays.binarySearch(distinct, 0, nDistinct, keys[i - from]);
+                packed[i] = (rank << indexBits) | row(packed[i]);
+            }
+            Arrays.sort(packed, from, to);
+
+            for (int i = from; i < to; i++)
+                packed[i] = (high << indexBits) | row(packed[i]);
+        }
+
+        private int compare(long a, long b)
+        {
+            int c = Long.compare(a >>> indexBits, b >>> indexBits);
+            if ((c == 0) && (shift > 0))
+                c = Long.compare(key(row(a)), key(row(b)));
+
+            return (c != 0) ? c : Integer.compare(row(a), row(b));
+        }
+
+        /**
+         * Sorts runs of rows in memory, writes them to temporary files and merges them into a file of row
+         * numbers, which is mapped into memory. The heads of the runs are kept in a priority queue, so
+         * that each row is merged in logarithmic time of the number of runs.
+         */
+        RowOrder sortOnDisk(int runRows) throws IOException
+        {
+            List<Run> runs = new ArrayList<>();
+            File orderFile = null;
+            try {
+                long[] packed = new long[Math.min(nRows, runRows)];
+                for (int from = 0; from < nRows; from += runRows) {
+                    int n = pack(from, Math.min(nRows, from + runRows), packed);
+                    if (n == 0)
+                        continue;
+
+                    Arrays.parallelSort(packed, 0, n);
+                    sortTies(packed, n);
+                    runs.add(Run.write(packed, n));
+                }
+                packed = null;
+                log.trace("sortOnDisk(): merging {} runs", runs.size());
+
+                orderFile = File.createTempFile("hdfview-rows", ".tmp");
+                try (FileChannel out = FileChannel.open(orderFile.toPath(), StandardOpenOption.READ,
+                                                        StandardOpenOption.WRITE)) {
+                    ByteBuffer bytes = ByteBuffer.allocateDirect(IO_LONGS * Integer.BYTES);
+                    bytes.order(ByteOrder.nativeOrder());
+                    IntBuffer ints = bytes.asIntBuffer();
+
+                    PriorityQueue<Run> heads =
+                        new PriorityQueue<>(Math.max(1, runs.size()), (a, b) -> compare(a.head, b.head));
+                    for (Run run : runs) {
+                        run.open();
+                        if (run.hasNext())
+                            heads.add(run);
+                    }
+
+                    for (int i = 0; i < size; i++) {
+                        Run next = heads.poll();
+                        ints.put(row(next.head));
+                        next.advance();
+                        if (next.hasNext())
+                            heads.add(next);
+                        if (!ints.hasRemaining()) {
+                            write(out, bytes, ints.position());
+                            ints.clear();
+                        }
+                    }
+                    write(out, bytes, ints.position());
+
+                    IntBuffer order = out.map(FileChannel.MapMode.READ_ONLY, 0, (long)size * Integer.BYTES)
+                                          .order(ByteOrder.nativeOrder())
+                                          .asIntBuffer();
+                    RowOrder rowOrder = new RowOrder(order, orderFile, nRows);
+                    orderFile         = null;
+                    return rowOrder;
+                }
+            }
+            finally {
+                for (Run run : runs)
+                    run.close();
+                if (orderFile != null)
+                    orderFile.delete();
+            }
+        }
+
+        private static void write(FileChannel out, ByteBuffer bytes, int nInts) throws IOException
+        {
+            bytes.clear();
+            bytes.limit(nInts * Integer.BYTES);
+            while (bytes.hasRemaining())
+                out.write(bytes);
+        }
+    }
+
+    /**
+     * A sorted run of packed rows in a temporary file, read back a block at a time while merging.
+     */
+    private static final class Run {
+        private final File file;
+
+        private FileChannel channel;
+
+        private ByteBuffer bytes;
+
+        private LongBuffer longs;
+
+        private boolean hasHead;
+
+        /** The smallest packed row not yet merged, if hasHead. */
+        long head;
+
+        private Run(File file) { this.file = file; }
+
+        static Run write(long[] packed, int n) throws IOException
+        {
+            Run run = new Run(File.createTempFile("hdfview-sort", ".tmp"));
+            try (FileChannel out = FileChannel.open(run.file.toPath(), StandardOpenOption.WRITE)) {
+                ByteBuffer bytes = ByteBuffer.allocateDirect(IO_LONGS * Long.BYTES);
+                bytes.order(ByteOrder.nativeOrder());
+                for (int from = 0; from < n; from += IO_LONGS) {
+                    int count = Math.min(IO_LONGS, n - from);
+                    bytes.clear();
+                    bytes.asLongBuffer().put(packed, from, count);
+                    bytes.limit(count * Long.BYTES);
+                    while (bytes.hasRemaining())
+                        out.write(bytes);
+                }
+            }
+            catch (IOException ex) {
+                run.close();
+                throw ex;
+            }
+
+            return run;
+        }
+
+        void open() throws IOException
+        {
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+            bytes   = ByteBuffer.allocateDirect(IO_LONGS * Long.BYTES);
+            bytes.order(ByteOrder.nativeOrder());
+            longs = bytes.asLongBuffer();
+            longs.limit(0);
+            advance();
+        }
+
+        boolean hasNext() { return hasHead; }
+
+        void advance() throws IOException
+        {
+            if (!longs.hasRemaining()) {
+                bytes.clear();
+                while (bytes.hasRemaining() && (channel.read(bytes) > 0))
+                    ;
+                longs.clear();
+                longs.limit(bytes.position() / Long.BYTES);
+            }
+
+            hasHead = longs.hasRemaining();
+            if (hasHead)
+                head = longs.get();
+        }
+
+        void close()
+        {
+            try {
+                if (channel != null)
+                    channel.close();
+            }
+            catch (IOException ex) {
+                log.debug("close(): ", ex);
+            }
+            file.delete();
+        }
+    }
+}
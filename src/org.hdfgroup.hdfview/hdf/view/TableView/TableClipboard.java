@@ -0,0 +1,532 @@
+/*****************************************************************************
+ * Copyright by The HDF Group.                                               *
+ * All rights reserved.                                                      *
+ *                                                                           *
+ * This file is part of the HDF Java Products distribution.                  *
+ * The full copyright notice, including terms governing use, modification,   *
+ * and redistribution, is contained in the COPYING file, which can be found  *
+ * at the root of the source code distribution tree,                         *
+ * or in https://www.hdfgroup.org/licenses.                                  *
+ * If you do not have access to either file, you may request a copy from     *
+ * help@hdfgroup.org.                                                        *
+ ****************************************************************************/
+
+package hdf.view.TableView;
+
+import java.awt.datatransfer.DataFlavor;
+import java.awt.datatransfer.Transferable;
+import java.awt.datatransfer.UnsupportedFlavorException;
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import hdf.object.DataBuffer;
+import hdf.view.NumberTextFormatter;
+import hdf.view.TableView.DataProviderFactory.HDFDataProvider;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Copies a block of cells of a table view to the system clipboard as tab-separated text, and pastes such
+ * text back into the cells.
+ *
+ * A copy is formatted a chunk of rows at a time into separate Strings, which are only joined when an
+ * application asks the clipboard for the text. A copy that is too large to hold in memory can be written
+ * to a temporary file instead, which is put on the clipboard as a file.
+ *
+ * The cells of plain numeric data are formatted and parsed by a pool of threads straight from the data
+ * buffer of the table. Cells of other types are read and written through the data provider, which is not
+ * thread-safe, so they are formatted on the calling thread; their text is still split and parsed in
+ * parallel on paste.
+ */
+public class TableClipboard {
+    private static final Logger log = LoggerFactory.getLogger(TableClipboard.class);
+
+    /** The number of cells formatted or parsed by one task. */
+    private static final int CHUNK_CELLS = 64 * 1024;
+
+    /** The number of cells formatted to estimate the size of a copy. */
+    private static final int SAMPLE_CELLS = 256;
+
+    private final HDFDataProvider provider;
+
+    /** The data buffer of the table if its cells are plain numbers, see getNumericBuffer(). */
+    private final DataBuffer buf;
+
+    /** The row and column indices of the cells, in table order. */
+    private final int[] rows;
+    private final int[] cols;
+
+    private final int nThreads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+
+    /**
+     * Creates a clipboard transfer for a block of cells.
+     *
+     * @param provider
+     *            the data provider of the table.
+     * @param rows
+     *            the row indices of the cells, in the order they are copied or pasted.
+     * @param cols
+     *            the column indices of the cells, in the order they are copied or pasted.
+     */
+    public TableClipboard(HDFDataProvider provider, int[] rows, int[] cols)
+    {
+        this.provider = provider;
+        this.buf      = provider.getNumericBuffer();
+        this.rows     = rows;
+        this.cols     = cols;
+    }
+
+    /**
+     * Returns the number of characters of text above which a copy should be written to a temporary
+     * file rather than held in memory: the chunks of text and the String joined from them must both
+     * fit in the heap.
+     *
+     * @return the size in characters.
+     */
+    public static long getSpillThreshold() { return Runtime.getRuntime().maxMemory() / 8; }
+
+    /**
+     * Returns true if the cells are formatted and parsed in parallel straight from the data buffer.
+     *
+     * @return true for plain numeric data.
+     */
+    public boolean isParallel() { return buf != null; }
+
+    /**
+     * Estimates the length of the text of a copy by formatting a sample of the cells.
+     *
+     * @return the estimated number of characters.
+     */
+    public long estimateSize()
+    {
+        long total = (long)rows.length * cols.length;
+        if (total == 0)
+            return 0;
+
+        int nsamples     = (int)Math.min(SAMPLE_CELLS, total);
+        StringBuilder sb = new StringBuilder(nsamples * 16);
+        for (int k = 0; k < nsamples; k++) {
+            long cell = k * total / nsamples;
+            appendCell(sb, (int)(cell / cols.length), (int)(cell % cols.length));
+        }
+
+        // one delimiter or line break for each cell
+        return total * sb.length() / nsamples + total;
+    }
+
+    /**
+     * Formats the cells into a Transferable which joins its chunks of text when it is first asked for
+     * them.
+     *
+     * @return the text of the cells for the clipboard.
+     *
+     * @throws Exception
+     *             if the cells can not be formatted
+     */
+    public Transferable copyToText() throws Exception
+    {
+        int nchunks          = getChunkCount();
+        List<String> chunks  = new ArrayList<>(nchunks);
+        ExecutorService pool = isParallel() ? newPool("hdf-view-copy") : null;
+        try {
+            if (pool == null) {
+                for (int i = 0; i < nchunks; i++)
+                    chunks.add(formatChunk(i));
+            }
+            else {
+                List<Future<String>> futures = new ArrayList<>(nchunks);
+                for (int i = 0; i < nchunks; i++) {
+                    final int chunk = i;
+                    futures.add(pool.submit(() -> formatChunk(chunk)));
+                }
+                for (Future<String> future : futures)
+                    chunks.add(getResult(future));
+            }
+        }
+        finally {
+            if (pool != null)
+                pool.shutdownNow();
+        }
+
+        log.trace("copyToText(): {} rows in {} chunks", rows.length, nchunks);
+
+        return new TextTransferable(chunks);
+    }
+
+    /**
+     * Formats the cells into a UTF-8 text file, keeping only a few chunks of text in memory at a time.
+     *
+     * @param file
+     *            the file to write.
+     *
+     * @return the file for the clipboard.
+     *
+     * @throws Exception
+     *             if the cells can not be formatted or the file can not be written
+     */
+    public Transferable copyToFile(File file) throws Exception
+    {
+        int nchunks          = getChunkCount();
+        ExecutorService pool = isParallel() ? newPool("hdf-view-copy") : null;
+
+        // bounds the number of chunks held in memory while waiting to be written
+        final int maxPending          = 2 * nThreads;
+        Deque<Future<String>> pending = new ArrayDeque<>();
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                                                    StandardOpenOption.TRUNCATE_EXISTING,
+                                                    StandardOpenOption.WRITE)) {
+            for (int i = 0; i < nchunks; i++) {
+                if (pool == null) {
+                    writeText(channel, formatChunk(i));
+                    continue;
+                }
+
+                final int chunk = i;
+                pending.add(pool.submit(() -> formatChunk(chunk)));
+                if (pending.size() >= maxPending)
+                    writeText(channel, getResult(pending.poll()));
+            }
+
+            while (!pending.isEmpty())
+                writeText(channel, getResult(pending.poll()));
+        }
+        finally {
+            if (pool != null)
+                pool.shutdownNow();
+        }
+
+        log.trace("copyToFile(): {} rows written to {}", rows.length, file);
+
+        return new FileTransferable(file);
+    }
+
+    /**
+     * Parses tab-separated text, or text of fixed-length values, into values for the cells. Each line
+     * fills a row, starting at the first row and column; text beyond the last row or column is ignored.
+     * The cells are not changed until apply() is called.
+     *
+     * @param text
+     *            the text to parse.
+     * @param fixedLength
+     *            the length of each value, or less than 1 for tab-separated values.
+     *
+     * @return the parsed values.
+     *
+     * @throws Exception
+     *             if the text can not be parsed
+     */
+    public List<PastedCells> parse(String text, int fixedLength) throws Exception
+    {
+        // the start of each line, up to the last row
+        int[] lineStarts = new int[Math.min(rows.length, 1024) + 1];
+        int nlines       = 0;
+        int pos          = 0;
+        while ((pos < text.length()) && (nlines < rows.length)) {
+            if (nlines + 1 >= lineStarts.length)
+                lineStarts = Arrays.copyOf(lineStarts, Math.min(rows.length + 1, 2 * lineStarts.length));
+            lineStarts[nlines++] = pos;
+            int end = text.indexOf('\n', pos);
+            pos     = (end < 0) ? text.length() : end + 1;
+        }
+        lineStarts[nlines] = pos;
+
+        // lines of about CHUNK_CELLS values each
+        final int[] starts                = lineStarts;
+        int linesPerChunk                 = getChunkRows();
+        List<Future<PastedCells>> futures = new ArrayList<>();
+        ExecutorService pool              = newPool("hdf-view-paste");
+        try {
+            for (int first = 0; first < nlines; first += linesPerChunk) {
+                final int from = first;
+                final int to   = Math.min(nlines, first + linesPerChunk);
+                futures.add(pool.submit(() -> parseLines(text, starts, from, to, fixedLength)));
+            }
+
+            List<PastedCells> cells = new ArrayList<>(futures.size());
+            for (Future<PastedCells> future : futures)
+                cells.add(getResult(future));
+
+            return cells;
+        }
+        finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Stores parsed values in the cells and marks them as changed. This must be called on the thread
+     * that displays the table.
+     *
+     * @param cells
+     *            the values returned by parse().
+     *
+     * @return the number of cells changed.
+     */
+    public int apply(List<PastedCells> cells)
+    {
+        if (provider.getNumericBuffer() != buf)
+            throw new IllegalStateException("The table data changed while the values were parsed.");
+
+        int count = 0;
+        for (PastedCells chunk : cells) {
+            for (int i = 0; i < chunk.size; i++) {
+                if (chunk.values == null) {
+                    provider.setDataValue(cols[chunk.cols[i]], rows[chunk.rows[i]], chunk.text[i]);
+                    continue;
+                }
+
+                int index = provider.physicalLocationToBufIndex(rows[chunk.rows[i]], cols[chunk.cols[i]]);
+                if ((buf.getTypeClass() == 'F') || (buf.getTypeClass() == 'D'))
+                    buf.setDouble(index, chunk.values.getDouble(i));
+                else
+                    buf.setLong(index, chunk.values.getLong(i));
+                provider.markValueChanged(buf, index);
+            }
+            count += chunk.size;
+        }
+
+        return count;
+    }
+
+    private int getChunkCount()
+    {
+        return (rows.length + getChunkRows() - 1) / getChunkRows();
+    }
+
+    private int getChunkRows() { return Math.max(1, CHUNK_CELLS / Math.max(1, cols.length)); }
+
+    private ExecutorService newPool(String name)
+    {
+        return Executors.newFixedThreadPool(nThreads, r -> {
+            Thread t = new Thread(r, name);
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    private static <T> T getResult(Future<T> future) throws Exception
+    {
+        try {
+            return future.get();
+        }
+        catch (ExecutionException ex) {
+            if (ex.getCause() instanceof Exception)
+                throw (Exception)ex.getCause();
+            if (ex.getCause() instanceof Error)
+                throw (Error)ex.getCause();
+            throw ex;
+        }
+    }
+
+    private static void writeText(FileChannel channel, String text) throws Exception
+    {
+        ByteBuffer bytes = StandardCharsets.UTF_8.encode(CharBuffer.wrap(text));
+        while (bytes.hasRemaining())
+            channel.write(bytes);
+    }
+
+    /**
+     * Formats a chunk of rows, with a tab between the cells of a row and a line break after each row.
+     */
+    private String formatChunk(int chunk)
+    {
+        int from         = chunk * getChunkRows();
+        int to           = Math.min(rows.length, from + getChunkRows());
+        StringBuilder sb = new StringBuilder((to - from) * cols.length * 12);
+        for (int r = from; r < to; r++) {
+            for (int c = 0; c < cols.length; c++) {
+                if (c > 0)
+                    sb.append('\t');
+                appendCell(sb, r, c);
+            }
+            sb.append('\n');
+        }
+
+        return sb.toString();
+    }
+
+    private void appendCell(StringBuilder sb, int r, int c)
+    {
+        if (buf != null)
+            NumberTextFormatter.appendValue(sb, buf, provider.physicalLocationToBufIndex(rows[r], cols[c]));
+        else
+            NumberTextFormatter.get().appendValue(sb, provider.getDataValue(cols[c], rows[r]));
+    }
+
+    /**
+     * Parses the values of lines [from, to) of the text. Values that are not valid numbers for the
+     * data buffer are skipped, as they are when a cell is edited.
+     */
+    private PastedCells parseLines(String text, int[] lineStarts, int from, int to, int fixedLength)
+    {
+        PastedCells cells = new PastedCells((to - from) * cols.length, buf);
+        for (int line = from; line < to; line++) {
+            int end = lineStarts[line + 1];
+            if ((end > lineStarts[line]) && (text.charAt(end - 1) == '\n'))
+                end--;
+            if ((end > lineStarts[line]) && (text.charAt(end - 1) == '\r'))
+                end--;
+
+            int c   = 0;
+            int pos = lineStarts[line];
+            while ((pos < end) && (c < cols.length)) {
+                int next;
+                String token;
+                if (fixedLength < 1) {
+                    next = text.indexOf('\t', pos);
+                    if ((next < 0) || (next > end))
+                        next = end;
+                    token = text.substring(pos, next).trim();
+                    pos   = next + 1;
+                    if (token.isEmpty())
+                        continue;
+                }
+                else {
+                    if (pos + fixedLength > end)
+                        break;
+                    token = text.substring(pos, pos + fixedLength).trim();
+                    pos += fixedLength;
+                }
+
+                if (cells.add(line, c, token))
+                    c++;
+            }
+        }
+
+        return cells;
+    }
+
+    /** The values parsed from a chunk of lines of pasted text. */
+    public static final class PastedCells {
+        /** The positions of the values in the rows and cols of the transfer. */
+        final int[] rows;
+        final int[] cols;
+
+        /** The values parsed for a numeric data buffer, or null to set text through the provider. */
+        final DataBuffer values;
+
+        final String[] text;
+
+        int size = 0;
+
+        PastedCells(int capacity, DataBuffer buf)
+        {
+            this.rows   = new int[capacity];
+            this.cols   = new int[capacity];
+            this.values = (buf != null)
+                              ? DataBuffer.allocate(buf.getTypeClass(), capacity).setUnsigned(buf.isUnsigned())
+                              : null;
+            this.text   = (buf != null) ? null : new String[capacity];
+        }
+
+        /**
+         * Adds a value, returning false if it is not a valid number for a numeric data buffer or is out
+         * of the range of its values.
+         */
+        boolean add(int row, int col, String token)
+        {
+            try {
+                if (values == null)
+                    text[size] = token;
+                else if ((values.getTypeClass() == 'F') || (values.getTypeClass() == 'D'))
+                    values.setDouble(size, Double.parseDouble(token));
+                else
+                    values.setLong(size, values.parseLong(token));
+            }
+            catch (NumberFormatException ex) {
+                log.debug("add({}, {}): invalid value {}", row, col, token);
+                return false;
+            }
+
+            rows[size]   = row;
+            cols[size++] = col;
+            return true;
+        }
+    }
+
+    /** Text on the clipboard which is joined from its chunks only when it is requested. */
+    private static final class TextTransferable implements Transferable {
+        private List<String> chunks;
+
+        private String text = null;
+
+        TextTransferable(List<String> chunks) { this.chunks = chunks; }
+
+        @Override
+        public DataFlavor[] getTransferDataFlavors()
+        {
+            return new DataFlavor[] {DataFlavor.stringFlavor};
+        }
+
+        @Override
+        public boolean isDataFlavorSupported(DataFlavor flavor)
+        {
+            return DataFlavor.stringFlavor.equals(flavor);
+        }
+
+        @Override
+        public synchronized Object getTransferData(DataFlavor flavor) throws UnsupportedFlavorException
+        {
+            if (!isDataFlavorSupported(flavor))
+                throw new UnsupportedFlavorException(flavor);
+
+            if (text == null) {
+                long length = 0;
+                for (String chunk : chunks)
+                    length += chunk.length();
+
+                StringBuilder sb = new StringBuilder((int)Math.min(length, Integer.MAX_VALUE - 8));
+                for (String chunk : chunks)
+                    sb.append(chunk);
+                text   = sb.toString();
+                chunks = null;
+            }
+
+            return text;
+        }
+    }
+
+    /** A copy written to a temporary file, put on the clipboard as a file. */
+    private static final class FileTransferable implements Transferable {
+        private final File file;
+
+        FileTransferable(File file) { this.file = file; }
+
+        @Override
+        public DataFlavor[] getTransferDataFlavors()
+        {
+            return new DataFlavor[] {DataFlavor.javaFileListFlavor};
+        }
+
+        @Override
+        public boolean isDataFlavorSupported(DataFlavor flavor)
+        {
+            return DataFlavor.javaFileListFlavor.equals(flavor);
+        }
+
+        @Override
+        public Object getTransferData(DataFlavor flavor) throws UnsupportedFlavorException
+        {
+            if (!isDataFlavorSupported(flavor))
+                throw new UnsupportedFlavorException(flavor);
+
+            return Collections.singletonList(file);
+        }
+    }
+}
@@ -51,6 +51,7 @@ import java.util.List;
 import java.util.StringTokenizer;
 import javax.imageio.ImageIO;
 
+import hdf.object.DataBuffer;
 import hdf.object.Datatype;
 import hdf.object.FileFormat;
 import hdf.object.Group;
@@ -128,17 +129,13 @@ public final class Tools {
      *
      * @return A BigInteger representing the unsigned value of the given long.
      */
-    public static BigInteger convertUINT64toBigInt(Long l)
+    public static BigInteger convertUINT64toBigInt(long l)
     {
-        if (l < 0) {
-            l               = (l << 1) >>> 1;
-            BigInteger big1 = new BigInteger("9223372036854775808"); // 2^65
-            BigInteger big2 = new BigInteger(l.toString());
-            return big1.add(big2);
-        }
-        else {
-            return new BigInteger(l.toString());
-        }
+        // the sign bit of a negative long stands for 2^63
+        if (l < 0)
+            return BigInteger.valueOf(l & Long.MAX_VALUE).setBit(63);
+
+        return BigInteger.valueOf(l);
     }
 
     /**
@@ -1672,18 +1669,21 @@ public final class Tools {
         if ((data == null) || (minmax == null) || dataDist == null)
             return -1;
 
-        int n = Array.getLength(data);
-
         if (minmax[1] != minmax[0])
             delt = (dataDist.length - 1) / (minmax[1] - minmax[0]);
 
         for (int i = 0; i < dataDist.length; i++)
             dataDist[i] = 0;
 
+        DataBuffer buf = DataBuffer.wrap(data);
+        if (buf == null)
+            return -1;
+
+        int n = buf.size();
         int idx;
         double val;
         for (int i = 0; i < n; i++) {
-            val = ((Number)Array.get(data, i)).doubleValue();
+            val = buf.getDouble(i);
             if (val >= minmax[0] && val <= minmax[1]) {
                 idx = (int)((val - minmax[0]) * delt);
                 dataDist[idx]++;
@@ -1867,6 +1867,110 @@ public final class Tools {
         return retval;
     }
 
+    /**
+     * Finds the min and max values of a typed data buffer. Unsigned integer buffers are
+     * compared by their unsigned values.
+     *
+     * @param data
+     *            the data buffer
+     * @param minmax
+     *            the min and max values of the buffer.
+     * @param fillValue
+     *            the missing value or fill value. Exclude this value when check
+     *            for min/max
+     *
+     * @return non-negative if successful; otherwise, returns negative
+     */
+    public static int findMinMax(DataBuffer data, double[] minmax, Object fillValue)
+    {
+        if ((data == null) || (minmax == null) || (data.size() <= 0) || (minmax.length < 2))
+            return -1;
+
+        int n                = data.size();
+        DataBuffer fill      = DataBuffer.wrap(fillValue);
+        boolean hasFillValue = (fill != null) && (fill.size() > 0);
+        double fillVal       = hasFillValue ? fill.setUnsigned(data.isUnsigned()).getDouble(0) : 0.0;
+
+        minmax[0] = Double.MAX_VALUE;
+        minmax[1] = -Double.MAX_VALUE;
+
+        double val;
+        for (int i = 0; i < n; i++) {
+            val = data.getDouble(i);
+            if ((hasFillValue && val == fillVal) || isNaNINF(val))
+                continue;
+            if (minmax[0] > val)
+                minmax[0] = val;
+            if (minmax[1] < val)
+                minmax[1] = val;
+        }
+
+        if (minmax[0] > minmax[1])
+            minmax[0] = minmax[1] = data.getDouble(0);
+
+        return 1;
+    }
+
+    /**
+     * Computes mean and standard deviation of a typed data buffer
+     *
+     * @param data
+     *            the data buffer
+     * @param avgstd
+     *            the statistics: avgstd[0]=mean and avgstd[1]=stdev.
+     * @param fillValue
+     *            the missing value or fill value. Exclude this value when
+     *            compute statistics
+     *
+     * @return non-negative if successful; otherwise, returns negative
+     */
+    public static int computeStatistics(DataBuffer data, double[] avgstd, Object fillValue)
+    {
+        if ((data == null) || (avgstd == null) || (data.size() <= 0) || (avgstd.length < 2))
+            return -1;
+
+        int n                = data.size();
+        DataBuffer fill      = DataBuffer.wrap(fillValue);
+        boolean hasFillValue = (fill != null) && (fill.size() > 0);
+        double fillVal       = hasFillValue ? fill.setUnsigned(data.isUnsigned()).getDouble(0) : 0.0;
+
+        double sum  = 0;
+        double avg  = 0.0;
+        double var  = 0.0;
+        double diff = 0.0;
+        double val;
+        int npoints = 0;
+        for (int i = 0; i < n; i++) {
+            val = data.getDouble(i);
+            if (hasFillValue && val == fillVal)
+                continue;
+            sum += val;
+            npoints++;
+        }
+        if (npoints > 0) {
+            avg = sum / npoints;
+            for (int i = 0; i < n; i++) {
+                val = data.getDouble(i);
+                if (hasFillValue && val == fillVal)
+                    continue;
+                diff = val - avg;
+                var += diff * diff;
+            }
+        }
+
+        if (npoints <= 1) {
+            if (npoints < 1)
+                avgstd[0] = fillVal;
+            avgstd[1] = 0;
+        }
+        else {
+            avgstd[0] = avg;
+            avgstd[1] = Math.sqrt(var / (npoints - 1));
+        }
+
+        return 1;
+    }
+
     /**
      * Save the data as binary
      *
@@ -2282,74 +2386,7 @@ public final class Tools {
         if (nbytes <= 0)
             return null;
 
-        int nhex    = nbytes * 2;
-        short[] hex = new short[nhex];
-
-        for (int i = 0; i < nhex; i++)
-            hex[i] = (short)(0x0F & (v >> (i * 4)));
-
-        StringBuilder sb = new StringBuilder();
-        boolean isEven   = true;
-        for (int i = nhex - 1; i >= 0; i--) {
-            if (isEven && i < nhex - 1)
-                sb.append(" ");
-            isEven = !isEven; // toggle
-
-            switch (hex[i]) {
-            case 0:
-                sb.append("0000");
-                break;
-            case 1:
-                sb.append("0001");
-                break;
-            case 2:
-                sb.append("0010");
-                break;
-            case 3:
-                sb.append("0011");
-                break;
-            case 4:
-                sb.append("0100");
-                break;
-            case 5:
-                sb.append("0101");
-                break;
-            case 6:
-                sb.append("0110");
-                break;
-            case 7:
-                sb.append("0111");
-                break;
-            case 8:
-                sb.append("1000");
-                break;
-            case 9:
-                sb.append("1001");
-                break;
-            case 10:
-                sb.append("1010");
-                break;
-            case 11:
-                sb.append("1011");
-                break;
-            case 12:
-                sb.append("1100");
-                break;
-            case 13:
-                sb.append("1101");
-                break;
-            case 14:
-                sb.append("1110");
-                break;
-            case 15:
-                sb.append("1111");
-                break;
-            default:
-                break;
-            }
-        }
-
-        return sb.toString();
+        return NumberTextFormatter.appendBinary(new StringBuilder(nbytes * 9), v, nbytes).toString();
     }
 
     /**
@@ -2420,22 +2457,10 @@ public final class Tools {
      */
     public static final String toHexString(long v, int nbytes)
     {
-        char[] HEXCHARS = {'0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'A', 'B', 'C', 'D', 'E', 'F'};
-
         if (nbytes <= 0)
             return null;
 
-        int nhex    = nbytes * 2;
-        short[] hex = new short[nhex];
-
-        for (int i = 0; i < nhex; i++)
-            hex[i] = (short)(0x0F & (v >> (i * 4)));
-
-        StringBuilder sb = new StringBuilder();
-        for (int i = nhex - 1; i >= 0; i--)
-            sb.append(HEXCHARS[hex[i]]);
-
-        return sb.toString();
+        return NumberTextFormatter.appendHex(new StringBuilder(nbytes * 2), v, nbytes).toString();
     }
 
     /**
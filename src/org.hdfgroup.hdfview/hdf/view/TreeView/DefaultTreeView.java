@@ -25,12 +25,17 @@ import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.BitSet;
-import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.LongConsumer;
+import java.util.function.LongFunction;
 
 import hdf.object.CompoundDS;
 import hdf.object.DataFormat;
@@ -45,6 +50,9 @@ import hdf.view.DataView.DataView;
 import hdf.view.DataView.DataViewFactory;
 import hdf.view.DataView.DataViewFactoryProducer;
 import hdf.view.DataView.DataViewManager;
+import hdf.view.DatasetNpyFile;
+import hdf.view.DatasetTextExporter;
+import hdf.view.DatasetTextImporter;
 import hdf.view.DefaultFileFilter;
 import hdf.view.HDFView;
 import hdf.view.MetaDataView.MetaDataView;
@@ -166,10 +174,13 @@ public class DefaultTreeView implements TreeView {
 
     private Menu newObjectMenu;
     private Menu exportDatasetMenu;
+    private Menu importDatasetMenu;
 
     private MenuItem openVirtualFilesMenuItem;
     private MenuItem addDatasetMenuItem;
     private MenuItem exportDatasetMenuItem;
+    private MenuItem importDatasetMenuItem;
+    private MenuItem importTextMenuItem;
     private MenuItem addTableMenuItem;
     private MenuItem addDatatypeMenuItem;
     private MenuItem addLinkMenuItem;
@@ -209,6 +220,9 @@ public class DefaultTreeView implements TreeView {
 
     private int binaryOrder;
 
+    /** The binaryOrder which selects export to a NumPy file, as 99 selects export to a text file. */
+    private static final int NUMPY_ORDER = 98;
+
     private String currentSearchPhrase = null;
 
     /** Used to open a File using a temporary indexing type and order */
@@ -747,6 +761,9 @@ public class DefaultTreeView implements TreeView {
         exportDatasetMenuItem = new MenuItem(menu, SWT.CASCADE);
         exportDatasetMenuItem.setText("Export Dataset");
 
+        importDatasetMenuItem = new MenuItem(menu, SWT.CASCADE);
+        importDatasetMenuItem.setText("Import Dataset");
+
         new MenuItem(menu, SWT.SEPARATOR);
 
         item = new MenuItem(menu, SWT.PUSH);
@@ -1135,6 +1152,24 @@ public class DefaultTreeView implements TreeView {
             }
         });
 
+        item = new MenuItem(exportDatasetMenu, SWT.PUSH);
+        item.setText("Export Data to NumPy File");
+        item.addSelectionListener(new SelectionAdapter() {
+            @Override
+            public void widgetSelected(SelectionEvent e)
+            {
+                binaryOrder = NUMPY_ORDER;
+
+                try {
+                    saveDataAsFile();
+                }
+                catch (Exception ex) {
+                    shell.getDisplay().beep();
+                    Tools.showError(shell, "Export Dataset", ex.getMessage());
+                }
+            }
+        });
+
         item = new MenuItem(exportDatasetMenu, SWT.PUSH);
         item.setText("Export Data as Native Order");
         item.addSelectionListener(new SelectionAdapter() {
@@ -1189,6 +1224,42 @@ public class DefaultTreeView implements TreeView {
             }
         });
 
+        // Add import dataset menu
+        importDatasetMenu = new Menu(menu);
+        importDatasetMenuItem.setMenu(importDatasetMenu);
+
+        importTextMenuItem = new MenuItem(importDatasetMenu, SWT.PUSH);
+        importTextMenuItem.setText("Import Data from Text File");
+        importTextMenuItem.addSelectionListener(new SelectionAdapter() {
+            @Override
+            public void widgetSelected(SelectionEvent e)
+            {
+                try {
+                    importDataFromFile(false);
+                }
+                catch (Exception ex) {
+                    shell.getDisplay().beep();
+                    Tools.showError(shell, "Import Dataset", ex.getMessage());
+                }
+            }
+        });
+
+        item = new MenuItem(importDatasetMenu, SWT.PUSH);
+        item.setText("Import Data from NumPy File");
+        item.addSelectionListener(new SelectionAdapter() {
+            @Override
+            public void widgetSelected(SelectionEvent e)
+            {
+                try {
+                    importDataFromFile(true);
+                }
+                catch (Exception ex) {
+                    shell.getDisplay().beep();
+                    Tools.showError(shell, "Import Dataset", ex.getMessage());
+                }
+            }
+        });
+
         // Add listener to dynamically enable/disable menu items based
         // on selection in tree
         menu.addMenuListener(new MenuAdapter() {
@@ -1216,8 +1287,9 @@ public class DefaultTreeView implements TreeView {
                     popupMenu.getItem(7).setEnabled(state);                // "Copy" menuitem
                     popupMenu.getItem(9).setEnabled(state && isWritable);  // "Delete" menuitem
                     popupMenu.getItem(10).setEnabled(false);               // "Export Dataset" menuitem
-                    popupMenu.getItem(12).setEnabled(state && isWritable); // "Save to" menuitem
-                    popupMenu.getItem(13).setEnabled(state && isWritable); // "Rename" menuitem
+                    popupMenu.getItem(11).setEnabled(false);               // "Import Dataset" menuitem
+                    popupMenu.getItem(13).setEnabled(state && isWritable); // "Save to" menuitem
+                    popupMenu.getItem(14).setEnabled(state && isWritable); // "Rename" menuitem
                 }
                 else {
                     popupMenu.getItem(0).setEnabled(true); // "Open" menuitem
@@ -1232,8 +1304,9 @@ public class DefaultTreeView implements TreeView {
                     popupMenu.getItem(7).setEnabled(true);        // "Copy" menuitem
                     popupMenu.getItem(9).setEnabled(isWritable);  // "Delete" menuitem
                     popupMenu.getItem(10).setEnabled(true);       // "Export Dataset" menuitem
-                    popupMenu.getItem(12).setEnabled(true);       // "Save to" menuitem
-                    popupMenu.getItem(13).setEnabled(isWritable); // "Rename" menuitem
+                    popupMenu.getItem(11).setEnabled(isWritable); // "Import Dataset" menuitem
+                    popupMenu.getItem(13).setEnabled(true);       // "Save to" menuitem
+                    popupMenu.getItem(14).setEnabled(isWritable); // "Rename" menuitem
                 }
 
                 // Adding table is only supported by HDF5
@@ -1267,17 +1340,24 @@ public class DefaultTreeView implements TreeView {
                                                     FileFormat.getFileFormat(FileFormat.FILE_TYPE_HDF5))) {
                     if ((selectedObject instanceof Dataset)) {
                         Dataset dataset = (Dataset)selectedObject;
-                        if ((dataset instanceof ScalarDS))
+                        if ((dataset instanceof ScalarDS) || (dataset instanceof CompoundDS))
                             exportDatasetMenuItem.setEnabled(true);
+                        importDatasetMenuItem.setEnabled(
+                            ((dataset instanceof ScalarDS) || (dataset instanceof CompoundDS)) && isWritable);
+                        // text is imported with hyperslab writes of the rows parsed so far
+                        importTextMenuItem.setEnabled((dataset instanceof ScalarDS) &&
+                                                      dataset.canWriteSelection());
                         openVirtualFilesMenuItem.setEnabled(true);
                     }
                     else {
                         exportDatasetMenuItem.setEnabled(false);
+                        importDatasetMenuItem.setEnabled(false);
                         openVirtualFilesMenuItem.setEnabled(false);
                     }
                 }
                 else {
                     exportDatasetMenuItem.setEnabled(false);
+                    importDatasetMenuItem.setEnabled(false);
                     openVirtualFilesMenuItem.setEnabled(false);
                 }
             }
@@ -2381,6 +2461,8 @@ public class DefaultTreeView implements TreeView {
         String msgtext    = null;
         if (binaryOrder == 99)
             msgtext = "Save Dataset Data To Text File --- " + dataset.getName();
+        else if (binaryOrder == NUMPY_ORDER)
+            msgtext = "Save Dataset Data To NumPy File --- " + dataset.getName();
         else
             msgtext = "Save Current Data To Binary File --- " + dataset.getName();
         if (((HDFView)viewer).getTestState()) {
@@ -2397,6 +2479,11 @@ public class DefaultTreeView implements TreeView {
                 fChooser.setFileName(dataset.getName() + ".txt");
                 filter = DefaultFileFilter.getFileFilterText();
             }
+            else if (binaryOrder == NUMPY_ORDER) {
+                fChooser.setText(msgtext);
+                fChooser.setFileName(dataset.getName() + ".npy");
+                filter = DefaultFileFilter.getFileFilterNumpy();
+            }
             else {
                 fChooser.setText(msgtext);
                 fChooser.setFileName(dataset.getName() + ".bin");
@@ -2436,6 +2523,22 @@ public class DefaultTreeView implements TreeView {
                 return;
         }
 
+        // text and NumPy arrays are exported by the viewer itself, which works for any file format
+        if (binaryOrder == 99) {
+            exportDatasetToText(dataset, chosenFile);
+            return;
+        }
+        if (binaryOrder == NUMPY_ORDER) {
+            exportDatasetToNumpy(dataset, chosenFile);
+            return;
+        }
+
+        if (!(dataset instanceof ScalarDS)) {
+            shell.getDisplay().beep();
+            Tools.showError(shell, "Save", "Only scalar datasets can be exported to a binary file.");
+            return;
+        }
+
         boolean isH4 =
             selectedObject.getFileFormat().isThisType(FileFormat.getFileFormat(FileFormat.FILE_TYPE_HDF4));
         if (isH4) {
@@ -2462,6 +2565,198 @@ public class DefaultTreeView implements TreeView {
         }
     }
 
+    /**
+     * Exports a whole dataset to a delimited text file in the background with
+     * DatasetTextExporter, showing its progress in the status area.
+     *
+     * @param dataset
+     *            the dataset to export.
+     * @param file
+     *            the text file to write.
+     */
+    private void exportDatasetToText(Dataset dataset, File file)
+    {
+        final DatasetTextExporter exporter =
+            new DatasetTextExporter(dataset, DatasetTextExporter.getDefaultDelimiter());
+
+        log.trace("exportDatasetToText: {} to {}", dataset.getName(), file);
+        viewer.showStatus("Exporting " + dataset.getName() + " to " + file.getName());
+
+        transferInBackground("Save", "Exporting " + dataset.getName(), exporter.getTotalRows(), progress -> {
+            exporter.export(file, progress);
+            return 0;
+        }, rows -> "Data saved to: " + file.getAbsolutePath());
+    }
+
+    /**
+     * Exports a whole dataset to a NumPy .npy or .npz file in the background with
+     * DatasetNpyFile, showing its progress in the status area.
+     *
+     * @param dataset
+     *            the dataset to export.
+     * @param file
+     *            the NumPy file to write.
+     */
+    private void exportDatasetToNumpy(Dataset dataset, File file)
+    {
+        if (!dataset.isInited())
+            dataset.init();
+
+        log.trace("exportDatasetToNumpy: {} to {}", dataset.getName(), file);
+        viewer.showStatus("Exporting " + dataset.getName() + " to " + file.getName());
+
+        long total = dataset.getDims()[0];
+        transferInBackground("Save", "Exporting " + dataset.getName(), total, progress -> {
+            DatasetNpyFile.exportDataset(dataset, file, progress);
+            return 0;
+        }, rows -> "Data saved to: " + file.getAbsolutePath());
+    }
+
+    /**
+     * Imports the values of a delimited text file or a NumPy .npy or .npz file into the
+     * whole selected dataset in the background with DatasetTextImporter or DatasetNpyFile,
+     * showing its progress in the status area.
+     *
+     * @param isNumpy
+     *            true to import a NumPy file; false for a text file.
+     */
+    private void importDataFromFile(boolean isNumpy) throws Exception
+    {
+        if (!(selectedObject instanceof Dataset) || (selectedItem == null))
+            return;
+
+        Dataset dataset = (Dataset)selectedObject;
+        if (!isNumpy && (!(dataset instanceof ScalarDS) || !dataset.canWriteSelection())) {
+            shell.getDisplay().beep();
+            Tools.showError(shell, "Import Dataset",
+                            "Only scalar datasets in a format which supports hyperslab writes "
+                                + "can be imported from a text file.");
+            return;
+        }
+
+        String currentDir = dataset.getFile().substring(0, dataset.getFile().lastIndexOf(File.separator));
+        String msgtext    = "Import Data From " + (isNumpy ? "NumPy" : "Text") + " File --- ";
+        msgtext += dataset.getName();
+        String filename   = null;
+        if (((HDFView)viewer).getTestState()) {
+            filename = currentDir + File.separator + new InputDialog(shell, msgtext, "").open();
+        }
+        else {
+            FileDialog fChooser = new FileDialog(shell, SWT.OPEN);
+            fChooser.setFilterPath(currentDir);
+            fChooser.setText(msgtext);
+
+            DefaultFileFilter filter =
+                isNumpy ? DefaultFileFilter.getFileFilterNumpy() : DefaultFileFilter.getFileFilterText();
+            fChooser.setFilterExtensions(new String[] {"*", filter.getExtensions()});
+            fChooser.setFilterNames(new String[] {"All Files", filter.getDescription()});
+            fChooser.setFilterIndex(1);
+
+            filename = fChooser.open();
+        }
+        if (filename == null)
+            return;
+
+        File chosenFile = new File(filename);
+        if (!chosenFile.exists()) {
+            Tools.showError(shell, "Import Dataset", "Data import error: " + filename + " does not exist.");
+            return;
+        }
+
+        if (!Tools.showConfirm(shell, "Import Dataset",
+                               "Do you want to replace the data of " + dataset.getName() + "?"))
+            return;
+
+        if (!dataset.isInited())
+            dataset.init();
+
+        final String name = dataset.getName();
+        log.trace("importDataFromFile: {} into {}", chosenFile, name);
+        viewer.showStatus("Importing " + chosenFile.getName() + " into " + name);
+
+        DataTransfer transfer;
+        long total;
+        if (isNumpy) {
+            transfer = progress -> DatasetNpyFile.importDataset(dataset, chosenFile, progress);
+            total    = dataset.getDims()[0];
+        }
+        else {
+            DatasetTextImporter importer =
+                new DatasetTextImporter((ScalarDS)dataset, DatasetTextExporter.getDefaultDelimiter());
+            transfer = progress -> importer.importFile(chosenFile, progress);
+            total    = importer.getTotalRows();
+        }
+
+        transferInBackground("Import Dataset", "Importing into " + name, total, transfer,
+                             rows -> rows + " rows imported into: " + name);
+    }
+
+    /** A transfer of data between a dataset and another file, see transferInBackground(). */
+    @FunctionalInterface
+    private interface DataTransfer {
+        /**
+         * Runs the transfer.
+         *
+         * @param progress
+         *            called with the number of indices of the first dimension transferred so far.
+         *
+         * @return the number of indices of the first dimension transferred.
+         *
+         * @throws Exception
+         *             if the transfer fails
+         */
+        long run(LongConsumer progress) throws Exception;
+    }
+
+    /**
+     * Runs a data transfer on a background thread of its own, showing its progress as a
+     * percentage of total in the status area and its result, or an error dialog, when it
+     * completes. The transfer blocks on file I/O, so it is not run in the common pool.
+     */
+    private void transferInBackground(String errorTitle, String label, long total, DataTransfer transfer,
+                                      LongFunction<String> doneStatus)
+    {
+        final Display display = shell.getDisplay();
+        final long percentOf  = Math.max(1, total);
+
+        ExecutorService runner = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "hdf-view-transfer");
+            t.setDaemon(true);
+            return t;
+        });
+
+        CompletableFuture
+            .supplyAsync(() -> {
+                try {
+                    return transfer.run(rows -> {
+                        String status = label + ": " + (rows * 100 / percentOf) + "%";
+                        if (!display.isDisposed())
+                            display.asyncExec(() -> viewer.showStatus(status));
+                    });
+                }
+                catch (Exception ex) {
+                    throw new CompletionException(ex);
+                }
+            }, runner)
+            .whenComplete((rows, err) -> {
+                runner.shutdown();
+                if (display.isDisposed())
+                    return;
+
+                display.asyncExec(() -> {
+                    if (err != null) {
+                        Throwable cause = (err instanceof CompletionException) ? err.getCause() : err;
+                        log.debug("transferInBackground: {} failed:", label, cause);
+                        shell.getDisplay().beep();
+                        Tools.showError(shell, errorTitle, label + " failed: " + cause.getMessage());
+                    }
+                    else {
+                        viewer.showStatus(doneStatus.apply(rows));
+                    }
+                });
+            });
+    }
+
     /** enable/disable GUI components */
     private static void setEnabled(List<MenuItem> list, boolean b)
     {
@@ -2517,78 +2812,12 @@ public class DefaultTreeView implements TreeView {
         if (!tmpFile.canWrite() && !isSWMRFile)
             accessID = FileFormat.READ;
 
-        Enumeration<?> keys = FileFormat.getFileFormatKeys();
-
-        String theKey = null;
-        while (keys.hasMoreElements()) {
-            theKey = (String)keys.nextElement();
-            if (theKey.equals(FileFormat.FILE_TYPE_HDF4)) {
-                log.trace("openFile: {} FILE_TYPE_HDF4", filename);
-                try {
-                    FileFormat h4format = FileFormat.getFileFormat(FileFormat.FILE_TYPE_HDF4);
-                    if ((h4format != null) && h4format.isThisType(filename)) {
-                        fileFormat = h4format.createInstance(filename, accessID);
-                        break;
-                    }
-                }
-                catch (UnsatisfiedLinkError e) {
-                    log.debug("openFile({}): HDF4 library link error:", filename, e);
-                    viewer.showError("Unable to open file '" + filename + "': HDF4 library linking error");
-                }
-                catch (Exception err) {
-                    log.debug("openFile: Error retrieving the file structure of {}:", filename, err);
-                }
-                continue;
-            }
-            else if (theKey.equals(FileFormat.FILE_TYPE_HDF5)) {
-                log.trace("openFile: {} FILE_TYPE_HDF5", filename);
-                try {
-                    FileFormat h5format = FileFormat.getFileFormat(FileFormat.FILE_TYPE_HDF5);
-                    if ((h5format != null) && h5format.isThisType(filename)) {
-                        fileFormat = h5format.createInstance(filename, accessID);
-                        break;
-                    }
-                }
-                catch (UnsatisfiedLinkError e) {
-                    log.debug("openFile({}): HDF5 library link error:", filename, e);
-                    viewer.showError("Unable to open file '" + filename + "': HDF5 library linking error");
-                }
-                catch (Exception err) {
-                    log.debug("openFile: Error retrieving the file structure of {}:", filename, err);
-                }
-                continue;
-            }
-            else if (theKey.equals(FileFormat.FILE_TYPE_NC3)) {
-                log.trace("openFile: {} FILE_TYPE_NC3", filename);
-                try {
-                    FileFormat nc3format = FileFormat.getFileFormat(FileFormat.FILE_TYPE_NC3);
-                    if ((nc3format != null) && nc3format.isThisType(filename)) {
-                        fileFormat = nc3format.createInstance(filename, accessID);
-                        break;
-                    }
-                }
-                catch (UnsatisfiedLinkError e) {
-                    log.debug("openFile({}): NetCDF3 library link error:", filename, e);
-                    viewer.showError("Unable to open file '" + filename + "': NetCDF3 library linking error");
-                }
-                catch (Exception err) {
-                    log.debug("openFile: Error retrieving the file structure of {}:", filename, err);
-                }
-                continue;
-            }
-            else {
-                log.trace("openFile: {} Other", filename);
-                try {
-                    FileFormat theformat = FileFormat.getFileFormat(theKey);
-                    if (theformat.isThisType(filename)) {
-                        fileFormat = theformat.createInstance(filename, accessID);
-                        break;
-                    }
-                }
-                catch (Exception err) {
-                    log.debug("openFile: Error retrieving the file structure of {}:", filename, err);
-                }
-            }
+        try {
+            fileFormat = FileFormat.getInstance(filename, accessID);
+        }
+        catch (UnsatisfiedLinkError e) {
+            log.debug("openFile({}): library link error:", filename, e);
+            viewer.showError("Unable to open file '" + filename + "': library linking error");
         }
 
         if (fileFormat == null)
@@ -2632,8 +2861,6 @@ public class DefaultTreeView implements TreeView {
     {
         log.trace("initFile[{}] - start", fileFormat.getAbsolutePath());
 
-        TreeItem fileRoot = null;
-
         shell.setCursor(Display.getCurrent().getSystemCursor(SWT.CURSOR_WAIT));
 
         try {
@@ -2642,18 +2869,7 @@ public class DefaultTreeView implements TreeView {
 
             fileFormat.open();
 
-            fileRoot = populateTree(fileFormat);
-
-            if (fileRoot != null) {
-                /* Expand top level items of root object */
-                int currentRowCount = tree.getItemCount();
-                if (currentRowCount > 0)
-                    tree.getItem(currentRowCount - 1).setExpanded(true);
-
-                fileList.add(fileFormat);
-            }
-
-            tree.setItemCount(fileList.size());
+            addFileToTree(fileFormat);
 
             log.trace("initFile[{}] - fileList items={}", fileFormat.getAbsolutePath(), fileList.size());
         }
@@ -2668,6 +2884,131 @@ public class DefaultTreeView implements TreeView {
         return fileFormat;
     }
 
+    /**
+     * Adds an open file to the tree and to the list of open files.
+     *
+     * @return true if the file structure was added to the tree.
+     */
+    private boolean addFileToTree(FileFormat fileFormat)
+    {
+        TreeItem fileRoot = populateTree(fileFormat);
+
+        if (fileRoot != null) {
+            /* Expand top level items of root object */
+            int currentRowCount = tree.getItemCount();
+            if (currentRowCount > 0)
+                tree.getItem(currentRowCount - 1).setExpanded(true);
+
+            fileList.add(fileFormat);
+        }
+
+        tree.setItemCount(fileList.size());
+
+        return (fileRoot != null);
+    }
+
+    /**
+     * Opens a list of files concurrently with FileFormat.openFiles() and adds each
+     * file to the tree on the display thread as soon as it is open, so that the tree
+     * is populated incrementally. The files which fail to open are reported in one
+     * message when all of the files have been handled.
+     *
+     * @param filenames
+     *            the names of the files to open.
+     * @param accessID
+     *            identifier for the file access, as for openFile().
+     */
+    @Override
+    public void openFiles(List<String> filenames, int accessID)
+    {
+        List<String> toOpen = new ArrayList<>(filenames.size());
+        for (String filename : filenames) {
+            if (isFileOpen(filename) || toOpen.contains(filename))
+                log.debug("openFiles: {} is already open", filename);
+            else
+                toOpen.add(filename);
+        }
+
+        if (toOpen.isEmpty()) {
+            viewer.showStatus("File is in use.");
+            return;
+        }
+
+        log.trace("openFiles: {} files, access={}", toOpen.size(), accessID);
+        viewer.showStatus("Opening " + toOpen.size() + " files");
+
+        final Display display       = shell.getDisplay();
+        final List<String> failures = new ArrayList<>();
+        final int[] handled         = {0};
+
+        List<CompletableFuture<FileFormat>> futures =
+            FileFormat.openFiles(toOpen, accessID, 0, fileFormat -> {
+                fileFormat.setMaxMembers(ViewProperties.getMaxMembers());
+                fileFormat.setStartMembers(ViewProperties.getStartMembers());
+                if (fileFormat.isThisType(FileFormat.getFileFormat(FileFormat.FILE_TYPE_HDF5))) {
+                    fileFormat.setIndexType(fileFormat.getIndexType(ViewProperties.getIndexType()));
+                    fileFormat.setIndexOrder(fileFormat.getIndexOrder(ViewProperties.getIndexOrder()));
+                }
+            });
+
+        for (int i = 0; i < futures.size(); i++) {
+            final String filename = toOpen.get(i);
+            futures.get(i).whenComplete((fileFormat, err) -> {
+                if (display.isDisposed()) {
+                    closeQuietly(fileFormat);
+                    return;
+                }
+
+                display.asyncExec(() -> {
+                    if (err != null) {
+                        Throwable cause = (err instanceof CompletionException) ? err.getCause() : err;
+                        log.debug("openFiles: failed to open {}:", filename, cause);
+                        failures.add(filename + ": " + cause.getMessage());
+                    }
+                    else if (tree.isDisposed() || isFileOpen(fileFormat.getFilePath()) ||
+                             !addFileToTree(fileFormat)) {
+                        closeQuietly(fileFormat);
+                    }
+
+                    if (++handled[0] == toOpen.size()) {
+                        viewer.showStatus("Opened " + (toOpen.size() - failures.size()) + " of " +
+                                          toOpen.size() + " files");
+                        if (!failures.isEmpty())
+                            showOpenFailures(failures);
+                    }
+                });
+            });
+        }
+    }
+
+    /** Reports the files which openFiles() failed to open. */
+    private void showOpenFailures(List<String> failures)
+    {
+        int maxShown      = 20;
+        StringBuilder msg = new StringBuilder("Failed to open " + failures.size() + " files:\n");
+        for (int i = 0; (i < failures.size()) && (i < maxShown); i++)
+            msg.append('\n').append(failures.get(i));
+        if (failures.size() > maxShown)
+            msg.append("\n...");
+
+        shell.getDisplay().beep();
+        Tools.showError(shell, "Open", msg.toString());
+    }
+
+    /** Closes a file which was opened but not added to the tree. */
+    private static void closeQuietly(FileFormat fileFormat)
+    {
+        if (fileFormat == null)
+            return;
+
+        try {
+            fileFormat.close();
+        }
+        catch (Exception ex) {
+            log.debug("closeQuietly: failed to close {}:", fileFormat.getFilePath(), ex);
+        }
+    }
+
     @Override
     public FileFormat reopenFile(FileFormat fileFormat, int newFileAccessMode) throws Exception
     {
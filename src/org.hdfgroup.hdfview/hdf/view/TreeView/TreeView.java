@@ -63,6 +63,18 @@ public abstract interface TreeView {
      * @throws Exception if a failure occurred
      */
     public abstract FileFormat openFile(String filename, int accessID) throws Exception;
+
+    /**
+     * Opens a list of files and adds each of them to the tree as soon as it is
+     * open. The files are opened in the background; files which can not be
+     * opened are reported when all of the files have been handled.
+     *
+     * @param filenames
+     *            the names of the files to open.
+     * @param accessID
+     *            identifier for the file access, as for openFile().
+     */
+    public abstract void openFiles(List<String> filenames, int accessID);
     /**
      * Reopens a file and retrieves the file structure of the file.
      *
@@ -0,0 +1,383 @@
+/*****************************************************************************
+ * Copyright by The HDF Group.                                               *
+ * All rights reserved.                                                      *
+ *                                                                           *
+ * This file is part of the HDF Java Products distribution.                  *
+ * The full copyright notice, including terms governing use, modification,   *
+ * and redistribution, is contained in the COPYING file, which can be found  *
+ * at the root of the source code distribution tree,                         *
+ * or in https://www.hdfgroup.org/licenses.                                  *
+ * If you do not have access to either file, you may request a copy from     *
+ * help@hdfgroup.org.                                                        *
+ ****************************************************************************/
+
+package hdf.view.dialog;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+import hdf.object.CompoundDS;
+import hdf.object.Dataset;
+import hdf.view.DatasetSearcher;
+import hdf.view.DatasetSearcher.Criterion;
+import hdf.view.DatasetSearcher.Match;
+import hdf.view.Tools;
+import hdf.view.ViewProperties;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.events.SelectionAdapter;
+import org.eclipse.swt.events.SelectionEvent;
+import org.eclipse.swt.graphics.Font;
+import org.eclipse.swt.graphics.Point;
+import org.eclipse.swt.graphics.Rectangle;
+import org.eclipse.swt.layout.GridData;
+import org.eclipse.swt.layout.GridLayout;
+import org.eclipse.swt.widgets.Button;
+import org.eclipse.swt.widgets.Combo;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Dialog;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Group;
+import org.eclipse.swt.widgets.Label;
+import org.eclipse.swt.widgets.List;
+import org.eclipse.swt.widgets.Shell;
+import org.eclipse.swt.widgets.Text;
+
+/**
+ * FindDataDialog searches a whole dataset for a value, a range of values, NaN or the fill value in the
+ * background with DatasetSearcher, and lists the matches as they are found. Selecting a match shows it
+ * in the table view that opened the dialog.
+ *
+ * The dialog is not modal, so the table can be used while it is open.
+ */
+public class FindDataDialog extends Dialog {
+    private static final Logger log = LoggerFactory.getLogger(FindDataDialog.class);
+
+    private static final String[] CRITERIA = {"Equal to", "Between", "NaN", "Fill value"};
+
+    private Shell shell;
+
+    private Font curFont;
+
+    private Combo criterionChoice;
+
+    private Text valueField;
+
+    private Text maxField;
+
+    private Button findButton;
+
+    private Button stopButton;
+
+    private List matchList;
+
+    private Label statusLabel;
+
+    private final Dataset dataset;
+
+    private final Consumer<Match> showMatch;
+
+    /** The matches listed, in the order of matchList. */
+    private final java.util.List<Match> matches = new ArrayList<>();
+
+    private DatasetSearcher searcher = null;
+
+    /**
+     * Constructs FindDataDialog.
+     *
+     * @param parent
+     *            the owner of the dialog
+     * @param dataset
+     *            the ScalarDS or CompoundDS to search.
+     * @param showMatch
+     *            called on the UI thread with the match selected in the list.
+     */
+    public FindDataDialog(Shell parent, Dataset dataset, Consumer<Match> showMatch)
+    {
+        super(parent, SWT.NONE);
+
+        try {
+            curFont = new Font(Display.getCurrent(), ViewProperties.getFontType(),
+                               ViewProperties.getFontSize(), SWT.NORMAL);
+        }
+        catch (Exception ex) {
+            curFont = null;
+        }
+
+        this.dataset   = dataset;
+        this.showMatch = showMatch;
+    }
+
+    /**
+     * Open the FindDataDialog. It returns without waiting for the dialog to be closed.
+     */
+    public void open()
+    {
+        Shell parent = getParent();
+        shell        = new Shell(parent, SWT.SHELL_TRIM);
+        shell.setFont(curFont);
+        shell.setText("Find Data -- " + dataset.getName());
+        shell.setImages(ViewProperties.getHdfIcons());
+        shell.setLayout(new GridLayout(1, true));
+
+        Group criterionGroup = new Group(shell, SWT.NONE);
+        criterionGroup.setFont(curFont);
+        criterionGroup.setText((dataset instanceof CompoundDS) ? "Find Values of the Selected Members"
+                                                               : "Find Values in the Whole Dataset");
+        criterionGroup.setLayout(new GridLayout(4, false));
+        criterionGroup.setLayoutData(new GridData(SWT.FILL, SWT.FILL, true, false));
+
+        criterionChoice = new Combo(criterionGroup, SWT.DROP_DOWN | SWT.READ_ONLY);
+        criterionChoice.setFont(curFont);
+        criterionChoice.setItems(CRITERIA);
+        criterionChoice.select(0);
+        criterionChoice.addSelectionListener(new SelectionAdapter() {
+            @Override
+            public void widgetSelected(SelectionEvent e)
+            {
+                updateFields();
+            }
+        });
+
+        valueField = new Text(criterionGroup, SWT.SINGLE | SWT.BORDER);
+        valueField.setFont(curFont);
+        GridData fieldData     = new GridData(SWT.FILL, SWT.FILL, true, false);
+        fieldData.minimumWidth = 100;
+        valueField.setLayoutData(fieldData);
+
+        Label label = new Label(criterionGroup, SWT.RIGHT);
+        label.setFont(curFont);
+        label.setText("and");
+
+        maxField = new Text(criterionGroup, SWT.SINGLE | SWT.BORDER);
+        maxField.setFont(curFont);
+        fieldData              = new GridData(SWT.FILL, SWT.FILL, true, false);
+        fieldData.minimumWidth = 100;
+        maxField.setLayoutData(fieldData);
+
+        matchList = new List(shell, SWT.SINGLE | SWT.BORDER | SWT.V_SCROLL | SWT.H_SCROLL);
+        matchList.setFont(curFont);
+        GridData listData   = new GridData(SWT.FILL, SWT.FILL, true, true);
+        listData.heightHint = 250;
+        matchList.setLayoutData(listData);
+        matchList.addSelectionListener(new SelectionAdapter() {
+            @Override
+            public void widgetSelected(SelectionEvent e)
+            {
+                int index = matchList.getSelectionIndex();
+                if ((index >= 0) && (index < matches.size()))
+                    showMatch.accept(matches.get(index));
+            }
+        });
+
+        statusLabel = new Label(shell, SWT.LEFT);
+        statusLabel.setFont(curFont);
+        statusLabel.setLayoutData(new GridData(SWT.FILL, SWT.FILL, true, false));
+
+        // Create Find/Stop/Close button region
+        Composite buttonComposite = new Composite(shell, SWT.NONE);
+        buttonComposite.setLayout(new GridLayout(3, true));
+        buttonComposite.setLayoutData(new GridData(SWT.FILL, SWT.FILL, true, false));
+
+        findButton = new Button(buttonComposite, SWT.PUSH);
+        findButton.setFont(curFont);
+        findButton.setText("  &Find  ");
+        findButton.setLayoutData(new GridData(SWT.END, SWT.FILL, true, false));
+        findButton.addSelectionListener(new SelectionAdapter() {
+            @Override
+            public void widgetSelected(SelectionEvent e)
+            {
+                startSearch();
+            }
+        });
+
+        stopButton = new Button(buttonComposite, SWT.PUSH);
+        stopButton.setFont(curFont);
+        stopButton.setText("  &Stop  ");
+        stopButton.setEnabled(false);
+        stopButton.setLayoutData(new GridData(SWT.CENTER, SWT.FILL, true, false));
+        stopButton.addSelectionListener(new SelectionAdapter() {
+            @Override
+            public void widgetSelected(SelectionEvent e)
+            {
+                if (searcher != null)
+                    searcher.cancel();
+            }
+        });
+
+        Button closeButton = new Button(buttonComposite, SWT.PUSH);
+        closeButton.setFont(curFont);
+        closeButton.setText(" &Close ");
+        closeButton.setLayoutData(new GridData(SWT.BEGINNING, SWT.FILL, true, false));
+        closeButton.addSelectionListener(new SelectionAdapter() {
+            @Override
+            public void widgetSelected(SelectionEvent e)
+            {
+                shell.dispose();
+            }
+        });
+
+        shell.setDefaultButton(findButton);
+        shell.addDisposeListener(e -> {
+            if (searcher != null)
+                searcher.cancel();
+            if (curFont != null)
+                curFont.dispose();
+        });
+
+        updateFields();
+
+        shell.pack();
+
+        shell.setMinimumSize(shell.computeSize(SWT.DEFAULT, SWT.DEFAULT));
+
+        Rectangle parentBounds = parent.getBounds();
+        Point shellSize        = shell.getSize();
+        shell.setLocation((parentBounds.x + (parentBounds.width / 2)) - (shellSize.x / 2),
+                          (parentBounds.y + (parentBounds.height / 2)) - (shellSize.y / 2));
+
+        shell.open();
+    }
+
+    private void updateFields()
+    {
+        int choice = criterionChoice.getSelectionIndex();
+        valueField.setEnabled(choice <= 1);
+        maxField.setEnabled(choice == 1);
+    }
+
+    private Criterion getCriterion()
+    {
+        switch (criterionChoice.getSelectionIndex()) {
+        case 0:
+            return Criterion.equalTo(new BigDecimal(valueField.getText().trim()));
+        case 1:
+            return Criterion.between(new BigDecimal(valueField.getText().trim()),
+                                     new BigDecimal(maxField.getText().trim()));
+        case 2:
+            return Criterion.isNaN();
+        default:
+            return Criterion.isFillValue();
+        }
+    }
+
+    private void startSearch()
+    {
+        final Criterion criterion;
+        try {
+            criterion = getCriterion();
+        }
+        catch (NumberFormatException ex) {
+            shell.getDisplay().beep();
+            Tools.showError(shell, "Find", "Invalid value: " + ex.getMessage());
+            return;
+        }
+
+        final Display display             = shell.getDisplay();
+        final DatasetSearcher search      = new DatasetSearcher(dataset);
+        final java.util.List<Match> found = new ArrayList<>();
+        final long total                  = Math.max(1, search.getTotalRows());
+        searcher                          = search;
+
+        matches.clear();
+        matchList.removeAll();
+        findButton.setEnabled(false);
+        stopButton.setEnabled(true);
+        statusLabel.setText("Searching...");
+
+        log.trace("startSearch(): {} in {}", criterion, dataset.getName());
+
+        // the search blocks on file I/O, so it is not run in the common pool
+        ExecutorService runner = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "hdf-view-find");
+            t.setDaemon(true);
+            return t;
+        });
+
+        CompletableFuture
+            .supplyAsync(() -> {
+                try {
+                    return search.search(criterion, found::add, rows -> {
+                        // the matches found so far are handed to the list once per block
+                        final java.util.List<Match> batch = new ArrayList<>(found);
+                        found.clear();
+                        final String status = "Searching... " + (rows * 100 / total) + "%";
+                        if (!display.isDisposed())
+                            display.asyncExec(() -> addMatches(search, batch, status));
+                    });
+                }
+                catch (Exception ex) {
+                    throw new CompletionException(ex);
+                }
+            }, runner)
+            .whenComplete((count, err) -> {
+                runner.shutdown();
+                final java.util.List<Match> batch = new ArrayList<>(found);
+                if (display.isDisposed())
+                    return;
+
+                display.asyncExec(() -> {
+                    if ((searcher != search) || shell.isDisposed())
+                        return;
+
+                    findButton.setEnabled(true);
+                    stopButton.setEnabled(false);
+                    searcher = null;
+
+                    if (err != null) {
+                        Throwable cause = (err instanceof CompletionException) ? err.getCause() : err;
+                        log.debug("startSearch(): search of {} failed:", dataset.getName(), cause);
+                        statusLabel.setText("");
+                        shell.getDisplay().beep();
+                        Tools.showError(shell, "Find", "Search failed: " + cause.getMessage());
+                        return;
+                    }
+
+                    String status = count + " matches";
+                    if (count >= DatasetSearcher.DEFAULT_MAX_MATCHES)
+                        status += " (search stopped at the limit)";
+                    addMatches(search, batch, status);
+                });
+            });
+    }
+
+    private void addMatches(DatasetSearcher search, java.util.List<Match> batch, String status)
+    {
+        if ((searcher != search) && (searcher != null))
+            return;
+        if (shell.isDisposed())
+            return;
+
+        String[] names =
+            (dataset instanceof CompoundDS) ? ((CompoundDS)dataset).getSelectedMemberNames() : null;
+        for (Match match : batch) {
+            StringBuilder sb = new StringBuilder("[");
+            long[] coords    = match.getCoordinates();
+            for (int i = 0; i < coords.length; i++)
+                sb.append((i > 0) ? ", " : "").append(coords[i]);
+            sb.append(']');
+            if ((names != null) && (match.getMember() >= 0))
+                sb.append(' ').append(names[match.getMember()]);
+
+            double value = match.getValue();
+            sb.append(" = ");
+            if ((value == Math.rint(value)) && (Math.abs(value) < 1e15))
+                sb.append((long)value);
+            else
+                sb.append(value);
+
+            matches.add(match);
+            matchList.add(sb.toString());
+        }
+
+        statusLabel.setText(status);
+    }
+}
@@ -0,0 +1,1009 @@
+/*****************************************************************************
+ * Copyright by The HDF Group.                                               *
+ * All rights reserved.                                                      *
+ *                                                                           *
+ * This file is part of the HDF Java Products distribution.                  *
+ * The full copyright notice, including terms governing use, modification,   *
+ * and redistribution, is contained in the COPYING file, which can be found  *
+ * at the root of the source code distribution tree,                         *
+ * or in https://www.hdfgroup.org/licenses.                                  *
+ * If you do not have access to either file, you may request a copy from     *
+ * help@hdfgroup.org.                                                        *
+ ****************************************************************************/
+
+package hdf.object;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * A DataBuffer is a primitive-typed view over the values of a dataset or of a compound dataset member.
+ *
+ * A view wraps the Java primitive array returned by Dataset.read(), or the array of one member of a
+ * compound dataset, without copying it. Values are moved to and from ByteBuffers and channels in bulk in
+ * any byte order.
+ *
+ * Each Java primitive type has its own final subclass (OfByte, OfShort, OfInt, OfLong, OfFloat and
+ * OfDouble) with unboxed get and set methods, so that loops over a view stay monomorphic. The generic
+ * getLong(), getDouble() and getValue() accessors are provided for code which handles any type.
+ *
+ * The type class of a view is the character returned by Utils.getJavaObjectRuntimeClass() for the
+ * equivalent Java array: B = byte, S = short, I = int, J = long, F = float and D = double.
+ */
+public abstract class DataBuffer {
+    /** The size in bytes of the buffers used by read() and write() to transfer values to a channel. */
+    public static final int IO_BUFFER_SIZE = 4 * 1024 * 1024;
+
+    /** The number of values in the view. */
+    protected final int size;
+
+    /** Whether integer values are to be interpreted as unsigned. */
+    protected boolean isUnsigned = false;
+
+    /**
+     * Constructs a view over a Java array.
+     *
+     * @param size
+     *            the number of values in the view.
+     */
+    protected DataBuffer(int size) { this.size = size; }
+
+    /**
+     * Wraps a Java primitive array in a view without copying it.
+     *
+     * @param array
+     *            a byte, short, int, long, float or double array.
+     *
+     * @return the view over the array, the given object if it is already a DataBuffer, or null if the
+     *         object is not a supported primitive array.
+     */
+    public static DataBuffer wrap(Object array)
+    {
+        if (array instanceof DataBuffer)
+            return (DataBuffer)array;
+        if (array instanceof byte[])
+            return new OfByte((byte[])array);
+        if (array instanceof short[])
+            return new OfShort((short[])array);
+        if (array instanceof int[])
+            return new OfInt((int[])array);
+        if (array instanceof long[])
+            return new OfLong((long[])array);
+        if (array instanceof float[])
+            return new OfFloat((float[])array);
+        if (array instanceof double[])
+            return new OfDouble((double[])array);
+
+        return null;
+    }
+
+    /**
+     * Allocates a view over a new Java primitive array.
+     *
+     * @param typeClass
+     *            the type class of the values: B, S, I, J, F or D.
+     * @param size
+     *            the number of values in the view.
+     *
+     * @return the new view.
+     */
+    public static DataBuffer allocate(char typeClass, int size)
+    {
+        switch (typeClass) {
+        case 'B':
+            return new OfByte(new byte[size]);
+        case 'S':
+            return new OfShort(new short[size]);
+        case 'I':
+            return new OfInt(new int[size]);
+        case 'J':
+            return new OfLong(new long[size]);
+        case 'F':
+            return new OfFloat(new float[size]);
+        case 'D':
+            return new OfDouble(new double[size]);
+        default:
+            throw new IllegalArgumentException("unsupported type class: " + typeClass);
+        }
+    }
+
+    /**
+     * Returns the type class of the Java primitive which holds the values of the given datatype.
+     *
+     * Only integer types of 1, 2, 4 or 8 bytes and float types of 4 or 8 bytes are supported.
+     *
+     * @param dtype
+     *            the datatype.
+     *
+     * @return B, S, I, J, F or D; or a space if the datatype can not be viewed as a primitive.
+     */
+    public static char getTypeClass(Datatype dtype)
+    {
+        if (dtype == null)
+            return ' ';
+
+        long tsize = dtype.getDatatypeSize();
+        if (dtype.isInteger()) {
+            switch ((int)tsize) {
+            case 1:
+                return 'B';
+            case 2:
+                return 'S';
+            case 4:
+                return 'I';
+            case 8:
+                return 'J';
+            default:
+                return ' ';
+            }
+        }
+        else if (dtype.isFloat()) {
+            if (tsize == 4)
+                return 'F';
+            else if (tsize == 8)
+                return 'D';
+        }
+
+        return ' ';
+    }
+
+    /**
+     * Returns the size in bytes of the Java primitive of the given type class.
+     *
+     * @param typeClass
+     *            the type class: B, S, I, J, F or D.
+     *
+     * @return the size in bytes, or -1 for an unsupported type class.
+     */
+    public static int getElementSize(char typeClass)
+    {
+        switch (typeClass) {
+        case 'B':
+            return 1;
+        case 'S':
+            return 2;
+        case 'I':
+        case 'F':
+            return 4;
+        case 'J':
+        case 'D':
+            return 8;
+        default:
+            return -1;
+        }
+    }
+
+    /**
+     * Returns the number of values in the view.
+     *
+     * @return the number of values.
+     */
+    public final int size() { return size; }
+
+    /**
+     * Returns whether integer values are interpreted as unsigned.
+     *
+     * @return true if integer values are unsigned.
+     */
+    public final boolean isUnsigned() { return isUnsigned; }
+
+    /**
+     * Sets whether integer values are interpreted as unsigned.
+     *
+     * @param unsigned
+     *            true if integer values are unsigned.
+     *
+     * @return this view.
+     */
+    public DataBuffer setUnsigned(boolean unsigned)
+    {
+        isUnsigned = unsigned;
+        return this;
+    }
+
+    /**
+     * Returns the type class of the values: B, S, I, J, F or D.
+     *
+     * @return the type class of the values.
+     */
+    public abstract char getTypeClass();
+
+    /**
+     * Returns the size in bytes of one value.
+     *
+     * @return the size of one value.
+     */
+    public final int getElementSize() { return getElementSize(getTypeClass()); }
+
+    /**
+     * Returns the value at the given index as a long. Float values are truncated.
+     *
+     * @param index
+     *            the index of the value.
+     *
+     * @return the value.
+     */
+    public abstract long getLong(int index);
+
+    /**
+     * Returns the value at the given index as a double.
+     *
+     * @param index
+     *            the index of the value.
+     *
+     * @return the value.
+     */
+    public abstract double getDouble(int index);
+
+    /**
+     * Returns the value at the given index boxed in its Java wrapper type, e.g. Integer for an int view.
+     *
+     * Unsigned byte, short and int values are boxed in the next wider type (Short, Integer and Long), the
+     * same types as Dataset.convertFromUnsignedC() produces, but without converting the whole buffer.
+     * Unsigned long values are returned as Long with the same bits.
+     *
+     * @param index
+     *            the index of the value.
+     *
+     * @return the boxed value.
+     */
+    public abstract Object getValue(int index);
+
+    /**
+     * Sets the value at the given index from a long.
+     *
+     * @param index
+     *            the index of the value.
+     * @param value
+     *            the new value.
+     */
+    public abstract void setLong(int index, long value);
+
+    /**
+     * Parses an integer for this view, checking that it fits the width and signedness of the values.
+     *
+     * @param text
+     *            the decimal text of the integer.
+     *
+     * @return the value to pass to setLong(); an unsigned long value has the same bits as the number.
+     *
+     * @throws NumberFormatException
+     *             if the text is not an integer or is out of the range of the values
+     */
+    public long parseLong(String text)
+    {
+        char typeClass = getTypeClass();
+        if ((typeClass == 'F') || (typeClass == 'D'))
+            throw new NumberFormatException("not an integer view");
+
+        if (typeClass == 'J')
+            return isUnsigned ? Long.parseUnsignedLong(text) : Long.parseLong(text);
+
+        long value = Long.parseLong(text);
+        int bits   = 8 * getElementSize();
+        long min   = isUnsigned ? 0 : -(1L << (bits - 1));
+        long max   = isUnsigned ? (1L << bits) - 1 : (1L << (bits - 1)) - 1;
+        if ((value < min) || (value > max))
+            throw new NumberFormatException("Value out of range. Value:\"" + text + "\"");
+
+        return value;
+    }
+
+    /**
+     * Sets the value at the given index from a double.
+     *
+     * @param index
+     *            the index of the value.
+     * @param value
+     *            the new value.
+     */
+    public abstract void setDouble(int index, double value);
+
+    /**
+     * Returns the Java array backing this view.
+     *
+     * @return the backing array.
+     */
+    public abstract Object array();
+
+    /**
+     * Copies the values of the view into a new Java primitive array.
+     *
+     * @return the new array.
+     */
+    public abstract Object toArray();
+
+    /**
+     * Encodes count values, starting at index from, into the destination buffer at its current position
+     * using the byte order of the destination buffer.
+     *
+     * @param from
+     *            the index of the first value.
+     * @param count
+     *            the number of values.
+     * @param dst
+     *            the destination buffer.
+     */
+    public abstract void get(int from, int count, ByteBuffer dst);
+
+    /**
+     * Decodes count values from the source buffer at its current position, using the byte order of the
+     * source buffer, and stores them starting at index from.
+     *
+     * @param from
+     *            the index of the first value.
+     * @param count
+     *            the number of values.
+     * @param src
+     *            the source buffer.
+     */
+    public abstract void put(int from, int count, ByteBuffer src);
+
+    /**
+     * Writes all of the values of this view to a channel in the given byte order.
+     *
+     * The values are encoded into a direct buffer of at most IO_BUFFER_SIZE bytes at a time, which the
+     * channel can write without another copy.
+     *
+     * @param channel
+     *            the channel to write to.
+     * @param order
+     *            the byte order of the values in the channel.
+     *
+     * @throws IOException
+     *             if the values can not be written
+     */
+    public void write(WritableByteChannel channel, ByteOrder order) throws IOException
+    {
+        int elemSize  = getElementSize();
+        int blockSize = Math.max(1, Math.min(size, IO_BUFFER_SIZE / elemSize));
+        ByteBuffer bb = ByteBuffer.allocateDirect(blockSize * elemSize).order(order);
+
+        for (int from = 0; from < size; from += blockSize) {
+            int count = Math.min(blockSize, size - from);
+            bb.clear();
+            get(from, count, bb);
+            bb.flip();
+            while (bb.hasRemaining())
+                channel.write(bb);
+        }
+    }
+
+    /**
+     * Reads values in the given byte order from a file channel, starting at its current position, into
+     * this view. The file is memory-mapped IO_BUFFER_SIZE bytes at a time and decoded straight from the
+     * mapping; the position of the channel is advanced past the values read.
+     *
+     * @param channel
+     *            the file channel to read from.
+     * @param order
+     *            the byte order of the values in the file.
+     *
+     * @return the number of values read, which is less than size() if the file is too short.
+     *
+     * @throws IOException
+     *             if the values can not be read
+     */
+    public int read(FileChannel channel, ByteOrder order) throws IOException
+    {
+        int elemSize  = getElementSize();
+        int blockSize = Math.max(1, IO_BUFFER_SIZE / elemSize);
+        long position = channel.position();
+        int available = (int)Math.min(size, (channel.size() - position) / elemSize);
+
+        for (int from = 0; from < available; from += blockSize) {
+            int count = Math.min(blockSize, available - from);
+            ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, position + (long)from * elemSize,
+                                            (long)count * elemSize);
+            put(from, count, mapped.order(order));
+        }
+
+        channel.position(position + (long)available * elemSize);
+
+        return available;
+    }
+
+    /** A view of byte values. */
+    public static final class OfByte extends DataBuffer {
+        private final byte[] array;
+
+        /**
+         * Wraps a byte array.
+         *
+         * @param array
+         *            the array to wrap.
+         */
+        public OfByte(byte[] array)
+        {
+            super(array.length);
+            this.array = array;
+        }
+
+        /**
+         * Returns the value at the given index.
+         *
+         * @param index
+         *            the index of the value.
+         *
+         * @return the value.
+         */
+        public byte get(int index) { return array[index]; }
+
+        /**
+         * Sets the value at the given index.
+         *
+         * @param index
+         *            the index of the value.
+         * @param value
+         *            the new value.
+         */
+        public void set(int index, byte value) { array[index] = value; }
+
+        @Override
+        public char getTypeClass()
+        {
+            return 'B';
+        }
+
+        @Override
+        public long getLong(int index)
+        {
+            return isUnsigned ? Byte.toUnsignedLong(get(index)) : get(index);
+        }
+
+        @Override
+        public double getDouble(int index)
+        {
+            return getLong(index);
+        }
+
+        @Override
+        public Object getValue(int index)
+        {
+            if (isUnsigned)
+                return (short)Byte.toUnsignedInt(get(index));
+            return get(index);
+        }
+
+        @Override
+        public void setLong(int index, long value)
+        {
+            set(index, (byte)value);
+        }
+
+        @Override
+        public void setDouble(int index, double value)
+        {
+            set(index, (byte)value);
+        }
+
+        @Override
+        public Object array()
+        {
+            return array;
+        }
+
+        @Override
+        public Object toArray()
+        {
+            return array.clone();
+        }
+
+        @Override
+        public void get(int from, int count, ByteBuffer dst)
+        {
+            dst.put(array, from, count);
+        }
+
+        @Override
+        public void put(int from, int count, ByteBuffer src)
+        {
+            src.get(array, from, count);
+        }
+    }
+
+    /** A view of short values. */
+    public static final class OfShort extends DataBuffer {
+        private final short[] array;
+
+        /**
+         * Wraps a short array.
+         *
+         * @param array
+         *            the array to wrap.
+         */
+        public OfShort(short[] array)
+        {
+            super(array.length);
+            this.array = array;
+        }
+
+        /**
+         * Returns the value at the given index.
+         *
+         * @param index
+         *            the index of the value.
+         *
+         * @return the value.
+         */
+        public short get(int index) { return array[index]; }
+
+        /**
+         * Sets the value at the given index.
+         *
+         * @param index
+         *            the index of the value.
+         * @param value
+         *            the new value.
+         */
+        public void set(int index, short value) { array[index] = value; }
+
+        @Override
+        public char getTypeClass()
+        {
+            return 'S';
+        }
+
+        @Override
+        public long getLong(int index)
+        {
+            return isUnsigned ? Short.toUnsignedLong(get(index)) : get(index);
+        }
+
+        @Override
+        public double getDouble(int index)
+        {
+            return getLong(index);
+        }
+
+        @Override
+        public Object getValue(int index)
+        {
+            if (isUnsigned)
+                return Short.toUnsignedInt(get(index));
+            return get(index);
+        }
+
+        @Override
+        public void setLong(int index, long value)
+        {
+            set(index, (short)value);
+        }
+
+        @Override
+        public void setDouble(int index, double value)
+        {
+            set(index, (short)value);
+        }
+
+        @Override
+        public Object array()
+        {
+            return array;
+        }
+
+        @Override
+        public Object toArray()
+        {
+            return array.clone();
+        }
+
+        @Override
+        public void get(int from, int count, ByteBuffer dst)
+        {
+            dst.asShortBuffer().put(array, from, count);
+            dst.position(dst.position() + count * 2);
+        }
+
+        @Override
+        public void put(int from, int count, ByteBuffer src)
+        {
+            src.asShortBuffer().get(array, from, count);
+            src.position(src.position() + count * 2);
+        }
+    }
+
+    /** A view of int values. */
+    public static final class OfInt extends DataBuffer {
+        private final int[] array;
+
+        /**
+         * Wraps an int array.
+         *
+         * @param array
+         *            the array to wrap.
+         */
+        public OfInt(int[] array)
+        {
+            super(array.length);
+            this.array = array;
+        }
+
+        /**
+         * Returns the value at the given index.
+         *
+         * @param index
+         *            the index of the value.
+         *
+         * @return the value.
+         */
+        public int get(int index) { return array[index]; }
+
+        /**
+         * Sets the value at the given index.
+         *
+         * @param index
+         *            the index of the value.
+         * @param value
+         *            the new value.
+         */
+        public void set(int index, int value) { array[index] = value; }
+
+        @Override
+        public char getTypeClass()
+        {
+            return 'I';
+        }
+
+        @Override
+        public long getLong(int index)
+        {
+            return isUnsigned ? Integer.toUnsignedLong(get(index)) : get(index);
+        }
+
+        @Override
+        public double getDouble(int index)
+        {
+            return getLong(index);
+        }
+
+        @Override
+        public Object getValue(int index)
+        {
+            if (isUnsigned)
+                return Integer.toUnsignedLong(get(index));
+            return get(index);
+        }
+
+        @Override
+        public void setLong(int index, long value)
+        {
+            set(index, (int)value);
+        }
+
+        @Override
+        public void setDouble(int index, double value)
+        {
+            set(index, (int)value);
+        }
+
+        @Override
+        public Object array()
+        {
+            return array;
+        }
+
+        @Override
+        public Object toArray()
+        {
+            return array.clone();
+        }
+
+        @Override
+        public void get(int from, int count, ByteBuffer dst)
+        {
+            dst.asIntBuffer().put(array, from, count);
+            dst.position(dst.position() + count * 4);
+        }
+
+        @Override
+        public void put(int from, int count, ByteBuffer src)
+        {
+            src.asIntBuffer().get(array, from, count);
+            src.position(src.position() + count * 4);
+        }
+    }
+
+    /** A view of long values. */
+    public static final class OfLong extends DataBuffer {
+        private final long[] array;
+
+        /**
+         * Wraps a long array.
+         *
+         * @param array
+         *            the array to wrap.
+         */
+        public OfLong(long[] array)
+        {
+            super(array.length);
+            this.array = array;
+        }
+
+        /**
+         * Returns the value at the given index.
+         *
+         * @param index
+         *            the index of the value.
+         *
+         * @return the value.
+         */
+        public long get(int index) { return array[index]; }
+
+        /**
+         * Sets the value at the given index.
+         *
+         * @param index
+         *            the index of the value.
+         * @param value
+         *            the new value.
+         */
+        public void set(int index, long value) { array[index] = value; }
+
+        @Override
+        public char getTypeClass()
+        {
+            return 'J';
+        }
+
+        @Override
+        public long getLong(int index)
+        {
+            return get(index);
+        }
+
+        @Override
+        public double getDouble(int index)
+        {
+            long value = get(index);
+            if (isUnsigned && (value < 0))
+                return (double)(value >>> 1) * 2.0 + (value & 1);
+            return value;
+        }
+
+        @Override
+        public Object getValue(int index)
+        {
+            return get(index);
+        }
+
+        @Override
+        public void setLong(int index, long value)
+        {
+            set(index, value);
+        }
+
+        @Override
+        public void setDouble(int index, double value)
+        {
+            set(index, (long)value);
+        }
+
+        @Override
+        public Object array()
+        {
+            return array;
+        }
+
+        @Override
+        public Object toArray()
+        {
+            return array.clone();
+        }
+
+        @Override
+        public void get(int from, int count, ByteBuffer dst)
+        {
+            dst.asLongBuffer().put(array, from, count);
+            dst.position(dst.position() + count * 8);
+        }
+
+        @Override
+        public void put(int from, int count, ByteBuffer src)
+        {
+            src.asLongBuffer().get(array, from, count);
+            src.position(src.position() + count * 8);
+        }
+    }
+
+    /** A view of float values. */
+    public static final class OfFloat extends DataBuffer {
+        private final float[] array;
+
+        /**
+         * Wraps a float array.
+         *
+         * @param array
+         *            the array to wrap.
+         */
+        public OfFloat(float[] array)
+        {
+            super(array.length);
+            this.array = array;
+        }
+
+        /**
+         * Returns the value at the given index.
+         *
+         * @param index
+         *            the index of the value.
+         *
+         * @return the value.
+         */
+        public float get(int index) { return array[index]; }
+
+        /**
+         * Sets the value at the given index.
+         *
+         * @param index
+         *            the index of the value.
+         * @param value
+         *            the new value.
+         */
+        public void set(int index, float value) { array[index] = value; }
+
+        @Override
+        public char getTypeClass()
+        {
+            return 'F';
+        }
+
+        @Override
+        public long getLong(int index)
+        {
+            return (long)get(index);
+        }
+
+        @Override
+        public double getDouble(int index)
+        {
+            return get(index);
+        }
+
+        @Override
+        public Object getValue(int index)
+        {
+            return get(index);
+        }
+
+        @Override
+        public void setLong(int index, long value)
+        {
+            set(index, value);
+        }
+
+        @Override
+        public void setDouble(int index, double value)
+        {
+            set(index, (float)value);
+        }
+
+        @Override
+        public Object array()
+        {
+            return array;
+        }
+
+        @Override
+        public Object toArray()
+        {
+            return array.clone();
+        }
+
+        @Override
+        public void get(int from, int count, ByteBuffer dst)
+        {
+            dst.asFloatBuffer().put(array, from, count);
+            dst.position(dst.position() + count * 4);
+        }
+
+        @Override
+        public void put(int from, int count, ByteBuffer src)
+        {
+            src.asFloatBuffer().get(array, from, count);
+            src.position(src.position() + count * 4);
+        }
+    }
+
+    /** A view of double values. */
+    public static final class OfDouble extends DataBuffer {
+        private final double[] array;
+
+        /**
+         * Wraps a double array.
+         *
+         * @param array
+         *            the array to wrap.
+         */
+        public OfDouble(double[] array)
+        {
+            super(array.length);
+            this.array = array;
+        }
+
+        /**
+         * Returns the value at the given index.
+         *
+         * @param index
+         *            the index of the value.
+         *
+         * @return the value.
+         */
+        public double get(int index) { return array[index]; }
+
+        /**
+         * Sets the value at the given index.
+         *
+         * @param index
+         *            the index of the value.
+         * @param value
+         *            the new value.
+         */
+        public void set(int index, double value) { array[index] = value; }
+
+        @Override
+        public char getTypeClass()
+        {
+            return 'D';
+        }
+
+        @Override
+        public long getLong(int index)
+        {
+            return (long)get(index);
+        }
+
+        @Override
+        public double getDouble(int index)
+        {
+            return get(index);
+        }
+
+        @Override
+        public Object getValue(int index)
+        {
+            return get(index);
+        }
+
+        @Override
+        public void setLong(int index, long value)
+        {
+            set(index, value);
+        }
+
+        @Override
+        public void setDouble(int index, double value)
+        {
+            set(index, value);
+        }
+
+        @Override
+        public Object array()
+        {
+            return array;
+        }
+
+        @Override
+        public Object toArray()
+        {
+            return array.clone();
+        }
+
+        @Override
+        public void get(int from, int count, ByteBuffer dst)
+        {
+            dst.asDoubleBuffer().put(array, from, count);
+            dst.position(dst.position() + count * 8);
+        }
+
+        @Override
+        public void put(int from, int count, ByteBuffer src)
+        {
+            src.asDoubleBuffer().get(array, from, count);
+            src.position(src.position() + count * 8);
+        }
+    }
+}
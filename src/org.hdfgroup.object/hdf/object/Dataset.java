@@ -20,6 +20,7 @@ import java.math.BigInteger;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -54,6 +55,15 @@ public abstract class Dataset extends HObject implements DataFormat {
 
     private static final Logger log = LoggerFactory.getLogger(Dataset.class);
 
+    /** The approximate size in bytes of a block read by blockIterator() when no block size is given. */
+    public static final long DEFAULT_BLOCK_BYTES = 1024 * 1024;
+
+    /**
+     * The largest number of hyperslabs writeChanges() builds before it writes the whole memory
+     * buffer instead.
+     */
+    public static final int MAX_CHANGED_REGIONS = 4096;
+
     /**
      * The memory buffer that holds the raw data array of the dataset.
      */
@@ -357,7 +367,7 @@ public abstract class Dataset extends HObject implements DataFormat {
      * @return the dimension sizes of the selected subset.
      */
     @Override
-    public final long[] getSelectedDims()
+    public final synchronized long[] getSelectedDims()
     {
         return selectedDims;
     }
@@ -389,7 +399,7 @@ public abstract class Dataset extends HObject implements DataFormat {
      * @return the starting position of a selected subset.
      */
     @Override
-    public final long[] getStartDims()
+    public final synchronized long[] getStartDims()
     {
         return startDims;
     }
@@ -422,7 +432,7 @@ public abstract class Dataset extends HObject implements DataFormat {
      * @return the selectedStride of the selected dataset.
      */
     @Override
-    public final long[] getStride()
+    public final synchronized long[] getStride()
     {
         if (rank <= 0)
             return null;
@@ -486,6 +496,252 @@ public abstract class Dataset extends HObject implements DataFormat {
      */
     public abstract byte[] readBytes() throws Exception;
 
+    /**
+     * Reads the data points described by a selection from file with a single I/O call.
+     *
+     * Unlike read(), the current start, stride and count of the dataset are ignored and the
+     * selection may be made of several disjoint hyperslabs or an explicit list of points. The
+     * data is returned in a packed, one-dimensional buffer of the same type that read() returns;
+     * the position of each point in the buffer is given by {@link Selection#getPoint(int)}.
+     *
+     * The dataset object does not hold the returned buffer.
+     *
+     * @param selection
+     *            the data points to read.
+     *
+     * @return the data read from file.
+     *
+     * @throws Exception
+     *             if the data can not be read
+     */
+    public Object read(Selection selection) throws Exception
+    {
+        // If the implementing subclass doesn't have this method then that
+        // format doesn't support multi-region reads and we throw an exception.
+        throw new UnsupportedOperationException("Object Dataset.read(Selection) is not implemented.");
+    }
+
+    /**
+     * Returns an iterator that reads the current selection of this dataset in blocks along
+     * its first dimension.
+     *
+     * Each call to next() reads the next blockSize selected indices of the first dimension,
+     * together with the whole selection of the other dimensions, and returns the data in the
+     * same form as read() would for that part of the selection. This allows long series and
+     * large tables to be processed, for example exported or plotted, without holding the whole
+     * selection in memory. Formats may override readBlock() to read blocks in a way that
+     * matches their storage layout.
+     *
+     * The selection is captured when the iterator is created; the dataset object does not hold
+     * the blocks. Errors are thrown from next() as an IllegalStateException with the original
+     * exception as its cause.
+     *
+     * @param blockSize
+     *            the number of indices of the first dimension in each block, or 0 to use
+     *            {@link #getDefaultBlockSize()}.
+     *
+     * @return the iterator over the blocks of the selection.
+     */
+    public Iterator<Object> blockIterator(long blockSize)
+    {
+        if (!isInited())
+            init();
+
+        long[] start;
+        long[] stride;
+        long[] count;
+        synchronized (this) {
+            start  = startDims.clone();
+            stride = getStride().clone();
+            count  = selectedDims.clone();
+        }
+
+        return blockIterator(start, stride, count, blockSize);
+    }
+
+    /**
+     * Returns an iterator that reads a hyperslab of this dataset in blocks along its first
+     * dimension, leaving the current selection of the dataset unchanged.
+     *
+     * The blocks are read in the same way as by {@link #blockIterator(long)}, but over the given
+     * extent instead of the current selection; for example, a start of zeros and a count equal to
+     * getDims() reads the whole dataset.
+     *
+     * @param start
+     *            the offset of the hyperslab.
+     * @param stride
+     *            the stride of the hyperslab in each dimension; null means a stride of 1.
+     * @param count
+     *            the number of points of the hyperslab in each dimension.
+     * @param blockSize
+     *            the number of indices of the first dimension in each block, or 0 for a block
+     *            of about {@link #DEFAULT_BLOCK_BYTES} bytes.
+     *
+     * @return the iterator over the blocks of the hyperslab.
+     */
+    public Iterator<Object> blockIterator(long[] start, long[] stride, long[] count, long blockSize)
+    {
+        if (!isInited())
+            init();
+
+        final long[] theStart  = start.clone();
+        final long[] theCount  = count.clone();
+        final long[] theStride = new long[theStart.length];
+        for (int i = 0; i < theStride.length; i++)
+            theStride[i] = (stride == null) ? 1 : stride[i];
+        final long n = (blockSize > 0) ? blockSize : getDefaultBlockSize(theCount);
+
+        return new Iterator<Object>() {
+            private long done = 0;
+
+            @Override
+            public boolean hasNext()
+            {
+                return done < theCount[0];
+            }
+
+            @Override
+            public Object next()
+            {
+                if (!hasNext())
+                    throw new java.util.NoSuchElementException();
+
+                long size         = Math.min(n, theCount[0] - done);
+                long[] blockStart = theStart.clone();
+                long[] blockCount = theCount.clone();
+                blockStart[0] += done * theStride[0];
+                blockCount[0] = size;
+                Object block;
+                try {
+                    block = readBlock(blockStart, theStride, blockCount);
+                }
+                catch (Exception ex) {
+                    log.debug("blockIterator(): failed to read block at {}: ", blockStart[0], ex);
+                    throw new IllegalStateException(ex.getMessage(), ex);
+                }
+                done += size;
+
+                return block;
+            }
+        };
+    }
+
+    /**
+     * Returns the number of indices of the first dimension read at a time by
+     * blockIterator(0): the chunk size of the first dimension for chunked datasets, otherwise
+     * enough indices for a block of about {@link #DEFAULT_BLOCK_BYTES} bytes.
+     *
+     * @return the default block size.
+     */
+    public long getDefaultBlockSize()
+    {
+        if (!isInited())
+            init();
+
+        return getDefaultBlockSize(selectedDims);
+    }
+
+    private long getDefaultBlockSize(long[] count)
+    {
+        if ((chunkSize != null) && (chunkSize[0] > 0))
+            return chunkSize[0];
+
+        long sliceSize = 1;
+        for (int i = 1; i < count.length; i++)
+            sliceSize *= count[i];
+
+        Datatype dtype = getDatatype();
+        if ((dtype != null) && (dtype.getDatatypeSize() > 0))
+            sliceSize *= dtype.getDatatypeSize();
+
+        return Math.max(1, DEFAULT_BLOCK_BYTES / Math.max(1, sliceSize));
+    }
+
+    /**
+     * Reads one block of blockIterator(): the hyperslab of the given start, stride and count, which
+     * covers a range of the first dimension of the iterated extent.
+     *
+     * The default implementation reads the hyperslab with {@link #read(Selection)}, so the current
+     * selection of the dataset is neither used nor changed. Formats without selection reads
+     * override this method to read the hyperslab directly. For those which don't, the selection is
+     * replaced by the hyperslab for the duration of a read() call while holding the lock of this
+     * dataset object, which only keeps the selection private from callers that change it under the
+     * same lock; the arrays returned by getStartDims(), getSelectedDims() and getStride() are not
+     * modified, and the returned buffer is never the memory buffer of the dataset.
+     *
+     * @param start
+     *            the offset of the block.
+     * @param stride
+     *            the stride of the block in each dimension.
+     * @param count
+     *            the number of points of the block in each dimension.
+     *
+     * @return the data of the block.
+     *
+     * @throws Exception
+     *             if the block can not be read
+     */
+    protected Object readBlock(long[] start, long[] stride, long[] count) throws Exception
+    {
+        try {
+            return read(new Selection(dims).addHyperslab(start, stride, count));
+        }
+        catch (UnsupportedOperationException ex) {
+            log.trace("readBlock(): no selection reads; reading with a temporary selection");
+        }
+
+        synchronized (this) {
+            long[] oldStart  = startDims;
+            long[] oldStride = selectedStride;
+            long[] oldCount  = selectedDims;
+            try {
+                startDims      = start.clone();
+                selectedStride = stride.clone();
+                selectedDims   = count.clone();
+                return detachBuffer(read());
+            }
+            finally {
+                startDims      = oldStart;
+                selectedStride = oldStride;
+                selectedDims   = oldCount;
+            }
+        }
+    }
+
+    /*
+     * Returns a copy of a buffer returned by read() if it is the memory buffer of this dataset, which
+     * getData() and later reads share, or the buffer itself otherwise.
+     */
+    Object detachBuffer(Object buf)
+    {
+        if ((buf != null) && ((buf == data) || (buf == originalBuf)))
+            return copyBuffer(buf);
+
+        return buf;
+    }
+
+    /*
+     * Copies a primitive array, an object array or a list of member arrays.
+     */
+    private static Object copyBuffer(Object buf)
+    {
+        if (buf instanceof List) {
+            List<Object> copy = new ArrayList<>(((List<?>)buf).size());
+            for (Object member : (List<?>)buf)
+                copy.add(copyBuffer(member));
+            return copy;
+        }
+
+        if ((buf == null) || !buf.getClass().isArray())
+            return buf;
+
+        int n       = Array.getLength(buf);
+        Object copy = Array.newInstance(buf.getClass().getComponentType(), n);
+        System.arraycopy(buf, 0, copy, 0, n);
+
+        return copy;
+    }
+
     /**
      * Writes the memory buffer of this dataset to file.
      *
@@ -501,6 +757,216 @@ public abstract class Dataset extends HObject implements DataFormat {
         }
     }
 
+    /**
+     * Writes the data points described by a selection to file.
+     *
+     * This is the counterpart of {@link #read(Selection)}: the current start, stride and count
+     * of the dataset are ignored and buf is a packed, one-dimensional buffer holding one value
+     * for each selected point, in the order given by {@link Selection#getPoint(int)}.
+     *
+     * @param selection
+     *            the data points to write.
+     * @param buf
+     *            the packed buffer that contains the data values.
+     *
+     * @throws Exception
+     *             if the data can not be written
+     */
+    public void write(Selection selection, Object buf) throws Exception
+    {
+        // If the implementing subclass doesn't have this method then that
+        // format doesn't support multi-region writes and we throw an exception.
+        throw new UnsupportedOperationException("Dataset.write(Selection, Object) is not implemented.");
+    }
+
+    /**
+     * Checks if the format of this dataset supports {@link #write(Selection, Object)}. Sub-classes
+     * which implement it must replace this default implementation.
+     *
+     * @return true if the data points of a selection can be written; otherwise returns false.
+     */
+    public boolean canWriteSelection() { return false; }
+
+    /**
+     * Writes the hyperslab of the given start, stride and count to file, without using or
+     * changing the current selection of the dataset.
+     *
+     * The hyperslab is written with {@link #write(Selection, Object)} if the format supports it.
+     * Formats without selection writes override this method to write the hyperslab directly. For
+     * those which don't, the selection is replaced by the hyperslab for the duration of a
+     * write(Object) call while holding the lock of this dataset object, as readBlock() does for
+     * reads; the arrays returned by getStartDims(), getSelectedDims() and getStride() are not
+     * modified.
+     *
+     * @param start
+     *            the offset of the hyperslab.
+     * @param stride
+     *            the stride of the hyperslab in each dimension; null means a stride of 1.
+     * @param count
+     *            the number of points of the hyperslab in each dimension.
+     * @param buf
+     *            the data of the hyperslab, as write(Object) takes it.
+     *
+     * @throws Exception
+     *             if the data can not be written
+     */
+    public void writeBlock(long[] start, long[] stride, long[] count, Object buf) throws Exception
+    {
+        if (!isInited())
+            init();
+
+        if (canWriteSelection()) {
+            write(new Selection(dims).addHyperslab(start, stride, count), buf);
+            return;
+        }
+
+        long[] theStride = new long[start.length];
+        for (int i = 0; i < theStride.length; i++)
+            theStride[i] = (stride == null) ? 1 : stride[i];
+
+        synchronized (this) {
+            long[] oldStart  = startDims;
+            long[] oldStride = selectedStride;
+            long[] oldCount  = selectedDims;
+            try {
+                startDims      = start.clone();
+                selectedStride = theStride;
+                selectedDims   = count.clone();
+                write(buf);
+            }
+            finally {
+                startDims      = oldStart;
+                selectedStride = oldStride;
+                selectedDims   = oldCount;
+            }
+        }
+    }
+
+    /**
+     * Writes the changed elements of the memory buffer of this dataset to file.
+     *
+     * Runs of consecutive changed elements are coalesced into rectangular hyperslabs of the
+     * current selection and written with {@link #write(Selection, Object)}, so that editing a
+     * few values of a large buffer does not rewrite all of it. The whole buffer is written
+     * instead, as with {@link #write()}, if the changes are unknown (null), cover most of the
+     * buffer, need more than {@link #MAX_CHANGED_REGIONS} hyperslabs or if the format doesn't
+     * support multi-region writes.
+     *
+     * @param changed
+     *            the indices of the changed elements of the memory buffer, or null if unknown.
+     *
+     * @throws Exception
+     *             if the data can not be written
+     */
+    public void writeChanges(BitSet changed) throws Exception
+    {
+        if ((data == null) || ((changed != null) && changed.isEmpty()))
+            return;
+
+        long npoints = 1;
+        for (int i = 0; i < rank; i++)
+            npoints *= selectedDims[i];
+
+        int length = data.getClass().isArray() ? Array.getLength(data) : 0;
+        if ((changed == null) || (npoints <= 0) || (length == 0) || (length % npoints != 0) ||
+            (changed.length() > npoints) || (changed.cardinality() > npoints / 2)) {
+            write();
+            return;
+        }
+
+        Selection selection = getChangedSelection(changed);
+        if (selection == null) {
+            log.trace("writeChanges(): more than {} changed regions", MAX_CHANGED_REGIONS);
+            write();
+            return;
+        }
+
+        // number of buffer elements per data point, e.g. the bytes of a fixed-length string
+        int width     = (int)(length / npoints);
+        Object packed = Array.newInstance(data.getClass().getComponentType(), changed.cardinality() * width);
+        int pos       = 0;
+        for (int i = changed.nextSetBit(0); i >= 0; i = changed.nextSetBit(i)) {
+            int end = changed.nextClearBit(i);
+            System.arraycopy(data, i * width, packed, pos, (end - i) * width);
+            pos += (end - i) * width;
+            i = end;
+        }
+
+        try {
+            write(selection, packed);
+        }
+        catch (UnsupportedOperationException ex) {
+            log.debug("writeChanges(): multi-region write not supported; writing the whole buffer");
+            write();
+        }
+    }
+
+    /**
+     * Converts the changed indices of the memory buffer into a union of hyperslabs of the
+     * dataset. Each run of changed elements in a row of the last dimension becomes a hyperslab,
+     * and the same run in consecutive rows of one plane is merged into a single rectangle.
+     *
+     * @param changed
+     *            the indices of the changed elements of the memory buffer.
+     *
+     * @return the selection, or null if it would need more than MAX_CHANGED_REGIONS hyperslabs.
+     */
+    private Selection getChangedSelection(BitSet changed)
+    {
+        int last                 = rank - 1;
+        long ncols               = selectedDims[last];
+        long planeRows           = (rank > 1) ? selectedDims[last - 1] : 1;
+        List<long[][]> slabs     = new ArrayList<>();
+        Map<Long, long[][]> open = new HashMap<>();
+
+        for (int i = changed.nextSetBit(0); i >= 0; i = changed.nextSetBit(i)) {
+            int end = changed.nextClearBit(i);
+
+            // split the run at the row boundaries of the last dimension
+            for (long index = i; index < end;) {
+                long row      = index / ncols;
+                long col      = index % ncols;
+                long len      = Math.min(end, (row + 1) * ncols) - index;
+                Long key      = (col << 32) | len;
+                long[][] slab = open.get(key);
+
+                if ((slab != null) && (slab[3][0] == row - 1) && (row % planeRows != 0)) {
+                    slab[2][last - 1]++;
+                    slab[3][0] = row;
+                }
+                else {
+                    if (slabs.size() >= MAX_CHANGED_REGIONS)
+                        return null;
+
+                    // {start, stride, count, {last row}}
+                    slab        = new long[][] {new long[rank], new long[rank], new long[rank], {row}};
+                    long offset = index;
+                    for (int d = last; d >= 0; d--) {
+                        long step  = (selectedStride == null) ? 1 : selectedStride[d];
+                        slab[0][d] = startDims[d] + (offset % selectedDims[d]) * step;
+                        slab[1][d] = step;
+                        slab[2][d] = 1;
+                        offset /= selectedDims[d];
+                    }
+                    slab[2][last] = len;
+
+                    slabs.add(slab);
+                    open.put(key, slab);
+                }
+
+                index += len;
+            }
+
+            i = end;
+        }
+
+        Selection selection = new Selection(dims);
+        for (long[][] slab : slabs)
+            selection.addHyperslab(slab[0], slab[1], slab[2]);
+
+        return selection;
+    }
+
     /**
      * Creates a new dataset and writes the data buffer to the new dataset.
      *
@@ -670,7 +1136,7 @@ public abstract class Dataset extends HObject implements DataFormat {
      * @throws OutOfMemoryError if memory is exhausted
      */
     @Override
-    public Object getData() throws Exception, OutOfMemoryError
+    public synchronized Object getData() throws Exception, OutOfMemoryError
     {
         log.trace("getData(): isDataLoaded={}", isDataLoaded);
         if (!isDataLoaded) {
@@ -736,8 +1202,12 @@ public abstract class Dataset extends HObject implements DataFormat {
      * Sometimes we want to force a clear and read to re-read the object from the file.
      * For example, when the selection is changed, we need to re-read the data.
      *
+     * Unsigned integer data is returned in its native width. Use a DataBuffer view to
+     * read the values as unsigned, or convertFromUnsignedC() to copy them into a wider array.
+     *
      * @see #getData()
      * @see #read()
+     * @see hdf.object.DataBuffer
      */
     @Override
     public Object refreshData()
@@ -747,15 +1217,6 @@ public abstract class Dataset extends HObject implements DataFormat {
         clearData();
         try {
             dataValue = getData();
-
-            /*
-             * TODO: Converting data from unsigned C integers to Java integers
-             *       is currently unsupported for Compound Datasets.
-             */
-            if (!(this instanceof CompoundDS))
-                convertFromUnsignedC();
-
-            dataValue = getData();
             log.trace("refresh data");
         }
         catch (Exception ex) {
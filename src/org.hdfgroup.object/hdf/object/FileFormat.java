@@ -15,12 +15,23 @@
 package hdf.object;
 
 import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Enumeration;
 import java.util.Hashtable;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.StringTokenizer;
 import java.util.Vector;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -147,6 +158,9 @@ public abstract class FileFormat extends File {
     /** Key for NetCDF file format. */
     public static final String FILE_TYPE_NC3 = "NetCDF3";
 
+    /** Key for FITS file format. */
+    public static final String FILE_TYPE_FITS = "FITS";
+
     /**
      * A separator that separates file name and object name.
      *
@@ -174,6 +188,20 @@ public abstract class FileFormat extends File {
      */
     private static String extensions = "hdf, h4, hdf5, h5, nc, fits";
 
+    /**
+     * The single thread on which batch reads make their calls into the native
+     * libraries; created on first use.
+     *
+     * @see #readDatasets(List)
+     */
+    private static ExecutorService ioExecutor = null;
+
+    /** The number of bytes read from the start of a file to detect its format. */
+    private static final int PROBE_SIZE = 4096;
+
+    /** The HDF5 file signature. */
+    private static final byte[] HDF5_SIGNATURE = {(byte)0x89, 'H', 'D', 'F', '\r', '\n', 0x1a, '\n'};
+
     /***************************************************************************
      * Sizing information and class metadata
      **************************************************************************/
@@ -266,13 +294,13 @@ public abstract class FileFormat extends File {
         }
 
         // add FITS to default modules
-        if (FileFormat.getFileFormat("FITS") == null) {
+        if (FileFormat.getFileFormat(FILE_TYPE_FITS) == null) {
             try {
                 @SuppressWarnings("rawtypes")
                 Class fileclass       = Class.forName("hdf.object.fits.FitsFile");
                 FileFormat fileformat = (FileFormat)fileclass.newInstance();
                 if (fileformat != null) {
-                    FileFormat.addFileFormat("FITS", fileformat);
+                    FileFormat.addFileFormat(FILE_TYPE_FITS, fileformat);
                     log.debug("Fits file format added");
                 }
             }
@@ -564,24 +592,148 @@ public abstract class FileFormat extends File {
         if (!(new File(filename)).exists())
             throw new IllegalArgumentException("File " + filename + " does not exist.");
 
+        return findInstance(filename, WRITE);
+    }
+
+    /**
+     * Creates an instance of the supported file format that matches the format
+     * of the specified file, with the given file access.
+     *
+     * The format is picked from the file signature by {@link #getFileType(String)};
+     * only files that are not in one of the default formats are checked with the
+     * isThisType() method of each supported format. The file is not opened as
+     * part of this call.
+     *
+     * @param filename
+     *            A valid file name, with a relative or absolute path.
+     * @param access
+     *            The file access, e.g. READ or WRITE.
+     * @return An instance of the matched FileFormat; <code>null</code> if no
+     *         match.
+     * @throws IllegalArgumentException
+     *             If the <code>filename</code> argument is <code>null</code> or
+     *             does not specify an existing file.
+     * @see #getInstance(String)
+     */
+    public static final FileFormat getInstance(String filename, int access)
+    {
+        if ((filename == null) || (filename.length() <= 0))
+            throw new IllegalArgumentException("Invalid file name: " + filename);
+
+        if (!(new File(filename)).exists())
+            throw new IllegalArgumentException("File " + filename + " does not exist.");
+
+        return findInstance(filename, access);
+    }
+
+    /**
+     * Creates a FileFormat instance for a file with the given access, using the
+     * file signature to pick the format and falling back to asking each of the
+     * supported formats.
+     */
+    @SuppressWarnings("rawtypes")
+    private static FileFormat findInstance(String filename, int access)
+    {
         FileFormat fileFormat  = null;
-        FileFormat knownFormat = null;
-        Enumeration<?> elms    = ((Hashtable)FileList).elements();
+        String type            = getFileType(filename);
+        FileFormat knownFormat = (type == null) ? null : getFileFormat(type);
+        if (knownFormat != null) {
+            try {
+                return knownFormat.createInstance(filename, access);
+            }
+            catch (Exception ex) {
+                log.debug("File {} createInstance failure: ", filename, ex);
+                return null;
+            }
+        }
 
+        // not one of the default formats, ask each format in turn
+        Enumeration<?> elms = ((Hashtable)FileList).elements();
         while (elms.hasMoreElements()) {
             knownFormat = (FileFormat)elms.nextElement();
-            if (knownFormat.isThisType(filename)) {
-                try {
-                    fileFormat = knownFormat.createInstance(filename, WRITE);
+            try {
+                if (!knownFormat.isThisType(filename))
+                    continue;
+            }
+            catch (Exception ex) {
+                log.debug("File {} isThisType failure: ", filename, ex);
+                continue;
+            }
+
+            try {
+                fileFormat = knownFormat.createInstance(filename, access);
+            }
+            catch (Exception ex) {
+                log.debug("File {} createInstance failure: ", filename, ex);
+            }
+            break;
+        }
+
+        return fileFormat;
+    }
+
+    /**
+     * Detects the format of a file from its signature.
+     *
+     * The first blocks of the file are read once and checked for the signatures
+     * of the default file formats: HDF4, NetCDF, FITS and HDF5. The HDF5
+     * superblock is searched for at byte offset 0, 512, 1024, 2048 and so on, as
+     * the HDF5 library does. This is much cheaper than calling isThisType() of
+     * every supported format, each of which opens and reads the file again.
+     *
+     * @param filename
+     *            the file to check.
+     *
+     * @return the key of the file format, e.g. FILE_TYPE_HDF5, or null if the
+     *         file is not in one of the default formats or can not be read.
+     *
+     * @see #getInstance(String)
+     */
+    public static final String getFileType(String filename)
+    {
+        if (filename == null)
+            return null;
+
+        try (RandomAccessFile raf = new RandomAccessFile(filename, "r")) {
+            long fileSize = raf.length();
+            byte[] header = new byte[(int)Math.min(PROBE_SIZE, fileSize)];
+            raf.readFully(header);
+
+            if ((header.length >= 4) && (header[0] == 14) && (header[1] == 3) && (header[2] == 19) &&
+                (header[3] == 1))
+                return FILE_TYPE_HDF4;
+
+            if ((header.length >= 4) && (header[0] == 'C') && (header[1] == 'D') && (header[2] == 'F') &&
+                ((header[3] == 1) || (header[3] == 2) || (header[3] == 5)))
+                return FILE_TYPE_NC3;
+
+            if ((header.length >= 80) &&
+                new String(header, 0, 9, StandardCharsets.US_ASCII).equals("SIMPLE  =") &&
+                new String(header, 9, 71, StandardCharsets.US_ASCII).trim().startsWith("T"))
+                return FILE_TYPE_FITS;
+
+            byte[] signature = new byte[HDF5_SIGNATURE.length];
+            long offset      = 0;
+            while (offset + signature.length <= fileSize) {
+                if (offset + signature.length <= header.length) {
+                    System.arraycopy(header, (int)offset, signature, 0, signature.length);
                 }
-                catch (Exception ex) {
-                    log.debug("File {} createInstance failure: ", filename, ex);
+                else {
+                    raf.seek(offset);
+                    raf.readFully(signature);
                 }
-                break;
+
+                if (Arrays.equals(signature, HDF5_SIGNATURE))
+                    return FILE_TYPE_HDF5;
+
+                offset = (offset == 0) ? 512 : offset * 2;
             }
         }
+        catch (Exception ex) {
+            log.debug("getFileType({}): failure: ", filename, ex);
+        }
 
-        return fileFormat;
+        return null;
     }
 
     /***************************************************************************
@@ -1847,6 +1999,247 @@ public abstract class FileFormat extends File {
         return theObj;
     }
 
+    /**
+     * Returns the executor used by batch reads, creating it on first use.
+     *
+     * The native HDF libraries are not reentrant, so all of the batch reads are
+     * serialized on one daemon thread.
+     *
+     * @return the I/O executor.
+     */
+    private static synchronized ExecutorService getIOExecutor()
+    {
+        if (ioExecutor == null) {
+            ioExecutor = Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, "hdf-object-io");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+
+        return ioExecutor;
+    }
+
+    /**
+     * Reads the data of a list of datasets in this file asynchronously.
+     *
+     * The datasets are initialized and read one after another on a dedicated I/O
+     * thread, in the order of the list. Each future completes as soon as its
+     * dataset has been read, so that work chained on it, e.g. with
+     * thenApplyAsync(), overlaps with the reads of the remaining datasets.
+     *
+     * The data is returned as by Dataset.read(), copied if read() returns the
+     * memory buffer of the dataset, so that it is not shared with the dataset
+     * objects. The current selection of each dataset is read. A future completes
+     * exceptionally if its object is not a dataset of this file or if the read
+     * fails; the other reads are not affected.
+     *
+     * @param objects
+     *            the datasets to read.
+     *
+     * @return one future per object, in the order of the list.
+     *
+     * @see #readDatasets(List, BiFunction)
+     * @see #allOf(List)
+     */
+    public List<CompletableFuture<Object>> readDatasets(List<? extends HObject> objects)
+    {
+        List<CompletableFuture<Object>> futures = new ArrayList<>(objects.size());
+        ExecutorService executor                = getIOExecutor();
+
+        for (HObject obj : objects) {
+            if (!(obj instanceof Dataset) || (obj.getFileFormat() != this)) {
+                log.debug("readDatasets(): {} is not a dataset of this file", obj);
+                CompletableFuture<Object> failed = new CompletableFuture<>();
+                failed.completeExceptionally(
+                    new IllegalArgumentException(obj + " is not a dataset of file " + getFilePath()));
+                futures.add(failed);
+                continue;
+            }
+
+            final Dataset dset = (Dataset)obj;
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    log.trace("readDatasets(): reading {}", dset.getFullName());
+                    dset.init();
+                    return dset.detachBuffer(dset.read());
+                }
+                catch (Exception ex) {
+                    log.debug("readDatasets(): {} failure: ", dset.getFullName(), ex);
+                    throw new CompletionException(ex);
+                }
+            }, executor));
+        }
+
+        return futures;
+    }
+
+    /**
+     * Reads the data of a list of datasets in this file asynchronously and decodes
+     * the data of each dataset off the I/O thread.
+     *
+     * The reads are issued as by readDatasets(List). The decoder runs in the
+     * common fork/join pool as soon as the data of its dataset is available, while
+     * the I/O thread goes on reading the next dataset.
+     *
+     * @param <T>
+     *            the type of the decoded results.
+     * @param objects
+     *            the datasets to read.
+     * @param decoder
+     *            converts the dataset and its data read from file into a result.
+     *
+     * @return one future per object, in the order of the list.
+     */
+    public <T> List<CompletableFuture<T>> readDatasets(List<? extends HObject> objects,
+                                                        BiFunction<Dataset, Object, T> decoder)
+    {
+        List<CompletableFuture<Object>> reads = readDatasets(objects);
+        List<CompletableFuture<T>> futures    = new ArrayList<>(reads.size());
+
+        for (int i = 0; i < reads.size(); i++) {
+            final HObject obj = objects.get(i);
+            futures.add(reads.get(i).thenApplyAsync(data -> decoder.apply((Dataset)obj, data)));
+        }
+
+        return futures;
+    }
+
+    /**
+     * Combines a list of futures into one future which completes with the list of
+     * their results, in the same order, when all of them have completed. It
+     * completes exceptionally if any of the futures does.
+     *
+     * @param <T>
+     *            the type of the results.
+     * @param futures
+     *            the futures to combine.
+     *
+     * @return the future of the list of results.
+     */
+    public static final <T> CompletableFuture<List<T>> allOf(List<CompletableFuture<T>> futures)
+    {
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).thenApply(v -> {
+            List<T> results = new ArrayList<>(futures.size());
+            for (CompletableFuture<T> future : futures)
+                results.add(future.join());
+            return results;
+        });
+    }
+
+    /**
+     * Opens a list of files concurrently.
+     *
+     * The format of each file is detected from its signature and its FileFormat
+     * instance is created on a pool of at most nThreads threads, so that the files
+     * are probed in parallel. NetCDF files, which are read in Java, are also
+     * opened on the pool; the other files are opened one after another on the I/O
+     * thread used by readDatasets(), as the native HDF libraries are not
+     * reentrant.
+     *
+     * Each future completes with the opened file as soon as it is open, so that an
+     * application can show the files as they become available. A future completes
+     * exceptionally if its file does not exist, is not in a supported format or
+     * can not be opened; the other files are not affected. Files which can not be
+     * written are opened read-only.
+     *
+     * @param filenames
+     *            the files to open.
+     * @param access
+     *            the file access, e.g. READ or WRITE.
+     * @param nThreads
+     *            the maximum number of files probed at the same time, or zero or
+     *            less for a default based on the number of processors.
+     * @param setup
+     *            called with each FileFormat instance before it is opened, e.g. to
+     *            set its maximum number of members; may be null.
+     *
+     * @return one future per file, in the order of the list.
+     *
+     * @see #getFileType(String)
+     * @see #allOf(List)
+     */
+    public static final List<CompletableFuture<FileFormat>> openFiles(List<String> filenames, int access,
+                                                                     int nThreads, Consumer<FileFormat> setup)
+    {
+        List<CompletableFuture<FileFormat>> futures = new ArrayList<>(filenames.size());
+        if (filenames.isEmpty())
+            return futures;
+
+        if (nThreads <= 0)
+            nThreads = Math.min(8, Runtime.getRuntime().availableProcessors());
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(nThreads, filenames.size()), r -> {
+            Thread t = new Thread(r, "hdf-object-open");
+            t.setDaemon(true);
+            return t;
+        });
+
+        try {
+            for (final String filename : filenames) {
+                CompletableFuture<FileFormat> created = CompletableFuture.supplyAsync(() -> {
+                    File file = new File(filename);
+                    if (!file.isFile())
+                        throw new CompletionException(
+                            new IllegalArgumentException("File " + filename + " does not exist."));
+
+                    int fileAccess = access;
+                    if (!file.canWrite() && ((access & MULTIREAD) != MULTIREAD))
+                        fileAccess = READ;
+
+                    FileFormat fileFormat = findInstance(filename, fileAccess);
+                    if (fileFormat == null)
+                        throw new CompletionException(
+                            new UnsupportedOperationException("Unsupported fileformat - " + filename));
+
+                    if (setup != null)
+                        setup.accept(fileFormat);
+                    if (isOpenedInParallel(fileFormat))
+                        openInstance(fileFormat);
+
+                    return fileFormat;
+                }, pool);
+
+                futures.add(created.thenCompose(fileFormat -> {
+                    if (isOpenedInParallel(fileFormat))
+                        return CompletableFuture.completedFuture(fileFormat);
+                    return CompletableFuture.supplyAsync(() -> openInstance(fileFormat), getIOExecutor());
+                }));
+            }
+        }
+        finally {
+            // the submitted tasks still run; the threads exit when they are done
+            pool.shutdown();
+        }
+
+        return futures;
+    }
+
+    /**
+     * Checks if a file can be opened at the same time as other files, i.e. if its
+     * format does not use a native library.
+     */
+    private static boolean isOpenedInParallel(FileFormat fileFormat)
+    {
+        FileFormat nc3 = getFileFormat(FILE_TYPE_NC3);
+        return (nc3 != null) && nc3.isThisType(fileFormat);
+    }
+
+    /**
+     * Opens a FileFormat instance for openFiles().
+     */
+    private static FileFormat openInstance(FileFormat fileFormat)
+    {
+        try {
+            log.trace("openFiles(): opening {}", fileFormat.getFilePath());
+            fileFormat.open();
+            return fileFormat;
+        }
+        catch (Exception ex) {
+            log.debug("openFiles(): {} failure: ", fileFormat.getFilePath(), ex);
+            throw new CompletionException(ex);
+        }
+    }
+
     // ////////////////////////////////////////////////////////////////////////////////////
     // Added to support HDF5 1.8 features //
     // ////////////////////////////////////////////////////////////////////////////////////
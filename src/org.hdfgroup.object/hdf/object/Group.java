@@ -14,12 +14,17 @@
 
 package hdf.object;
 
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Queue;
 import java.util.Stack;
 import java.util.Vector;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
 
 /**
  * Group is an abstract class. Current implementing classes are the H4Group and
@@ -260,6 +265,39 @@ public abstract class Group extends HObject implements MetaDataContainer {
         return members;
     }
 
+    /**
+     * Reads the data of the datasets in this group asynchronously.
+     *
+     * The datasets that pass the filter are read one after another on the I/O
+     * thread of the file, as by FileFormat.readDatasets(List).
+     *
+     * @param recursive
+     *            if true, the datasets in all subgroups are read as well;
+     *            otherwise only the direct members of this group.
+     * @param filter
+     *            selects the datasets to read, or null to read all of them.
+     *
+     * @return the future of the data of each dataset, in member order.
+     *
+     * @see hdf.object.FileFormat#readDatasets(List)
+     */
+    public Map<Dataset, CompletableFuture<Object>> readDatasets(boolean recursive, Predicate<HObject> filter)
+    {
+        List<HObject> members = recursive ? depthFirstMemberList() : getMemberList();
+        List<Dataset> dsets   = new ArrayList<>();
+        for (HObject member : members) {
+            if ((member instanceof Dataset) && ((filter == null) || filter.test(member)))
+                dsets.add((Dataset)member);
+        }
+
+        List<CompletableFuture<Object>> futures     = getFileFormat().readDatasets(dsets);
+        Map<Dataset, CompletableFuture<Object>> map = new LinkedHashMap<>();
+        for (int i = 0; i < dsets.size(); i++)
+            map.put(dsets.get(i), futures.get(i));
+
+        return map;
+    }
+
     /**
      * Sets the name of the group.
      *
@@ -14,6 +14,10 @@
 
 package hdf.object;
 
+import java.io.File;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Vector;
@@ -173,6 +177,149 @@ public abstract class ScalarDS extends Dataset {
         unsignedConverted = false;
     }
 
+    /**
+     * Exports the current selection of this dataset to a raw binary file, replacing the file if it exists.
+     *
+     * The selection is read from file block by block with {@link #blockIterator(long)} and each block is
+     * streamed to the file through a FileChannel, so the selection does not need to fit in memory. The
+     * values are written in row-major order without any header, as with Tools.saveAsBinary().
+     *
+     * @param file
+     *            the binary file to write.
+     * @param order
+     *            the byte order of the values in the file.
+     *
+     * @return the number of values written.
+     *
+     * @throws Exception
+     *             if the data can not be read or written, or if the data is not read into a primitive
+     *             array, e.g. for string or reference datasets
+     */
+    public long exportBinary(File file, ByteOrder order) throws Exception
+    {
+        return exportBinary(file, order, blockIterator(0));
+    }
+
+    /**
+     * Exports a hyperslab of this dataset to a raw binary file, replacing the file if it exists, in the
+     * same way as {@link #exportBinary(File, ByteOrder)}. The current selection of the dataset is neither
+     * used nor changed.
+     *
+     * @param file
+     *            the binary file to write.
+     * @param order
+     *            the byte order of the values in the file.
+     * @param start
+     *            the offset of the hyperslab.
+     * @param stride
+     *            the stride of the hyperslab in each dimension; null means a stride of 1.
+     * @param count
+     *            the number of points of the hyperslab in each dimension.
+     *
+     * @return the number of values written.
+     *
+     * @throws Exception
+     *             if the data can not be read or written, or if the data is not read into a primitive
+     *             array, e.g. for string or reference datasets
+     */
+    public long exportBinary(File file, ByteOrder order, long[] start, long[] stride, long[] count)
+        throws Exception
+    {
+        return exportBinary(file, order, blockIterator(start, stride, count, 0));
+    }
+
+    private long exportBinary(File file, ByteOrder order, Iterator<Object> blocks) throws Exception
+    {
+        long written = 0;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                                                    StandardOpenOption.TRUNCATE_EXISTING,
+                                                    StandardOpenOption.WRITE)) {
+            while (blocks.hasNext()) {
+                DataBuffer block = DataBuffer.wrap(blocks.next());
+                if (block == null)
+                    throw new UnsupportedOperationException("Binary export of " +
+                                                            getDatatype().getDescription() +
+                                                            " data is not supported");
+                block.write(channel, order);
+                written += block.size();
+            }
+        }
+        catch (IllegalStateException ex) {
+            // blockIterator() reports read errors as unchecked exceptions
+            if (ex.getCause() instanceof Exception)
+                throw (Exception)ex.getCause();
+            throw ex;
+        }
+
+        log.trace("exportBinary(): {} values written to {}", written, file);
+
+        return written;
+    }
+
+    /**
+     * Imports the values of a raw binary file into the current selection of this dataset.
+     *
+     * The file is memory-mapped and written to the dataset block by block along the first dimension with
+     * {@link #write(Selection, Object)}, so neither the file nor the selection needs to fit in memory. Only
+     * whole rows of the first dimension are imported: if the file holds fewer values than the selection,
+     * the rest of the selection is left unchanged. The data held in memory by this dataset is not updated.
+     *
+     * @param file
+     *            the binary file to read, with the values in row-major order and without any header.
+     * @param order
+     *            the byte order of the values in the file.
+     *
+     * @return the number of values imported.
+     *
+     * @throws Exception
+     *             if the data can not be read or written, or if the datatype of the dataset is not an
+     *             integer or floating-point type of 1, 2, 4 or 8 bytes
+     */
+    public long importBinary(File file, ByteOrder order) throws Exception
+    {
+        if (!isInited())
+            init();
+
+        if (getFileFormat().isReadOnly())
+            throw new Exception("cannot write to file opened as read-only");
+
+        char typeClass = DataBuffer.getTypeClass(getDatatype());
+        if (typeClass == ' ')
+            throw new UnsupportedOperationException("Binary import of " + getDatatype().getDescription() +
+                                                    " data is not supported");
+
+        long rowSize = 1;
+        for (int i = 1; i < rank; i++)
+            rowSize *= selectedDims[i];
+
+        long[] start     = startDims.clone();
+        long[] count     = selectedDims.clone();
+        long firstStride = (selectedStride == null) ? 1 : selectedStride[0];
+        long blockRows   = Math.max(1, Math.min(getDefaultBlockSize(), Integer.MAX_VALUE / rowSize));
+        long imported    = 0;
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long fileRows = channel.size() / DataBuffer.getElementSize(typeClass) / rowSize;
+            long nrows    = Math.min(selectedDims[0], fileRows);
+
+            for (long row = 0; row < nrows; row += blockRows) {
+                count[0] = Math.min(blockRows, nrows - row);
+                start[0] = startDims[0] + row * firstStride;
+
+                DataBuffer block = DataBuffer.allocate(typeClass, (int)(count[0] * rowSize));
+                block.read(channel, order);
+
+                Selection selection = new Selection(dims).addHyperslab(start, selectedStride, count);
+                write(selection, block.array());
+                imported += block.size();
+            }
+        }
+
+        log.trace("importBinary(): {} values imported from {}", imported, file);
+
+        return imported;
+    }
+
     /**
      * Converts the data values of this dataset to appropriate Java integer if they are unsigned integers.
      *
@@ -221,7 +368,8 @@ public abstract class ScalarDS extends Dataset {
         // keep a copy of original buffer and the converted buffer
         // so that they can be reused later to save memory
         log.trace("convertToUnsignedC(): unsigned={}", getDatatype().isUnsigned());
-        if ((data != null) && getDatatype().isUnsigned()) {
+        // data that was never converted is already in its native width
+        if ((data != null) && getDatatype().isUnsigned() && unsignedConverted) {
             log.trace("convertToUnsignedC(): convert");
             convertedBuf = data;
             originalBuf  = convertToUnsignedC(convertedBuf, originalBuf);
@@ -0,0 +1,492 @@
+/*****************************************************************************
+ * Copyright by The HDF Group.                                               *
+ * Copyright by the Board of Trustees of the University of Illinois.         *
+ * All rights reserved.                                                      *
+ *                                                                           *
+ * This file is part of the HDF Java Products distribution.                  *
+ * The full copyright notice, including terms governing use, modification,   *
+ * and redistribution, is contained in the COPYING file, which can be found  *
+ * at the root of the source code distribution tree,                         *
+ * or in https://www.hdfgroup.org/licenses.                                  *
+ * If you do not have access to either file, you may request a copy from     *
+ * help@hdfgroup.org.                                                        *
+ ****************************************************************************/
+
+package hdf.object;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A Selection describes an arbitrary set of data points of a dataset which can be read with a single I/O
+ * call into a packed, one-dimensional memory buffer.
+ *
+ * A selection is either a union of hyperslabs or an explicit list of points, but not a mix of both.
+ * <ul>
+ * <li>For a union of hyperslabs, every selected point appears exactly once in the memory buffer, in the
+ * row-major order of the dataset's dataspace. Overlapping hyperslabs do not duplicate points.
+ * <li>For a point list, the memory buffer holds the points in the order they were added.
+ * </ul>
+ *
+ * The mapping between buffer positions and dataset coordinates is available through
+ * {@link #getPoint(int)} and {@link #getBufferIndex(long...)}.
+ *
+ * <pre>
+ * Selection sel = new Selection(dset.getDims());
+ * sel.addHyperslab(new long[] {0, 0}, null, new long[] {2, 10});
+ * sel.addHyperslab(new long[] {50, 0}, null, new long[] {2, 10});
+ * int[] values = (int[]) dset.read(sel);
+ * long[] coords = sel.getPoint(12); // {1, 2}
+ * </pre>
+ *
+ * @see hdf.object.Dataset#read(Selection)
+ */
+public class Selection {
+    /** The selection contains no points yet. */
+    public static final int SELECT_NONE = 0;
+
+    /** The selection is a union of hyperslabs. */
+    public static final int SELECT_HYPERSLABS = 1;
+
+    /** The selection is an explicit list of points. */
+    public static final int SELECT_POINTS = 2;
+
+    /** The dimension sizes of the dataset the selection applies to. */
+    private final long[] dims;
+
+    /** The type of the selection. */
+    private int selectionType = SELECT_NONE;
+
+    /** The hyperslabs in the selection; each entry is {start, stride, count}. */
+    private final List<long[][]> hyperslabs;
+
+    /** The points in the selection, in the order they were added. */
+    private final List<long[]> points;
+
+    /** The row-major index into the dataset of each buffer position; built lazily. */
+    private long[] bufferMapping = null;
+
+    /** For point lists, the buffer positions sorted by their row-major index; built lazily. */
+    private int[] sortedPositions = null;
+
+    /**
+     * Constructs an empty selection for a dataset with the given dimension sizes.
+     *
+     * @param dims
+     *            the dimension sizes of the dataset.
+     */
+    public Selection(long[] dims)
+    {
+        if ((dims == null) || (dims.length == 0))
+            throw new IllegalArgumentException("invalid dataset dimensions");
+
+        this.dims  = dims.clone();
+        hyperslabs = new ArrayList<>();
+        points     = new ArrayList<>();
+    }
+
+    /**
+     * Adds a hyperslab to the union of hyperslabs in this selection.
+     *
+     * @param start
+     *            the offset of the hyperslab.
+     * @param stride
+     *            the stride of the hyperslab in each dimension; null means a stride of 1.
+     * @param count
+     *            the number of points of the hyperslab in each dimension.
+     *
+     * @return this selection.
+     */
+    public Selection addHyperslab(long[] start, long[] stride, long[] count)
+    {
+        if (selectionType == SELECT_POINTS)
+            throw new IllegalStateException("cannot add a hyperslab to a point selection");
+
+        int rank = dims.length;
+        if ((start == null) || (start.length != rank) || (count == null) || (count.length != rank))
+            throw new IllegalArgumentException("hyperslab rank doesn't match dataset rank");
+        if ((stride != null) && (stride.length != rank))
+            throw new IllegalArgumentException("hyperslab stride rank doesn't match dataset rank");
+
+        long[] theStride = new long[rank];
+        for (int i = 0; i < rank; i++) {
+            theStride[i] = (stride == null) ? 1 : stride[i];
+            if ((start[i] < 0) || (count[i] < 1) || (theStride[i] < 1) ||
+                (start[i] + (count[i] - 1) * theStride[i] >= dims[i]))
+                throw new IllegalArgumentException("hyperslab is out of the dataset bounds in dimension " +
+                                                   i);
+        }
+
+        hyperslabs.add(new long[][] {start.clone(), theStride, count.clone()});
+        selectionType = SELECT_HYPERSLABS;
+        resetMapping();
+
+        return this;
+    }
+
+    /**
+     * Adds a point to the list of points in this selection.
+     *
+     * @param coords
+     *            the coordinates of the point.
+     *
+     * @return this selection.
+     */
+    public Selection addPoint(long... coords)
+    {
+        if (selectionType == SELECT_HYPERSLABS)
+            throw new IllegalStateException("cannot add a point to a hyperslab selection");
+
+        if ((coords == null) || (coords.length != dims.length))
+            throw new IllegalArgumentException("point rank doesn't match dataset rank");
+
+        for (int i = 0; i < dims.length; i++) {
+            if ((coords[i] < 0) || (coords[i] >= dims[i]))
+                throw new IllegalArgumentException("point is out of the dataset bounds in dimension " + i);
+        }
+
+        points.add(coords.clone());
+        selectionType = SELECT_POINTS;
+        resetMapping();
+
+        return this;
+    }
+
+    /**
+     * Returns the type of this selection.
+     *
+     * @return one of SELECT_NONE, SELECT_HYPERSLABS or SELECT_POINTS.
+     */
+    public int getSelectionType() { return selectionType; }
+
+    /**
+     * Returns the dimension sizes of the dataset the selection applies to.
+     *
+     * @return the dimension sizes of the dataset.
+     */
+    public long[] getDims() { return dims.clone(); }
+
+    /**
+     * Returns the rank of the dataset the selection applies to.
+     *
+     * @return the rank of the dataset.
+     */
+    public int getRank() { return dims.length; }
+
+    /**
+     * Returns the hyperslabs of this selection. Each entry is an array of {start, stride, count}.
+     *
+     * @return the unmodifiable list of hyperslabs.
+     */
+    public List<long[][]> getHyperslabs() { return Collections.unmodifiableList(hyperslabs); }
+
+    /**
+     * Returns the coordinates of the points of this selection as a [numberOfPoints][rank] array, in the
+     * format expected by H5Sselect_elements.
+     *
+     * @return the coordinates of the selected points.
+     */
+    public long[][] getPointList() { return points.toArray(new long[points.size()][]); }
+
+    /**
+     * Returns the number of points of this selection, which is also the number of elements of the
+     * memory buffer that holds the selected data.
+     *
+     * The count of a union of hyperslabs that don't share any point is computed from the hyperslab
+     * counts; the buffer mapping is only built when hyperslabs overlap.
+     *
+     * @return the number of selected points.
+     */
+    public int getNumberOfPoints()
+    {
+        if (selectionType == SELECT_POINTS)
+            return points.size();
+
+        if ((bufferMapping == null) && !hasOverlappingHyperslabs())
+            return (int)countHyperslabPoints();
+
+        return getBufferMapping().length;
+    }
+
+    /**
+     * Returns the row-major index into the dataset of each element of the memory buffer.
+     *
+     * @return the row-major dataset index of every buffer position.
+     */
+    public long[] getBufferMapping()
+    {
+        if (bufferMapping == null) {
+            if (selectionType == SELECT_POINTS) {
+                bufferMapping = new long[points.size()];
+                for (int i = 0; i < bufferMapping.length; i++)
+                    bufferMapping[i] = toLinearIndex(points.get(i));
+            }
+            else
+                bufferMapping = buildHyperslabMapping();
+        }
+
+        return bufferMapping;
+    }
+
+    /**
+     * Returns the dataset coordinates of the element at the given memory buffer position.
+     *
+     * @param bufferIndex
+     *            the position in the memory buffer.
+     *
+     * @return the coordinates of the point in the dataset.
+     */
+    public long[] getPoint(int bufferIndex)
+    {
+        if (selectionType == SELECT_POINTS)
+            return points.get(bufferIndex).clone();
+
+        long linear   = getBufferMapping()[bufferIndex];
+        long[] coords = new long[dims.length];
+        for (int i = dims.length - 1; i >= 0; i--) {
+            coords[i] = linear % dims[i];
+            linear /= dims[i];
+        }
+
+        return coords;
+    }
+
+    /**
+     * Returns the memory buffer position of the point at the given dataset coordinates.
+     *
+     * If a point list contains the same point several times, the first buffer position is returned.
+     *
+     * @param coords
+     *            the coordinates of the point in the dataset.
+     *
+     * @return the position in the memory buffer, or -1 if the point is not selected.
+     */
+    public int getBufferIndex(long... coords)
+    {
+        if ((coords == null) || (coords.length != dims.length))
+            return -1;
+
+        for (int i = 0; i < dims.length; i++) {
+            if ((coords[i] < 0) || (coords[i] >= dims[i]))
+                return -1;
+        }
+
+        long linear    = toLinearIndex(coords);
+        long[] mapping = getBufferMapping();
+
+        if (selectionType == SELECT_HYPERSLABS) {
+            int idx = Arrays.binarySearch(mapping, linear);
+            return (idx < 0) ? -1 : idx;
+        }
+
+        if (sortedPositions == null)
+            sortedPositions = sortPositions(mapping);
+
+        int low  = 0;
+        int high = sortedPositions.length - 1;
+        int hit  = -1;
+        while (low <= high) {
+            int mid    = (low + high) >>> 1;
+            long value = mapping[sortedPositions[mid]];
+            if (value < linear)
+                low = mid + 1;
+            else {
+                if (value == linear)
+                    hit = sortedPositions[mid];
+                high = mid - 1;
+            }
+        }
+
+        return hit;
+    }
+
+    private long toLinearIndex(long[] coords)
+    {
+        long linear = 0;
+        for (int i = 0; i < dims.length; i++)
+            linear = linear * dims[i] + coords[i];
+
+        return linear;
+    }
+
+    /*
+     * Returns the sum of the points of all hyperslabs, counting shared points once per hyperslab.
+     */
+    private long countHyperslabPoints()
+    {
+        long total = 0;
+        for (long[][] slab : hyperslabs) {
+            long npoints = 1;
+            for (long c : slab[2])
+                npoints *= c;
+            total += npoints;
+        }
+
+        if (total > Integer.MAX_VALUE)
+            throw new IllegalStateException("selection is too large: " + total + " points");
+
+        return total;
+    }
+
+    /*
+     * Returns true unless every pair of hyperslabs is known to be disjoint. Two hyperslabs are
+     * disjoint if, in some dimension, their extents don't overlap or their strides never land on
+     * the same index. The hyperslabs are swept in order of their start in the first dimension so
+     * that stacked row blocks are checked in linear time.
+     */
+    private boolean hasOverlappingHyperslabs()
+    {
+        int nslabs = hyperslabs.size();
+        if (nslabs < 2)
+            return false;
+
+        long[][][] slabs = hyperslabs.toArray(new long[nslabs][][]);
+        Arrays.sort(slabs, (a, b) -> Long.compare(a[0][0], b[0][0]));
+
+        long maxEnd = -1;
+        for (int i = 0; i < nslabs; i++) {
+            if (slabs[i][0][0] <= maxEnd) {
+                for (int j = 0; j < i; j++) {
+                    if (!isDisjoint(slabs[i], slabs[j]))
+                        return true;
+                }
+            }
+            maxEnd = Math.max(maxEnd, lastIndex(slabs[i], 0));
+        }
+
+        return false;
+    }
+
+    private boolean isDisjoint(long[][] a, long[][] b)
+    {
+        for (int i = 0; i < dims.length; i++) {
+            if ((lastIndex(a, i) < b[0][i]) || (lastIndex(b, i) < a[0][i]))
+                return true;
+
+            long gcd = gcd(a[1][i], b[1][i]);
+            if (((a[0][i] - b[0][i]) % gcd) != 0)
+                return true;
+        }
+
+        return false;
+    }
+
+    private static long lastIndex(long[][] slab, int dim)
+    {
+        return slab[0][dim] + (slab[2][dim] - 1) * slab[1][dim];
+    }
+
+    private static long gcd(long a, long b)
+    {
+        while (b != 0) {
+            long t = a % b;
+            a      = b;
+            b      = t;
+        }
+
+        return a;
+    }
+
+    /*
+     * Enumerates every point of every hyperslab, then sorts and removes duplicates so
+     * that the mapping matches the order in which HDF5 iterates a union of hyperslabs.
+     */
+    private long[] buildHyperslabMapping()
+    {
+        long total = countHyperslabPoints();
+
+        int rank       = dims.length;
+        long[] mapping = new long[(int)total];
+        int n          = 0;
+        for (long[][] slab : hyperslabs) {
+            long[] start  = slab[0];
+            long[] stride = slab[1];
+            long[] count  = slab[2];
+            long[] pos    = new long[rank];
+            long npoints  = 1;
+            for (long c : count)
+                npoints *= c;
+
+            for (long p = 0; p < npoints; p++) {
+                long linear = 0;
+                for (int i = 0; i < rank; i++)
+                    linear = linear * dims[i] + start[i] + pos[i] * stride[i];
+                mapping[n++] = linear;
+
+                for (int i = rank - 1; i >= 0; i--) {
+                    if (++pos[i] < count[i])
+                        break;
+                    pos[i] = 0;
+                }
+            }
+        }
+
+        Arrays.sort(mapping);
+
+        int unique = 0;
+        for (int i = 0; i < mapping.length; i++) {
+            if ((unique == 0) || (mapping[i] != mapping[unique - 1]))
+                mapping[unique++] = mapping[i];
+        }
+
+        return (unique == mapping.length) ? mapping : Arrays.copyOf(mapping, unique);
+    }
+
+    private static int[] sortPositions(long[] mapping)
+    {
+        // pack the row-major index and the buffer position into one long so a primitive sort can be used
+        int bits = 64 - Long.numberOfLeadingZeros(Math.max(1, mapping.length - 1));
+        boolean packable = true;
+        for (long value : mapping) {
+            if ((value >>> (63 - bits)) != 0) {
+                packable = false;
+                break;
+            }
+        }
+
+        int[] positions = new int[mapping.length];
+        if (packable) {
+            long[] keys = new long[mapping.length];
+            for (int i = 0; i < keys.length; i++)
+                keys[i] = (mapping[i] << bits) | i;
+            Arrays.sort(keys);
+            long mask = (1L << bits) - 1;
+            for (int i = 0; i < keys.length; i++)
+                positions[i] = (int)(keys[i] & mask);
+        }
+        else {
+            Integer[] boxed = new Integer[mapping.length];
+            for (int i = 0; i < boxed.length; i++)
+                boxed[i] = i;
+            Arrays.sort(boxed, (a, b) -> Long.compare(mapping[a], mapping[b]));
+            for (int i = 0; i < boxed.length; i++)
+                positions[i] = boxed[i];
+        }
+
+        return positions;
+    }
+
+    private void resetMapping()
+    {
+        bufferMapping   = null;
+        sortedPositions = null;
+    }
+
+    /**
+     * Returns a string representation of the selection.
+     *
+     * @return a string representation of the selection.
+     */
+    @Override
+    public String toString()
+    {
+        StringBuilder sb = new StringBuilder("Selection[dims=").append(Arrays.toString(dims));
+        if (selectionType == SELECT_HYPERSLABS)
+            sb.append(", hyperslabs=").append(hyperslabs.size());
+        else if (selectionType == SELECT_POINTS)
+            sb.append(", points=").append(points.size());
+        return sb.append(']').toString();
+    }
+}
@@ -15,6 +15,13 @@
 package hdf.object.fits;
 
 import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Vector;
@@ -57,9 +64,15 @@ public class FitsDataset extends ScalarDS implements MetaDataContainer {
      */
     private List attributeList;
 
-    /** the native dataset */
+    /** the native dataset, read when first needed if the dataset was created from an HDU index */
     private BasicHDU nativeDataset;
 
+    /** the location and header of the HDU in the file */
+    private FitsHDUIndex hduIndex;
+
+    /** the size in bytes of the part of the file mapped at a time when reading an image */
+    private static final long MAP_WINDOW_SIZE = 64L * 1024 * 1024;
+
     /**
      * Constructs an FitsDataset object with specific netcdf variable.
      *
@@ -75,6 +88,40 @@ public class FitsDataset extends ScalarDS implements MetaDataContainer {
         nativeDataset     = hdu;
     }
 
+    /**
+     * Constructs an FitsDataset object for an HDU of a FITS file whose header has been
+     * indexed. The data of the HDU is not read until the dataset is read.
+     *
+     * @param fileFormat the fits file.
+     * @param hdu the index of the HDU.
+     * @param dName the name for this dataset.
+     * @param oid the unique identifier for this dataset.
+     */
+    public FitsDataset(FileFormat fileFormat, FitsHDUIndex hdu, String dName, long[] oid)
+    {
+        super(fileFormat, dName, HObject.SEPARATOR, oid);
+        unsignedConverted = false;
+        hduIndex          = hdu;
+    }
+
+    /**
+     * Returns the location and header of the HDU of this dataset in the file.
+     *
+     * @return the HDU index, or null if this dataset was created from a BasicHDU.
+     */
+    public FitsHDUIndex getHDUIndex() { return hduIndex; }
+
+    /**
+     * Returns the HDU of this dataset, reading it with the FITS library if needed.
+     */
+    private BasicHDU getNativeHDU() throws Exception
+    {
+        if ((nativeDataset == null) && (hduIndex != null))
+            nativeDataset = ((FitsFile)getFileFormat()).getHDU(hduIndex.getIndex());
+
+        return nativeDataset;
+    }
+
     /**
      * Check if the object has any attributes attached.
      *
@@ -127,14 +174,22 @@ public class FitsDataset extends ScalarDS implements MetaDataContainer {
     @Override
     public Object read() throws Exception
     {
+        if ((hduIndex != null) && (hduIndex.getType() == FitsHDUIndex.TYPE_IMAGE)) {
+            if (!isInited())
+                init();
+
+            return readImage(startDims, selectedStride, selectedDims);
+        }
+
         Object theData  = null;
         Object fitsData = null;
 
-        if (nativeDataset == null)
+        BasicHDU hdu = getNativeHDU();
+        if (hdu == null)
             return null;
 
         try {
-            fitsData = nativeDataset.getData().getData();
+            fitsData = hdu.getData().getData();
         }
         catch (Exception ex) {
             throw new UnsupportedOperationException(
@@ -144,13 +199,174 @@ public class FitsDataset extends ScalarDS implements MetaDataContainer {
 
         int n = get1DLength(fitsData);
 
-        theData = FitsDatatype.allocateArray(nativeDataset.getBitPix(), n);
+        theData = FitsDatatype.allocateArray(hdu.getBitPix(), n);
 
         to1Darray(fitsData, theData, 0);
 
         return theData;
     }
 
+    /**
+     * Reads the selected hyperslab of an image HDU directly from the file.
+     *
+     * The offset of each selected row is computed from the data offset of the HDU and BITPIX,
+     * and the values are decoded from a read-only memory map of the file, so the cost of a read
+     * is proportional to the size of the selection rather than of the image. As with the FITS
+     * library path, the indices of all but the last dimension run from the end of the image, so
+     * that images are displayed with their first row at the bottom.
+     */
+    private Object readImage(long[] slabStart, long[] slabStride, long[] slabCount) throws Exception
+    {
+        if (dims == null)
+            return null;
+
+        int bitpix = hduIndex.getBitPix();
+        int esize  = Math.abs(bitpix) / 8;
+        int last   = rank - 1;
+
+        long lsize = 1;
+        for (int i = 0; i < rank; i++)
+            lsize *= slabCount[i];
+        if (lsize > Integer.MAX_VALUE)
+            throw new UnsupportedOperationException("Selection of " + lsize + " points is too large to read");
+
+        Object theData = FitsDatatype.allocateArray(bitpix, (int)lsize);
+        if (theData == null)
+            return null;
+
+        // element strides of the dimensions in the file
+        long[] fileStride = new long[rank];
+        fileStride[last]  = 1;
+        for (int d = last - 1; d >= 0; d--)
+            fileStride[d] = fileStride[d + 1] * dims[d + 1];
+
+        long[] stride = new long[rank];
+        for (int d = 0; d < rank; d++)
+            stride[d] = (slabStride == null) ? 1 : slabStride[d];
+
+        int n        = (int)slabCount[last];
+        long runSize = ((n - 1) * stride[last] + 1) * esize;
+        long dataEnd = hduIndex.getDataOffset() + hduIndex.getDataSize();
+        if (runSize > Integer.MAX_VALUE)
+            throw new UnsupportedOperationException("Selected row is too large to map");
+
+        Path path = Paths.get(getFileFormat().getFilePath());
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer window = null;
+            long windowStart        = 0;
+            long windowEnd          = 0;
+            long[] pos              = new long[rank];
+            int dst                 = 0;
+
+            while (true) {
+                long elem = slabStart[last];
+                for (int d = 0; d < last; d++)
+                    elem += (dims[d] - 1 - (slabStart[d] + pos[d] * stride[d])) * fileStride[d];
+                long offset = hduIndex.getDataOffset() + elem * esize;
+
+                if ((window == null) || (offset < windowStart) || (offset + runSize > windowEnd)) {
+                    // rows are visited from the end of the image, so map the window that ends at this row
+                    windowEnd   = offset + runSize;
+                    windowStart =
+                        Math.max(hduIndex.getDataOffset(), windowEnd - Math.max(runSize, MAP_WINDOW_SIZE));
+                    windowEnd   = Math.min(dataEnd, Math.max(windowEnd, windowStart + MAP_WINDOW_SIZE));
+                    log.trace("readImage(): map [{}, {})", windowStart, windowEnd);
+                    window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowEnd - windowStart);
+                }
+
+                decodeRun(window, (int)(offset - windowStart), n, (int)(stride[last] * esize), theData, dst);
+                dst += n;
+
+                // next row of the selection
+                int d = last - 1;
+                while ((d >= 0) && (pos[d] == slabCount[d] - 1)) {
+                    pos[d] = 0;
+                    d--;
+                }
+                if (d < 0)
+                    break;
+                pos[d]++;
+            }
+        }
+
+        return theData;
+    }
+
+    /**
+     * Reads a block for blockIterator() from the given hyperslab of an image HDU, without using or
+     * changing the current selection of the dataset.
+     */
+    @Override
+    protected Object readBlock(long[] start, long[] stride, long[] count) throws Exception
+    {
+        if ((hduIndex == null) || (hduIndex.getType() != FitsHDUIndex.TYPE_IMAGE))
+            return super.readBlock(start, stride, count);
+
+        if (!isInited())
+            init();
+
+        return readImage(start, stride, count);
+    }
+
+    /**
+     * Decodes n big-endian values, stepping by strideBytes from byte position pos of buf, into
+     * the array dst starting at index dstPos.
+     */
+    static void decodeRun(ByteBuffer buf, int pos, int n, int strideBytes, Object dst, int dstPos)
+    {
+        ByteBuffer b = buf.duplicate().order(ByteOrder.BIG_ENDIAN);
+        b.position(pos);
+
+        if (dst instanceof byte[]) {
+            byte[] a = (byte[])dst;
+            if (strideBytes == 1)
+                b.get(a, dstPos, n);
+            else
+                for (int i = 0; i < n; i++)
+                    a[dstPos + i] = b.get(pos + i * strideBytes);
+        }
+        else if (dst instanceof short[]) {
+            short[] a = (short[])dst;
+            if (strideBytes == Short.BYTES)
+                b.asShortBuffer().get(a, dstPos, n);
+            else
+                for (int i = 0; i < n; i++)
+                    a[dstPos + i] = b.getShort(pos + i * strideBytes);
+        }
+        else if (dst instanceof int[]) {
+            int[] a = (int[])dst;
+            if (strideBytes == Integer.BYTES)
+                b.asIntBuffer().get(a, dstPos, n);
+            else
+                for (int i = 0; i < n; i++)
+                    a[dstPos + i] = b.getInt(pos + i * strideBytes);
+        }
+        else if (dst instanceof long[]) {
+            long[] a = (long[])dst;
+            if (strideBytes == Long.BYTES)
+                b.asLongBuffer().get(a, dstPos, n);
+            else
+                for (int i = 0; i < n; i++)
+                    a[dstPos + i] = b.getLong(pos + i * strideBytes);
+        }
+        else if (dst instanceof float[]) {
+            float[] a = (float[])dst;
+            if (strideBytes == Float.BYTES)
+                b.asFloatBuffer().get(a, dstPos, n);
+            else
+                for (int i = 0; i < n; i++)
+                    a[dstPos + i] = b.getFloat(pos + i * strideBytes);
+        }
+        else if (dst instanceof double[]) {
+            double[] a = (double[])dst;
+            if (strideBytes == Double.BYTES)
+                b.asDoubleBuffer().get(a, dstPos, n);
+            else
+                for (int i = 0; i < n; i++)
+                    a[dstPos + i] = b.getDouble(pos + i * strideBytes);
+        }
+    }
+
     /**
      * Writes a memory buffer to the object in the file.
      *
@@ -183,6 +399,9 @@ public class FitsDataset extends ScalarDS implements MetaDataContainer {
         if (attributeList != null)
             return attributeList;
 
+        if (hduIndex != null)
+            return (attributeList = getIndexedMetadata(this, hduIndex));
+
         if (nativeDataset == null)
             return null;
 
@@ -214,6 +433,30 @@ public class FitsDataset extends ScalarDS implements MetaDataContainer {
         return attributeList;
     }
 
+    /**
+     * Creates the attributes of an object from the header cards of its HDU index, in the same
+     * form as those created from the header of a BasicHDU.
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    static List getIndexedMetadata(HObject obj, FitsHDUIndex hduIndex) throws Exception
+    {
+        List attrs     = new Vector();
+        Datatype dtype = new FitsDatatype(Datatype.CLASS_STRING, 80, 0, 0);
+        long[] dims    = {1};
+        for (String[] card : hduIndex.getCards()) {
+            String value = "";
+            if (card[1] != null)
+                value += card[1];
+            if (card[2] != null)
+                value += " / " + card[2];
+            FitsAttribute attr = new FitsAttribute(obj, card[0], dtype, dims);
+            attr.setAttributeData(value);
+            attrs.add(attr);
+        }
+
+        return attrs;
+    }
+
     /**
      * Writes a specific piece of metadata (such as an attribute) into the file.
      *
@@ -294,7 +537,7 @@ public class FitsDataset extends ScalarDS implements MetaDataContainer {
     @Override
     public void init()
     {
-        if (nativeDataset == null)
+        if ((nativeDataset == null) && (hduIndex == null))
             return;
 
         if (inited)
@@ -302,7 +545,7 @@ public class FitsDataset extends ScalarDS implements MetaDataContainer {
 
         int[] axes = null;
         try {
-            axes = nativeDataset.getAxes();
+            axes = (hduIndex != null) ? hduIndex.getAxes() : nativeDataset.getAxes();
         }
         catch (Exception ex) {
             log.debug("nativeDataset.getAxes():", ex);
@@ -392,7 +635,8 @@ public class FitsDataset extends ScalarDS implements MetaDataContainer {
     {
         if (datatype == null) {
             try {
-                datatype = new FitsDatatype(nativeDataset.getBitPix());
+                int bitpix = (hduIndex != null) ? hduIndex.getBitPix() : nativeDataset.getBitPix();
+                datatype   = new FitsDatatype(bitpix);
             }
             catch (Exception ex) {
                 log.debug("getDatatype(): failed to create datatype: ", ex);
@@ -60,6 +60,23 @@ public class FitsDatatype extends Datatype {
         datatypeDescription = getDescription();
     }
 
+    /**
+     * Create a one-dimensional array Datatype of order values of a base datatype, such as the
+     * type of a binary table column which holds several values in each row.
+     *
+     * @param base the datatype of the values.
+     * @param order the number of values in the array.
+     *
+     * @throws Exception
+     *            if there is an error
+     */
+    public FitsDatatype(Datatype base, int order) throws Exception
+    {
+        super(CLASS_ARRAY, (int)base.getDatatypeSize() * order, Datatype.NATIVE, Datatype.NATIVE, base);
+        arrayDims           = new long[] {order};
+        datatypeDescription = getDescription();
+    }
+
     /**
      * Create a Datatype with a given fits native datatype.
      *
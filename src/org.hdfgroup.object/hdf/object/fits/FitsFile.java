@@ -18,6 +18,7 @@ import java.io.DataInput;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.RandomAccessFile;
+import java.util.List;
 
 import hdf.object.Attribute;
 import hdf.object.Dataset;
@@ -29,13 +30,8 @@ import hdf.object.HObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import nom.tam.fits.AsciiTableHDU;
 import nom.tam.fits.BasicHDU;
-import nom.tam.fits.BinaryTableHDU;
 import nom.tam.fits.Fits;
-import nom.tam.fits.ImageHDU;
-import nom.tam.fits.RandomGroupsHDU;
-import nom.tam.fits.TableHDU;
 
 /**
  * This class provides file level APIs. File access APIs include retrieving the
@@ -196,6 +192,10 @@ public class FitsFile extends FileFormat {
         return 0;
     }
 
+    /**
+     * Builds the file structure from the headers of the HDUs. Only the headers are read; the
+     * data of an HDU is read when its dataset is read.
+     */
     private HObject loadTree()
     {
         long[] oid = {0};
@@ -205,52 +205,73 @@ public class FitsFile extends FileFormat {
         if (fitsFile == null)
             return rootGroup;
 
-        BasicHDU[] hdus = null;
-
-        try {
-            hdus = fitsFile.read();
+        List<FitsHDUIndex> hdus = null;
+        try (RandomAccessFile raf = new RandomAccessFile(fullFileName, "r")) {
+            hdus = FitsHDUIndex.readIndex(raf);
         }
         catch (Exception ex) {
-            log.debug("fitsFile.read():", ex);
+            log.debug("loadTree(): readIndex failure:", ex);
         }
 
         if (hdus == null)
             return rootGroup;
 
-        int n          = hdus.length;
         int nImageHDU  = 0;
         int nTableHDU  = 0;
         String hduName = null;
-        BasicHDU hdu   = null;
-        for (int i = 0; i < n; i++) {
-            hdu     = hdus[i];
+        for (FitsHDUIndex hdu : hdus) {
             hduName = null;
             // only deal with ImageHDU and TableHDU
-            if (hdu instanceof ImageHDU) {
+            switch (hdu.getType()) {
+            case FitsHDUIndex.TYPE_IMAGE:
                 hduName = "ImageHDU #" + nImageHDU++;
-            }
-            else if (hdu instanceof RandomGroupsHDU) {
+                break;
+            case FitsHDUIndex.TYPE_RANDOM_GROUPS:
                 hduName = "RandomGroupsHDU #" + nImageHDU++;
-            }
-            else if (hdu instanceof TableHDU) {
-                if (hdu instanceof AsciiTableHDU)
-                    hduName = "AsciiTableHDU #" + nTableHDU++;
-                else if (hdu instanceof BinaryTableHDU)
-                    hduName = "BinaryTableHDU #" + nTableHDU++;
-                else
-                    hduName = "TableHDU #" + nTableHDU++;
+                break;
+            case FitsHDUIndex.TYPE_ASCII_TABLE:
+                hduName = "AsciiTableHDU #" + nTableHDU++;
+                break;
+            case FitsHDUIndex.TYPE_BINARY_TABLE:
+                hduName = "BinaryTableHDU #" + nTableHDU++;
+                break;
+            default:
+                break;
             }
 
             if (hduName != null) {
-                oid[0]        = hdu.hashCode();
-                FitsDataset d = new FitsDataset(this, hdu, hduName, oid);
-                rootGroup.addToMemberList(d);
+                oid[0] = hdu.getHeaderOffset();
+                if (hdu.getType() == FitsHDUIndex.TYPE_BINARY_TABLE)
+                    rootGroup.addToMemberList(new FitsTable(this, hdu, hduName, oid));
+                else
+                    rootGroup.addToMemberList(new FitsDataset(this, hdu, hduName, oid));
             }
         }
 
         return rootGroup;
     }
 
+    /**
+     * Reads an HDU of the file with the FITS library. HDUs before it are read as well.
+     *
+     * @param index
+     *            the index of the HDU in the file.
+     *
+     * @return the HDU.
+     *
+     * @throws Exception
+     *             if the HDU can not be read
+     */
+    BasicHDU getHDU(int index) throws Exception
+    {
+        if (fitsFile == null)
+            return null;
+
+        synchronized (fitsFile) {
+            return fitsFile.getHDU(index);
+        }
+    }
+
     // Implementing FileFormat
     @Override
     public void close() throws IOException
@@ -0,0 +1,366 @@
+/*****************************************************************************
+ * Copyright by The HDF Group.                                               *
+ * Copyright by the Board of Trustees of the University of Illinois.         *
+ * All rights reserved.                                                      *
+ *                                                                           *
+ * This file is part of the HDF Java Products distribution.                  *
+ * The full copyright notice, including terms governing use, modification,   *
+ * and redistribution, is contained in the COPYING file, which can be found  *
+ * at the root of the source code distribution tree,                         *
+ * or in https://www.hdfgroup.org/licenses.                                  *
+ * If you do not have access to either file, you may request a copy from     *
+ * help@hdfgroup.org.                                                        *
+ ****************************************************************************/
+
+package hdf.object.fits;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * FitsHDUIndex describes where one header and data unit (HDU) of a FITS file is stored.
+ *
+ * The index is built from the header cards only: the data of the HDU is not read. It records
+ * the offset of the header and of the data in the file, the size of the data, and the header
+ * cards, from which the type, BITPIX and axes of the HDU are taken. This allows the structure
+ * of a FITS file with many large extensions to be listed without loading any data.
+ *
+ * @see #readIndex(RandomAccessFile)
+ */
+public class FitsHDUIndex {
+    private static final Logger log = LoggerFactory.getLogger(FitsHDUIndex.class);
+
+    /** The size of a FITS logical record; headers and data are padded to a multiple of it. */
+    public static final int BLOCK_SIZE = 2880;
+
+    /** The size of a header card. */
+    public static final int CARD_SIZE = 80;
+
+    /** An image HDU: the primary HDU or an IMAGE extension. */
+    public static final int TYPE_IMAGE = 0;
+
+    /** A primary HDU in random groups format. */
+    public static final int TYPE_RANDOM_GROUPS = 1;
+
+    /** An ASCII table extension. */
+    public static final int TYPE_ASCII_TABLE = 2;
+
+    /** A binary table extension. */
+    public static final int TYPE_BINARY_TABLE = 3;
+
+    /** An extension of a type that is not supported. */
+    public static final int TYPE_OTHER = 4;
+
+    /** the index of the HDU in the file */
+    private final int index;
+
+    /** the type of the HDU */
+    private final int type;
+
+    /** the offset of the header in the file */
+    private final long headerOffset;
+
+    /** the offset of the data in the file */
+    private final long dataOffset;
+
+    /** the size of the data in bytes, without the padding */
+    private final long dataSize;
+
+    /** the header cards as {keyword, value, comment} */
+    private final List<String[]> cards;
+
+    private FitsHDUIndex(int index, long headerOffset, long dataOffset, List<String[]> cards)
+    {
+        this.index        = index;
+        this.headerOffset = headerOffset;
+        this.dataOffset   = dataOffset;
+        this.cards        = cards;
+
+        String xtension = getStringValue("XTENSION");
+        if (xtension == null) {
+            if (getBooleanValue("GROUPS") && (getIntValue("NAXIS", 0) > 0) &&
+                (getIntValue("NAXIS1", -1) == 0))
+                type = TYPE_RANDOM_GROUPS;
+            else
+                type = TYPE_IMAGE;
+        }
+        else if (xtension.equals("IMAGE") || xtension.equals("IUEIMAGE"))
+            type = TYPE_IMAGE;
+        else if (xtension.equals("TABLE"))
+            type = TYPE_ASCII_TABLE;
+        else if (xtension.equals("BINTABLE") || xtension.equals("A3DTABLE"))
+            type = TYPE_BINARY_TABLE;
+        else
+            type = TYPE_OTHER;
+
+        int naxis = getIntValue("NAXIS", 0);
+        long size = 0;
+        if (naxis > 0) {
+            size = 1;
+            for (int i = (type == TYPE_RANDOM_GROUPS) ? 2 : 1; i <= naxis; i++)
+                size *= getLongValue("NAXIS" + i, 0);
+            size = (size + getLongValue("PCOUNT", 0)) * getLongValue("GCOUNT", 1);
+            size *= Math.abs(getIntValue("BITPIX", 8)) / 8;
+        }
+        dataSize = size;
+    }
+
+    /**
+     * Reads the headers of all the HDUs of a FITS file, skipping their data.
+     *
+     * @param raf
+     *            the FITS file.
+     *
+     * @return the index of each HDU, in file order.
+     *
+     * @throws IOException
+     *             if the primary header can not be read
+     */
+    public static List<FitsHDUIndex> readIndex(RandomAccessFile raf) throws IOException
+    {
+        List<FitsHDUIndex> hdus = new ArrayList<>();
+        long fileSize           = raf.length();
+        long offset             = 0;
+        byte[] block            = new byte[BLOCK_SIZE];
+
+        while (offset + BLOCK_SIZE <= fileSize) {
+            List<String[]> cards = new ArrayList<>();
+            long pos             = offset;
+            boolean end          = false;
+
+            try {
+                while (!end) {
+                    raf.seek(pos);
+                    raf.readFully(block);
+                    pos += BLOCK_SIZE;
+
+                    for (int i = 0; (i < BLOCK_SIZE) && !end; i += CARD_SIZE) {
+                        String card = new String(block, i, CARD_SIZE, StandardCharsets.US_ASCII);
+                        if (cards.isEmpty()) {
+                            // a primary header starts with SIMPLE, an extension with XTENSION
+                            String key = card.substring(0, 8).trim();
+                            if (!(key.equals(hdus.isEmpty() ? "SIMPLE" : "XTENSION"))) {
+                                log.debug("readIndex(): no header at offset {}", offset);
+                                return hdus;
+                            }
+                        }
+                        String[] parsed = parseCard(card);
+                        if (parsed[0].equals("END"))
+                            end = true;
+                        else
+                            cards.add(parsed);
+                    }
+                }
+            }
+            catch (EOFException ex) {
+                log.debug("readIndex(): truncated header at offset {}", offset);
+                break;
+            }
+
+            FitsHDUIndex hdu = new FitsHDUIndex(hdus.size(), offset, pos, cards);
+            log.trace("readIndex(): HDU {} type={} header={} data={} size={}", hdu.index, hdu.type, offset,
+                      pos, hdu.dataSize);
+            hdus.add(hdu);
+
+            offset = pos + ((hdu.dataSize + BLOCK_SIZE - 1) / BLOCK_SIZE) * BLOCK_SIZE;
+        }
+
+        return hdus;
+    }
+
+    /**
+     * Splits a header card into its keyword, value and comment. The value of a string card
+     * is returned without its quotes.
+     */
+    private static String[] parseCard(String card)
+    {
+        String key     = card.substring(0, 8).trim();
+        String value   = null;
+        String comment = null;
+
+        if (card.startsWith("= ", 8)) {
+            String rest = card.substring(10);
+            int slash   = -1;
+            if (rest.trim().startsWith("'")) {
+                StringBuilder sb = new StringBuilder();
+                int i            = rest.indexOf('\'') + 1;
+                while (i < rest.length()) {
+                    char c = rest.charAt(i);
+                    if (c == '\'') {
+                        if ((i + 1 < rest.length()) && (rest.charAt(i + 1) == '\'')) {
+                            sb.append('\'');
+                            i += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    sb.append(c);
+                    i++;
+                }
+                value = sb.toString().replaceAll("\\s+$", "");
+                slash = rest.indexOf('/', i);
+            }
+            else {
+                slash = rest.indexOf('/');
+                value = ((slash < 0) ? rest : rest.substring(0, slash)).trim();
+            }
+            if (slash >= 0)
+                comment = rest.substring(slash + 1).trim();
+        }
+        else if (key.length() > 0) {
+            // COMMENT, HISTORY and other commentary cards
+            comment = card.substring(8).trim();
+        }
+
+        return new String[] {key, value, comment};
+    }
+
+    /**
+     * Returns the index of the HDU in the file; the primary HDU has index 0.
+     *
+     * @return the index of the HDU.
+     */
+    public int getIndex() { return index; }
+
+    /**
+     * Returns the type of the HDU, one of TYPE_IMAGE, TYPE_RANDOM_GROUPS, TYPE_ASCII_TABLE,
+     * TYPE_BINARY_TABLE or TYPE_OTHER.
+     *
+     * @return the type of the HDU.
+     */
+    public int getType() { return type; }
+
+    /**
+     * Returns the offset of the header of the HDU in the file.
+     *
+     * @return the offset of the header in bytes.
+     */
+    public long getHeaderOffset() { return headerOffset; }
+
+    /**
+     * Returns the offset of the data of the HDU in the file.
+     *
+     * @return the offset of the data in bytes.
+     */
+    public long getDataOffset() { return dataOffset; }
+
+    /**
+     * Returns the size of the data of the HDU, including the heap of a binary table but not
+     * the padding to the next HDU.
+     *
+     * @return the size of the data in bytes.
+     */
+    public long getDataSize() { return dataSize; }
+
+    /**
+     * Returns the BITPIX value of the HDU.
+     *
+     * @return the number of bits of a data value; negative for floating point values.
+     */
+    public int getBitPix() { return getIntValue("BITPIX", 8); }
+
+    /**
+     * Returns the axes of the HDU in the order of Java arrays, i.e. NAXISn first and NAXIS1
+     * last, or null if the HDU has no data axes.
+     *
+     * @return the axes of the HDU.
+     */
+    public int[] getAxes()
+    {
+        int naxis = getIntValue("NAXIS", 0);
+        if (naxis <= 0)
+            return null;
+
+        int[] axes = new int[naxis];
+        for (int i = 0; i < naxis; i++)
+            axes[naxis - i - 1] = getIntValue("NAXIS" + (i + 1), 0);
+
+        return axes;
+    }
+
+    /**
+     * Returns the header cards of the HDU, without the END card. Each card is an array of
+     * {keyword, value, comment}; the value or comment is null if the card has none.
+     *
+     * @return the header cards.
+     */
+    public List<String[]> getCards() { return Collections.unmodifiableList(cards); }
+
+    /**
+     * Returns the value of the first card with the given keyword.
+     *
+     * @param key
+     *            the keyword.
+     *
+     * @return the value of the card, or null if there is no such card.
+     */
+    public String getStringValue(String key)
+    {
+        for (String[] card : cards) {
+            if (card[0].equals(key))
+                return card[1];
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns the integer value of the first card with the given keyword.
+     *
+     * @param key
+     *            the keyword.
+     * @param defaultValue
+     *            the value returned if there is no such card or it is not an integer.
+     *
+     * @return the value of the card.
+     */
+    public int getIntValue(String key, int defaultValue)
+    {
+        return (int)getLongValue(key, defaultValue);
+    }
+
+    /**
+     * Returns the long integer value of the first card with the given keyword.
+     *
+     * @param key
+     *            the keyword.
+     * @param defaultValue
+     *            the value returned if there is no such card or it is not an integer.
+     *
+     * @return the value of the card.
+     */
+    public long getLongValue(String key, long defaultValue)
+    {
+        String value = getStringValue(key);
+        if (value == null)
+            return defaultValue;
+
+        try {
+            return Long.parseLong(value);
+        }
+        catch (NumberFormatException ex) {
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Returns the logical value of the first card with the given keyword.
+     *
+     * @param key
+     *            the keyword.
+     *
+     * @return true if the card exists and its value is T.
+     */
+    public boolean getBooleanValue(String key)
+    {
+        return "T".equals(getStringValue(key));
+    }
+}
@@ -0,0 +1,650 @@
+/*****************************************************************************
+ * Copyright by The HDF Group.                                               *
+ * Copyright by the Board of Trustees of the University of Illinois.         *
+ * All rights reserved.                                                      *
+ *                                                                           *
+ * This file is part of the HDF Java Products distribution.                  *
+ * The full copyright notice, including terms governing use, modification,   *
+ * and redistribution, is contained in the COPYING file, which can be found  *
+ * at the root of the source code distribution tree,                         *
+ * or in https://www.hdfgroup.org/licenses.                                  *
+ * If you do not have access to either file, you may request a copy from     *
+ * help@hdfgroup.org.                                                        *
+ ****************************************************************************/
+
+package hdf.object.fits;
+
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Vector;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import hdf.object.CompoundDS;
+import hdf.object.Dataset;
+import hdf.object.Datatype;
+import hdf.object.FileFormat;
+import hdf.object.Group;
+import hdf.object.HObject;
+import hdf.object.MetaDataContainer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * FitsTable describes a FITS binary table extension, inheriting CompoundDS.
+ *
+ * A binary table is a one-dimensional array of rows of NAXIS1 bytes; each column (TFORMn,
+ * TTYPEn) is a member of the compound dataset at a fixed offset in the row. The table is read
+ * directly from the file using the header index: only the selected members of the selected rows
+ * are decoded, so a column of a table with many rows can be read without reading the others.
+ *
+ * Values are returned as stored, without applying TSCALn and TZEROn. Unsigned byte (B) columns
+ * are returned as short values, logical (L) columns as bytes of 1 or 0, bit (X) columns as the
+ * bytes holding the bits, complex (C, M) columns as pairs of floats or doubles, and variable
+ * length (P, Q) columns as their (count, offset) descriptors.
+ */
+public class FitsTable extends CompoundDS implements MetaDataContainer {
+    private static final long serialVersionUID = 5314528064941256387L;
+
+    private static final Logger log = LoggerFactory.getLogger(FitsTable.class);
+
+    /** the size in bytes of the part of the file mapped at a time when reading rows */
+    private static final long MAP_WINDOW_SIZE = 64L * 1024 * 1024;
+
+    /** the repeat count and type code of a TFORMn value */
+    private static final Pattern TFORM_PATTERN = Pattern.compile("^\\s*(\\d*)([LXBIJKAEDCMPQ])");
+
+    /**
+     * The list of attributes of this data object. Members of the list are
+     * instance of Attribute.
+     */
+    private List attributeList;
+
+    /** the location and header of the HDU in the file */
+    private final FitsHDUIndex hduIndex;
+
+    /** the number of bytes of a row */
+    private long rowSize;
+
+    /** the TFORMn type code of each column */
+    private char[] columnCodes;
+
+    /** the repeat count of each column */
+    private int[] columnRepeats;
+
+    /** the offset in bytes of each column in a row */
+    private int[] columnOffsets;
+
+    /**
+     * Constructs a FitsTable object for a binary table HDU of a FITS file whose header has
+     * been indexed.
+     *
+     * @param fileFormat the fits file.
+     * @param hdu the index of the HDU.
+     * @param dName the name for this dataset.
+     * @param oid the unique identifier for this dataset.
+     */
+    @SuppressWarnings("deprecation")
+    public FitsTable(FileFormat fileFormat, FitsHDUIndex hdu, String dName, long[] oid)
+    {
+        super(fileFormat, dName, HObject.SEPARATOR, oid);
+        hduIndex = hdu;
+    }
+
+    /**
+     * Returns the location and header of the HDU of this table in the file.
+     *
+     * @return the HDU index.
+     */
+    public FitsHDUIndex getHDUIndex() { return hduIndex; }
+
+    /**
+     * Check if the object has any attributes attached.
+     *
+     * @return true if it has any attributes, false otherwise.
+     */
+    @Override
+    public boolean hasAttribute()
+    {
+        return false;
+    }
+
+    /**
+     * Initializes the FitsTable from the TFIELDS, TFORMn and TTYPEn cards of the header.
+     */
+    @Override
+    public void init()
+    {
+        if (inited)
+            return; // already called. Initialize only once
+
+        rowSize         = hduIndex.getLongValue("NAXIS1", 0);
+        numberOfMembers = hduIndex.getIntValue("TFIELDS", 0);
+        if (numberOfMembers < 0)
+            numberOfMembers = 0;
+
+        rank             = 1;
+        dims             = new long[] {hduIndex.getLongValue("NAXIS2", 0)};
+        selectedDims     = new long[] {dims[0]};
+        startDims        = new long[] {0};
+        selectedIndex[0] = 0;
+
+        memberNames      = new String[numberOfMembers];
+        memberTypes      = new Datatype[numberOfMembers];
+        memberOrders     = new int[numberOfMembers];
+        memberDims       = new Object[numberOfMembers];
+        isMemberSelected = new boolean[numberOfMembers];
+        columnCodes      = new char[numberOfMembers];
+        columnRepeats    = new int[numberOfMembers];
+        columnOffsets    = new int[numberOfMembers];
+
+        try {
+            datatype =
+                new FitsDatatype(Datatype.CLASS_COMPOUND, (int)rowSize, Datatype.NATIVE, Datatype.NATIVE);
+        }
+        catch (Exception ex) {
+            log.debug("init(): failed to create compound datatype for table");
+            datatype = null;
+        }
+
+        int offset = 0;
+        for (int i = 0; i < numberOfMembers; i++) {
+            isMemberSelected[i] = true;
+
+            String name    = hduIndex.getStringValue("TTYPE" + (i + 1));
+            memberNames[i] = ((name == null) || name.isEmpty()) ? ("Column " + (i + 1)) : name;
+
+            String tform = hduIndex.getStringValue("TFORM" + (i + 1));
+            Matcher m    = TFORM_PATTERN.matcher((tform == null) ? "" : tform);
+            if (m.find()) {
+                columnCodes[i]   = m.group(2).charAt(0);
+                columnRepeats[i] = m.group(1).isEmpty() ? 1 : Integer.parseInt(m.group(1));
+            }
+            else {
+                log.debug("init(): unsupported TFORM{}={}", i + 1, tform);
+                columnCodes[i]   = 'A';
+                columnRepeats[i] = 0;
+            }
+            columnOffsets[i] = offset;
+            offset += getColumnSize(i);
+
+            int order       = getMemberOrder(columnCodes[i], columnRepeats[i]);
+            memberOrders[i] = order;
+            if (order > 1)
+                memberDims[i] = new int[] {order};
+
+            try {
+                memberTypes[i] = getMemberType(columnCodes[i], columnRepeats[i]);
+            }
+            catch (Exception ex) {
+                log.debug("init(): failed to create datatype for member[{}]: ", i, ex);
+                memberTypes[i] = null;
+            }
+
+            log.trace("init():{}> name={} code={} repeat={} offset={}", i, memberNames[i], columnCodes[i],
+                      columnRepeats[i], columnOffsets[i]);
+
+            if (datatype != null) {
+                datatype.getCompoundMemberNames().add(memberNames[i]);
+                datatype.getCompoundMemberTypes().add(memberTypes[i]);
+            }
+        }
+
+        if (offset > rowSize)
+            log.debug("init(): columns take {} bytes of a {} byte row", offset, rowSize);
+
+        inited = true;
+    }
+
+    /**
+     * Returns the number of bytes a column takes in a row.
+     */
+    private int getColumnSize(int i)
+    {
+        int r = columnRepeats[i];
+        switch (columnCodes[i]) {
+        case 'X':
+            return (r + 7) / 8;
+        case 'I':
+            return 2 * r;
+        case 'J':
+        case 'E':
+            return 4 * r;
+        case 'K':
+        case 'D':
+        case 'C':
+        case 'P':
+            return 8 * r;
+        case 'M':
+        case 'Q':
+            return 16 * r;
+        default:
+            return r;
+        }
+    }
+
+    /**
+     * Returns the number of values of a column in a row, as returned by read().
+     */
+    private static int getMemberOrder(char code, int repeat)
+    {
+        switch (code) {
+        case 'A':
+            return 1;
+        case 'X':
+            return (repeat + 7) / 8;
+        case 'C':
+        case 'M':
+        case 'P':
+        case 'Q':
+            return 2 * repeat;
+        default:
+            return repeat;
+        }
+    }
+
+    /**
+     * Returns the datatype of a column: the type of its values, or an array of that type when a row
+     * holds more than one value, as returned by read().
+     */
+    private static Datatype getMemberType(char code, int repeat) throws Exception
+    {
+        Datatype base = getValueType(code, repeat);
+        int order     = getMemberOrder(code, repeat);
+
+        return (order > 1) ? new FitsDatatype(base, order) : base;
+    }
+
+    /**
+     * Returns the datatype of the values of a column, as returned by read().
+     */
+    private static Datatype getValueType(char code, int repeat) throws Exception
+    {
+        switch (code) {
+        case 'A':
+            return new FitsDatatype(Datatype.CLASS_STRING, Math.max(1, repeat), Datatype.NATIVE,
+                                    Datatype.NATIVE);
+        case 'L':
+        case 'X':
+            return new FitsDatatype(Datatype.CLASS_INTEGER, 1, Datatype.NATIVE, Datatype.NATIVE);
+        case 'B':
+        case 'I':
+            return new FitsDatatype(Datatype.CLASS_INTEGER, 2, Datatype.NATIVE, Datatype.NATIVE);
+        case 'J':
+        case 'P':
+            return new FitsDatatype(Datatype.CLASS_INTEGER, 4, Datatype.NATIVE, Datatype.NATIVE);
+        case 'K':
+        case 'Q':
+            return new FitsDatatype(Datatype.CLASS_INTEGER, 8, Datatype.NATIVE, Datatype.NATIVE);
+        case 'E':
+        case 'C':
+            return new FitsDatatype(Datatype.CLASS_FLOAT, 4, Datatype.NATIVE, Datatype.NATIVE);
+        default:
+            return new FitsDatatype(Datatype.CLASS_FLOAT, 8, Datatype.NATIVE, Datatype.NATIVE);
+        }
+    }
+
+    /**
+     * Returns the datatype of the data object.
+     *
+     * @return the datatype of the data object.
+     */
+    @Override
+    public Datatype getDatatype()
+    {
+        if (!inited)
+            init();
+
+        return datatype;
+    }
+
+    /**
+     * Reads the selected members of the selected rows from file.
+     *
+     * The rows are read from a read-only memory map of the file, in windows of a bounded size,
+     * and only the bytes of the selected members are decoded. The data is returned as a list
+     * with one array per selected member, holding memberOrders values per row.
+     *
+     * @return the list of member arrays.
+     *
+     * @throws Exception
+     *             if object can not be read
+     * @throws OutOfMemoryError
+     *             if memory is exhausted
+     */
+    @Override
+    public Object read() throws Exception
+    {
+        if (!isInited())
+            init();
+
+        return readRows(startDims[0], (selectedStride == null) ? 1 : selectedStride[0], selectedDims[0]);
+    }
+
+    /**
+     * Reads a block of rows for blockIterator(), without using or changing the current selection of
+     * the table.
+     */
+    @Override
+    protected Object readBlock(long[] start, long[] stride, long[] count) throws Exception
+    {
+        if (!isInited())
+            init();
+
+        return readRows(start[0], (stride == null) ? 1 : stride[0], count[0]);
+    }
+
+    /**
+     * Reads nrows rows of the selected members, stepping by stride rows from row first.
+     */
+    private Object readRows(long first, long stride, long nrows) throws Exception
+    {
+        List<Object> list = new Vector<>();
+        if (numberOfMembers <= 0) {
+            log.debug("read(): table contains no columns");
+            return list;
+        }
+
+        if (nrows > Integer.MAX_VALUE)
+            throw new UnsupportedOperationException("Selection of " + nrows + " rows is too large to read");
+
+        int[] selected = new int[getSelectedMemberCount()];
+        Object[] data  = new Object[selected.length];
+        for (int i = 0, idx = 0; i < numberOfMembers; i++) {
+            if (!isMemberSelected[i])
+                continue;
+            long size = nrows * memberOrders[i];
+            if (size > Integer.MAX_VALUE)
+                throw new UnsupportedOperationException("Selection of " + size +
+                                                        " values is too large to read");
+            selected[idx] = i;
+            data[idx++]   = allocateMember(i, (int)size);
+        }
+
+        if ((nrows > 0) && (rowSize > 0)) {
+            long rowStep       = rowSize * stride;
+            long rowsPerWindow = Math.max(1, (MAP_WINDOW_SIZE - rowSize) / rowStep + 1);
+
+            Path path = Paths.get(getFileFormat().getFilePath());
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                for (long done = 0; done < nrows; done += rowsPerWindow) {
+                    int n             = (int)Math.min(rowsPerWindow, nrows - done);
+                    long windowStart  = hduIndex.getDataOffset() + (first + done * stride) * rowSize;
+                    long windowLength = (n - 1) * rowStep + rowSize;
+                    log.trace("read(): map [{}, {}) for {} rows", windowStart, windowStart + windowLength, n);
+
+                    MappedByteBuffer window =
+                        channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowLength);
+                    for (int k = 0; k < selected.length; k++)
+                        decodeColumn(window, selected[k], n, (int)rowStep, data[k], (int)done);
+                }
+            }
+        }
+
+        for (Object d : data)
+            list.add(d);
+
+        return list;
+    }
+
+    /**
+     * Allocates the array holding size values of a member.
+     */
+    private Object allocateMember(int i, int size)
+    {
+        switch (columnCodes[i]) {
+        case 'A':
+            return new String[size];
+        case 'L':
+        case 'X':
+            return new byte[size];
+        case 'B':
+        case 'I':
+            return new short[size];
+        case 'J':
+        case 'P':
+            return new int[size];
+        case 'K':
+        case 'Q':
+            return new long[size];
+        case 'E':
+        case 'C':
+            return new float[size];
+        default:
+            return new double[size];
+        }
+    }
+
+    /**
+     * Decodes member i of n rows, stepping by rowStep bytes from the start of buf, into dst
+     * starting at row dstRow.
+     */
+    private void decodeColumn(ByteBuffer buf, int i, int n, int rowStep, Object dst, int dstRow)
+    {
+        int order  = memberOrders[i];
+        int offset = columnOffsets[i];
+
+        switch (columnCodes[i]) {
+        case 'A': {
+            String[] a   = (String[])dst;
+            byte[] bytes = new byte[columnRepeats[i]];
+            ByteBuffer b = buf.duplicate();
+            for (int r = 0; r < n; r++) {
+                b.position(r * rowStep + offset);
+                b.get(bytes);
+                int len = bytes.length;
+                while ((len > 0) && ((bytes[len - 1] == ' ') || (bytes[len - 1] == 0)))
+                    len--;
+                a[dstRow + r] = new String(bytes, 0, len, StandardCharsets.US_ASCII);
+            }
+            break;
+        }
+        case 'L': {
+            byte[] a = (byte[])dst;
+            for (int r = 0; r < n; r++) {
+                int pos = r * rowStep + offset;
+                for (int j = 0; j < order; j++)
+                    a[(dstRow + r) * order + j] = (byte)((buf.get(pos + j) == 'T') ? 1 : 0);
+            }
+            break;
+        }
+        case 'B': {
+            short[] a = (short[])dst;
+            for (int r = 0; r < n; r++) {
+                int pos = r * rowStep + offset;
+                for (int j = 0; j < order; j++)
+                    a[(dstRow + r) * order + j] = (short)(buf.get(pos + j) & 0xff);
+            }
+            break;
+        }
+        default: {
+            int esize = getColumnSize(i) / Math.max(1, order);
+            if (order == 1)
+                FitsDataset.decodeRun(buf, offset, n, rowStep, dst, dstRow);
+            else
+                for (int r = 0; r < n; r++)
+                    FitsDataset.decodeRun(buf, r * rowStep + offset, order, esize, dst, (dstRow + r) * order);
+            break;
+        }
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see hdf.object.Dataset#readBytes()
+     */
+    @Override
+    public byte[] readBytes() throws Exception
+    {
+        // not supported
+        throw new UnsupportedOperationException("readBytes operation unsupported for FITS.");
+    }
+
+    /**
+     * Writes a memory buffer to the object in the file.
+     *
+     * @param buf
+     *            the data to write
+     *
+     * @throws Exception
+     *             if data can not be written
+     */
+    @Override
+    public void write(Object buf) throws Exception
+    {
+        // not supported
+        throw new UnsupportedOperationException("write operation unsupported for FITS.");
+    }
+
+    /**
+     * Converts the data values of this data object to appropriate Java integers if
+     * they are unsigned integers.
+     *
+     * @return the converted data buffer.
+     */
+    @Override
+    public Object convertFromUnsignedC()
+    {
+        throw new UnsupportedOperationException("FitsTable:convertFromUnsignedC Unsupported operation.");
+    }
+
+    /**
+     * Converts Java integer data values of this data object back to unsigned C-type
+     * integer data if they are unsigned integers.
+     *
+     * @return the converted data buffer.
+     */
+    @Override
+    public Object convertToUnsignedC()
+    {
+        throw new UnsupportedOperationException("FitsTable:convertToUnsignedC Unsupported operation.");
+    }
+
+    // Implementing Dataset
+    @Override
+    public Dataset copy(Group pgroup, String dstName, long[] dims, Object buff) throws Exception
+    {
+        // not supported
+        throw new UnsupportedOperationException("copy operation unsupported for FITS.");
+    }
+
+    /**
+     * Retrieves the object's metadata, such as attributes, from the file.
+     *
+     * Metadata, such as attributes, is stored in a List.
+     *
+     * @return the list of metadata objects.
+     *
+     * @throws Exception
+     *             if the metadata can not be retrieved
+     */
+    @SuppressWarnings("rawtypes")
+    public List getMetadata() throws Exception
+    {
+        if (attributeList == null)
+            attributeList = FitsDataset.getIndexedMetadata(this, hduIndex);
+
+        return attributeList;
+    }
+
+    /**
+     * Retrieves the object's metadata, such as attributes, from the file.
+     *
+     * Metadata, such as attributes, is stored in a List.
+     *
+     * @param attrPropList
+     *             the list of properties to get
+     *
+     * @return the list of metadata objects.
+     *
+     * @throws Exception
+     *             if the metadata can not be retrieved
+     */
+    public List getMetadata(int... attrPropList) throws Exception
+    {
+        throw new UnsupportedOperationException("getMetadata(int... attrPropList) is not supported");
+    }
+
+    /**
+     * Writes a specific piece of metadata (such as an attribute) into the file.
+     *
+     * @param info
+     *            the metadata to write.
+     *
+     * @throws Exception
+     *             if the metadata can not be written
+     */
+    public void writeMetadata(Object info) throws Exception
+    {
+        // not supported
+        throw new UnsupportedOperationException("writeMetadata operation unsupported for FITS.");
+    }
+
+    /**
+     * Deletes an existing piece of metadata from this object.
+     *
+     * @param info
+     *            the metadata to delete.
+     *
+     * @throws Exception
+     *             if the metadata can not be removed
+     */
+    public void removeMetadata(Object info) throws Exception
+    {
+        // not supported
+        throw new UnsupportedOperationException("removeMetadata operation unsupported for FITS.");
+    }
+
+    /**
+     * Updates an existing piece of metadata attached to this object.
+     *
+     * @param info
+     *            the metadata to update.
+     *
+     * @throws Exception
+     *             if the metadata can not be updated
+     */
+    public void updateMetadata(Object info) throws Exception
+    {
+        // not supported
+        throw new UnsupportedOperationException("updateMetadata operation unsupported for FITS.");
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see hdf.object.HObject#open()
+     */
+    @Override
+    public long open()
+    {
+        return -1;
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see hdf.object.HObject#close(int)
+     */
+    @Override
+    public void close(long did)
+    {
+        // Nothing to implement
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see hdf.object.HObject#setName(java.lang.String)
+     */
+    @Override
+    public void setName(String newName) throws Exception
+    {
+        // not supported
+        throw new UnsupportedOperationException("Unsupported operation for FITS.");
+    }
+}
@@ -17,10 +17,12 @@ package hdf.object.h4;
 import java.io.File;
 import java.lang.reflect.Array;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Queue;
+import java.util.Set;
 import java.util.Vector;
 
 import hdf.hdflib.HDFConstants;
@@ -91,6 +93,14 @@ public class H4File extends FileFormat {
      */
     private boolean showAll = false;
 
+    /**
+     * If true, only the top level objects are loaded when the file is opened. The
+     * members of the Vgroups are loaded when they are first requested, and the file
+     * annotations and global attributes when the metadata of the root group is
+     * first requested.
+     */
+    private boolean lazyLoad = false;
+
     /**
      * Creates an H4File with read write access.
      */
@@ -170,6 +180,9 @@ public class H4File extends FileFormat {
         else {
             log.debug("show all is off");
         }
+
+        // load the file structure on demand, see setLazyLoad()
+        lazyLoad = (System.getProperty("h4lazyload") != null);
     }
 
     /**
@@ -375,6 +388,32 @@ public class H4File extends FileFormat {
         objList = null;
     }
 
+    /**
+     * Sets whether the file structure is loaded lazily when the file is opened.
+     *
+     * In lazy mode, open() only loads the top level objects of the file. The members
+     * of a Vgroup are loaded the first time the member list of the group is
+     * requested, and the file annotations and the GR and SDS global attributes are
+     * read the first time the metadata of the root group is requested. This makes
+     * opening large HDF4 files much faster.
+     *
+     * This must be set before the file is opened.
+     *
+     * @param lazy
+     *            true to load the file structure on demand; false to load the whole
+     *            structure when the file is opened.
+     */
+    public void setLazyLoad(boolean lazy) { lazyLoad = lazy; }
+
+    /**
+     * Returns whether the file structure is loaded lazily when the file is opened.
+     *
+     * @return true if the file structure is loaded on demand.
+     *
+     * @see #setLazyLoad(boolean)
+     */
+    public boolean isLazyLoad() { return lazyLoad; }
+
     // Implementing FileFormat
     @Override
     public HObject getRootObject()
@@ -678,7 +717,8 @@ public class H4File extends FileFormat {
      *
      * First gets the top level objects or objects that do not belong to any
      * groups. If a top level object is a group, call the depth_first() to
-     * retrieve the sub-tree of that group, recursively.
+     * retrieve the sub-tree of that group, recursively. In lazy mode, the
+     * sub-trees are not retrieved; see {@link #setLazyLoad(boolean)}.
      */
     private void loadIntoMemory()
     {
@@ -722,6 +762,10 @@ public class H4File extends FileFormat {
         // root object does not have a parent path or a parent object
         rootObject = new H4Group(this, "/", null, null, oid);
 
+        // objects in a Vgroup are not top level objects, even if the Vgroup is not loaded
+        if (lazyLoad)
+            findGroupMembers(refs, n);
+
         int i0 = Math.max(0, getStartMembers());
         int i1 = getMaxMembers();
         if (i1 >= n) {
@@ -742,7 +786,10 @@ public class H4File extends FileFormat {
                 ((H4Group)rootObject).addToMemberList(g);
 
                 // recursively get the sub-tree
-                depth_first(g);
+                if (lazyLoad)
+                    g.setMembersLoaded(false);
+                else
+                    depth_first(g);
             }
         }
 
@@ -811,7 +858,7 @@ public class H4File extends FileFormat {
                 ((H4Group)rootObject).addToMemberList(vdata);
         }
 
-        if (rootObject != null) {
+        if ((rootObject != null) && !lazyLoad) {
             // retrieve file annotation, GR and SDS global attributes
             @SuppressWarnings("rawtypes")
             List attributeList = null;
@@ -822,25 +869,136 @@ public class H4File extends FileFormat {
                 log.debug("loadIntoMemory(): getMetadata failure: ", ex);
             }
 
+            loadFileAttributes(attributeList);
+        }
+    }
+
+    /**
+     * Reads the file annotation and the GR and SDS global attributes into the
+     * attribute list of the root group.
+     */
+    @SuppressWarnings("rawtypes")
+    private void loadFileAttributes(List attributeList)
+    {
+        try {
+            getFileAnnotation(fid, attributeList);
+        }
+        catch (HDFException ex) {
+            log.debug("loadFileAttributes(): getFileAnnotation failure: ", ex);
+        }
+        try {
+            getGRglobalAttribute(grid, attributeList);
+        }
+        catch (HDFException ex) {
+            log.debug("loadFileAttributes(): getGRglobalAttribute failure: ", ex);
+        }
+        try {
+            getSDSglobalAttribute(sdid, attributeList);
+        }
+        catch (HDFException ex) {
+            log.debug("loadFileAttributes(): getSDglobalAttribute failure: ", ex);
+        }
+    }
+
+    /**
+     * Reads the file annotation and global attributes that were not read when the
+     * file was opened in lazy mode. Called the first time the metadata of the root
+     * group is requested.
+     *
+     * @param group
+     *            the group whose metadata is requested.
+     * @param attributeList
+     *            the attribute list of the group.
+     */
+    @SuppressWarnings("rawtypes")
+    void loadDeferredMetadata(H4Group group, List attributeList)
+    {
+        if (lazyLoad && (group == rootObject) && (fid >= 0))
+            loadFileAttributes(attributeList);
+    }
+
+    /**
+     * Loads the members of a Vgroup that were not loaded when the file was opened
+     * in lazy mode. Child Vgroups are loaded when their own members are requested.
+     *
+     * @param group
+     *            the group to load the members of.
+     */
+    void loadMembers(H4Group group)
+    {
+        if (fid < 0) {
+            log.debug("loadMembers(): Invalid File Id");
+            return;
+        }
+
+        depth_first(group);
+    }
+
+    /**
+     * Records the (tag, ref) pairs of the members of all the Vgroups reachable
+     * from the given lone Vgroups without creating the member objects. This lets
+     * the top level be built without loading the Vgroups, since objects found in a
+     * Vgroup are not listed at the top level.
+     */
+    @SuppressWarnings("unchecked")
+    private void findGroupMembers(int[] loneRefs, int n)
+    {
+        Set<Integer> visited = new HashSet<>();
+        Queue<Integer> queue = new LinkedList<>();
+        for (int i = 0; i < n; i++)
+            queue.add(loneRefs[i]);
+
+        while (!queue.isEmpty()) {
+            int ref = queue.remove();
+            if ((ref <= 0) || !visited.add(ref))
+                continue;
+
+            long id = -1;
             try {
-                getFileAnnotation(fid, attributeList);
-            }
-            catch (HDFException ex) {
-                log.debug("loadIntoMemory(): getFileAnnotation failure: ", ex);
-            }
-            try {
-                getGRglobalAttribute(grid, attributeList);
+                id              = HDFLibrary.Vattach(fid, ref, "r");
+                String[] vClass = {""};
+                HDFLibrary.Vgetclass(id, vClass);
+                if (!showAll && isInternalVGroup(vClass[0].trim()))
+                    continue;
+
+                int nelems = HDFLibrary.Vntagrefs(id);
+                int[] tags = new int[nelems];
+                int[] refs = new int[nelems];
+                nelems     = HDFLibrary.Vgettagrefs(id, tags, refs, nelems);
+                for (int i = 0; i < nelems; i++) {
+                    if (tags[i] == HDFConstants.DFTAG_VG)
+                        queue.add(refs[i]);
+                    else
+                        objList.add(new long[] {tags[i], refs[i]});
+                }
             }
             catch (HDFException ex) {
-                log.debug("loadIntoMemory(): getGRglobalAttribute failure: ", ex);
+                log.debug("findGroupMembers(): Vgroup ref={} failure: ", ref, ex);
             }
-            try {
-                getSDSglobalAttribute(sdid, attributeList);
-            }
-            catch (HDFException ex) {
-                log.debug("loadIntoMemory(): getSDglobalAttribute failure: ", ex);
+            finally {
+                if (id >= 0) {
+                    try {
+                        HDFLibrary.Vdetach(id);
+                    }
+                    catch (HDFException ex) {
+                        log.debug("findGroupMembers(): Vdetach failure: ", ex);
+                    }
+                }
             }
         }
+
+        log.trace("findGroupMembers(): {} Vgroups, {} members", visited.size(), objList.size());
+    }
+
+    /**
+     * Checks if a Vgroup class is one of the internal classes used by the GR and
+     * SD interfaces, which are not displayed.
+     */
+    private static boolean isInternalVGroup(String vClass)
+    {
+        return vClass.equalsIgnoreCase(HDFConstants.GR_NAME) || vClass.equalsIgnoreCase(HDFConstants.RI_NAME) ||
+            vClass.equalsIgnoreCase(HDFConstants.RIGATTRNAME) ||
+            vClass.equalsIgnoreCase(HDFConstants.RIGATTRCLASS) || vClass.equalsIgnoreCase(HDFConstants.HDF_CDF);
     }
 
     /**
@@ -954,7 +1112,15 @@ public class H4File extends FileFormat {
                             theGroup = (H4Group)theGroup.getParent();
                         }
                     }
-                    if (!looped) {
+                    if (looped) {
+                        // the members of a loop are not loaded
+                        if (lazyLoad)
+                            vgroup.addToMemberList(null);
+                    }
+                    else if (lazyLoad) {
+                        vgroup.setMembersLoaded(false);
+                    }
+                    else {
                         depth_first(vgroup);
                     }
                 }
@@ -983,6 +1149,10 @@ public class H4File extends FileFormat {
             currentObject = queue.remove();
             allMembers.add(currentObject);
 
+            // do not load the members of groups that were not expanded
+            if ((currentObject instanceof H4Group) && !((H4Group)currentObject).isMembersLoaded())
+                continue;
+
             if (currentObject instanceof Group)
                 queue.addAll(((Group)currentObject).getMemberList());
         }
@@ -1282,13 +1452,7 @@ public class H4File extends FileFormat {
         }
 
         // ignore the Vgroups created by the GR interface
-        if (showAll ||
-            ((id != HDFConstants.FAIL) &&
-             !vClass[0].equalsIgnoreCase(HDFConstants.GR_NAME) // do not display Vdata named "Attr0.0"
-             && !vClass[0].equalsIgnoreCase(HDFConstants.RI_NAME) &&
-             !vClass[0].equalsIgnoreCase(HDFConstants.RIGATTRNAME) &&
-             !vClass[0].equalsIgnoreCase(HDFConstants.RIGATTRCLASS) &&
-             !vClass[0].equalsIgnoreCase(HDFConstants.HDF_CDF))) {
+        if (showAll || ((id != HDFConstants.FAIL) && !isInternalVGroup(vClass[0]))) {
             vgroup = new H4Group(this, objName[0], path, pgroup, oid);
         }
 
@@ -388,11 +388,40 @@ public class H4GRImage extends ScalarDS implements MetaDataContainer {
     @Override
     public Object read() throws HDFException
     {
-        Object theData = null;
+        if (!isInited())
+            init();
+
+        Object theData = readHyperslab(startDims, selectedStride, selectedDims);
+
+        if ((rank > 1) && (selectedIndex[1] > selectedIndex[0]))
+            isDefaultImageOrder = false;
+        else
+            isDefaultImageOrder = true;
+
+        log.trace("read(): isDefaultImageOrder={}", isDefaultImageOrder);
+        return theData;
+    }
 
+    /**
+     * Reads a block for blockIterator() from the given hyperslab, without using or changing the
+     * current selection of the image.
+     */
+    @Override
+    protected Object readBlock(long[] start, long[] stride, long[] count) throws Exception
+    {
         if (!isInited())
             init();
 
+        return readHyperslab(start, stride, count);
+    }
+
+    /**
+     * Reads the hyperslab of the given start, stride and count; a null stride means a stride of 1.
+     */
+    private Object readHyperslab(long[] slabStart, long[] slabStride, long[] slabCount) throws HDFException
+    {
+        Object theData = null;
+
         long id = open();
         if (id < 0) {
             log.debug("read(): Invalid ID");
@@ -402,7 +431,7 @@ public class H4GRImage extends ScalarDS implements MetaDataContainer {
         try {
             // set the interlacing scheme for reading image data
             HDFLibrary.GRreqimageil(id, interlace);
-            int datasize = (int)(getWidth() * getHeight() * ncomp);
+            int datasize = (int)(slabCount[0] * slabCount[1] * ncomp);
 
             theData = H4Datatype.allocateArray(datatypeID, datasize);
 
@@ -410,14 +439,14 @@ public class H4GRImage extends ScalarDS implements MetaDataContainer {
                 // assume external data files are located in the same directory as the main file.
                 HDFLibrary.HXsetdir(getFileFormat().getParent());
 
-                int[] start  = {(int)startDims[0], (int)startDims[1]};
-                int[] select = {(int)selectedDims[0], (int)selectedDims[1]};
+                int[] start  = {(int)slabStart[0], (int)slabStart[1]};
+                int[] select = {(int)slabCount[0], (int)slabCount[1]};
 
                 int[] stride = null;
-                if (selectedStride != null) {
+                if (slabStride != null) {
                     stride = new int[rank];
                     for (int i = 0; i < rank; i++)
-                        stride[i] = (int)selectedStride[i];
+                        stride[i] = (int)slabStride[i];
                 }
 
                 HDFLibrary.GRreadimage(id, start, stride, select, theData);
@@ -430,12 +459,6 @@ public class H4GRImage extends ScalarDS implements MetaDataContainer {
             close(id);
         }
 
-        if ((rank > 1) && (selectedIndex[1] > selectedIndex[0]))
-            isDefaultImageOrder = false;
-        else
-            isDefaultImageOrder = true;
-
-        log.trace("read(): isDefaultImageOrder={}", isDefaultImageOrder);
         return theData;
     }
 
@@ -449,9 +472,33 @@ public class H4GRImage extends ScalarDS implements MetaDataContainer {
      * @throws HDFException
      *             if data can not be written
      */
-    @SuppressWarnings("deprecation")
     @Override
     public void write(Object buf) throws HDFException
+    {
+        writeHyperslab(startDims, selectedStride, selectedDims, buf);
+    }
+
+    /**
+     * Writes the hyperslab of the given start, stride and count, without using or changing the
+     * current selection of the image.
+     *
+     * @see hdf.object.Dataset#writeBlock(long[], long[], long[], Object)
+     */
+    @Override
+    public void writeBlock(long[] start, long[] stride, long[] count, Object buf) throws Exception
+    {
+        if (!isInited())
+            init();
+
+        writeHyperslab(start, stride, count, buf);
+    }
+
+    /**
+     * Writes the hyperslab of the given start, stride and count; a null stride means a stride of 1.
+     */
+    @SuppressWarnings("deprecation")
+    private void writeHyperslab(long[] slabStart, long[] slabStride, long[] slabCount, Object buf)
+        throws HDFException
     {
         if (buf == null) {
             log.debug("write(): buf is null - exit");
@@ -467,15 +514,15 @@ public class H4GRImage extends ScalarDS implements MetaDataContainer {
         int[] select = new int[rank];
         int[] start  = new int[rank];
         for (int i = 0; i < rank; i++) {
-            select[i] = (int)selectedDims[i];
-            start[i]  = (int)startDims[i];
+            select[i] = (int)slabCount[i];
+            start[i]  = (int)slabStart[i];
         }
 
         int[] stride = null;
-        if (selectedStride != null) {
+        if (slabStride != null) {
             stride = new int[rank];
             for (int i = 0; i < rank; i++) {
-                stride[i] = (int)selectedStride[i];
+                stride[i] = (int)slabStride[i];
             }
         }
 
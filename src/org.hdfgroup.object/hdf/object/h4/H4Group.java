@@ -58,6 +58,9 @@ public class H4Group extends Group {
     /** The default object ID for HDF4 objects */
     private static final long[] DEFAULT_OID = {0, 0};
 
+    /** false if the members of this group are to be loaded from the file when first requested */
+    private boolean membersLoaded = true;
+
     /**
      * Creates a group object with specific name, path, and parent.
      *
@@ -115,6 +118,40 @@ public class H4Group extends Group {
         return (nAttributes > 0);
     }
 
+    /**
+     * Returns the list of members of this group. If the file was opened in lazy
+     * mode, the members are loaded from the file the first time this is called.
+     *
+     * @return the list of members of this group.
+     */
+    @Override
+    public List<HObject> getMemberList()
+    {
+        if (!membersLoaded) {
+            membersLoaded = true;
+            // create the member list so that a group without members is not searched for from the root
+            addToMemberList(null);
+            ((H4File)getFileFormat()).loadMembers(this);
+        }
+
+        return super.getMemberList();
+    }
+
+    /**
+     * Sets whether the members of this group have been loaded from the file.
+     *
+     * @param loaded
+     *            false if the members are to be loaded when first requested.
+     */
+    void setMembersLoaded(boolean loaded) { membersLoaded = loaded; }
+
+    /**
+     * Returns whether the members of this group have been loaded from the file.
+     *
+     * @return false if the members are loaded when first requested.
+     */
+    boolean isMembersLoaded() { return membersLoaded; }
+
     // Implementing DataFormat
     /**
      * Retrieves the object's metadata, such as attributes, from the file.
@@ -138,6 +175,10 @@ public class H4Group extends Group {
             attributeList = new Vector();
         }
 
+        // file annotations and global attributes of the root group may not be loaded yet
+        if (isRoot() && (getFileFormat() instanceof H4File))
+            ((H4File)getFileFormat()).loadDeferredMetadata(this, attributeList);
+
         // Library methods cannot be called on HDF4 dummy root group since it has a ref of 0
         if (oid[1] > 0) {
             long vgid = open();
@@ -14,7 +14,10 @@
 
 package hdf.object.h4;
 
+import java.lang.reflect.Array;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Vector;
 
 import hdf.hdflib.HDFChunkInfo;
@@ -131,6 +134,15 @@ public class H4SDS extends ScalarDS implements MetaDataContainer {
     /** the number of attributes */
     private int nAttributes = -1;
 
+    /** The default size in bytes of the cache of decoded chunks. */
+    public static final long DEFAULT_CHUNK_CACHE_SIZE = 8L * 1024 * 1024;
+
+    /** the maximum number of bytes of decoded chunks to keep */
+    private long chunkCacheSize = DEFAULT_CHUNK_CACHE_SIZE;
+
+    /** recently read chunks, keyed by the row-major index of the chunk; guarded by this object */
+    private transient Map<Long, Object> chunkCache;
+
     /**
      * Creates an H4SDS object with specific name and path.
      *
@@ -397,42 +409,91 @@ public class H4SDS extends ScalarDS implements MetaDataContainer {
     @Override
     public Object read() throws HDFException, OutOfMemoryError
     {
-        Object theData = null;
+        if (!isInited())
+            init();
+
+        Object theData = readHyperslab(startDims, selectedStride, selectedDims);
+
+        if (fillValue == null && isImageDisplay) {
+            try {
+                getMetadata();
+            } // need to set fillValue for images
+            catch (Exception ex) {
+                log.debug("read(): getMetadata failure: ", ex);
+            }
+        }
+
+        if ((rank > 1) && (selectedIndex[0] > selectedIndex[1]))
+            isDefaultImageOrder = false;
+        else
+            isDefaultImageOrder = true;
 
+        log.trace("read(): isDefaultImageOrder={}", isDefaultImageOrder);
+        return theData;
+    }
+
+    /**
+     * Reads a block for blockIterator() from the given hyperslab, without using or changing the
+     * current selection of the dataset.
+     */
+    @Override
+    protected Object readBlock(long[] start, long[] stride, long[] count) throws Exception
+    {
         if (!isInited())
             init();
 
+        return readHyperslab(start, stride, count);
+    }
+
+    /**
+     * Reads the hyperslab of the given start, stride and count; a null stride means a stride of 1.
+     */
+    private Object readHyperslab(long[] slabStart, long[] slabStride, long[] slabCount) throws HDFException
+    {
+        Object theData = null;
+
         long id = open();
         if (id < 0) {
             log.debug("read(): Invalid SDID");
             return null;
         }
 
-        int datasize = 1;
+        long lsize = 1;
         int[] select = new int[rank];
         int[] start  = new int[rank];
         for (int i = 0; i < rank; i++) {
-            datasize *= (int)selectedDims[i];
-            select[i] = (int)selectedDims[i];
-            start[i]  = (int)startDims[i];
+            lsize *= slabCount[i];
+            select[i] = (int)slabCount[i];
+            start[i]  = (int)slabStart[i];
+        }
+
+        if (lsize > Integer.MAX_VALUE) {
+            close(id);
+            log.debug("read(): selection of {} points outside valid Java int range", lsize);
+            throw new HDFException("Invalid int size");
         }
 
         int[] stride = null;
-        if (selectedStride != null) {
+        boolean isStrided = false;
+        if (slabStride != null) {
             stride = new int[rank];
             for (int i = 0; i < rank; i++) {
-                stride[i] = (int)selectedStride[i];
+                stride[i] = (int)slabStride[i];
+                isStrided |= (stride[i] > 1);
             }
         }
 
         try {
-            theData = H4Datatype.allocateArray(datatypeID, datasize);
+            theData = H4Datatype.allocateArray(datatypeID, (int)lsize);
 
             if (theData != null) {
                 // assume external data files are located in the same directory as the main file.
                 HDFLibrary.HXsetdir(getFileFormat().getParent());
 
-                HDFLibrary.SDreaddata(id, start, stride, select, theData);
+                if ((chunkSize != null) && !isStrided)
+                    readChunked(id, start, select, theData);
+                else
+                    HDFLibrary.SDreaddata(id, start, stride, select, theData);
 
                 if (isText)
                     theData = byteToString((byte[])theData, select[0]);
@@ -445,22 +506,212 @@ public class H4SDS extends ScalarDS implements MetaDataContainer {
             close(id);
         }
 
-        if (fillValue == null && isImageDisplay) {
-            try {
-                getMetadata();
-            } // need to set fillValue for images
-            catch (Exception ex) {
-                log.debug("read(): getMetadata failure: ", ex);
+        return theData;
+    }
+
+    /**
+     * Reads a single chunk of a chunked SDS.
+     *
+     * The chunk is read with SDreadchunk and decoded once; recently used chunks are kept in a
+     * small cache so that reading neighbouring windows, such as when scrolling a table or
+     * tiling an image, does not decompress the same chunks again. Chunks at the edges of the
+     * dataset are returned at the full chunk size. The returned array is a copy, which the caller
+     * may modify.
+     *
+     * @param chunkIndex
+     *            the index of the chunk in each dimension, i.e. the offset of its first element
+     *            divided by the chunk size.
+     *
+     * @return the values of the chunk in row-major order, or null if the dataset is not chunked.
+     *
+     * @throws HDFException
+     *             if the chunk can not be read
+     */
+    public Object readChunk(long[] chunkIndex) throws HDFException
+    {
+        if (!isInited())
+            init();
+
+        if (chunkSize == null) {
+            log.debug("readChunk(): dataset is not chunked");
+            return null;
+        }
+
+        long id = open();
+        if (id < 0) {
+            log.debug("readChunk(): Invalid SDID");
+            return null;
+        }
+
+        int[] origin = new int[rank];
+        for (int i = 0; i < rank; i++)
+            origin[i] = (int)chunkIndex[i];
+
+        try {
+            HDFLibrary.HXsetdir(getFileFormat().getParent());
+
+            Object chunk = getChunk(id, origin);
+            int n        = Array.getLength(chunk);
+            Object copy  = Array.newInstance(chunk.getClass().getComponentType(), n);
+            System.arraycopy(chunk, 0, copy, 0, n);
+
+            return copy;
+        }
+        finally {
+            close(id);
+        }
+    }
+
+    /**
+     * Sets the maximum number of bytes of decoded chunks kept in memory by this dataset.
+     * Chunks larger than the cache are read but not kept.
+     *
+     * @param size
+     *            the size of the chunk cache in bytes; 0 disables the cache.
+     */
+    public synchronized void setChunkCacheSize(long size)
+    {
+        chunkCacheSize = Math.max(0, size);
+        chunkCache     = null;
+    }
+
+    /**
+     * Returns the maximum number of bytes of decoded chunks kept in memory by this dataset.
+     *
+     * @return the size of the chunk cache in bytes.
+     */
+    public synchronized long getChunkCacheSize() { return chunkCacheSize; }
+
+    /**
+     * Reads the hyperslab [start, start+select) of a chunked SDS by copying it out of the chunks
+     * that it overlaps.
+     */
+    private void readChunked(long id, int[] start, int[] select, Object theData) throws HDFException
+    {
+        int[] first = new int[rank];
+        int[] last  = new int[rank];
+        for (int i = 0; i < rank; i++) {
+            if (select[i] <= 0)
+                return;
+            first[i] = start[i] / (int)chunkSize[i];
+            last[i]  = (start[i] + select[i] - 1) / (int)chunkSize[i];
+        }
+
+        log.trace("readChunked(): chunks from {} to {}", first, last);
+
+        int[] origin = first.clone();
+        while (true) {
+            copyFromChunk(getChunk(id, origin), origin, start, select, theData);
+
+            // next chunk in row-major order
+            int d = rank - 1;
+            while ((d >= 0) && (origin[d] == last[d])) {
+                origin[d] = first[d];
+                d--;
             }
+            if (d < 0)
+                break;
+            origin[d]++;
         }
+    }
 
-        if ((rank > 1) && (selectedIndex[0] > selectedIndex[1]))
-            isDefaultImageOrder = false;
-        else
-            isDefaultImageOrder = true;
+    /**
+     * Copies the part of a chunk that overlaps the hyperslab [start, start+select) into the
+     * selection buffer, one contiguous run of the fastest-changing dimension at a time.
+     */
+    private void copyFromChunk(Object chunk, int[] origin, int[] start, int[] select, Object theData)
+    {
+        int[] lo = new int[rank];
+        int[] hi = new int[rank];
+        for (int i = 0; i < rank; i++) {
+            int chunkStart = origin[i] * (int)chunkSize[i];
+            lo[i]          = Math.max(start[i], chunkStart);
+            hi[i]          = Math.min(start[i] + select[i], chunkStart + (int)chunkSize[i]);
+        }
 
-        log.trace("read(): isDefaultImageOrder={}", isDefaultImageOrder);
-        return theData;
+        int run = hi[rank - 1] - lo[rank - 1];
+        int[] pos = lo.clone();
+        while (true) {
+            int src = 0;
+            int dst = 0;
+            for (int i = 0; i < rank; i++) {
+                src = src * (int)chunkSize[i] + (pos[i] - origin[i] * (int)chunkSize[i]);
+                dst = dst * select[i] + (pos[i] - start[i]);
+            }
+            System.arraycopy(chunk, src, theData, dst, run);
+
+            int d = rank - 2;
+            while ((d >= 0) && (pos[d] == hi[d] - 1)) {
+                pos[d] = lo[d];
+                d--;
+            }
+            if (d < 0)
+                break;
+            pos[d]++;
+        }
+    }
+
+    /**
+     * Returns the decoded chunk at the given chunk index from the chunk cache, reading it with
+     * SDreadchunk if it is not cached.
+     */
+    private Object getChunk(long id, int[] origin) throws HDFException
+    {
+        long key = 0;
+        for (int i = 0; i < rank; i++) {
+            long nchunks = (dims[i] + chunkSize[i] - 1) / chunkSize[i];
+            key = key * nchunks + origin[i];
+        }
+
+        Object chunk = getCachedChunk(key);
+        if (chunk != null)
+            return chunk;
+
+        int npoints = 1;
+        for (int i = 0; i < rank; i++)
+            npoints *= (int)chunkSize[i];
+
+        chunk = H4Datatype.allocateArray(datatypeID, npoints);
+        if (chunk == null)
+            throw new HDFException("Unsupported datatype " + datatypeID);
+
+        log.trace("getChunk(): SDreadchunk at chunk {}", origin);
+        HDFLibrary.SDreadchunk(id, origin, chunk);
+
+        cacheChunk(key, chunk, (long)npoints * HDFLibrary.DFKNTsize(datatypeID));
+
+        return chunk;
+    }
+
+    /**
+     * Returns the chunk of the given key from the chunk cache, or null if it is not cached.
+     */
+    private synchronized Object getCachedChunk(long key)
+    {
+        return (chunkCache == null) ? null : chunkCache.get(key);
+    }
+
+    /**
+     * Keeps a decoded chunk in the chunk cache, dropping the least recently used chunks, unless
+     * the chunk is larger than the cache.
+     */
+    private synchronized void cacheChunk(long key, Object chunk, long chunkBytes)
+    {
+        if ((chunkBytes > 0) && (chunkBytes <= chunkCacheSize)) {
+            if (chunkCache == null) {
+                final int maxChunks = (int)Math.min(Integer.MAX_VALUE, chunkCacheSize / chunkBytes);
+                chunkCache          = new LinkedHashMap<Long, Object>(16, 0.75f, true) {
+                    private static final long serialVersionUID = 1L;
+
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<Long, Object> eldest)
+                    {
+                        return size() > maxChunks;
+                    }
+                };
+            }
+            chunkCache.put(key, chunk);
+        }
     }
 
     // Implementing DataFormat
@@ -473,9 +724,33 @@ public class H4SDS extends ScalarDS implements MetaDataContainer {
      * @throws HDFException
      *             if data can not be written
      */
-    @SuppressWarnings("deprecation")
     @Override
     public void write(Object buf) throws HDFException
+    {
+        writeHyperslab(startDims, selectedStride, selectedDims, buf);
+    }
+
+    /**
+     * Writes the hyperslab of the given start, stride and count, without using or changing the
+     * current selection of the dataset.
+     *
+     * @see hdf.object.Dataset#writeBlock(long[], long[], long[], Object)
+     */
+    @Override
+    public void writeBlock(long[] start, long[] stride, long[] count, Object buf) throws Exception
+    {
+        if (!isInited())
+            init();
+
+        writeHyperslab(start, stride, count, buf);
+    }
+
+    /**
+     * Writes the hyperslab of the given start, stride and count; a null stride means a stride of 1.
+     */
+    @SuppressWarnings("deprecation")
+    private void writeHyperslab(long[] slabStart, long[] slabStride, long[] slabCount, Object buf)
+        throws HDFException
     {
         if (buf == null) {
             log.debug("write(): Object is null");
@@ -491,18 +766,23 @@ public class H4SDS extends ScalarDS implements MetaDataContainer {
         int[] select = new int[rank];
         int[] start  = new int[rank];
         for (int i = 0; i < rank; i++) {
-            select[i] = (int)selectedDims[i];
-            start[i]  = (int)startDims[i];
+            select[i] = (int)slabCount[i];
+            start[i]  = (int)slabStart[i];
         }
 
         int[] stride = null;
-        if (selectedStride != null) {
+        if (slabStride != null) {
             stride = new int[rank];
             for (int i = 0; i < rank; i++) {
-                stride[i] = (int)selectedStride[i];
+                stride[i] = (int)slabStride[i];
             }
         }
 
+        // the written values may be in cached chunks
+        synchronized (this) {
+            chunkCache = null;
+        }
+
         Object tmpData = buf;
         try {
             if (getDatatype().isUnsigned() && unsignedConverted)
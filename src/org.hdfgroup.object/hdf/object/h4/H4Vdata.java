@@ -14,6 +14,8 @@
 
 package hdf.object.h4;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.List;
 import java.util.Vector;
 
@@ -110,6 +112,15 @@ public class H4Vdata extends CompoundDS implements MetaDataContainer {
      */
     private long[] memberTIDs;
 
+    /**
+     * The number of values of each field in a record as stored in the file. Unlike
+     * memberOrders, these are not changed when character fields are read as strings.
+     */
+    private int[] fieldOrders;
+
+    /** The approximate size in bytes of a block of records read by a single VSread call. */
+    private static final int READ_BLOCK_SIZE = 1024 * 1024;
+
     /** the number of attributes */
     private int nAttributes = -1;
 
@@ -268,12 +279,10 @@ public class H4Vdata extends CompoundDS implements MetaDataContainer {
      * @throws OutOfMemoryError
      *             if memory is exhausted
      */
-    @SuppressWarnings({"rawtypes", "unchecked", "deprecation"})
+    @SuppressWarnings("rawtypes")
     @Override
     public Object read() throws HDFException
     {
-        List list = null;
-
         if (!isInited())
             init();
 
@@ -288,35 +297,127 @@ public class H4Vdata extends CompoundDS implements MetaDataContainer {
             return null;
         }
 
-        list = new Vector();
+        List list = null;
+        try {
+            // assume external data files are located in the same directory as the main file.
+            HDFLibrary.HXsetdir(getFileFormat().getParent());
 
-        // assume external data files are located in the same directory as the main file.
-        HDFLibrary.HXsetdir(getFileFormat().getParent());
+            list = readRecords(id, (int)startDims[0], (int)selectedDims[0]);
+        }
+        finally {
+            close(id);
+        }
 
-        Object member_data = null;
+        return list;
+    }
+
+    /**
+     * Reads a block of records for blockIterator() with readRecords(), without using or changing the
+     * current selection of the vdata. As with read(), records are read without a stride.
+     */
+    @Override
+    protected Object readBlock(long[] start, long[] stride, long[] count) throws Exception
+    {
+        return readRecords((int)start[0], (int)count[0]);
+    }
+
+    /**
+     * Reads a range of records of the selected fields from file.
+     *
+     * All of the selected fields are read together, one block of records at a time, and
+     * de-interleaved into one array per field. The arrays are in the same form as those
+     * returned by read(), so large tables can be streamed by calling this method repeatedly
+     * with consecutive record ranges. The selection of this dataset is not changed.
+     *
+     * @param start
+     *            the index of the first record to read
+     * @param count
+     *            the number of records to read
+     *
+     * @return the list of field arrays, one for each selected field.
+     *
+     * @throws HDFException
+     *             if the records can not be read
+     */
+    @SuppressWarnings("rawtypes")
+    public List readRecords(int start, int count) throws HDFException
+    {
+        if (!isInited())
+            init();
+
+        if (numberOfMembers <= 0) {
+            log.debug("readRecords(): VData contains no members");
+            return null;
+        }
+
+        if ((start < 0) || (count < 0) || ((long)start + count > numberOfRecords))
+            throw new HDFException("Record range [" + start + ", " + ((long)start + count) +
+                                   ") is out of bounds of " + numberOfRecords + " records");
+
+        long id = open();
+        if (id < 0) {
+            log.debug("readRecords(): Invalid VData ID");
+            return null;
+        }
+
+        try {
+            HDFLibrary.HXsetdir(getFileFormat().getParent());
+
+            return readRecords(id, start, count);
+        }
+        finally {
+            close(id);
+        }
+    }
+
+    /**
+     * Returns the number of records read by each VSread call of readRecords(), so that
+     * callers streaming a large table can choose a matching record range size.
+     *
+     * @return the number of records per block
+     */
+    public int getRecordsPerBlock()
+    {
+        if (!isInited())
+            init();
+
+        int recordSize = 0;
         for (int i = 0; i < numberOfMembers; i++) {
-            if (!isMemberSelected[i])
-                continue;
+            if (isMemberSelected[i])
+                recordSize += fieldOrders[i] * getFieldSize(i);
+        }
 
-            try {
-                // moves the access pointer to the start position
-                HDFLibrary.VSseek(id, (int)startDims[0]);
-                // Specify the fields to be accessed
-                HDFLibrary.VSsetfields(id, memberNames[i]);
-            }
-            catch (HDFException ex) {
-                log.debug("read(): failure: ", ex);
-                isMemberSelected[i] = false;
-                continue;
-            }
+        return Math.max(1, READ_BLOCK_SIZE / Math.max(1, recordSize));
+    }
 
-            int n = memberOrders[i] * (int)selectedDims[0];
+    /**
+     * Reads the records [start, start+count) of the selected fields. An interlaced read of all
+     * selected fields is tried first; if the record layout can not be determined, the fields are
+     * read one at a time.
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private List readRecords(long id, int start, int count)
+    {
+        Object[] fieldData = null;
+        try {
+            fieldData = readInterlaced(id, start, count);
+        }
+        catch (Exception ex) {
+            log.debug("readRecords(): interlaced read failed, reading field by field: ", ex);
+            fieldData = null;
+        }
 
-            member_data = H4Datatype.allocateArray(memberTIDs[i], n);
+        List list = new Vector();
+        for (int i = 0; i < numberOfMembers; i++) {
+            if (!isMemberSelected[i])
+                continue;
 
-            log.trace("read(): index={} isMemberSelected[i]={} memberOrders[i]={} array size={}", i,
-                      isMemberSelected[i], memberOrders[i], n);
+            Object member_data = (fieldData == null) ? readField(id, i, start, count) : fieldData[i];
             if (member_data == null) {
+                if (!isMemberSelected[i])
+                    continue; // the field could not be set up for reading
+
+                int n               = fieldOrders[i] * count;
                 String[] nullValues = new String[n];
                 for (int j = 0; j < n; j++)
                     nullValues[j] = "*ERROR*";
@@ -324,43 +425,210 @@ public class H4Vdata extends CompoundDS implements MetaDataContainer {
                 continue;
             }
 
-            try {
-                HDFLibrary.VSread(id, member_data, (int)selectedDims[0], HDFConstants.FULL_INTERLACE);
-                if ((memberTIDs[i] == HDFConstants.DFNT_CHAR) ||
-                    (memberTIDs[i] == HDFConstants.DFNT_UCHAR8)) {
-                    // convert characters to string
-                    log.trace("read(): convert characters to string");
-                    member_data = Dataset.byteToString((byte[])member_data, memberOrders[i]);
-                    try {
-                        memberTypes[i] = new H4Datatype(Datatype.CLASS_STRING, memberOrders[i],
-                                                        Datatype.NATIVE, Datatype.NATIVE);
-                    }
-                    catch (Exception ex) {
-                        log.debug("read(): failed to create datatype for member[{}]: ", i, ex);
-                        memberTypes[i] = null;
-                    }
-                    memberOrders[i] = 1; // one String
-                }
-                else if (H4Datatype.isUnsigned(memberTIDs[i])) {
-                    // convert unsigned integer to appropriate Java integer
-                    log.trace("read(): convert unsigned integer to appropriate Java integer");
-                    member_data = Dataset.convertFromUnsignedC(member_data);
-                }
-            }
-            catch (HDFException ex) {
-                String[] nullValues = new String[n];
-                for (int j = 0; j < n; j++)
-                    nullValues[j] = "*ERROR*";
-                list.add(nullValues);
+            list.add(convertField(i, member_data));
+        } //  (int i=0; i<numberOfMembers; i++)
+
+        return list;
+    }
+
+    /**
+     * Reads all of the selected fields with a single VSsetfields call, VSread'ing
+     * FULL_INTERLACE records in blocks into a packed buffer and de-interleaving each block
+     * into the field arrays.
+     *
+     * @return the field arrays indexed by member, or null if the record layout is unknown
+     */
+    private Object[] readInterlaced(long id, int start, int count) throws HDFException
+    {
+        Object[] fieldData   = new Object[numberOfMembers];
+        int[] offsets        = new int[numberOfMembers];
+        int[] sizes          = new int[numberOfMembers];
+        StringBuilder fields = new StringBuilder();
+        int recordSize       = 0;
+
+        for (int i = 0; i < numberOfMembers; i++) {
+            if (!isMemberSelected[i])
                 continue;
+
+            sizes[i]     = getFieldSize(i);
+            fieldData[i] = H4Datatype.allocateArray(memberTIDs[i], fieldOrders[i] * count);
+            if ((sizes[i] <= 0) || (fieldData[i] == null)) {
+                log.trace("readInterlaced(): unsupported member[{}] type {}", i, memberTIDs[i]);
+                return null;
             }
 
-            list.add(member_data);
-        } //  (int i=0; i<numberOfMembers; i++)
+            offsets[i] = recordSize;
+            recordSize += fieldOrders[i] * sizes[i];
+            if (fields.length() > 0)
+                fields.append(',');
+            fields.append(memberNames[i]);
+        }
 
-        close(id);
+        if ((recordSize <= 0) || (count <= 0))
+            return null;
 
-        return list;
+        HDFLibrary.VSsetfields(id, fields.toString());
+        if (HDFLibrary.VSsizeof(id, fields.toString()) != recordSize) {
+            log.trace("readInterlaced(): record size does not match field sizes");
+            return null;
+        }
+
+        int blockRecords  = Math.min(count, Math.max(1, READ_BLOCK_SIZE / recordSize));
+        byte[] block      = new byte[blockRecords * recordSize];
+        ByteBuffer buffer = ByteBuffer.wrap(block).order(ByteOrder.nativeOrder());
+        log.trace("readInterlaced(): fields={} recordSize={} blockRecords={}", fields, recordSize,
+                  blockRecords);
+
+        HDFLibrary.VSseek(id, start);
+        for (int done = 0; done < count;) {
+            int n     = Math.min(blockRecords, count - done);
+            int nread = HDFLibrary.VSread(id, block, n, HDFConstants.FULL_INTERLACE);
+            if (nread != n)
+                throw new HDFException("VSread returned " + nread + " of " + n + " records");
+
+            for (int i = 0; i < numberOfMembers; i++) {
+                if (isMemberSelected[i])
+                    unpackField(buffer, n, recordSize, offsets[i], fieldOrders[i], fieldData[i],
+                                done * fieldOrders[i]);
+            }
+            done += n;
+        }
+
+        return fieldData;
+    }
+
+    /**
+     * Returns the size in bytes of one element of the field at index i, or 0 if it is unknown.
+     */
+    private int getFieldSize(int i)
+    {
+        try {
+            return HDFLibrary.DFKNTsize(memberTIDs[i]);
+        }
+        catch (Exception ex) {
+            log.debug("getFieldSize(): member[{}]: ", i, ex);
+            return 0;
+        }
+    }
+
+    /**
+     * Copies one field of n packed records into its field array, starting at element pos.
+     */
+    private static void unpackField(ByteBuffer buffer, int n, int recordSize, int offset, int order,
+                                    Object data, int pos)
+    {
+        if (data instanceof byte[]) {
+            byte[] dst = (byte[])data;
+            for (int r = 0; r < n; r++, pos += order)
+                System.arraycopy(buffer.array(), r * recordSize + offset, dst, pos, order);
+        }
+        else if (data instanceof short[]) {
+            short[] dst = (short[])data;
+            for (int r = 0; r < n; r++) {
+                int idx = r * recordSize + offset;
+                for (int k = 0; k < order; k++, idx += 2)
+                    dst[pos++] = buffer.getShort(idx);
+            }
+        }
+        else if (data instanceof int[]) {
+            int[] dst = (int[])data;
+            for (int r = 0; r < n; r++) {
+                int idx = r * recordSize + offset;
+                for (int k = 0; k < order; k++, idx += 4)
+                    dst[pos++] = buffer.getInt(idx);
+            }
+        }
+        else if (data instanceof long[]) {
+            long[] dst = (long[])data;
+            for (int r = 0; r < n; r++) {
+                int idx = r * recordSize + offset;
+                for (int k = 0; k < order; k++, idx += 8)
+                    dst[pos++] = buffer.getLong(idx);
+            }
+        }
+        else if (data instanceof float[]) {
+            float[] dst = (float[])data;
+            for (int r = 0; r < n; r++) {
+                int idx = r * recordSize + offset;
+                for (int k = 0; k < order; k++, idx += 4)
+                    dst[pos++] = buffer.getFloat(idx);
+            }
+        }
+        else if (data instanceof double[]) {
+            double[] dst = (double[])data;
+            for (int r = 0; r < n; r++) {
+                int idx = r * recordSize + offset;
+                for (int k = 0; k < order; k++, idx += 8)
+                    dst[pos++] = buffer.getDouble(idx);
+            }
+        }
+    }
+
+    /**
+     * Reads a single field of the records [start, start+count).
+     *
+     * @return the field array, or null if the field could not be read
+     */
+    private Object readField(long id, int i, int start, int count)
+    {
+        try {
+            // moves the access pointer to the start position
+            HDFLibrary.VSseek(id, start);
+            // Specify the fields to be accessed
+            HDFLibrary.VSsetfields(id, memberNames[i]);
+        }
+        catch (HDFException ex) {
+            log.debug("readField(): failure: ", ex);
+            isMemberSelected[i] = false;
+            return null;
+        }
+
+        int n = fieldOrders[i] * count;
+
+        Object member_data = H4Datatype.allocateArray(memberTIDs[i], n);
+
+        log.trace("readField(): index={} isMemberSelected[i]={} fieldOrders[i]={} array size={}", i,
+                  isMemberSelected[i], fieldOrders[i], n);
+        if (member_data == null)
+            return null;
+
+        try {
+            HDFLibrary.VSread(id, member_data, count, HDFConstants.FULL_INTERLACE);
+        }
+        catch (HDFException ex) {
+            log.debug("readField(): VSread failure: ", ex);
+            return null;
+        }
+
+        return member_data;
+    }
+
+    /**
+     * Converts character fields to strings and unsigned integers to the appropriate Java integers.
+     */
+    private Object convertField(int i, Object member_data)
+    {
+        if ((memberTIDs[i] == HDFConstants.DFNT_CHAR) || (memberTIDs[i] == HDFConstants.DFNT_UCHAR8)) {
+            // convert characters to string
+            log.trace("convertField(): convert characters to string");
+            member_data = Dataset.byteToString((byte[])member_data, fieldOrders[i]);
+            try {
+                memberTypes[i] =
+                    new H4Datatype(Datatype.CLASS_STRING, fieldOrders[i], Datatype.NATIVE, Datatype.NATIVE);
+            }
+            catch (Exception ex) {
+                log.debug("convertField(): failed to create datatype for member[{}]: ", i, ex);
+                memberTypes[i] = null;
+            }
+            memberOrders[i] = 1; // one String
+        }
+        else if (H4Datatype.isUnsigned(memberTIDs[i])) {
+            // convert unsigned integer to appropriate Java integer
+            log.trace("convertField(): convert unsigned integer to appropriate Java integer");
+            member_data = Dataset.convertFromUnsignedC(member_data, null);
+        }
+
+        return member_data;
     }
 
     // Implementing DataFormat
@@ -781,6 +1049,8 @@ public class H4Vdata extends CompoundDS implements MetaDataContainer {
             }
         } //  (int i=0; i<numberOfMembers; i++)
 
+        fieldOrders = memberOrders.clone();
+
         inited = true;
 
         close(id);
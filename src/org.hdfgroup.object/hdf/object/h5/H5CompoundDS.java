@@ -32,6 +32,7 @@ import hdf.object.FileFormat;
 import hdf.object.Group;
 import hdf.object.HObject;
 import hdf.object.MetaDataContainer;
+import hdf.object.Selection;
 import hdf.object.Utils;
 import hdf.object.h5.H5Datatype;
 import hdf.object.h5.H5MetaDataContainer;
@@ -844,7 +845,93 @@ public class H5CompoundDS extends CompoundDS implements MetaDataContainer {
         return theObj;
     }
 
+    /**
+     * Reads the data points described by a selection from file with a single H5Dread call per member.
+     *
+     * The selection can be a union of hyperslabs (H5S_SELECT_OR) or an explicit list of points
+     * (H5Sselect_elements). Each selected member is read into a packed, one-dimensional array; use
+     * {@link Selection#getPoint(int)} to map array positions back to dataset coordinates.
+     *
+     * @param selection
+     *            the data points to read.
+     *
+     * @return the list of member arrays read from file.
+     *
+     * @throws Exception
+     *             if the data can not be read
+     */
+    @Override
+    public Object read(Selection selection) throws Exception
+    {
+        Object readData = null;
+
+        if (!isInited())
+            init();
+
+        try {
+            readData = compoundDatasetCommonIO(H5File.IO_TYPE.READ, null, selection);
+        }
+        catch (Exception ex) {
+            log.debug("read(Selection): failed to read compound dataset: ", ex);
+            throw new Exception("failed to read compound dataset: " + ex.getMessage(), ex);
+        }
+
+        return readData;
+    }
+
+    /**
+     * Writes the data points described by a selection to file with a single H5Dwrite call per member.
+     *
+     * The file space is set up the same way as for {@link #read(Selection)}; buf is the list of
+     * member arrays, each with one value for each selected point.
+     *
+     * @param selection
+     *            the data points to write.
+     * @param buf
+     *            the list of member arrays that contains the data values.
+     *
+     * @throws Exception
+     *             if the data can not be written
+     */
+    @Override
+    public void write(Selection selection, Object buf) throws Exception
+    {
+        if (this.getFileFormat().isReadOnly())
+            throw new Exception("cannot write to compound dataset in file opened as read-only");
+
+        if (!isInited())
+            init();
+
+        try {
+            compoundDatasetCommonIO(H5File.IO_TYPE.WRITE, buf, selection);
+        }
+        catch (Exception ex) {
+            log.debug("write(Selection): failed to write compound dataset: ", ex);
+            throw new Exception("failed to write compound dataset: " + ex.getMessage(), ex);
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see hdf.object.Dataset#canWriteSelection()
+     */
+    @Override
+    public boolean canWriteSelection()
+    {
+        return true;
+    }
+
     private Object compoundDatasetCommonIO(H5File.IO_TYPE ioType, Object writeBuf) throws Exception
+    {
+        return compoundDatasetCommonIO(ioType, writeBuf, null);
+    }
+
+    /*
+     * If selection is null, the current start, stride and count of the dataset are used.
+     */
+    private Object compoundDatasetCommonIO(H5File.IO_TYPE ioType, Object writeBuf, Selection selection)
+        throws Exception
     {
         H5Datatype dsDatatype = (H5Datatype)getDatatype();
         Object theData        = null;
@@ -886,10 +973,14 @@ public class H5CompoundDS extends CompoundDS implements MetaDataContainer {
             try {
                 /*
                  * NOTE: this call sets up a hyperslab selection in the file according to the
-                 * current selection in the dataset object.
+                 * current selection in the dataset object, or the given multi-region selection.
                  */
-                long totalSelectedSpacePoints = H5Utils.getTotalSelectedSpacePoints(
-                    did, dims, startDims, selectedStride, selectedDims, spaceIDs);
+                long totalSelectedSpacePoints;
+                if (selection != null)
+                    totalSelectedSpacePoints = H5Utils.getTotalSelectedSpacePoints(did, selection, spaceIDs);
+                else
+                    totalSelectedSpacePoints = H5Utils.getTotalSelectedSpacePoints(
+                        did, dims, startDims, selectedStride, selectedDims, spaceIDs);
 
                 theData = compoundTypeIO(ioType, did, spaceIDs, (int)totalSelectedSpacePoints, dsDatatype,
                                          writeBuf, new int[] {0});
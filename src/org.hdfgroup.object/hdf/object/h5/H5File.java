@@ -17,6 +17,7 @@ package hdf.object.h5;
 import java.io.File;
 import java.lang.reflect.Array;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.ArrayList;
 import java.util.Hashtable;
 import java.util.Iterator;
@@ -26,6 +27,7 @@ import java.util.Queue;
 import java.util.Vector;
 
 import hdf.object.Attribute;
+import hdf.object.DataBuffer;
 import hdf.object.Dataset;
 import hdf.object.Datatype;
 import hdf.object.FileFormat;
@@ -443,7 +445,43 @@ public class H5File extends FileFormat {
     public static final List<Attribute> getAttribute(HObject obj, int idx_type, int order)
         throws HDF5Exception
     {
-        log.trace("getAttribute(): start: obj={} idx_type={} order={}", obj, idx_type, order);
+        return H5File.getAttribute(obj, idx_type, order, Long.MAX_VALUE);
+    }
+
+    /**
+     * Returns a list of attributes for the specified object, in creation or
+     * alphabetical order, reading only the values of the small attributes.
+     *
+     * The name, datatype and dataspace of every attribute are always read. The
+     * value of an attribute is read only if its size in memory is not larger than
+     * prefetchSize; other values are read from the file the first time
+     * Attribute.getAttributeData() is called. Values of reference attributes are
+     * always read.
+     *
+     * @param obj
+     *            The HObject whose attributes are to be returned.
+     * @param idx_type
+     *            The type of index, H5_INDEX_NAME or H5_INDEX_CRT_ORDER.
+     * @param order
+     *            The index traversal order, H5_ITER_INC or H5_ITER_DEC.
+     * @param prefetchSize
+     *            The largest size in bytes of an attribute value to read now; 0
+     *            defers all of the values and Long.MAX_VALUE reads all of them.
+     *
+     * @return The list of the object's attributes.
+     *
+     * @throws HDF5Exception
+     *             If an underlying HDF library routine is unable to perform a step
+     *             necessary to retrieve the attributes. A variety of failures throw
+     *             this exception.
+     *
+     * @see #getAttribute(HObject,int,int)
+     */
+    public static final List<Attribute> getAttribute(HObject obj, int idx_type, int order, long prefetchSize)
+        throws HDF5Exception
+    {
+        log.trace("getAttribute(): start: obj={} idx_type={} order={} prefetchSize={}", obj, idx_type, order,
+                  prefetchSize);
         List<Attribute> attributeList = null;
         long objID                    = -1;
         long aid                      = -1;
@@ -553,6 +591,13 @@ public class H5File extends FileFormat {
                             continue;
                         }
 
+                        H5Datatype baseType = (H5Datatype)attrType.getDatatypeBase();
+                        boolean hasRef      = attrType.isRef() || ((baseType != null) && baseType.isRef());
+                        if (!hasRef && (lsize * attrType.getDatatypeSize() > prefetchSize)) {
+                            log.trace("getAttribute(): Attribute[{}] value deferred", i);
+                            continue;
+                        }
+
                         try {
                             // attr.AttributeCommonIO(aid, H5File.IO_TYPE.READ, null);
                             Object attrData = attr.getAttributeData();
@@ -1320,6 +1365,7 @@ public class H5File extends FileFormat {
                 }
             }
         }
+        H5MetaDataContainer.invalidate(this);
 
         // Close all open objects associated with this file.
         try {
@@ -3089,11 +3135,48 @@ public class H5File extends FileFormat {
     @Override
     public void exportDataset(String file_export_name, Dataset object, int binary_order) throws Exception
     {
+        // binary data of primitive types is streamed from the dataset in blocks by the Java library
+        if ((object instanceof ScalarDS) && (binary_order >= 1) && (binary_order <= 3) &&
+            (DataBuffer.getTypeClass(object.getDatatype()) != ' ')) {
+            exportBinary(file_export_name, (ScalarDS)object, binary_order);
+            return;
+        }
+
         long did = object.open();
         H5.H5export_dataset(file_export_name, did, object.getFullName(), binary_order);
         object.close(did);
     }
 
+    /**
+     * Exports the whole extent of a scalar dataset to a binary file with ScalarDS.exportBinary(),
+     * leaving the current selection of the dataset unchanged.
+     *
+     * @param file_export_name
+     *            The file name to export data into.
+     * @param dataset
+     *            The dataset to export.
+     * @param binary_order
+     *            The data byte order: 1 for native, 2 for little-endian and 3 for big-endian.
+     *
+     * @throws Exception
+     *            If there is a failure.
+     */
+    private static void exportBinary(String file_export_name, ScalarDS dataset, int binary_order)
+        throws Exception
+    {
+        ByteOrder order = ByteOrder.nativeOrder();
+        if (binary_order == 2)
+            order = ByteOrder.LITTLE_ENDIAN;
+        else if (binary_order == 3)
+            order = ByteOrder.BIG_ENDIAN;
+
+        if (!dataset.isInited())
+            dataset.init();
+
+        long[] dims = dataset.getDims();
+        dataset.exportBinary(new File(file_export_name), order, new long[dims.length], null, dims);
+    }
+
     /**
      * Renames an attribute.
      *
@@ -14,10 +14,14 @@
 
 package hdf.object.h5;
 
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Vector;
 
 import hdf.object.Attribute;
+import hdf.object.Datatype;
 import hdf.object.FileFormat;
 import hdf.object.HObject;
 import hdf.object.MetaDataContainer;
@@ -30,6 +34,14 @@ import org.slf4j.LoggerFactory;
  * attached to an object. For example, reading metadata content from the file
  * into memory or writing metadata content from memory into the file.
  *
+ * The attribute list of an object is read once and cached until it is
+ * invalidated by a change to the attributes of the object. The names, types and
+ * shapes of the attributes are read with the list, but only the values of small
+ * attributes are prefetched; larger values are read on first access. The total
+ * size of the cached attribute values of all objects is bounded: when the bound
+ * is exceeded, the attribute lists of the least recently used objects are
+ * dropped and read again when they are next needed.
+ *
  * @see hdf.object.HObject
  *
  * @version 2.0 4/2/2018
@@ -46,13 +58,34 @@ public class H5MetaDataContainer extends HObject implements MetaDataContainer {
     /**
      * The list of attributes of this data object. Members of the list are
      * instance of Attribute.
+     *
+     * The cache may set the list to null from another thread, so it is read
+     * once into a local variable before use.
      */
     @SuppressWarnings("rawtypes")
-    protected List attributeList;
+    protected volatile List attributeList;
 
     /** the number of attributes */
     private int nAttributes = -1;
 
+    /** The default limit on the total size of the cached attribute values. */
+    public static final long DEFAULT_CACHE_SIZE = 64L * 1024 * 1024;
+
+    /** The default largest size of an attribute value that is read with the attribute list. */
+    public static final long DEFAULT_PREFETCH_SIZE = 4096;
+
+    /** The containers with a cached attribute list, in least recently used order, and their sizes. */
+    private static final Map<H5MetaDataContainer, Long> cachedLists = new LinkedHashMap<>(64, 0.75f, true);
+
+    /** The total size of the attribute values of the cached lists. */
+    private static long cachedSize = 0;
+
+    /** The limit on the total size of the cached attribute values. */
+    private static long maxCacheSize = DEFAULT_CACHE_SIZE;
+
+    /** The largest size of an attribute value that is read with the attribute list. */
+    private static long prefetchSize = DEFAULT_PREFETCH_SIZE;
+
     /**
      * Constructs an HDF5 group with specific name, path, and parent.
      *
@@ -100,8 +133,196 @@ public class H5MetaDataContainer extends HObject implements MetaDataContainer {
     @Override
     public void clear()
     {
-        if (attributeList != null)
-            ((Vector)attributeList).setSize(0);
+        releaseCache(this);
+        List cached = attributeList;
+        if (cached != null)
+            ((Vector)cached).setSize(0);
+    }
+
+    /**
+     * Sets the limit on the total size of the attribute values cached for all objects.
+     *
+     * @param size
+     *            the limit in bytes.
+     */
+    public static void setMaxCacheSize(long size)
+    {
+        synchronized (cachedLists) {
+            maxCacheSize = size;
+            evict(null);
+        }
+    }
+
+    /**
+     * Returns the limit on the total size of the attribute values cached for all objects.
+     *
+     * @return the limit in bytes.
+     */
+    public static long getMaxCacheSize() { return maxCacheSize; }
+
+    /**
+     * Sets the largest size of an attribute value that is read from the file together with the
+     * attribute list. Larger values are read when the attribute data is first accessed.
+     *
+     * @param size
+     *            the size in bytes; 0 defers the reading of all values.
+     */
+    public static void setPrefetchSize(long size) { prefetchSize = size; }
+
+    /**
+     * Returns the largest size of an attribute value that is read together with the attribute list.
+     *
+     * @return the size in bytes.
+     */
+    public static long getPrefetchSize() { return prefetchSize; }
+
+    /**
+     * Drops the cached attribute lists of all of the objects of a file, e.g. when the file is closed.
+     *
+     * @param theFile
+     *            the file whose cached attribute lists are dropped.
+     */
+    public static void invalidate(FileFormat theFile)
+    {
+        synchronized (cachedLists) {
+            Iterator<Map.Entry<H5MetaDataContainer, Long>> it = cachedLists.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<H5MetaDataContainer, Long> entry = it.next();
+                H5MetaDataContainer container              = entry.getKey();
+                if (container.getFileFormat() == theFile) {
+                    cachedSize -= entry.getValue();
+                    container.attributeList = null;
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * Estimates the memory size of the values of a list of attributes.
+     *
+     * @param attrList
+     *            the list of attributes.
+     *
+     * @return the estimated size in bytes.
+     */
+    private static long estimateSize(List attrList)
+    {
+        long size = 0;
+        for (Object obj : attrList) {
+            Attribute attr = (Attribute)obj;
+            long nelems    = 1;
+            long[] dims    = attr.getAttributeDims();
+            if (dims != null) {
+                for (long dim : dims)
+                    nelems *= dim;
+            }
+
+            Datatype dtype = attr.getAttributeDatatype();
+            long tsize     = (dtype == null) ? 0 : dtype.getDatatypeSize();
+            size += Math.max(nelems * tsize, 0) + 256; // 256 bytes for the attribute header objects
+        }
+
+        return size;
+    }
+
+    /**
+     * Records the attribute list of a container in the cache and evicts the least recently used lists of
+     * other containers while the total size exceeds the limit.
+     *
+     * @param container
+     *            the container whose attribute list was read or changed.
+     */
+    private static void updateCache(H5MetaDataContainer container)
+    {
+        synchronized (cachedLists) {
+            Long oldSize = cachedLists.remove(container);
+            if (oldSize != null)
+                cachedSize -= oldSize;
+
+            List cached = container.attributeList;
+            if (cached != null) {
+                long size = estimateSize(cached);
+                cachedLists.put(container, size);
+                cachedSize += size;
+            }
+
+            evict(container);
+        }
+    }
+
+    /**
+     * Removes the attribute list of a container from the cache accounting.
+     *
+     * @param container
+     *            the container whose attribute list is released.
+     */
+    private static void releaseCache(H5MetaDataContainer container)
+    {
+        synchronized (cachedLists) {
+            Long oldSize = cachedLists.remove(container);
+            if (oldSize != null)
+                cachedSize -= oldSize;
+        }
+    }
+
+    /**
+     * Drops least recently used attribute lists until the total size is within the limit. Must be called
+     * while holding the cache lock.
+     *
+     * @param keep
+     *            a container whose list is not dropped, or null.
+     */
+    private static void evict(H5MetaDataContainer keep)
+    {
+        Iterator<Map.Entry<H5MetaDataContainer, Long>> it = cachedLists.entrySet().iterator();
+        while ((cachedSize > maxCacheSize) && it.hasNext()) {
+            Map.Entry<H5MetaDataContainer, Long> entry = it.next();
+            H5MetaDataContainer container              = entry.getKey();
+            if (container == keep)
+                continue;
+
+            log.trace("evict(): drop attribute list of {}", container.getFullName());
+            cachedSize -= entry.getValue();
+            container.attributeList = null;
+            it.remove();
+        }
+    }
+
+    /**
+     * Finds an attribute by name in an attribute list.
+     *
+     * The cached list may be dropped by another thread at any time, so callers read attributeList once
+     * into a local variable and pass that copy.
+     *
+     * @param attrList
+     *            the list of attributes, or null.
+     * @param name
+     *            the name of the attribute.
+     *
+     * @return the index of the attribute in the list, or -1 if it is not in the list.
+     */
+    private static int indexOfAttribute(List attrList, String name)
+    {
+        if ((attrList == null) || (name == null))
+            return -1;
+
+        for (int i = 0; i < attrList.size(); i++) {
+            if (name.equals(((Attribute)attrList.get(i)).getAttributeName()))
+                return i;
+        }
+
+        return -1;
+    }
+
+    /*
+     * Containers have no object ID of their own and are compared by identity, so
+     * they are hashed by identity as well.
+     */
+    @Override
+    public int hashCode()
+    {
+        return System.identityHashCode(this);
     }
 
     /**
@@ -179,9 +400,13 @@ public class H5MetaDataContainer extends HObject implements MetaDataContainer {
             log.debug("getMetadata(): getLinkTargetName failed: ", ex);
         }
 
-        if (attributeList != null) {
+        List cached = attributeList;
+        if (cached != null) {
             log.trace("getMetadata(): attributeList != null");
-            return attributeList;
+            synchronized (cachedLists) {
+                cachedLists.get(this); // mark as recently used
+            }
+            return cached;
         }
 
         int indxType = fileFormat.getIndexType(null);
@@ -192,14 +417,21 @@ public class H5MetaDataContainer extends HObject implements MetaDataContainer {
             if (attrPropList.length > 1)
                 order = attrPropList[1];
         }
+        List attrList = null;
         try {
-            attributeList = H5File.getAttribute(this.parentObject, indxType, order);
+            attrList = H5File.getAttribute(this.parentObject, indxType, order, prefetchSize);
         }
         catch (Exception ex) {
             log.debug("getMetadata(): H5File.getAttribute failure: ", ex);
         }
 
-        return attributeList;
+        attributeList = attrList;
+        if (attrList != null) {
+            nAttributes = attrList.size();
+            updateCache(this);
+        }
+
+        return attrList;
     }
 
     /**
@@ -231,17 +463,31 @@ public class H5MetaDataContainer extends HObject implements MetaDataContainer {
         Attribute attr      = (Attribute)metadata;
         log.trace("writeMetadata(): {}", attr.getAttributeName());
 
-        if (attributeList == null)
-            attributeList = ((MetaDataContainer)parentObject).getMetadata();
+        List attrList = attributeList;
+        if (attrList == null)
+            attrList = ((MetaDataContainer)parentObject).getMetadata();
 
-        if (attributeList != null)
-            attrExisted = attributeList.contains(attr);
+        // match by name, since the attribute may come from a list that was dropped from the cache
+        if (indexOfAttribute(attrList, attr.getAttributeName()) >= 0)
+            attrExisted = true;
+        else if (attrList != null)
+            attrExisted = attrList.contains(attr);
 
         getFileFormat().writeAttribute(this.parentObject, attr, attrExisted);
-        // add the new attribute into attribute list
-        if (!attrExisted) {
-            attributeList.add(attr);
-            nAttributes = attributeList.size();
+
+        List cached = attributeList;
+        if (cached != null) {
+            // add the new attribute into attribute list, or replace a stale copy of it
+            int idx = indexOfAttribute(cached, attr.getAttributeName());
+            if (idx >= 0)
+                cached.set(idx, attr);
+            else if (!attrExisted)
+                cached.add(attr);
+            nAttributes = cached.size();
+            updateCache(this);
+        }
+        else if (!attrExisted && (nAttributes >= 0)) {
+            nAttributes++;
         }
     }
 
@@ -262,9 +508,21 @@ public class H5MetaDataContainer extends HObject implements MetaDataContainer {
 
         Attribute attr = (Attribute)metadata;
         log.trace("removeMetadata(): {}", attr.getAttributeName());
-        List attrList = getMetadata();
-        attrList.remove(attr);
-        nAttributes = attributeList.size();
+
+        // only the cached list needs updating; there is no need to read it if it is not cached
+        List cached = attributeList;
+        if (cached != null) {
+            int idx = indexOfAttribute(cached, attr.getAttributeName());
+            if (idx >= 0)
+                cached.remove(idx);
+            else
+                cached.remove(attr);
+            nAttributes = cached.size();
+            updateCache(this);
+        }
+        else if (nAttributes > 0) {
+            nAttributes--;
+        }
     }
 
     /**
@@ -284,6 +542,14 @@ public class H5MetaDataContainer extends HObject implements MetaDataContainer {
             return;
         }
 
+        // the attribute may have been renamed in the file, so drop the cached list of
+        // this object only; the attributes of other objects stay cached
+        List cached = attributeList;
+        if ((cached != null) && cached.contains(metadata)) {
+            releaseCache(this);
+            attributeList = null;
+        }
+
         nAttributes = -1;
     }
 
@@ -29,6 +29,7 @@ import hdf.object.Group;
 import hdf.object.HObject;
 import hdf.object.MetaDataContainer;
 import hdf.object.ScalarDS;
+import hdf.object.Selection;
 import hdf.object.h5.H5Attribute;
 import hdf.object.h5.H5MetaDataContainer;
 import hdf.object.h5.H5ReferenceType;
@@ -901,7 +902,82 @@ public class H5ScalarDS extends ScalarDS implements MetaDataContainer {
         }
     }
 
+    /**
+     * Reads the data points described by a selection from file with a single H5Dread call.
+     *
+     * The selection can be a union of hyperslabs (H5S_SELECT_OR) or an explicit list of points
+     * (H5Sselect_elements). The data is read into a packed, one-dimensional buffer; use
+     * {@link Selection#getPoint(int)} to map buffer positions back to dataset coordinates.
+     *
+     * @param selection
+     *            the data points to read.
+     *
+     * @return the data read from file.
+     *
+     * @throws Exception
+     *             if the data can not be read
+     */
+    @Override
+    public Object read(Selection selection) throws Exception
+    {
+        Object readData = null;
+
+        if (!isInited())
+            init();
+
+        try {
+            readData = scalarDatasetCommonIO(H5File.IO_TYPE.READ, null, selection);
+        }
+        catch (Exception ex) {
+            log.debug("read(Selection): failed to read scalar dataset: ", ex);
+            throw new Exception("failed to read scalar dataset: " + ex.getMessage(), ex);
+        }
+
+        return readData;
+    }
+
+    /**
+     * Writes the data points described by a selection to file with a single H5Dwrite call.
+     *
+     * The file space is set up the same way as for {@link #read(Selection)}; buf is a packed,
+     * one-dimensional buffer with one value for each selected point.
+     *
+     * @param selection
+     *            the data points to write.
+     * @param buf
+     *            the packed buffer that contains the data values.
+     *
+     * @throws Exception
+     *             if the data can not be written
+     */
+    @Override
+    public void write(Selection selection, Object buf) throws Exception
+    {
+        if (this.getFileFormat().isReadOnly())
+            throw new Exception("cannot write to scalar dataset in file opened as read-only");
+
+        if (!isInited())
+            init();
+
+        try {
+            scalarDatasetCommonIO(H5File.IO_TYPE.WRITE, buf, selection);
+        }
+        catch (Exception ex) {
+            log.debug("write(Selection): failed to write to scalar dataset: ", ex);
+            throw new Exception("failed to write to scalar dataset: " + ex.getMessage(), ex);
+        }
+    }
+
     private Object scalarDatasetCommonIO(H5File.IO_TYPE ioType, Object writeBuf) throws Exception
+    {
+        return scalarDatasetCommonIO(ioType, writeBuf, null);
+    }
+
+    /*
+     * If selection is null, the current start, stride and count of the dataset are used.
+     */
+    private Object scalarDatasetCommonIO(H5File.IO_TYPE ioType, Object writeBuf, Selection selection)
+        throws Exception
     {
         H5Datatype dsDatatype     = (H5Datatype)getDatatype();
         H5Datatype dsBaseDatatype = (H5Datatype)getDatatype().getDatatypeBase();
@@ -928,10 +1004,14 @@ public class H5ScalarDS extends ScalarDS implements MetaDataContainer {
             try {
                 /*
                  * NOTE: this call sets up a hyperslab selection in the file according to the
-                 * current selection in the dataset object.
+                 * current selection in the dataset object, or the given multi-region selection.
                  */
-                long totalSelectedSpacePoints = H5Utils.getTotalSelectedSpacePoints(
-                    did, dims, startDims, selectedStride, selectedDims, spaceIDs);
+                long totalSelectedSpacePoints;
+                if (selection != null)
+                    totalSelectedSpacePoints = H5Utils.getTotalSelectedSpacePoints(did, selection, spaceIDs);
+                else
+                    totalSelectedSpacePoints = H5Utils.getTotalSelectedSpacePoints(
+                        did, dims, startDims, selectedStride, selectedDims, spaceIDs);
 
                 if (ioType == H5File.IO_TYPE.READ) {
                     log.trace(
@@ -952,7 +1032,8 @@ public class H5ScalarDS extends ScalarDS implements MetaDataContainer {
                         for (int j = 0; j < (int)totalSelectedSpacePoints; j++)
                             ((ArrayList[])theData)[j] = new ArrayList<byte[]>();
                     }
-                    else if ((originalBuf == null) || dsDatatype.isEnum() || dsDatatype.isText() ||
+                    else if ((originalBuf == null) || (selection != null) || dsDatatype.isEnum() ||
+                             dsDatatype.isText() ||
                              dsDatatype.isRefObj() ||
                              ((originalBuf != null) && (totalSelectedSpacePoints != nPoints))) {
                         try {
@@ -1083,10 +1164,12 @@ public class H5ScalarDS extends ScalarDS implements MetaDataContainer {
                         String cname = writeBuf.getClass().getName();
                         log.trace("scalarDatasetCommonIO(): cname={} of datatype size={}", cname, tsize);
                         char dname = cname.charAt(cname.lastIndexOf("[") + 1);
+                        // a packed selection buffer is independent of the dataset's own buffer, so
+                        // only its width tells whether it holds converted unsigned values
                         boolean doIntConversion =
                             (((tsize == 1) && (dname == 'S')) || ((tsize == 2) && (dname == 'I')) ||
                              ((tsize == 4) && (dname == 'J')) ||
-                             (dsDatatype.isUnsigned() && unsignedConverted));
+                             ((selection == null) && dsDatatype.isUnsigned() && unsignedConverted));
 
                         if (doIntConversion) {
                             log.trace(
@@ -2597,6 +2680,17 @@ public class H5ScalarDS extends ScalarDS implements MetaDataContainer {
         }
     }
 
+    /*
+     * (non-Javadoc)
+     *
+     * @see hdf.object.Dataset#canWriteSelection()
+     */
+    @Override
+    public boolean canWriteSelection()
+    {
+        return true;
+    }
+
     /*
      * (non-Javadoc)
      *
@@ -14,6 +14,8 @@
 
 package hdf.object.h5;
 
+import hdf.object.Selection;
+
 import hdf.hdf5lib.H5;
 import hdf.hdf5lib.HDF5Constants;
 import hdf.hdf5lib.exceptions.HDF5Exception;
@@ -157,4 +159,101 @@ public final class H5Utils {
 
         return totalSelectedSpacePoints;
     }
+
+    /**
+     * Set up a union of hyperslabs or a point selection within a dataset.
+     *
+     * The memory space is a one-dimensional dataspace with one element per selected point, so
+     * that all of the selected regions are read into or written from a packed buffer with a
+     * single H5Dread/H5Dwrite call.
+     *
+     * @param did
+     *            IN dataset ID
+     * @param selection
+     *            IN the hyperslabs or points to select
+     * @param spaceIDs
+     *            IN/OUT memory and file space IDs -- spaceIDs[0]=mspace, spaceIDs[1]=fspace
+     *
+     * @return total number of data points selected
+     *
+     * @throws HDF5Exception
+     *             If there is an error at the HDF5 library level.
+     */
+    public static final long selectRegions(long did, Selection selection, long[] spaceIDs)
+        throws HDF5Exception
+    {
+        if ((selection == null) || (selection.getSelectionType() == Selection.SELECT_NONE)) {
+            log.debug("selectRegions(): selection is null or empty");
+            return 0;
+        }
+
+        spaceIDs[1] = H5.H5Dget_space(did);
+
+        int rank = H5.H5Sget_simple_extent_ndims(spaceIDs[1]);
+        if (rank != selection.getRank()) {
+            log.debug("selectRegions(): selection rank didn't match dataset rank");
+            throw new HDF5Exception("Selection rank does not match dataset rank");
+        }
+
+        if (selection.getSelectionType() == Selection.SELECT_POINTS) {
+            long[][] coords = selection.getPointList();
+            log.trace("selectRegions(): selecting {} points", coords.length);
+            H5.H5Sselect_elements(spaceIDs[1], HDF5Constants.H5S_SELECT_SET, coords.length, coords);
+        }
+        else {
+            int op = HDF5Constants.H5S_SELECT_SET;
+            for (long[][] slab : selection.getHyperslabs()) {
+                H5.H5Sselect_hyperslab(spaceIDs[1], op, slab[0], slab[1], slab[2], null);
+                op = HDF5Constants.H5S_SELECT_OR;
+            }
+            log.trace("selectRegions(): selected union of {} hyperslabs", selection.getHyperslabs().size());
+        }
+
+        long npoints = H5.H5Sget_select_npoints(spaceIDs[1]);
+        if (npoints > Integer.MAX_VALUE) {
+            log.debug("selectRegions(): {} points selected", npoints);
+            throw new HDF5Exception("Selection is too large: " + npoints + " points");
+        }
+
+        spaceIDs[0] = H5.H5Screate_simple(1, new long[] {npoints}, null);
+
+        return npoints;
+    }
+
+    /**
+     * Get the total number of datapoints for a union of hyperslabs or a point selection within a dataset.
+     *
+     * @param did
+     *            IN dataset ID
+     * @param selection
+     *            IN the hyperslabs or points to select
+     * @param spaceIDs
+     *            IN/OUT memory and file space IDs -- spaceIDs[0]=mspace, spaceIDs[1]=fspace
+     *
+     * @return total number of data points selected
+     *
+     * @throws HDF5Exception
+     *             If there is an error at the HDF5 library level.
+     */
+    public static final long getTotalSelectedSpacePoints(long did, Selection selection, long[] spaceIDs)
+        throws HDF5Exception
+    {
+        long totalSelectedSpacePoints = selectRegions(did, selection, spaceIDs);
+
+        log.trace("getTotalSelectedSpacePoints(): selected {} points in dataset's dataspace",
+                  totalSelectedSpacePoints);
+
+        if (totalSelectedSpacePoints == 0) {
+            log.debug("getTotalSelectedSpacePoints(): No data to read. Selection is empty.");
+            throw new HDF5Exception("No data to read.\nThe selection is empty.");
+        }
+
+        if (totalSelectedSpacePoints > Integer.MAX_VALUE) {
+            log.debug(
+                "getTotalSelectedSpacePoints(): totalSelectedSpacePoints outside valid Java int range; unsafe cast");
+            throw new HDF5Exception("Invalid int size");
+        }
+
+        return totalSelectedSpacePoints;
+    }
 }
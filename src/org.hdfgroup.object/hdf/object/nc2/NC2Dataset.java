@@ -14,6 +14,7 @@
 
 package hdf.object.nc2;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Vector;
 
@@ -29,6 +30,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import ucar.ma2.DataType;
+import ucar.ma2.Range;
+import ucar.ma2.Section;
 import ucar.nc2.Variable;
 
 /**
@@ -64,6 +67,12 @@ public class NC2Dataset extends ScalarDS implements MetaDataContainer {
     /** the native dataset */
     private Variable nativeDataset;
 
+    /**
+     * The largest variable, in bytes, that is read whole and subset in memory when the
+     * library can not read the selected subset directly.
+     */
+    private static final long MAX_FALLBACK_READ_SIZE = 16L * 1024 * 1024;
+
     /**
      * Constructs an NC2Dataset object with specific netcdf variable.
      *
@@ -81,6 +90,25 @@ public class NC2Dataset extends ScalarDS implements MetaDataContainer {
         nativeDataset     = ncDataset;
     }
 
+    /**
+     * Constructs an NC2Dataset object with specific netcdf variable in a group.
+     *
+     * @param fileFormat
+     *            the netcdf file.
+     * @param ncDataset
+     *            the netcdf variable.
+     * @param path
+     *            the full path of the group of the variable.
+     * @param oid
+     *            the unique identifier of this data object.
+     */
+    public NC2Dataset(FileFormat fileFormat, Variable ncDataset, String path, long[] oid)
+    {
+        super(fileFormat, ncDataset.getShortName(), path, oid);
+        unsignedConverted = false;
+        nativeDataset     = ncDataset;
+    }
+
     /**
      * Check if the object has any attributes attached.
      *
@@ -131,37 +159,64 @@ public class NC2Dataset extends ScalarDS implements MetaDataContainer {
     @Override
     public Object read() throws Exception
     {
-        Object theData = null;
-
         if (nativeDataset == null)
             return null;
 
-        int[] origin = new int[rank];
-        int[] shape  = new int[rank];
+        return readSection(startDims, selectedStride, selectedDims);
+    }
 
-        for (int i = 0; i < rank; i++) {
-            origin[i] = (int)startDims[i];
-            shape[i]  = (int)selectedDims[i];
-            log.trace("read(): origin-shape [{}]={}-{}", i, origin[i], shape[i]);
-        }
+    /**
+     * Reads the hyperslab of the given start, stride and count; a null stride means a stride of 1.
+     */
+    private Object readSection(long[] slabStart, long[] slabStride, long[] slabCount) throws Exception
+    {
+        Object theData = null;
 
         ucar.ma2.Array ncArray = null;
 
-        try {
-            ncArray = nativeDataset.read(origin, shape);
-        }
-        catch (Exception ex) {
+        if (nativeDataset.getRank() == 0) {
+            // a scalar data point
             ncArray = nativeDataset.read();
         }
-        Object oneD = ncArray.copyTo1DJavaArray();
+        else {
+            // only the selected, possibly subsampled, points are read; selectedDims is the number of
+            // points, not the extent that Section(origin, shape, stride) expects
+            List<Range> ranges = new ArrayList<>(rank);
+            for (int i = 0; i < rank; i++) {
+                int origin = (int)slabStart[i];
+                int count  = (int)slabCount[i];
+                int stride = (slabStride == null) ? 1 : (int)slabStride[i];
+                log.trace("read(): origin-count-stride [{}]={}-{}-{}", i, origin, count, stride);
+                ranges.add(new Range(origin, origin + (count - 1) * stride, stride));
+            }
+
+            Section section = new Section(ranges);
+
+            try {
+                ncArray = nativeDataset.read(section);
+            }
+            catch (Exception ex) {
+                long size = nativeDataset.getSize() * nativeDataset.getElementSize();
+                if (size > MAX_FALLBACK_READ_SIZE) {
+                    log.debug("read(): subset read failed: ", ex);
+                    throw ex;
+                }
+
+                log.debug("read(): subset read failed, subsetting the whole variable: ", ex);
+                ncArray = nativeDataset.read().section(section.getRanges());
+            }
+        }
+
+        // the storage of a newly read array is used directly; a sectioned array is copied
+        Object oneD = ncArray.get1DJavaArray(ncArray.getElementType());
 
         if (oneD == null)
             return null;
 
         if (oneD.getClass().getName().startsWith("[C")) {
             char[] charA = (char[])oneD;
-            int nCols    = (int)getWidth();
-            int nRows    = (int)getHeight();
+            int nCols    = (rank > 1) ? (int)slabCount[selectedIndex[1]] : 1;
+            int nRows    = (rank > 0) ? (int)slabCount[selectedIndex[0]] : 0;
 
             String[] strA = new String[nRows];
             String allStr = new String(charA);
@@ -180,6 +235,35 @@ public class NC2Dataset extends ScalarDS implements MetaDataContainer {
         return theData;
     }
 
+    /**
+     * Reads a block of records for blockIterator(). When the whole of each record is selected,
+     * the records of a record variable are read through the record structure of the file;
+     * otherwise the block is read as a section of the variable. The current selection of the
+     * dataset is neither used nor changed.
+     */
+    @Override
+    protected Object readBlock(long[] start, long[] stride, long[] count) throws Exception
+    {
+        boolean wholeRecords = !isScalar && nativeDataset.isUnlimited() &&
+                               nativeDataset.getDataType().isNumeric() && (stride[0] == 1);
+        for (int i = 1; wholeRecords && (i < rank); i++)
+            wholeRecords = (start[i] == 0) && (count[i] == dims[i]) && (stride[i] == 1);
+
+        if (!wholeRecords)
+            return readSection(start, stride, count);
+
+        List<NC2Dataset> datasets = new Vector<>(1);
+        datasets.add(this);
+        return ((NC2File)getFileFormat()).readRecords(datasets, start[0], (int)count[0]).get(0);
+    }
+
+    /**
+     * Returns the netcdf variable of this dataset.
+     *
+     * @return the netcdf variable.
+     */
+    public Variable getNativeDataset() { return nativeDataset; }
+
     // Implementing DataFormat
     /**
      * Writes a memory buffer to the object in the file.
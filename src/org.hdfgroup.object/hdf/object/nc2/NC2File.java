@@ -19,6 +19,7 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Queue;
 import java.util.Vector;
 
@@ -32,7 +33,9 @@ import hdf.object.HObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import ucar.ma2.Section;
 import ucar.nc2.NetcdfFile;
+import ucar.nc2.Structure;
 import ucar.nc2.Variable;
 import ucar.nc2.iosp.netcdf3.N3header;
 
@@ -63,6 +66,12 @@ public class NC2File extends FileFormat {
     /** the netcdf file */
     private NetcdfFile ncFile;
 
+    /** the structure of the records of the unlimited dimension, created when first needed */
+    private Structure recordStructure;
+
+    /** true once the record structure has been requested from the netcdf library */
+    private boolean recordStructureRequested = false;
+
     private static boolean isFileOpen;
 
     /**
@@ -184,28 +193,23 @@ public class NC2File extends FileFormat {
         return 0;
     }
 
+    /**
+     * Creates the root group of the file. The groups and variables of the file are
+     * created as NC2Group and NC2Dataset objects only when the members of their parent
+     * group are first requested, and their attributes only when their metadata is
+     * requested.
+     */
     private HObject loadTree()
     {
         long[] oid = {0};
-        // root object does not have a parent path or a parent node
-        NC2Group rootGroup = new NC2Group(this, "/", null, null, oid);
 
         if (ncFile == null) {
-            return rootGroup;
+            // root object does not have a parent path or a parent node
+            return new NC2Group(this, "/", null, null, oid);
         }
 
-        log.trace("loadTree(): iterate members");
-        Iterator it        = ncFile.getVariables().iterator();
-        Variable ncDataset = null;
-        NC2Dataset d       = null;
-        while (it.hasNext()) {
-            ncDataset = (Variable)it.next();
-            oid[0]    = ncDataset.hashCode();
-            d         = new NC2Dataset(this, ncDataset, oid);
-            rootGroup.addToMemberList(d);
-        }
-
-        return rootGroup;
+        log.trace("loadTree(): root group with lazily loaded members");
+        return new NC2Group(this, ncFile.getRootGroup(), null, null, oid);
     }
 
     // Implementing FileFormat
@@ -235,6 +239,154 @@ public class NC2File extends FileFormat {
      */
     public NetcdfFile getNetcdfFile() { return ncFile; }
 
+    /**
+     * Returns an iterator that reads the records of several variables along the unlimited
+     * dimension in blocks.
+     *
+     * Each call to next() reads recordsPerBlock records, starting at record start, and returns
+     * one one-dimensional primitive array per dataset, in the order of the datasets, holding the
+     * whole of each record of that variable. In a NetCDF-3 file the records of all the record
+     * variables are stored interleaved, so all of the variables are read from one contiguous
+     * range of the file in a single read per block instead of one scattered read per variable.
+     * For other files, or variables that are not record variables, each variable is read
+     * separately.
+     *
+     * Errors are thrown from next() as an IllegalStateException with the original exception as
+     * its cause.
+     *
+     * @param datasets
+     *            the variables to read; the first dimension of each must have at least
+     *            start+count indices.
+     * @param start
+     *            the index of the first record to read.
+     * @param count
+     *            the number of records to read.
+     * @param recordsPerBlock
+     *            the number of records read by each call to next().
+     *
+     * @return the iterator over the blocks of records.
+     */
+    public Iterator<List<Object>> recordIterator(final List<NC2Dataset> datasets, final long start,
+                                                 final long count, final int recordsPerBlock)
+    {
+        if (recordsPerBlock <= 0)
+            throw new IllegalArgumentException("recordsPerBlock must be positive");
+
+        return new Iterator<List<Object>>() {
+            private long done = 0;
+
+            @Override
+            public boolean hasNext()
+            {
+                return done < count;
+            }
+
+            @Override
+            public List<Object> next()
+            {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+
+                int n = (int)Math.min(recordsPerBlock, count - done);
+                List<Object> block;
+                try {
+                    block = readRecords(datasets, start + done, n);
+                }
+                catch (Exception ex) {
+                    log.debug("recordIterator(): failed to read records at {}: ", start + done, ex);
+                    throw new IllegalStateException(ex.getMessage(), ex);
+                }
+                done += n;
+
+                return block;
+            }
+        };
+    }
+
+    /**
+     * Reads count whole records of several variables, starting at record start.
+     *
+     * @param datasets
+     *            the variables to read.
+     * @param start
+     *            the index of the first record to read.
+     * @param count
+     *            the number of records to read.
+     *
+     * @return one one-dimensional primitive array per dataset.
+     *
+     * @throws Exception
+     *             if the records can not be read
+     */
+    List<Object> readRecords(List<NC2Dataset> datasets, long start, int count) throws Exception
+    {
+        List<Object> blocks = new ArrayList<>(datasets.size());
+
+        ucar.ma2.ArrayStructure records = null;
+        Structure record = getRecordStructure();
+        if (record != null) {
+            for (NC2Dataset d : datasets) {
+                if (!d.getNativeDataset().isUnlimited()) {
+                    record = null;
+                    break;
+                }
+            }
+        }
+
+        if (record != null) {
+            log.trace("readRecords(): records [{}, {}) of {} variables", start, start + count, datasets.size());
+            records = (ucar.ma2.ArrayStructure)record.read(new Section(new int[] {(int)start}, new int[] {count}));
+        }
+
+        for (NC2Dataset d : datasets) {
+            Variable v = d.getNativeDataset();
+            ucar.ma2.Array ncArray;
+            if (records != null) {
+                ncArray = records.extractMemberArray(records.findMember(v.getShortName()));
+            }
+            else {
+                int[] origin = new int[v.getRank()];
+                int[] shape  = v.getShape();
+                origin[0]    = (int)start;
+                shape[0]     = count;
+                ncArray      = v.read(new Section(origin, shape));
+            }
+            blocks.add(ncArray.get1DJavaArray(ncArray.getElementType()));
+        }
+
+        return blocks;
+    }
+
+    /**
+     * Checks if a variable is the record structure added by getRecordStructure().
+     */
+    boolean isRecordStructure(Variable v) { return (recordStructure != null) && (v == recordStructure); }
+
+    /**
+     * Returns the structure of the records of the unlimited dimension of a NetCDF-3 file,
+     * or null if the file has no such structure.
+     */
+    Structure getRecordStructure()
+    {
+        if (!recordStructureRequested && (ncFile != null) && ncFile.hasUnlimitedDimension()) {
+            recordStructureRequested = true;
+            try {
+                Object added = ncFile.sendIospMessage(NetcdfFile.IOSP_MESSAGE_ADD_RECORD_STRUCTURE);
+                if (Boolean.TRUE.equals(added)) {
+                    Variable v = ncFile.getRootGroup().findVariable("record");
+                    if (v instanceof Structure)
+                        recordStructure = (Structure)v;
+                }
+            }
+            catch (Exception ex) {
+                log.debug("getRecordStructure(): failure: ", ex);
+            }
+            log.trace("getRecordStructure(): recordStructure={}", recordStructure);
+        }
+
+        return recordStructure;
+    }
+
     @Override
     public Group createGroup(String name, Group pgroup) throws Exception
     {
@@ -20,11 +20,13 @@ import java.util.Vector;
 
 import hdf.object.FileFormat;
 import hdf.object.Group;
+import hdf.object.HObject;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import ucar.nc2.NetcdfFile;
+import ucar.nc2.Variable;
 
 /**
  * An NC2Group represents NetCDF3 group, inheriting from Group. Every NetCDF3 object
@@ -80,6 +82,9 @@ public class NC2Group extends Group {
     /** The default object ID for NC2 objects */
     private static final long[] DEFAULT_OID = {0};
 
+    /** false if the members of this group are to be created from the netcdf group when first requested */
+    private boolean membersLoaded = true;
+
     /**
      * Constructs an NC2 group with specific name, path, and parent.
      *
@@ -104,6 +109,77 @@ public class NC2Group extends Group {
         log.trace("NC2Group:{}", name);
     }
 
+    /**
+     * Constructs an NC2 group for an existing netcdf group of the file. The members of the
+     * group are created from the netcdf group the first time they are requested.
+     *
+     * @param fileFormat
+     *            the file which containing the group.
+     * @param ncGroup
+     *            the netcdf group.
+     * @param path
+     *            the full path of this group.
+     * @param parent
+     *            the parent of this group.
+     * @param theID
+     *            the unique identifier of this data object.
+     */
+    public NC2Group(FileFormat fileFormat, ucar.nc2.Group ncGroup, String path, Group parent, long[] theID)
+    {
+        super(fileFormat, ((parent == null) ? "/" : ncGroup.getShortName()), path, parent,
+              ((theID == null) ? DEFAULT_OID : theID));
+        netCDFGroup   = ncGroup;
+        membersLoaded = false;
+        log.trace("NC2Group:{}", getName());
+    }
+
+    /**
+     * Returns the list of members of this group. For a group of the file, the
+     * members are created from its netcdf group the first time this is called.
+     *
+     * @return the list of members of this group.
+     */
+    @Override
+    public List<HObject> getMemberList()
+    {
+        if (!membersLoaded) {
+            membersLoaded = true;
+            // create the member list so that a group without members is not searched for from the root
+            addToMemberList(null);
+            loadMembers();
+        }
+
+        return super.getMemberList();
+    }
+
+    /**
+     * Creates the child groups and the datasets of this group from its netcdf group.
+     * The members of the child groups are created when they are requested.
+     */
+    private void loadMembers()
+    {
+        String fullPath = isRoot() ? HObject.SEPARATOR : getPath() + getName() + HObject.SEPARATOR;
+
+        List<ucar.nc2.Group> ncGroups = netCDFGroup.getGroups();
+        log.trace("loadMembers(): {} groups in {}", ncGroups.size(), fullPath);
+        for (ucar.nc2.Group ncGroup : ncGroups) {
+            long[] oid = {ncGroup.hashCode()};
+            addToMemberList(new NC2Group(getFileFormat(), ncGroup, fullPath, this, oid));
+        }
+
+        List<Variable> ncVariables = netCDFGroup.getVariables();
+        log.trace("loadMembers(): {} variables in {}", ncVariables.size(), fullPath);
+        NC2File theFile = (NC2File)getFileFormat();
+        for (Variable ncVariable : ncVariables) {
+            // the record structure is added by the file for reading records, it is not a variable of the file
+            if (theFile.isRecordStructure(ncVariable))
+                continue;
+
+            long[] oid = {ncVariable.hashCode()};
+            addToMemberList(new NC2Dataset(getFileFormat(), ncVariable, fullPath, oid));
+        }
+    }
+
     /**
      * Check if the object has any attributes attached.
      *
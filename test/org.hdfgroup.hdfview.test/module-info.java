@@ -2,6 +2,7 @@
 module org.hdfgroup.hdfview.test
 {
     requires org.hdfgroup.hdfview;
+    requires org.hdfgroup.object;
     requires org.eclipse.swtbot;
     requires org.eclipse.swtbot.nebula.nattable.finder;
     requires org.eclipse.swtbot.swt.finder;
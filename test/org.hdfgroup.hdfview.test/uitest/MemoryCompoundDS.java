@@ -0,0 +1,208 @@
+package uitest;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.List;
+
+import hdf.object.CompoundDS;
+import hdf.object.Dataset;
+import hdf.object.Datatype;
+import hdf.object.Group;
+import hdf.object.Selection;
+
+import uitest.MemoryScalarDS.MemoryType;
+
+/**
+ * A compound dataset held in memory, whose members are int, double or fixed-length string values or
+ * arrays of int or double values, which is read and written through selections like MemoryScalarDS.
+ */
+public class MemoryCompoundDS extends CompoundDS {
+    private static final long serialVersionUID = 1L;
+
+    /** The size in bytes of the fixed-length string members. */
+    public static final int STRING_SIZE = 8;
+
+    /** The values of each member for all of the records in row-major order. */
+    private final Object[] values;
+
+    /**
+     * Creates a dataset of the given members; the selection is the whole dataset and all of the
+     * members are selected.
+     *
+     * @param dims
+     *            the dimension sizes.
+     * @param names
+     *            the names of the members.
+     * @param orders
+     *            the number of values of each member in a record; a member with more than one is an
+     *            array member.
+     * @param values
+     *            the values of each member for all of the records in row-major order, an int[],
+     *            double[] or String[] with orders[i] values for each record.
+     */
+    public MemoryCompoundDS(long[] dims, String[] names, int[] orders, Object[] values) throws Exception
+    {
+        super(null, "compound", "/");
+        this.values      = values;
+        rank             = dims.length;
+        this.dims        = dims.clone();
+        maxDims          = dims.clone();
+        startDims        = new long[rank];
+        selectedDims     = dims.clone();
+        numberOfMembers  = names.length;
+        memberNames      = names.clone();
+        memberOrders     = orders.clone();
+        memberTypes      = new Datatype[numberOfMembers];
+        isMemberSelected = new boolean[numberOfMembers];
+
+        int itemSize = 0;
+        for (int i = 0; i < numberOfMembers; i++) {
+            Datatype type;
+            if (values[i] instanceof String[])
+                type = new MemoryType(Datatype.CLASS_STRING, STRING_SIZE, Datatype.NATIVE, null);
+            else
+                type = new MemoryType(values[i], false);
+            int size = (int)type.getDatatypeSize();
+            if (orders[i] > 1)
+                type = new MemoryType(Datatype.CLASS_ARRAY, orders[i] * size, Datatype.NATIVE, type);
+
+            memberTypes[i]      = type;
+            isMemberSelected[i] = true;
+            itemSize += orders[i] * size;
+        }
+
+        datatype = new MemoryType(Datatype.CLASS_COMPOUND, itemSize, Datatype.NATIVE, null);
+        inited   = true;
+    }
+
+    /**
+     * Returns the values of a member for all of the records.
+     *
+     * @param member
+     *            the index of the member.
+     *
+     * @return the array given to the constructor, with any values written since.
+     */
+    public Object getValues(int member) { return values[member]; }
+
+    /**
+     * Sets the number of indices of the first dimension read and written at a time by
+     * blockIterator(0) and the classes which transfer a whole dataset, as for a chunked dataset.
+     *
+     * @param blockSize
+     *            the number of indices of the first dimension in each block.
+     */
+    public void setBlockSize(long blockSize)
+    {
+        chunkSize    = dims.clone();
+        chunkSize[0] = blockSize;
+    }
+
+    @Override
+    public void init()
+    {
+    }
+
+    @Override
+    public Object read() throws Exception
+    {
+        return read(new Selection(dims).addHyperslab(startDims, getStride(), selectedDims));
+    }
+
+    /**
+     * Reads the selected members of the data points of a selection.
+     *
+     * @return the list of the arrays of the selected members, with one record for each point.
+     */
+    @Override
+    public Object read(Selection selection) throws Exception
+    {
+        int n             = selection.getNumberOfPoints();
+        List<Object> list = new ArrayList<>();
+        for (int m = 0; m < numberOfMembers; m++) {
+            if (!isMemberSelected[m])
+                continue;
+
+            int order  = memberOrders[m];
+            Object buf = Array.newInstance(values[m].getClass().getComponentType(), n * order);
+            for (int i = 0; i < n; i++)
+                System.arraycopy(values[m], indexOf(selection.getPoint(i)) * order, buf, i * order, order);
+            list.add(buf);
+        }
+
+        return list;
+    }
+
+    @Override
+    public void write(Selection selection, Object buf) throws Exception
+    {
+        List<?> list = (List<?>)buf;
+        int n        = selection.getNumberOfPoints();
+        int idx      = 0;
+        for (int m = 0; m < numberOfMembers; m++) {
+            if (!isMemberSelected[m])
+                continue;
+
+            int order     = memberOrders[m];
+            Object member = list.get(idx++);
+            for (int i = 0; i < n; i++)
+                System.arraycopy(member, i * order, values[m], indexOf(selection.getPoint(i)) * order, order);
+        }
+    }
+
+    @Override
+    public boolean canWriteSelection()
+    {
+        return true;
+    }
+
+    private int indexOf(long[] point)
+    {
+        long index = 0;
+        for (int i = 0; i < rank; i++)
+            index = index * dims[i] + point[i];
+
+        return (int)index;
+    }
+
+    @Override
+    public void write(Object buf) throws Exception
+    {
+        write(new Selection(dims).addHyperslab(startDims, getStride(), selectedDims), buf);
+    }
+
+    @Override
+    public Object convertFromUnsignedC()
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Object convertToUnsignedC()
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public byte[] readBytes()
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Dataset copy(Group pgroup, String name, long[] dims, Object data)
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public long open()
+    {
+        return -1;
+    }
+
+    @Override
+    public void close(long id)
+    {
+    }
+}
@@ -0,0 +1,229 @@
+package uitest;
+
+import java.lang.reflect.Array;
+
+import hdf.object.Dataset;
+import hdf.object.Datatype;
+import hdf.object.Group;
+import hdf.object.ScalarDS;
+import hdf.object.Selection;
+
+/**
+ * A scalar dataset of int, long, float or double values held in memory, which is read and written through
+ * selections, for the tests of the classes that move data between a dataset and another file.
+ * Selection reads and writes can be turned off to test the paths used for formats without them.
+ */
+public class MemoryScalarDS extends ScalarDS {
+    private static final long serialVersionUID = 1L;
+
+    /** The values of all of the data points in row-major order, an int[], long[], float[] or double[]. */
+    private final Object values;
+
+    /** Whether read(Selection) and write(Selection, Object) are supported. */
+    private boolean selectionIO = true;
+
+    /**
+     * Creates a dataset of the given values; the selection is the whole dataset.
+     *
+     * @param dims
+     *            the dimension sizes.
+     * @param values
+     *            the values of all of the data points in row-major order, an int[], long[], float[]
+     *            or double[].
+     */
+    public MemoryScalarDS(long[] dims, Object values) throws Exception
+    {
+        this(dims, values, false);
+    }
+
+    /**
+     * Creates a dataset of the given values; the selection is the whole dataset.
+     *
+     * @param dims
+     *            the dimension sizes.
+     * @param values
+     *            the values of all of the data points in row-major order, an int[], long[], float[]
+     *            or double[].
+     * @param unsigned
+     *            true if integer values are unsigned, e.g. a long[] holds unsigned 64-bit values.
+     */
+    public MemoryScalarDS(long[] dims, Object values, boolean unsigned) throws Exception
+    {
+        super(null, "memory", "/");
+        this.values  = values;
+        rank         = dims.length;
+        this.dims    = dims.clone();
+        maxDims      = dims.clone();
+        startDims    = new long[rank];
+        selectedDims = dims.clone();
+        datatype     = new MemoryType(values, unsigned);
+        inited       = true;
+    }
+
+    /**
+     * Returns the values of all of the data points.
+     *
+     * @return the array given to the constructor, with any values written since.
+     */
+    public Object getValues() { return values; }
+
+    /**
+     * Turns read(Selection) and write(Selection, Object) on or off; read() and write(Object) use the
+     * current selection either way.
+     *
+     * @param selectionIO
+     *            false if the selection methods throw UnsupportedOperationException, as they do for
+     *            formats without them.
+     */
+    public void setSelectionIO(boolean selectionIO) { this.selectionIO = selectionIO; }
+
+    @Override
+    public void init()
+    {
+    }
+
+    @Override
+    public Object read() throws Exception
+    {
+        return readPoints(currentSelection());
+    }
+
+    @Override
+    public Object read(Selection selection) throws Exception
+    {
+        if (!selectionIO)
+            return super.read(selection);
+
+        return readPoints(selection);
+    }
+
+    private Object readPoints(Selection selection)
+    {
+        int n      = selection.getNumberOfPoints();
+        Object buf = Array.newInstance(values.getClass().getComponentType(), n);
+        for (int i = 0; i < n; i++)
+            System.arraycopy(values, indexOf(selection.getPoint(i)), buf, i, 1);
+
+        return buf;
+    }
+
+    @Override
+    public void write(Selection selection, Object buf) throws Exception
+    {
+        if (!selectionIO) {
+            super.write(selection, buf);
+            return;
+        }
+
+        writePoints(selection, buf);
+    }
+
+    private void writePoints(Selection selection, Object buf)
+    {
+        int n = selection.getNumberOfPoints();
+        for (int i = 0; i < n; i++)
+            System.arraycopy(buf, i, values, indexOf(selection.getPoint(i)), 1);
+    }
+
+    @Override
+    public boolean canWriteSelection()
+    {
+        return selectionIO;
+    }
+
+    private Selection currentSelection()
+    {
+        return new Selection(dims).addHyperslab(startDims, getStride(), selectedDims);
+    }
+
+    private int indexOf(long[] point)
+    {
+        long index = 0;
+        for (int i = 0; i < rank; i++)
+            index = index * dims[i] + point[i];
+
+        return (int)index;
+    }
+
+    @Override
+    public void write(Object buf)
+    {
+        writePoints(currentSelection(), buf);
+    }
+
+    @Override
+    public byte[] readBytes()
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Dataset copy(Group pgroup, String name, long[] dims, Object data)
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public long open()
+    {
+        return -1;
+    }
+
+    @Override
+    public void close(long id)
+    {
+    }
+
+    /**
+     * A datatype of values held in memory, such as the native 32-bit or 64-bit integer or 32-bit or
+     * 64-bit floating-point type of the values of a MemoryScalarDS.
+     */
+    static final class MemoryType extends Datatype {
+        private static final long serialVersionUID = 1L;
+
+        MemoryType(Object values, boolean unsigned) throws Exception
+        {
+            this(isInteger(values) ? CLASS_INTEGER : CLASS_FLOAT,
+                 ((values instanceof long[]) || (values instanceof double[])) ? 8 : 4,
+                 isInteger(values) ? (unsigned ? SIGN_NONE : SIGN_2) : NATIVE, null);
+        }
+
+        MemoryType(int tclass, int tsize, int tsign, Datatype tbase) throws Exception
+        {
+            super(tclass, tsize, NATIVE, tsign, tbase);
+        }
+
+        private static boolean isInteger(Object values)
+        {
+            return (values instanceof int[]) || (values instanceof long[]);
+        }
+
+        @Override
+        public boolean isText()
+        {
+            return false;
+        }
+
+        @Override
+        public long createNative()
+        {
+            return -1;
+        }
+
+        @Override
+        public void fromNative(long nativeID)
+        {
+        }
+
+        @Override
+        public void close(long id)
+        {
+        }
+
+        @Override
+        public boolean hasAttribute()
+        {
+            return false;
+        }
+    }
+}
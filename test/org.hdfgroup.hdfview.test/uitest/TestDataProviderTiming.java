@@ -0,0 +1,149 @@
+package uitest;
+
+import static org.junit.Assert.assertEquals;
+
+import java.lang.reflect.Array;
+import java.math.BigInteger;
+
+import hdf.view.TableView.DataProviderFactory;
+import hdf.view.TableView.DataProviderFactory.HDFDataProvider;
+
+import org.junit.Test;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Times the per-cell value lookups of the table data providers against the lookup they replaced, which
+ * branched on the table layout, formatted trace messages and read the buffer with Array.get() for every
+ * cell, and converted unsigned 64-bit values through decimal strings.
+ *
+ * The timings are printed rather than asserted, since they depend on the machine; the values of both
+ * lookups must be the same.
+ */
+public class TestDataProviderTiming {
+    private static final Logger log = LoggerFactory.getLogger(TestDataProviderTiming.class);
+
+    private static final int ROWS = 1000;
+
+    private static final int COLS = 500;
+
+    private static final int PASSES = 20;
+
+    /** A table of doubles, read from the buffer in row-major and in column-major order. */
+    @Test
+    public void testDoubleLookups() throws Exception
+    {
+        double[] values = new double[ROWS * COLS];
+        for (int i = 0; i < values.length; i++)
+            values[i] = i * 0.5;
+
+        for (boolean transposed : new boolean[] {false, true})
+            compare("double" + (transposed ? " transposed" : ""), values, false, transposed);
+    }
+
+    /** A table of unsigned 64-bit integers, half of them above Long.MAX_VALUE. */
+    @Test
+    public void testUnsignedLongLookups() throws Exception
+    {
+        long[] values = new long[ROWS * COLS];
+        for (int i = 0; i < values.length; i++)
+            values[i] = (i % 2 == 0) ? i : -i;
+
+        compare("uint64", values, true, false);
+    }
+
+    private static void compare(String name, Object values, boolean unsigned, boolean transposed)
+        throws Exception
+    {
+        MemoryScalarDS dset = new MemoryScalarDS(new long[] {ROWS, COLS}, values, unsigned);
+        Object dataBuf      = dset.getData();
+
+        HDFDataProvider provider = DataProviderFactory.getDataProvider(dset, dataBuf, transposed);
+        OldProvider old          = new OldProvider(dataBuf, unsigned, transposed);
+
+        for (int row = 0; row < ROWS; row += 97) {
+            for (int col = 0; col < COLS; col += 31)
+                assertEquals(old.getDataValue(col, row), provider.getDataValue(col, row));
+        }
+
+        long oldTime = 0;
+        long newTime = 0;
+        for (int pass = 0; pass < PASSES; pass++) {
+            long t0 = System.nanoTime();
+            touchAll(old::getDataValue);
+            long t1 = System.nanoTime();
+            touchAll(provider::getDataValue);
+            long t2 = System.nanoTime();
+
+            // the first passes warm up the JIT
+            if (pass >= PASSES / 2) {
+                oldTime += t1 - t0;
+                newTime += t2 - t1;
+            }
+        }
+
+        double cells = (double)ROWS * COLS * (PASSES - PASSES / 2);
+        System.out.printf("%s: old %.1f ns/cell, new %.1f ns/cell%n", name, oldTime / cells, newTime / cells);
+    }
+
+    private interface CellLookup {
+        Object getDataValue(int columnIndex, int rowIndex);
+    }
+
+    private static int touchAll(CellLookup lookup)
+    {
+        int hash = 0;
+        for (int row = 0; row < ROWS; row++) {
+            for (int col = 0; col < COLS; col++)
+                hash += lookup.getDataValue(col, row).hashCode();
+        }
+
+        return hash;
+    }
+
+    /** The lookup of NumericalDataProvider as it was before the buffer index mapping was precomputed. */
+    private static final class OldProvider {
+        private final Object dataBuf;
+        private final boolean isUINT64;
+        private final boolean isDataTransposed;
+
+        OldProvider(Object dataBuf, boolean unsigned, boolean transposed)
+        {
+            this.dataBuf     = dataBuf;
+            isUINT64         = unsigned && (dataBuf instanceof long[]);
+            isDataTransposed = transposed;
+        }
+
+        Object getDataValue(int columnIndex, int rowIndex)
+        {
+            long index = rowIndex * COLS + columnIndex;
+            log.trace("physicalLocationToBufIndex({}, {}): rank > 1; adjusting for multi-dimensional dataset",
+                      rowIndex, columnIndex);
+            if (isDataTransposed)
+                index = columnIndex * ROWS + rowIndex;
+            log.trace("physicalLocationToBufIndex({}, {}, {}): finish", rowIndex, columnIndex, index);
+
+            Object theValue = Array.get(dataBuf, (int)index);
+            log.trace("getDataValue({}, {})=({}): finish", rowIndex, columnIndex, theValue);
+
+            if (isUINT64)
+                theValue = convertUINT64toBigInt((Long)theValue);
+
+            return theValue;
+        }
+
+        private static BigInteger convertUINT64toBigInt(Long l)
+        {
+            if (l < 0) {
+                l               = (l << 1) >>> 1;
+                BigInteger big1 = new BigInteger("9223372036854775808"); // 2^65
+                BigInteger big2 = new BigInteger(l.toString());
+                return big1.add(big2);
+            }
+            else {
+                return new BigInteger(l.toString());
+            }
+        }
+    }
+}
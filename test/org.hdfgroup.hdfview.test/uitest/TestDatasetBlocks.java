@@ -0,0 +1,121 @@
+package uitest;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.Iterator;
+
+import org.junit.Test;
+
+/**
+ * Tests that reading and writing a dataset in blocks neither uses nor changes its current selection,
+ * with and without format support for selection reads and writes.
+ */
+public class TestDatasetBlocks {
+    /**
+     * Blocks over the whole extent of a rank-3 dataset cover every frame, while the selection of one
+     * frame is kept.
+     */
+    @Test
+    public void testWholeExtentBlocks() throws Exception
+    {
+        checkWholeExtentBlocks(newDataset(true));
+        checkWholeExtentBlocks(newDataset(false));
+    }
+
+    /**
+     * blockIterator(long) reads the selection as it was when the iterator was created.
+     */
+    @Test
+    public void testSelectionBlocks() throws Exception
+    {
+        MemoryScalarDS dset = newDataset(false);
+        long[] start        = dset.getStartDims();
+        long[] selected     = dset.getSelectedDims();
+        start[1]            = 1;
+        selected[0]         = 3;
+        selected[1]         = 1;
+        selected[2]         = 2;
+
+        Iterator<Object> blocks = dset.blockIterator(2);
+        start[0]                = 1;
+
+        assertArrayEquals(new int[] {3, 4, 9, 10}, (int[])blocks.next());
+        assertArrayEquals(new int[] {15, 16}, (int[])blocks.next());
+        assertFalse(blocks.hasNext());
+    }
+
+    /**
+     * writeBlock() writes a strided hyperslab and keeps the selection, with and without selection
+     * writes.
+     */
+    @Test
+    public void testWriteBlock() throws Exception
+    {
+        for (boolean selectionIO : new boolean[] {true, false}) {
+            MemoryScalarDS dset = newDataset(selectionIO);
+            long[] start        = dset.getStartDims();
+            long[] selected     = dset.getSelectedDims();
+
+            dset.writeBlock(new long[] {1, 0, 0}, new long[] {2, 1, 2}, new long[] {2, 1, 2},
+                            new int[] {-1, -2, -3, -4});
+
+            int[] values = (int[])dset.getValues();
+            assertEquals(-1, values[6]);
+            assertEquals(-2, values[8]);
+            assertEquals(-3, values[18]);
+            assertEquals(-4, values[20]);
+            assertEquals(7, values[7]);
+            assertEquals(12, values[12]);
+
+            assertSame(start, dset.getStartDims());
+            assertSame(selected, dset.getSelectedDims());
+            assertArrayEquals(new long[] {0, 0, 0}, start);
+            assertArrayEquals(new long[] {1, 2, 3}, selected);
+        }
+    }
+
+    private static void checkWholeExtentBlocks(MemoryScalarDS dset) throws Exception
+    {
+        long[] start    = dset.getStartDims();
+        long[] selected = dset.getSelectedDims();
+        int[] frame     = (int[])dset.getData();
+
+        Iterator<Object> blocks = dset.blockIterator(new long[3], null, dset.getDims(), 2);
+        int[] all               = new int[24];
+        int n                   = 0;
+        while (blocks.hasNext()) {
+            int[] block = (int[])blocks.next();
+            assertNotSame(frame, block);
+            System.arraycopy(block, 0, all, n, block.length);
+            n += block.length;
+        }
+
+        assertEquals(24, n);
+        for (int i = 0; i < all.length; i++)
+            assertEquals(i, all[i]);
+
+        assertSame(start, dset.getStartDims());
+        assertSame(selected, dset.getSelectedDims());
+        assertArrayEquals(new long[] {0, 0, 0}, start);
+        assertArrayEquals(new long[] {1, 2, 3}, selected);
+        assertArrayEquals(new int[] {0, 1, 2, 3, 4, 5}, frame);
+    }
+
+    /** A 4 x 2 x 3 int dataset whose values are their row-major index; the selection is one frame. */
+    private static MemoryScalarDS newDataset(boolean selectionIO) throws Exception
+    {
+        int[] values = new int[24];
+        for (int i = 0; i < values.length; i++)
+            values[i] = i;
+
+        MemoryScalarDS dset = new MemoryScalarDS(new long[] {4, 2, 3}, values);
+        dset.setSelectionIO(selectionIO);
+        dset.getSelectedDims()[0] = 1;
+
+        return dset;
+    }
+}
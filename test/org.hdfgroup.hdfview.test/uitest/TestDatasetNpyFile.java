@@ -0,0 +1,284 @@
+package uitest;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.zip.ZipFile;
+
+import hdf.view.DatasetNpyFile;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Tests that DatasetNpyFile writes the .npy format NumPy reads, and that arrays round-trip through
+ * .npy files and .npz archives.
+ */
+public class TestDatasetNpyFile {
+    private File file;
+
+    @After
+    public void removeFile()
+    {
+        if (file != null)
+            file.delete();
+    }
+
+    /**
+     * A rank-3 int dataset is written with a version 1.0 header of its type and whole shape, padded so
+     * that the little-endian data starts at a multiple of 64 bytes, whatever its selection.
+     */
+    @Test
+    public void testNpyHeader() throws Exception
+    {
+        file = File.createTempFile("TestDatasetNpyFile", ".npy");
+
+        MemoryScalarDS dataset = createDataset();
+        dataset.getSelectedDims()[0] = 1;
+        DatasetNpyFile.exportDataset(dataset, file, null);
+
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(file.toPath())).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals((byte)0x93, bytes.get(0));
+        assertEquals("NUMPY", new String(bytes.array(), 1, 5, StandardCharsets.ISO_8859_1));
+        assertEquals(1, bytes.get(6));
+        assertEquals(0, bytes.get(7));
+
+        int headerLength = bytes.getShort(8) & 0xFFFF;
+        int dataOffset   = 10 + headerLength;
+        assertEquals(0, dataOffset % 64);
+        assertEquals('\n', bytes.get(dataOffset - 1));
+
+        String header = new String(bytes.array(), 10, headerLength, StandardCharsets.ISO_8859_1).trim();
+        assertEquals("{'descr': '<i4', 'fortran_order': False, 'shape': (4, 2, 3), }", header);
+
+        assertEquals(dataOffset + 24 * 4, bytes.limit());
+        for (int i = 0; i < 24; i++)
+            assertEquals(i, bytes.getInt(dataOffset + 4 * i));
+        assertArrayEquals(new long[] {1, 2, 3}, dataset.getSelectedDims());
+    }
+
+    /**
+     * A dataset exported to a .npy file is imported back into another dataset of the same shape.
+     */
+    @Test
+    public void testNpyRoundTrip() throws Exception
+    {
+        file = File.createTempFile("TestDatasetNpyFile", ".npy");
+        checkRoundTrip();
+    }
+
+    /**
+     * A dataset exported to a .npz archive, as an array named after the dataset, is imported back
+     * into another dataset of the same shape.
+     */
+    @Test
+    public void testNpzRoundTrip() throws Exception
+    {
+        file = File.createTempFile("TestDatasetNpyFile", ".npz");
+        checkRoundTrip();
+
+        try (ZipFile zip = new ZipFile(file)) {
+            assertNotNull(zip.getEntry("memory.npy"));
+            assertEquals(1, zip.size());
+        }
+    }
+
+    /**
+     * An array is not imported into a dataset of another shape, even with the same number of values.
+     */
+    @Test
+    public void testShapeMismatch() throws Exception
+    {
+        file = File.createTempFile("TestDatasetNpyFile", ".npy");
+        DatasetNpyFile.exportDataset(createDataset(), file, null);
+
+        MemoryScalarDS target = new MemoryScalarDS(new long[] {8, 3}, new int[24]);
+        try {
+            DatasetNpyFile.importDataset(target, file, null);
+            fail("a (4, 2, 3) array was imported into an 8 x 3 dataset");
+        }
+        catch (IllegalArgumentException ex) {
+            assertTrue(ex.getMessage(), ex.getMessage().contains("shape"));
+        }
+        assertArrayEquals(new int[24], (int[])target.getValues());
+    }
+
+    /**
+     * The data of a selection is imported back into the same selection of another dataset, and the
+     * rest of the dataset is unchanged.
+     */
+    @Test
+    public void testSelectionRoundTrip() throws Exception
+    {
+        file = File.createTempFile("TestDatasetNpyFile", ".npy");
+
+        MemoryScalarDS dataset = createDataset();
+        dataset.getStartDims()[0]    = 1;
+        dataset.getSelectedDims()[0] = 2;
+        DatasetNpyFile.exportData(dataset, dataset.read(), file);
+
+        MemoryScalarDS target = new MemoryScalarDS(new long[] {4, 2, 3}, new int[24]);
+        target.getStartDims()[0]    = 1;
+        target.getSelectedDims()[0] = 2;
+        assertEquals(2, DatasetNpyFile.importData(target, file));
+
+        int[] values = (int[])target.getValues();
+        for (int i = 0; i < values.length; i++)
+            assertEquals(((i >= 6) && (i < 18)) ? i : 0, values[i]);
+    }
+
+    /**
+     * A rank-2 compound dataset with an int, a double array and a fixed-length string member is
+     * written block by block as packed little-endian records of a structured type, with a sub-array
+     * shape for the array member, and is imported back block by block.
+     */
+    @Test
+    public void testCompoundRoundTrip() throws Exception
+    {
+        file = File.createTempFile("TestDatasetNpyFile", ".npy");
+
+        MemoryCompoundDS dataset = createCompoundDataset();
+        DatasetNpyFile.exportDataset(dataset, file, null);
+
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(file.toPath())).order(ByteOrder.LITTLE_ENDIAN);
+        int dataOffset   = 10 + (bytes.getShort(8) & 0xFFFF);
+        String header    = new String(bytes.array(), 10, dataOffset - 10, StandardCharsets.ISO_8859_1).trim();
+        assertEquals("{'descr': [('id', '<i4'), ('v', '<f8', (3,)), ('name', '|S8')], " +
+                         "'fortran_order': False, 'shape': (5, 2), }",
+                     header);
+
+        int itemSize = 4 + 3 * 8 + 8;
+        assertEquals(dataOffset + 10 * itemSize, bytes.limit());
+        for (int i = 0; i < 10; i++) {
+            int pos = dataOffset + i * itemSize;
+            assertEquals(i, bytes.getInt(pos));
+            for (int j = 0; j < 3; j++)
+                assertEquals(i + j / 4.0, bytes.getDouble(pos + 4 + 8 * j), 0);
+            String name = new String(bytes.array(), pos + 28, 8, StandardCharsets.US_ASCII);
+            assertEquals(((String[])dataset.getValues(2))[i], name.replace("\0", ""));
+        }
+
+        Object[] values         = {new int[10], new double[30], new String[10]};
+        MemoryCompoundDS target = new MemoryCompoundDS(new long[] {5, 2}, new String[] {"id", "v", "name"},
+                                                       new int[] {1, 3, 1}, values);
+        target.setBlockSize(2);
+        assertEquals(5, DatasetNpyFile.importDataset(target, file, null));
+        assertArrayEquals((int[])dataset.getValues(0), (int[])target.getValues(0));
+        assertArrayEquals((double[])dataset.getValues(1), (double[])target.getValues(1), 0);
+        assertArrayEquals((String[])dataset.getValues(2), (String[])target.getValues(2));
+    }
+
+    /**
+     * A big-endian array of doubles, as written by another program, is imported in the byte order of
+     * its header.
+     */
+    @Test
+    public void testBigEndianImport() throws Exception
+    {
+        file = File.createTempFile("TestDatasetNpyFile", ".npy");
+
+        ByteBuffer data = ByteBuffer.allocate(6 * 8).order(ByteOrder.BIG_ENDIAN);
+        for (int i = 0; i < 6; i++)
+            data.putDouble(i * 1.5 - 2);
+        writeNpy("'>f8'", "(2, 3)", data.array());
+
+        MemoryScalarDS target = new MemoryScalarDS(new long[] {2, 3}, new double[6]);
+        assertEquals(2, DatasetNpyFile.importDataset(target, file, null));
+        assertArrayEquals(new double[] {-2, -0.5, 1, 2.5, 4, 5.5}, (double[])target.getValues(), 0);
+    }
+
+    /**
+     * The records of a structured array with big-endian and little-endian fields, a sub-array field
+     * and shorter byte strings than the dataset members are imported into a compound dataset.
+     */
+    @Test
+    public void testStructuredImport() throws Exception
+    {
+        file = File.createTempFile("TestDatasetNpyFile", ".npy");
+
+        ByteBuffer data = ByteBuffer.allocate(3 * (4 + 2 * 8 + 4));
+        for (int i = 0; i < 3; i++) {
+            data.order(ByteOrder.BIG_ENDIAN).putInt(-i);
+            data.order(ByteOrder.LITTLE_ENDIAN).putDouble(i + 0.25).putDouble(i + 0.75);
+            data.put(("ab" + i).getBytes(StandardCharsets.US_ASCII)).put((byte)0);
+        }
+        writeNpy("[('a', '>i4'), ('b', '<f8', (2,)), ('s', '|S4')]", "(3,)", data.array());
+
+        Object[] values         = {new int[3], new double[6], new String[3]};
+        MemoryCompoundDS target = new MemoryCompoundDS(new long[] {3}, new String[] {"a", "b", "s"},
+                                                       new int[] {1, 2, 1}, values);
+        assertEquals(3, DatasetNpyFile.importDataset(target, file, null));
+        assertArrayEquals(new int[] {0, -1, -2}, (int[])target.getValues(0));
+        assertArrayEquals(new double[] {0.25, 0.75, 1.25, 1.75, 2.25, 2.75}, (double[])target.getValues(1),
+                          0);
+        assertArrayEquals(new String[] {"ab0", "ab1", "ab2"}, (String[])target.getValues(2));
+    }
+
+    private void checkRoundTrip() throws Exception
+    {
+        MemoryScalarDS dataset = createDataset();
+        DatasetNpyFile.exportDataset(dataset, file, null);
+
+        MemoryScalarDS target = new MemoryScalarDS(new long[] {4, 2, 3}, new int[24]);
+        assertEquals(4, DatasetNpyFile.importDataset(target, file, null));
+        assertArrayEquals((int[])dataset.getValues(), (int[])target.getValues());
+    }
+
+    /** Writes a version 1.0 .npy file with the given type and shape literals and data. */
+    private void writeNpy(String descr, String shape, byte[] data) throws Exception
+    {
+        String dict = "{'descr': " + descr + ", 'fortran_order': False, 'shape': " + shape + ", }";
+        int length  = (10 + dict.length() + 1 + 63) / 64 * 64 - 10;
+
+        ByteBuffer bytes = ByteBuffer.allocate(10 + length + data.length).order(ByteOrder.LITTLE_ENDIAN);
+        bytes.put((byte)0x93).put("NUMPY".getBytes(StandardCharsets.ISO_8859_1)).put((byte)1).put((byte)0);
+        bytes.putShort((short)length).put(dict.getBytes(StandardCharsets.ISO_8859_1));
+        while (bytes.position() < 10 + length - 1)
+            bytes.put((byte)' ');
+        bytes.put((byte)'\n').put(data);
+
+        Files.write(file.toPath(), bytes.array());
+    }
+
+    /**
+     * Returns a 5 x 2 compound dataset, read and written in blocks of 2 rows, whose int member "id"
+     * is the row-major index i of the record, double array member "v" is {i, i + 0.25, i + 0.5} and
+     * string member "name" has up to 8 characters.
+     */
+    private static MemoryCompoundDS createCompoundDataset() throws Exception
+    {
+        int[] ids      = new int[10];
+        double[] v     = new double[30];
+        String[] names = new String[10];
+        for (int i = 0; i < 10; i++) {
+            ids[i] = i;
+            for (int j = 0; j < 3; j++)
+                v[3 * i + j] = i + j / 4.0;
+            names[i] = "12345678".substring(0, 1 + i % 8);
+        }
+
+        MemoryCompoundDS dataset = new MemoryCompoundDS(new long[] {5, 2}, new String[] {"id", "v", "name"},
+                                                        new int[] {1, 3, 1}, new Object[] {ids, v, names});
+        dataset.setBlockSize(2);
+
+        return dataset;
+    }
+
+    /** Returns a 4 x 2 x 3 int dataset whose values are their row-major index. */
+    private static MemoryScalarDS createDataset() throws Exception
+    {
+        int[] values = new int[24];
+        for (int i = 0; i < values.length; i++)
+            values[i] = i;
+
+        return new MemoryScalarDS(new long[] {4, 2, 3}, values);
+    }
+}
@@ -0,0 +1,140 @@
+package uitest;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import hdf.view.DatasetSearcher;
+import hdf.view.DatasetSearcher.Criterion;
+import hdf.view.DatasetSearcher.Match;
+
+import org.junit.Test;
+
+/**
+ * Tests the criteria of DatasetSearcher and the coordinates of the matches it reports.
+ */
+public class TestDatasetSearcher {
+    /**
+     * A value searched for in 32-bit floats is rounded to a float, a range may be given in either
+     * order and NaN is only matched by the NaN criterion.
+     */
+    @Test
+    public void testCriteria() throws Exception
+    {
+        MemoryScalarDS dataset =
+            new MemoryScalarDS(new long[] {6}, new float[] {0.1f, 0.2f, Float.NaN, 1f, 2f, -1f});
+
+        List<Match> found = search(dataset, Criterion.equalTo(0.1));
+        assertEquals(1, found.size());
+        assertArrayEquals(new long[] {0}, found.get(0).getCoordinates());
+        assertEquals(0.1f, found.get(0).getValue(), 0);
+        assertEquals(-1, found.get(0).getMember());
+
+        found = search(dataset, Criterion.between(2, -1));
+        assertEquals(5, found.size());
+        assertArrayEquals(new long[] {5}, found.get(4).getCoordinates());
+
+        found = search(dataset, Criterion.isNaN());
+        assertEquals(1, found.size());
+        assertArrayEquals(new long[] {2}, found.get(0).getCoordinates());
+    }
+
+    /**
+     * 64-bit integers are compared exactly, including values that doubles can not hold and unsigned
+     * values above Long.MAX_VALUE, and a range matches the integers inside it.
+     */
+    @Test
+    public void testLongCriteria() throws Exception
+    {
+        long big               = (1L << 53) + 1;
+        MemoryScalarDS dataset = new MemoryScalarDS(new long[] {4}, new long[] {big - 1, big, big + 1, -3});
+
+        List<Match> found = search(dataset, Criterion.equalTo(BigDecimal.valueOf(big)));
+        assertEquals(1, found.size());
+        assertArrayEquals(new long[] {1}, found.get(0).getCoordinates());
+
+        found = search(dataset, Criterion.between(new BigDecimal("-3.5"), new BigDecimal("-2.5")));
+        assertEquals(1, found.size());
+        assertArrayEquals(new long[] {3}, found.get(0).getCoordinates());
+
+        found = search(dataset, Criterion.between(new BigDecimal("-2.9"), new BigDecimal("-2.1")));
+        assertEquals(0, found.size());
+
+        // 2^64 - 2 and 2^63 as unsigned values
+        dataset = new MemoryScalarDS(new long[] {3}, new long[] {-2, Long.MIN_VALUE, 5}, true);
+
+        found = search(dataset, Criterion.equalTo(new BigDecimal("18446744073709551614")));
+        assertEquals(1, found.size());
+        assertArrayEquals(new long[] {0}, found.get(0).getCoordinates());
+
+        BigDecimal min = new BigDecimal("9223372036854775808");
+        found          = search(dataset, Criterion.between(min, BigDecimal.TEN.pow(30)));
+        assertEquals(2, found.size());
+        assertArrayEquals(new long[] {1}, found.get(1).getCoordinates());
+
+        assertEquals(1, search(dataset, Criterion.between(-10, 10)).size());
+    }
+
+    /**
+     * The matches of a rank-3 dataset searched in blocks of one frame by several threads are reported
+     * in row-major order with their coordinates in the whole dataset, whatever its selection, and the
+     * progress counts the frames searched.
+     */
+    @Test
+    public void testCoordinates() throws Exception
+    {
+        int[] values = new int[24];
+        for (int i = 0; i < values.length; i++)
+            values[i] = i;
+
+        MemoryScalarDS dataset = new MemoryScalarDS(new long[] {4, 2, 3}, values);
+        dataset.getStartDims()[0]    = 2;
+        dataset.getSelectedDims()[0] = 1;
+
+        DatasetSearcher searcher = new DatasetSearcher(dataset);
+        searcher.setBlockSize(1);
+        searcher.setThreadCount(3);
+        assertEquals(4, searcher.getTotalRows());
+
+        List<Match> found   = new ArrayList<>();
+        List<Long> progress = new ArrayList<>();
+        assertEquals(3, searcher.search(Criterion.between(5, 7), found::add, progress::add));
+        assertEquals(1, searcher.search(Criterion.equalTo(23), found::add, null));
+
+        long[][] expected = {{0, 1, 2}, {1, 0, 0}, {1, 0, 1}, {3, 1, 2}};
+        for (int i = 0; i < expected.length; i++)
+            assertArrayEquals(expected[i], found.get(i).getCoordinates());
+        assertEquals(List.of(1L, 2L, 3L, 4L), progress);
+
+        assertArrayEquals(new long[] {2, 0, 0}, dataset.getStartDims());
+        assertArrayEquals(new long[] {1, 2, 3}, dataset.getSelectedDims());
+    }
+
+    /**
+     * A search stops at the largest number of matches.
+     */
+    @Test
+    public void testMaxMatches() throws Exception
+    {
+        MemoryScalarDS dataset = new MemoryScalarDS(new long[] {3, 2}, new double[] {1, 2, 3, 4, 5, 6});
+
+        DatasetSearcher searcher = new DatasetSearcher(dataset);
+        searcher.setMaxMatches(2);
+
+        List<Match> found = new ArrayList<>();
+        assertEquals(2, searcher.search(Criterion.between(0, 10), found::add, null));
+        assertEquals(2, found.size());
+        assertArrayEquals(new long[] {0, 1}, found.get(1).getCoordinates());
+    }
+
+    private static List<Match> search(MemoryScalarDS dataset, Criterion criterion) throws Exception
+    {
+        List<Match> found = new ArrayList<>();
+        new DatasetSearcher(dataset).search(criterion, found::add, null);
+
+        return found;
+    }
+}
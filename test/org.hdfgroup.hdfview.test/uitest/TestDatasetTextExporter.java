@@ -0,0 +1,69 @@
+package uitest;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import hdf.view.DatasetTextExporter;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests that DatasetTextExporter writes every data point of a dataset, whatever its current selection.
+ */
+public class TestDatasetTextExporter {
+    private File file;
+
+    @Before
+    public void createFile() throws Exception
+    {
+        file = File.createTempFile("TestDatasetTextExporter", ".txt");
+    }
+
+    @After
+    public void removeFile()
+    {
+        if (file != null)
+            file.delete();
+    }
+
+    /**
+     * A rank-3 dataset with one frame selected is exported with all of its frames, one line per row of
+     * its last dimension, and its selection is kept.
+     */
+    @Test
+    public void testExportAllFrames() throws Exception
+    {
+        int[] values = new int[24];
+        for (int i = 0; i < values.length; i++)
+            values[i] = i;
+
+        MemoryScalarDS dataset = new MemoryScalarDS(new long[] {4, 2, 3}, values);
+        dataset.getStartDims()[0]    = 1;
+        dataset.getSelectedDims()[0] = 1;
+
+        DatasetTextExporter exporter = new DatasetTextExporter(dataset, ",");
+        exporter.setBlockSize(1);
+        exporter.setThreadCount(2);
+        assertEquals(4, exporter.getTotalRows());
+
+        List<Long> progress = new ArrayList<>();
+        exporter.export(file, progress::add);
+
+        List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        assertEquals(8, lines.size());
+        for (int i = 0; i < lines.size(); i++)
+            assertEquals((3 * i) + "," + (3 * i + 1) + "," + (3 * i + 2), lines.get(i));
+
+        assertEquals(List.of(1L, 2L, 3L, 4L), progress);
+        assertArrayEquals(new long[] {1, 0, 0}, dataset.getStartDims());
+        assertArrayEquals(new long[] {1, 2, 3}, dataset.getSelectedDims());
+    }
+}
@@ -0,0 +1,153 @@
+package uitest;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Random;
+
+import hdf.view.DatasetTextImporter;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests how DatasetTextImporter splits a text file into values and parses them into a whole dataset.
+ */
+public class TestDatasetTextImporter {
+    private File file;
+
+    @Before
+    public void createFile() throws Exception
+    {
+        file = File.createTempFile("TestDatasetTextImporter", ".txt");
+    }
+
+    @After
+    public void removeFile()
+    {
+        if (file != null)
+            file.delete();
+    }
+
+    /**
+     * The delimiter, spaces, tabs and line breaks all separate values, also across the blocks the file
+     * is split into, and a last incomplete row is ignored.
+     */
+    @Test
+    public void testSeparators() throws Exception
+    {
+        write("1,2\t3  4\r\n5,,6\n-7 +8\n9\n10\n11");
+
+        MemoryScalarDS dataset = new MemoryScalarDS(new long[] {5, 2}, new int[10]);
+        dataset.getSelectedDims()[0] = 1;
+
+        DatasetTextImporter importer = new DatasetTextImporter(dataset, ",");
+        importer.setBlockBytes(4);
+        importer.setThreadCount(2);
+
+        assertEquals(5, importer.importFile(file, null));
+        assertArrayEquals(new int[] {1, 2, 3, 4, 5, 6, -7, 8, 9, 10}, (int[])dataset.getValues());
+        assertArrayEquals(new long[] {1, 2}, dataset.getSelectedDims());
+    }
+
+    /**
+     * Values after the end of the dataset are ignored, and a row not in the file keeps its values.
+     */
+    @Test
+    public void testRowCount() throws Exception
+    {
+        write("1 2 3\n4 5 6\n7 8 9\n");
+
+        MemoryScalarDS dataset = new MemoryScalarDS(new long[] {2, 2}, new int[] {0, 0, 0, 0});
+        DatasetTextImporter importer = new DatasetTextImporter(dataset, ",");
+        assertEquals(2, importer.importFile(file, null));
+        assertArrayEquals(new int[] {1, 2, 3, 4}, (int[])dataset.getValues());
+
+        write("1 2 3");
+        dataset = new MemoryScalarDS(new long[] {2, 2}, new int[] {0, 0, 0, 0});
+        importer = new DatasetTextImporter(dataset, ",");
+        assertEquals(1, importer.importFile(file, null));
+        assertArrayEquals(new int[] {1, 2, 0, 0}, (int[])dataset.getValues());
+    }
+
+    /**
+     * An integer out of the range of the datatype is an error, and so is a value that is not an
+     * integer; an integer in an exponent form is imported.
+     */
+    @Test
+    public void testIntegerRange() throws Exception
+    {
+        for (String value : new String[] {"2147483648", "1.5", "-0.5", "NaN", "1e10"}) {
+            write("1 " + value);
+
+            MemoryScalarDS dataset = new MemoryScalarDS(new long[] {2}, new int[2]);
+            try {
+                new DatasetTextImporter(dataset, ",").importFile(file, null);
+                fail(value + " was imported into an int dataset");
+            }
+            catch (NumberFormatException ex) {
+            }
+        }
+
+        write("1e3 -2.0");
+        MemoryScalarDS dataset = new MemoryScalarDS(new long[] {2}, new int[2]);
+        new DatasetTextImporter(dataset, ",").importFile(file, null);
+        assertArrayEquals(new int[] {1000, -2}, (int[])dataset.getValues());
+    }
+
+    /**
+     * The values parsed from their digits, and those left to Double.parseDouble(), are the values
+     * Double.parseDouble() returns.
+     */
+    @Test
+    public void testParseDouble() throws Exception
+    {
+        String[] tokens = {"0",
+                           "-0",
+                           "0.1",
+                           "-2.5e3",
+                           "1e-5",
+                           "3.14159",
+                           "+7",
+                           ".5",
+                           "1E22",
+                           "1e23",
+                           "5e-324",
+                           "1e400",
+                           "NaN",
+                           "-Infinity",
+                           "0x1p3",
+                           "12345678901234567",
+                           "0.30000000000000004",
+                           "2.2250738585072014E-308"};
+
+        Random random = new Random(44);
+        String[] all  = new String[tokens.length + 1000];
+        System.arraycopy(tokens, 0, all, 0, tokens.length);
+        for (int i = tokens.length; i < all.length; i++) {
+            long digits  = random.nextLong() % 1000000000L;
+            int exponent = random.nextInt(61) - 30;
+            all[i]       = random.nextBoolean() ? (digits + "e" + exponent) : String.valueOf(digits / 1000.0);
+        }
+
+        write(String.join("\n", all));
+
+        MemoryScalarDS dataset = new MemoryScalarDS(new long[] {all.length}, new double[all.length]);
+        new DatasetTextImporter(dataset, ",").importFile(file, null);
+
+        double[] values = (double[])dataset.getValues();
+        for (int i = 0; i < all.length; i++)
+            assertEquals(all[i], Double.doubleToLongBits(Double.parseDouble(all[i])),
+                         Double.doubleToLongBits(values[i]));
+    }
+
+    private void write(String text) throws Exception
+    {
+        Files.write(file.toPath(), text.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,83 @@
+package uitest;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.function.LongPredicate;
+import java.util.stream.IntStream;
+
+import hdf.object.DataBuffer;
+import hdf.view.TableView.RowOrder;
+
+import org.junit.Test;
+
+/**
+ * Tests that RowOrder sorts rows stably by a column, in memory and on disk, and maps the rows of the
+ * data buffer back to the rows of the table.
+ */
+public class TestRowOrder {
+    /**
+     * Integers with many ties, sorted on disk in runs of a few rows, are in the same order as those
+     * sorted in memory and as a stable sort of the rows, ascending and descending.
+     */
+    @Test
+    public void testSortOnDisk() throws Exception
+    {
+        Random random = new Random(50);
+        int[] values  = new int[1000];
+        for (int i = 0; i < values.length; i++)
+            values[i] = random.nextInt(100) - 50;
+
+        RowOrder.Column column = new RowOrder.Column(DataBuffer.wrap(values), row -> row);
+        for (boolean descending : new boolean[] {false, true}) {
+            Integer[] expected = IntStream.range(0, values.length).boxed().toArray(Integer[]::new);
+            Comparator<Integer> byValue = Comparator.comparingInt(row -> values[row]);
+            Arrays.sort(expected, descending ? byValue.reversed() : byValue);
+
+            RowOrder inMemory = RowOrder.sort(column, values.length, descending, null);
+            RowOrder onDisk   = RowOrder.sort(column, values.length, descending, null, 7 * Long.BYTES);
+            try {
+                checkOrder(expected, inMemory);
+                checkOrder(expected, onDisk);
+            }
+            finally {
+                onDisk.close();
+            }
+        }
+    }
+
+    /**
+     * Doubles filtered by a range are sorted on disk with NaN left out, and the rows filtered out have
+     * no row in the table.
+     */
+    @Test
+    public void testFilter() throws Exception
+    {
+        double[] values = {3.5, Double.NaN, -1, 2, 10, 0.5, 2, -7, 4, Double.NaN};
+
+        RowOrder.Column column = new RowOrder.Column(DataBuffer.wrap(values), row -> row);
+        LongPredicate filter   = column.range(-1, 4);
+        RowOrder order         = RowOrder.sort(column, values.length, false, filter, 2 * Long.BYTES);
+        try {
+            checkOrder(new Integer[] {2, 5, 3, 6, 0, 8}, order);
+            assertEquals(-1, order.positionOf(1));
+            assertEquals(-1, order.positionOf(4));
+            assertEquals(-1, order.positionOf(7));
+            assertEquals(-1, order.positionOf(values.length));
+        }
+        finally {
+            order.close();
+        }
+    }
+
+    private static void checkOrder(Integer[] expected, RowOrder order)
+    {
+        assertEquals(expected.length, order.size());
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i].intValue(), order.getRow(i));
+            assertEquals(i, order.positionOf(expected[i]));
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package uitest;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.datatransfer.DataFlavor;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import hdf.view.TableView.DataProviderFactory;
+import hdf.view.TableView.DataProviderFactory.HDFDataProvider;
+import hdf.view.TableView.TableClipboard;
+
+import org.junit.Test;
+
+/**
+ * Tests copying the cells of a table to text and parsing pasted text back into them.
+ */
+public class TestTableClipboard {
+    /** The data buffer of the table of the last clipboard created by newClipboard(). */
+    private int[] data;
+
+    /**
+     * Lines end with LF or CRLF; empty values between tabs are skipped and text beyond the last row
+     * or column is ignored.
+     */
+    @Test
+    public void testParseTabs() throws Exception
+    {
+        TableClipboard clipboard = newClipboard(newData(3, 4), 3, 4, new int[] {1, 2}, new int[] {1, 2, 3});
+
+        String text = "-1\t-2\t-3\t-9\r\n-4\t\t-5\n-6\t-7\n";
+        assertEquals(5, clipboard.apply(clipboard.parse(text, 0)));
+
+        assertArrayEquals(new int[] {0, 1, 2, 3, 4, -1, -2, -3, 8, -4, -5, 11}, data);
+    }
+
+    /**
+     * Fixed-length values are trimmed, and a value cut short by the end of its line is ignored.
+     */
+    @Test
+    public void testParseFixedLength() throws Exception
+    {
+        TableClipboard clipboard = newClipboard(newData(2, 3), 2, 3, new int[] {0, 1}, new int[] {0, 1, 2});
+
+        String text = "  1 -2  3\r\n 10 11 1";
+        assertEquals(5, clipboard.apply(clipboard.parse(text, 3)));
+
+        assertArrayEquals(new int[] {1, -2, 3, 10, 11, 5}, data);
+    }
+
+    /**
+     * Values that are not numbers or are out of the range of the data type are skipped, and the next
+     * value is pasted into the cell instead.
+     */
+    @Test
+    public void testParseRejected() throws Exception
+    {
+        TableClipboard clipboard = newClipboard(newData(1, 3), 1, 3, new int[] {0}, new int[] {0, 1, 2});
+
+        assertEquals(2, clipboard.apply(clipboard.parse("7\t3000000000\tx\t8\n", 0)));
+        assertArrayEquals(new int[] {7, 8, 2}, data);
+
+        MemoryScalarDS dset = new MemoryScalarDS(new long[] {1, 2}, new int[] {1, 2}, true);
+        int[] unsigned      = (int[])dset.getData();
+        clipboard           = new TableClipboard(DataProviderFactory.getDataProvider(dset, unsigned, false),
+                                                 new int[] {0}, new int[] {0, 1});
+
+        assertEquals(1, clipboard.apply(clipboard.parse("-1\t4294967295", 0)));
+        assertArrayEquals(new int[] {-1, 2}, unsigned);
+    }
+
+    /**
+     * The estimate of cells of the same width is the length of their text.
+     */
+    @Test
+    public void testEstimateSize() throws Exception
+    {
+        int[] values = new int[1000];
+        for (int i = 0; i < values.length; i++)
+            values[i] = i % 10;
+
+        TableClipboard clipboard = newClipboard(values, 100, 10, range(100), range(10));
+        String text              = getText(clipboard);
+        assertEquals(2000, text.length());
+        assertEquals(text.length(), clipboard.estimateSize());
+    }
+
+    /**
+     * A copy of several chunks formatted in parallel keeps the order of the rows, to text and to a
+     * file.
+     */
+    @Test
+    public void testChunkOrder() throws Exception
+    {
+        int nrows = 3000;
+        int ncols = 50;
+
+        // the rows in reverse order
+        int[] rows = new int[nrows];
+        for (int i = 0; i < nrows; i++)
+            rows[i] = nrows - 1 - i;
+
+        TableClipboard clipboard = newClipboard(newData(nrows, ncols), nrows, ncols, rows, range(ncols));
+        assertTrue(clipboard.isParallel());
+
+        StringBuilder expected = new StringBuilder();
+        for (int row : rows) {
+            for (int c = 0; c < ncols; c++) {
+                if (c > 0)
+                    expected.append('\t');
+                expected.append(row * ncols + c);
+            }
+            expected.append('\n');
+        }
+
+        assertEquals(expected.toString(), getText(clipboard));
+
+        File file = File.createTempFile("TestTableClipboard", ".txt");
+        try {
+            clipboard.copyToFile(file);
+            byte[] bytes = Files.readAllBytes(file.toPath());
+            assertEquals(expected.toString(), new String(bytes, StandardCharsets.UTF_8));
+        }
+        finally {
+            file.delete();
+        }
+    }
+
+    /** Returns the values of a rows x cols int dataset, which are their row-major index. */
+    private static int[] newData(int rows, int cols)
+    {
+        int[] values = new int[rows * cols];
+        for (int i = 0; i < values.length; i++)
+            values[i] = i;
+
+        return values;
+    }
+
+    private TableClipboard newClipboard(int[] values, int rows, int cols, int[] rowIndices, int[] colIndices)
+        throws Exception
+    {
+        MemoryScalarDS dset      = new MemoryScalarDS(new long[] {rows, cols}, values);
+        data                     = (int[])dset.getData();
+        HDFDataProvider provider = DataProviderFactory.getDataProvider(dset, data, false);
+
+        return new TableClipboard(provider, rowIndices, colIndices);
+    }
+
+    private static int[] range(int n)
+    {
+        int[] indices = new int[n];
+        for (int i = 0; i < n; i++)
+            indices[i] = i;
+
+        return indices;
+    }
+
+    private static String getText(TableClipboard clipboard) throws Exception
+    {
+        return (String)clipboard.copyToText().getTransferData(DataFlavor.stringFlavor);
+    }
+}
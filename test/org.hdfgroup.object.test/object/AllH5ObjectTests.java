@@ -13,7 +13,8 @@ import org.junit.runners.Suite;
 
                      // hdf.object package
                      CompoundDSTest.class, DatasetTest.class, ScalarDSTest.class, AttributeTest.class,
-                     DatatypeTest.class, FileFormatTest.class, GroupTest.class, HObjectTest.class})
+                     DatatypeTest.class, FileFormatTest.class, GroupTest.class, HObjectTest.class,
+                     SelectionTest.class, DataBufferTest.class})
 
 public class AllH5ObjectTests {
 }
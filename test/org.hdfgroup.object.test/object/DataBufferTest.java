@@ -0,0 +1,125 @@
+/**
+ *
+ */
+package object;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import hdf.object.DataBuffer;
+
+import org.junit.Test;
+
+/**
+ * Tests the primitive-typed views over dataset buffers.
+ */
+public class DataBufferTest {
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(DataBufferTest.class);
+
+    /**
+     * Array views share the array and read unsigned values without converting it.
+     */
+    @Test
+    public void testArrayView()
+    {
+        log.debug("testArrayView");
+        byte[] bytes   = {1, -1, 127};
+        DataBuffer buf = DataBuffer.wrap(bytes);
+
+        assertTrue(buf instanceof DataBuffer.OfByte);
+        assertSame(bytes, buf.array());
+        assertEquals('B', buf.getTypeClass());
+        assertEquals(-1, buf.getLong(1));
+
+        buf.setUnsigned(true);
+        assertEquals(255, buf.getLong(1));
+        assertEquals(255.0, buf.getDouble(1), 0.0);
+
+        buf.setLong(0, 200);
+        assertEquals((byte)200, bytes[0]);
+        assertEquals(Short.valueOf((short)200), buf.getValue(0));
+
+        assertSame(buf, DataBuffer.wrap(buf));
+        assertNull(DataBuffer.wrap(new String[] {"a"}));
+    }
+
+    /**
+     * Unsigned views box values in the next wider type, like convertFromUnsignedC.
+     */
+    @Test
+    public void testUnsignedValues()
+    {
+        log.debug("testUnsignedValues");
+        DataBuffer shorts = DataBuffer.wrap(new short[] {-1}).setUnsigned(true);
+        DataBuffer ints   = DataBuffer.wrap(new int[] {-1}).setUnsigned(true);
+
+        assertEquals(Integer.valueOf(65535), shorts.getValue(0));
+        assertEquals(Long.valueOf(4294967295L), ints.getValue(0));
+        assertEquals(Integer.valueOf(-1), DataBuffer.wrap(new int[] {-1}).getValue(0));
+    }
+
+    /**
+     * Values are moved to and from ByteBuffers in bulk in the byte order of the buffer.
+     */
+    @Test
+    public void testBulkTransfer()
+    {
+        log.debug("testBulkTransfer");
+        DataBuffer.OfInt ints = (DataBuffer.OfInt)DataBuffer.wrap(new int[] {10, 11, 12});
+
+        ByteBuffer out = ByteBuffer.allocate(12).order(ByteOrder.BIG_ENDIAN);
+        ints.get(1, 2, out);
+        assertEquals(8, out.position());
+        assertEquals(11, out.getInt(0));
+        assertEquals(12, out.getInt(4));
+
+        out.flip();
+        DataBuffer.OfInt copy = (DataBuffer.OfInt)DataBuffer.allocate('I', 3);
+        copy.put(0, 2, out);
+        assertArrayEquals(new int[] {11, 12, 0}, (int[])copy.toArray());
+
+        DataBuffer longs = DataBuffer.allocate('J', 4);
+        longs.setLong(3, -2);
+        longs.setUnsigned(true);
+        assertEquals(18446744073709551614.0, longs.getDouble(3), 0.0);
+    }
+
+    /**
+     * Parsed integers must fit the width and signedness of the view.
+     */
+    @Test
+    public void testParseLong()
+    {
+        log.debug("testParseLong");
+        DataBuffer bytes = DataBuffer.allocate('B', 1);
+        assertEquals(-128, bytes.parseLong("-128"));
+        assertOutOfRange(bytes, "128");
+
+        bytes.setUnsigned(true);
+        assertEquals(255, bytes.parseLong("255"));
+        assertOutOfRange(bytes, "300");
+        assertOutOfRange(bytes, "-1");
+
+        DataBuffer longs = DataBuffer.allocate('J', 1).setUnsigned(true);
+        assertEquals(-1, longs.parseLong("18446744073709551615"));
+        assertOutOfRange(longs, "18446744073709551616");
+    }
+
+    private static void assertOutOfRange(DataBuffer buf, String text)
+    {
+        try {
+            buf.parseLong(text);
+            fail("parseLong(" + text + ") should fail");
+        }
+        catch (NumberFormatException ex) {
+            // expected
+        }
+    }
+}
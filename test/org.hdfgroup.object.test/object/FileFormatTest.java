@@ -6,7 +6,14 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
 import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import hdf.object.FileFormat;
 import hdf.object.h5.H5File;
@@ -247,6 +254,103 @@ public class FileFormatTest {
         assertNotNull(f);
     }
 
+    /**
+     * Test method for {@link hdf.object.FileFormat#getFileType(String)}.
+     *
+     * <ul>
+     * <li>Detect the format of an HDF5 file.
+     * <li>Detect the format of a non existing file.
+     * </ul>
+     */
+    @Test
+    public void testGetFileType()
+    {
+        log.debug("testGetFileType");
+        assertEquals(FileFormat.FILE_TYPE_HDF5, FileFormat.getFileType(H5TestFile.NAME_FILE_H5));
+        assertNull(FileFormat.getFileType("test_hdf5.h5"));
+    }
+
+    /**
+     * Test method for {@link hdf.object.FileFormat#getInstance(String, int)}.
+     *
+     * <ul>
+     * <li>Get no instance for a file that is not in a supported format.
+     * <li>Get an instance of a registered format that is not one of the default formats.
+     * </ul>
+     */
+    @Test
+    public void testGetInstanceOtherFormats() throws Exception
+    {
+        log.debug("testGetInstanceOtherFormats");
+        File textFile  = File.createTempFile("FileFormatTest", ".txt");
+        File otherFile = File.createTempFile("FileFormatTest", ".xyz");
+        try {
+            Files.write(textFile.toPath(), "not an HDF file\n".getBytes(StandardCharsets.US_ASCII));
+            Files.write(otherFile.toPath(), "not an HDF file\n".getBytes(StandardCharsets.US_ASCII));
+            assertNull(FileFormat.getFileType(textFile.getPath()));
+            assertNull(FileFormat.getInstance(textFile.getPath(), FileFormat.READ));
+            assertNull(FileFormat.getInstance(otherFile.getPath()));
+
+            FileFormat.addFileFormat("XYZ", new XyzFile("", FileFormat.READ));
+            try {
+                FileFormat f = FileFormat.getInstance(otherFile.getPath(), FileFormat.READ);
+                assertTrue(f instanceof XyzFile);
+                assertTrue(f.isReadOnly());
+                assertNull(FileFormat.getInstance(textFile.getPath()));
+            }
+            finally {
+                FileFormat.removeFileFormat("XYZ");
+            }
+        }
+        finally {
+            textFile.delete();
+            otherFile.delete();
+        }
+    }
+
+    /**
+     * Test method for {@link hdf.object.FileFormat#openFiles(List, int, int, java.util.function.Consumer)}.
+     *
+     * <ul>
+     * <li>Open an existing file and a non existing file together.
+     * </ul>
+     */
+    @Test
+    public void testOpenFiles()
+    {
+        log.debug("testOpenFiles");
+        List<CompletableFuture<FileFormat>> futures =
+            FileFormat.openFiles(Arrays.asList(H5TestFile.NAME_FILE_H5, "test_hdf5.h5"), FileFormat.WRITE, 2,
+                                 f -> f.setMaxMembers(100));
+        assertEquals(2, futures.size());
+
+        FileFormat f = null;
+        try {
+            f = futures.get(0).join();
+        }
+        catch (Exception ex) {
+            fail("openFiles() failed " + ex.getMessage());
+        }
+        assertNotNull(f);
+        assertTrue(f.getFID() >= 0);
+        assertEquals(100, f.getMaxMembers());
+        assertNotNull(f.getRootObject());
+
+        try {
+            futures.get(1).join();
+            fail("openFiles() opened a non existing file");
+        }
+        catch (CompletionException ex) {
+            assertTrue(ex.getCause() instanceof IllegalArgumentException);
+        }
+
+        try {
+            f.close();
+        }
+        catch (Exception ex) {
+        }
+    }
+
     /**
      * Test method for {@link hdf.object.FileFormat#getFileFormats()}.
      *
@@ -263,4 +367,23 @@ public class FileFormatTest {
         FileFormat f1 = FileFormat.getFileFormat("ALL");
         assertNull(f1);
     }
+
+    /** A format that is not one of the default formats, recognized by the extension of its files. */
+    private static final class XyzFile extends H5File {
+        private static final long serialVersionUID = 1L;
+
+        XyzFile(String fileName, int access) { super(fileName, access); }
+
+        @Override
+        public boolean isThisType(String filename)
+        {
+            return filename.endsWith(".xyz");
+        }
+
+        @Override
+        public FileFormat createInstance(String filename, int access)
+        {
+            return new XyzFile(filename, access);
+        }
+    }
 }
@@ -0,0 +1,134 @@
+package object;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import hdf.object.FileFormat;
+import hdf.object.Group;
+import hdf.object.HObject;
+import hdf.object.fits.FitsDataset;
+import hdf.object.fits.FitsFile;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests reading subsets of a FITS image straight from the file.
+ */
+public class FitsDatasetTest {
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(FitsDatasetTest.class);
+
+    private static final int ROWS = 4;
+
+    private static final int COLS = 5;
+
+    private File file;
+
+    private FileFormat fitsFile;
+
+    /**
+     * Writes a 16-bit image of 4 rows of 5 values, where the value of column c of row r of the file
+     * is 10 * r + c.
+     */
+    @Before
+    public void openFile() throws Exception
+    {
+        file = File.createTempFile("FitsDatasetTest", ".fits");
+
+        ByteBuffer data = ByteBuffer.allocate(ROWS * COLS * 2);
+        for (int r = 0; r < ROWS; r++) {
+            for (int c = 0; c < COLS; c++)
+                data.putShort((short)(10 * r + c));
+        }
+
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(header("SIMPLE  =                    T", "BITPIX  =                   16",
+                             "NAXIS   =                    2", "NAXIS1  =                    " + COLS,
+                             "NAXIS2  =                    " + ROWS));
+            out.write(data.array());
+            out.write(new byte[2880 - data.capacity()]);
+        }
+
+        fitsFile = new FitsFile(file.getPath());
+        fitsFile.open();
+    }
+
+    /**
+     * Removes the FITS file.
+     */
+    @After
+    public void removeFile() throws Exception
+    {
+        if (fitsFile != null)
+            fitsFile.close();
+        if (file != null)
+            file.delete();
+    }
+
+    /**
+     * Test method for {@link hdf.object.fits.FitsDataset#read()}.
+     *
+     * <ul>
+     * <li>Read the whole image, whose first row is the last row of the file.
+     * <li>Read every other row and column, starting at the second column.
+     * </ul>
+     */
+    @Test
+    public void testReadStrided() throws Exception
+    {
+        log.debug("testReadStrided");
+        FitsDataset dataset = getImage();
+        dataset.init();
+        assertArrayEquals(new long[] {ROWS, COLS}, dataset.getDims());
+
+        short[] expected = new short[ROWS * COLS];
+        for (int r = 0; r < ROWS; r++) {
+            for (int c = 0; c < COLS; c++)
+                expected[r * COLS + c] = (short)(10 * (ROWS - 1 - r) + c);
+        }
+        assertArrayEquals(expected, (short[])dataset.read());
+
+        long[] start    = dataset.getStartDims();
+        long[] stride   = dataset.getStride();
+        long[] selected = dataset.getSelectedDims();
+        start[1]        = 1;
+        stride[0]       = 2;
+        stride[1]       = 2;
+        selected[0]     = 2;
+        selected[1]     = 2;
+
+        short[] values = (short[])dataset.read();
+        assertEquals(4, values.length);
+        assertArrayEquals(new short[] {31, 33, 11, 13}, values);
+    }
+
+    private FitsDataset getImage()
+    {
+        Group root = (Group)fitsFile.getRootObject();
+        for (HObject obj : root.getMemberList()) {
+            if (obj instanceof FitsDataset)
+                return (FitsDataset)obj;
+        }
+
+        throw new AssertionError("no image in " + file);
+    }
+
+    /** Returns a header of the given cards, ended and padded to a FITS block. */
+    private static byte[] header(String... cards)
+    {
+        StringBuilder sb = new StringBuilder();
+        for (String card : cards)
+            sb.append(String.format("%-80s", card));
+        sb.append(String.format("%-80s", "END"));
+        while (sb.length() % 2880 != 0)
+            sb.append(' ');
+
+        return sb.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,142 @@
+/**
+ *
+ */
+package object;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import hdf.object.Datatype;
+import hdf.object.FileFormat;
+import hdf.object.Group;
+import hdf.object.HObject;
+import hdf.object.fits.FitsFile;
+import hdf.object.fits.FitsTable;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the member datatypes and values of a FITS binary table with a column that holds several
+ * values in each row.
+ */
+public class FitsTableTest {
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(FitsTableTest.class);
+
+    private File file;
+
+    private FileFormat fitsFile;
+
+    /**
+     * Writes a table of 3 rows with a 2E column and a 1J column.
+     */
+    @Before
+    public void openFile() throws Exception
+    {
+        file = File.createTempFile("FitsTableTest", ".fits");
+
+        ByteBuffer data = ByteBuffer.allocate(3 * 12);
+        for (int r = 0; r < 3; r++) {
+            data.putFloat(r + 0.5f);
+            data.putFloat(-r);
+            data.putInt(10 * r);
+        }
+
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(header("SIMPLE  =                    T", "BITPIX  =                    8",
+                             "NAXIS   =                    0", "EXTEND  =                    T"));
+            out.write(header("XTENSION= 'BINTABLE'", "BITPIX  =                    8",
+                             "NAXIS   =                    2", "NAXIS1  =                   12",
+                             "NAXIS2  =                    3", "PCOUNT  =                    0",
+                             "GCOUNT  =                    1", "TFIELDS =                    2",
+                             "TTYPE1  = 'POS     '", "TFORM1  = '2E      '", "TTYPE2  = 'ID      '",
+                             "TFORM2  = '1J      '"));
+            out.write(data.array());
+            out.write(new byte[2880 - data.capacity()]);
+        }
+
+        fitsFile = new FitsFile(file.getPath());
+        fitsFile.open();
+    }
+
+    /**
+     * Removes the FITS file.
+     */
+    @After
+    public void removeFile() throws Exception
+    {
+        if (fitsFile != null)
+            fitsFile.close();
+        if (file != null)
+            file.delete();
+    }
+
+    /**
+     * A column with a repeat count above 1 is an array member of its value type.
+     */
+    @Test
+    public void testArrayMember() throws Exception
+    {
+        log.debug("testArrayMember");
+        FitsTable table = getTable();
+        table.init();
+
+        Datatype[] types = table.getMemberTypes();
+        assertTrue(types[0].isArray());
+        assertArrayEquals(new long[] {2}, types[0].getArrayDims());
+        assertEquals(Datatype.CLASS_FLOAT, types[0].getDatatypeBase().getDatatypeClass());
+        assertEquals(8, types[0].getDatatypeSize());
+        assertEquals(2, table.getMemberOrders()[0]);
+
+        assertFalse(types[1].isArray());
+        assertEquals(Datatype.CLASS_INTEGER, types[1].getDatatypeClass());
+    }
+
+    /**
+     * An array member is read with all of the values of each row.
+     */
+    @Test
+    public void testReadArrayMember() throws Exception
+    {
+        log.debug("testReadArrayMember");
+        FitsTable table = getTable();
+        table.init();
+
+        List<?> members = (List<?>)table.read();
+        assertArrayEquals(new float[] {0.5f, 0, 1.5f, -1, 2.5f, -2}, (float[])members.get(0), 0f);
+        assertArrayEquals(new int[] {0, 10, 20}, (int[])members.get(1));
+    }
+
+    private FitsTable getTable()
+    {
+        Group root = (Group)fitsFile.getRootObject();
+        for (HObject obj : root.getMemberList()) {
+            if (obj instanceof FitsTable)
+                return (FitsTable)obj;
+        }
+
+        throw new AssertionError("no binary table in " + file);
+    }
+
+    /** Returns a header of the given cards, ended and padded to a FITS block. */
+    private static byte[] header(String... cards)
+    {
+        StringBuilder sb = new StringBuilder();
+        for (String card : cards)
+            sb.append(String.format("%-80s", card));
+        sb.append(String.format("%-80s", "END"));
+        while (sb.length() % 2880 != 0)
+            sb.append(' ');
+
+        return sb.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -3,11 +3,16 @@ package object;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
+import hdf.object.Dataset;
 import hdf.object.FileFormat;
 import hdf.object.Group;
 import hdf.object.HObject;
@@ -297,4 +302,46 @@ public class GroupTest {
         log.debug("testGetNumberOfMembersInFile");
         assertEquals(testGroup.getNumberOfMembersInFile(), 8);
     }
+
+    /**
+     * Test method for {@link hdf.object.Group#readDatasets(boolean, java.util.function.Predicate)}.
+     *
+     * <ul>
+     * <li>Read the datasets of g0 and its subgroup with a single batch.
+     * <li>The data read is not the memory buffer of the dataset.
+     * </ul>
+     */
+    @Test
+    public void testReadDatasets()
+    {
+        log.debug("testReadDatasets");
+        Map<Dataset, CompletableFuture<Object>> reads =
+            testGroup.readDatasets(true, obj -> obj.getName().startsWith("dataset_"));
+        assertEquals(3, reads.size());
+
+        List<Object> data = null;
+        try {
+            data = FileFormat.allOf(List.copyOf(reads.values())).get();
+        }
+        catch (final Exception ex) {
+            fail("readDatasets() failed. " + ex);
+        }
+        assertEquals(3, data.size());
+
+        int i = 0;
+        for (Dataset dset : reads.keySet()) {
+            Object dataValue = data.get(i++);
+            assertNotNull(dataValue);
+            if (dset.getName().equals("dataset_int")) {
+                assertTrue(dataValue instanceof int[]);
+                assertEquals(H5TestFile.DIM_SIZE, ((int[])dataValue).length);
+                try {
+                    assertNotSame(dataValue, dset.getData());
+                }
+                catch (final Exception ex) {
+                    fail("getData() failed. " + ex);
+                }
+            }
+        }
+    }
 }
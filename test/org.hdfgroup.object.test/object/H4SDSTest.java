@@ -0,0 +1,164 @@
+package object;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import hdf.object.Datatype;
+import hdf.object.FileFormat;
+import hdf.object.Group;
+import hdf.object.h4.H4File;
+import hdf.object.h4.H4SDS;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests reading a chunked SDS through its chunks and the cache of decoded chunks.
+ */
+public class H4SDSTest {
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(H4SDSTest.class);
+
+    private static final int ROWS = 6;
+
+    private static final int COLS = 8;
+
+    private File file;
+
+    private FileFormat h4File;
+
+    private H4SDS dataset;
+
+    /**
+     * Creates a file with a 6 x 8 int SDS in chunks of 4 x 3 whose values are their row-major index.
+     */
+    @Before
+    public void createFile() throws Exception
+    {
+        file = File.createTempFile("H4SDSTest", ".hdf");
+
+        int[] values = new int[ROWS * COLS];
+        for (int i = 0; i < values.length; i++)
+            values[i] = i;
+
+        h4File = new H4File().createFile(file.getPath(), FileFormat.FILE_CREATE_DELETE);
+        h4File.open();
+
+        Datatype type = h4File.createDatatype(Datatype.CLASS_INTEGER, 4, Datatype.NATIVE, Datatype.NATIVE);
+        Group root    = (Group)h4File.getRootObject();
+        dataset       = (H4SDS)h4File.createScalarDS("chunked", root, type, new long[] {ROWS, COLS}, null,
+                                                     new long[] {4, 3}, 0, null, values);
+        dataset.init();
+    }
+
+    @After
+    public void closeFile() throws Exception
+    {
+        if (h4File != null)
+            h4File.close();
+        if (file != null)
+            file.delete();
+    }
+
+    /**
+     * Test method for {@link hdf.object.h4.H4SDS#read()}.
+     *
+     * <ul>
+     * <li>Read the whole dataset.
+     * <li>Read a hyperslab that overlaps six chunks, with and without the chunk cache.
+     * </ul>
+     */
+    @Test
+    public void testReadChunked() throws Exception
+    {
+        log.debug("testReadChunked");
+        int[] values = (int[])dataset.read();
+        for (int i = 0; i < values.length; i++)
+            assertEquals(i, values[i]);
+
+        long[] start    = dataset.getStartDims();
+        long[] selected = dataset.getSelectedDims();
+        start[0]        = 1;
+        start[1]        = 2;
+        selected[0]     = 4;
+        selected[1]     = 5;
+
+        int[] expected = new int[20];
+        for (int i = 0; i < expected.length; i++)
+            expected[i] = (1 + i / 5) * COLS + 2 + i % 5;
+
+        assertArrayEquals(expected, (int[])dataset.read());
+        assertArrayEquals(expected, (int[])dataset.read());
+
+        dataset.setChunkCacheSize(0);
+        assertEquals(0, dataset.getChunkCacheSize());
+        assertArrayEquals(expected, (int[])dataset.read());
+    }
+
+    /**
+     * Test method for {@link hdf.object.h4.H4SDS#readChunk(long[])}.
+     *
+     * <ul>
+     * <li>Read a chunk at the edge of the dataset, which is returned at the full chunk size.
+     * <li>Changing the returned chunk does not change the chunks read later.
+     * <li>Values written to a cached chunk are read back.
+     * </ul>
+     */
+    @Test
+    public void testReadChunk() throws Exception
+    {
+        log.debug("testReadChunk");
+        int[] chunk = (int[])dataset.readChunk(new long[] {1, 2});
+        assertEquals(12, chunk.length);
+        assertEquals(4 * COLS + 6, chunk[0]);
+        assertEquals(4 * COLS + 7, chunk[1]);
+        assertEquals(5 * COLS + 6, chunk[3]);
+
+        chunk[0]     = -1;
+        int[] cached = (int[])dataset.readChunk(new long[] {1, 2});
+        assertNotSame(chunk, cached);
+        assertEquals(4 * COLS + 6, cached[0]);
+
+        dataset.writeBlock(new long[] {4, 6}, null, new long[] {1, 1}, new int[] {-2});
+        assertEquals(-2, ((int[])dataset.readChunk(new long[] {1, 2}))[0]);
+    }
+
+    /**
+     * Threads reading different chunks through a cache of two chunks all read the values of their
+     * chunks.
+     */
+    @Test
+    public void testConcurrentChunkCache() throws Exception
+    {
+        log.debug("testConcurrentChunkCache");
+        dataset.setChunkCacheSize(2 * 12 * 4);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                final long[] chunkIndex = {t % 2, t % 3};
+                results.add(executor.submit(() -> {
+                    for (int i = 0; i < 50; i++) {
+                        int[] chunk = (int[])dataset.readChunk(chunkIndex);
+                        assertEquals(chunkIndex[0] * 4 * COLS + chunkIndex[1] * 3, chunk[0]);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> result : results)
+                result.get();
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+}
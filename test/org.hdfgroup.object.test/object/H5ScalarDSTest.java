@@ -15,6 +15,9 @@ import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Vector;
 
@@ -26,6 +29,7 @@ import hdf.object.Group;
 import hdf.object.ScalarDS;
 import hdf.object.h5.H5Datatype;
 import hdf.object.h5.H5File;
+import hdf.object.h5.H5MetaDataContainer;
 import hdf.object.h5.H5ScalarAttr;
 import hdf.object.h5.H5ScalarDS;
 
@@ -653,6 +657,44 @@ public class H5ScalarDSTest {
             testFile = null;
     }
 
+    /**
+     * Test method for {@link hdf.object.Dataset#blockIterator(long)}.
+     *
+     * What to test:
+     * <ul>
+     * <li>Read the test dataset in blocks of rows
+     * <li>Check that the blocks together hold the whole dataset
+     * <li>Check that the selection is not changed
+     * </ul>
+     */
+    @Test
+    public void testBlockIterator()
+    {
+        log.debug("testBlockIterator");
+        testDataset.init();
+        final long[] selected = testDataset.getSelectedDims().clone();
+        final long blockSize  = 3;
+
+        int n = 0;
+        int nblocks = 0;
+        java.util.Iterator<Object> it = testDataset.blockIterator(blockSize);
+        while (it.hasNext()) {
+            final int[] ints = (int[])it.next();
+            assertNotNull(ints);
+            assertTrue(ints.length <= blockSize * H5TestFile.DIM2);
+            for (int i = 0; i < ints.length; i++)
+                assertEquals(H5TestFile.DATA_INT[n + i], ints[i]);
+            n += ints.length;
+            nblocks++;
+        }
+
+        assertEquals(H5TestFile.DATA_INT.length, n);
+        assertEquals((H5TestFile.DIM1 + blockSize - 1) / blockSize, nblocks);
+        for (int i = 0; i < selected.length; i++)
+            assertEquals(selected[i], testDataset.getSelectedDims()[i]);
+        assertEquals(0, testDataset.getStartDims()[0]);
+    }
+
     /**
      * Test method for {@link hdf.object.h5.H5ScalarDS#read()}.
      *
@@ -954,6 +996,159 @@ public class H5ScalarDSTest {
         } //  (int loop=0; loop<NLOOPS; loop++) {
     }
 
+    /**
+     * Test method for {@link hdf.object.Dataset#writeChanges(java.util.BitSet)}.
+     *
+     * What to test:
+     * <ul>
+     * <li>Change a few values of the memory buffer and write only the changed regions
+     * <li>Check that the changed values, and only those, are in the file
+     * <li>write the original data back to file
+     * </ul>
+     */
+    @Test
+    public void testWriteChanges()
+    {
+        log.debug("testWriteChanges");
+        int[] data = null;
+
+        testDataset.init();
+        try {
+            data = (int[])testDataset.getData();
+        }
+        catch (final Exception ex) {
+            fail("getData() failed. " + ex);
+        }
+        assertNotNull(data);
+
+        // a rectangle over the first three rows plus a single value
+        final int ncols       = (int)testDataset.getDims()[1];
+        final BitSet changed  = new BitSet();
+        final int[] positions = {1, 2, ncols + 1, ncols + 2, 2 * ncols + 1, 2 * ncols + 2, data.length - 1};
+        for (int pos : positions) {
+            data[pos] = TEST_VALUE_INT;
+            changed.set(pos);
+        }
+
+        try {
+            testDataset.writeChanges(changed);
+        }
+        catch (final Exception ex) {
+            fail("writeChanges() failed. " + ex);
+        }
+
+        // close the file and reopen it
+        try {
+            testFile.close();
+            testFile.open();
+            testDataset = (H5ScalarDS)testFile.get(DNAME);
+        }
+        catch (final Exception ex) {
+            fail("get(DNAME) failed. " + ex);
+        }
+
+        testDataset.init();
+        try {
+            data = (int[])testDataset.getData();
+        }
+        catch (final Exception ex) {
+            fail("getData() failed. " + ex);
+        }
+        assertNotNull(data);
+
+        for (int i = 0; i < data.length; i++) {
+            if (changed.get(i))
+                assertEquals(TEST_VALUE_INT, data[i]);
+            else
+                assertEquals(H5TestFile.DATA_INT[i], data[i]);
+        }
+
+        // write the original data into file
+        try {
+            testDataset.write(H5TestFile.DATA_INT);
+        }
+        catch (final Exception ex) {
+            fail("write() failed. " + ex);
+        }
+    }
+
+    /**
+     * Test method for {@link hdf.object.ScalarDS#exportBinary(java.io.File, java.nio.ByteOrder)} and
+     * {@link hdf.object.ScalarDS#importBinary(java.io.File, java.nio.ByteOrder)}.
+     *
+     * What to test:
+     * <ul>
+     * <li>Export the dataset to a big-endian binary file and check the file content
+     * <li>Change the values in the file and import them into the dataset
+     * <li>Check the values of the dataset
+     * <li>write the original data back to file
+     * </ul>
+     */
+    @Test
+    public void testExportImportBinary()
+    {
+        log.debug("testExportImportBinary");
+        File binFile = null;
+        int[] data   = null;
+
+        testDataset.init();
+        try {
+            binFile = File.createTempFile("H5ScalarDSTest", ".bin");
+            binFile.deleteOnExit();
+            assertEquals(H5TestFile.DATA_INT.length, testDataset.exportBinary(binFile, ByteOrder.BIG_ENDIAN));
+        }
+        catch (final Exception ex) {
+            fail("exportBinary() failed. " + ex);
+        }
+        assertEquals(4L * H5TestFile.DATA_INT.length, binFile.length());
+
+        // read the file back and negate the values
+        final ByteBuffer bb = ByteBuffer.allocate((int)binFile.length()).order(ByteOrder.BIG_ENDIAN);
+        try (FileInputStream in = new FileInputStream(binFile)) {
+            in.getChannel().read(bb);
+        }
+        catch (final IOException ex) {
+            fail("reading the binary file failed. " + ex);
+        }
+        for (int i = 0; i < H5TestFile.DATA_INT.length; i++) {
+            assertEquals(H5TestFile.DATA_INT[i], bb.getInt(4 * i));
+            bb.putInt(4 * i, -H5TestFile.DATA_INT[i]);
+        }
+        try (FileOutputStream out = new FileOutputStream(binFile)) {
+            out.write(bb.array());
+        }
+        catch (final IOException ex) {
+            fail("writing the binary file failed. " + ex);
+        }
+
+        try {
+            assertEquals(H5TestFile.DATA_INT.length, testDataset.importBinary(binFile, ByteOrder.BIG_ENDIAN));
+        }
+        catch (final Exception ex) {
+            fail("importBinary() failed. " + ex);
+        }
+
+        testDataset.clearData();
+        try {
+            data = (int[])testDataset.getData();
+        }
+        catch (final Exception ex) {
+            fail("getData() failed. " + ex);
+        }
+        assertNotNull(data);
+
+        for (int i = 0; i < data.length; i++)
+            assertEquals(-H5TestFile.DATA_INT[i], data[i]);
+
+        // write the original data into file
+        try {
+            testDataset.write(H5TestFile.DATA_INT);
+        }
+        catch (final Exception ex) {
+            fail("write() failed. " + ex);
+        }
+    }
+
     /**
      * Test method for {@link hdf.object.h5.H5ScalarDS#write(java.lang.Object)}.
      *
@@ -1478,6 +1673,49 @@ public class H5ScalarDSTest {
         } //  (int i=0; i<n; i++) {
     }
 
+    /**
+     * Test method for {@link hdf.object.h5.H5ScalarDS#getMetadata()} with deferred attribute values.
+     *
+     * What to test:
+     * <ul>
+     * <li>Get all the attributes without prefetching their values
+     * <li>Check that the values are read on first access
+     * <li>Check that the cached list is returned again
+     * </ul>
+     */
+    @SuppressWarnings("rawtypes")
+    @Test
+    public void testGetMetadataDeferred()
+    {
+        log.debug("testGetMetadataDeferred");
+        List attrs = null;
+
+        H5MetaDataContainer.invalidate(testFile);
+        H5MetaDataContainer.setPrefetchSize(0);
+        try {
+            attrs = (List)testDataset.getMetadata();
+            assertNotNull(attrs);
+            assertTrue(attrs == testDataset.getMetadata());
+
+            for (int i = 0; i < attrs.size(); i++) {
+                final Attribute attr = (Attribute)attrs.get(i);
+                if (ATTRIBUTE_INT_ARRAY_NAME.equals(attr.getAttributeName())) {
+                    final int[] expected = (int[])ATTRIBUTE_INT_ARRAY;
+                    final int[] ints     = (int[])attr.getAttributeData();
+                    assertNotNull(ints);
+                    for (int j = 0; j < expected.length; j++)
+                        assertEquals(expected[j], ints[j]);
+                }
+            }
+        }
+        catch (final Exception ex) {
+            fail("getMetadata() failed. " + ex);
+        }
+        finally {
+            H5MetaDataContainer.setPrefetchSize(H5MetaDataContainer.DEFAULT_PREFETCH_SIZE);
+        }
+    }
+
     /**
      * Test method for {@link hdf.object.h5.H5ScalarDS#writeMetadata(java.lang.Object)}.
      *
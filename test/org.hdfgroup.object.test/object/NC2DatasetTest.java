@@ -0,0 +1,131 @@
+package object;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import hdf.object.FileFormat;
+import hdf.object.Group;
+import hdf.object.HObject;
+import hdf.object.nc2.NC2Dataset;
+import hdf.object.nc2.NC2File;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests reading subsets of a variable of a NetCDF classic file.
+ */
+public class NC2DatasetTest {
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(NC2DatasetTest.class);
+
+    private File file;
+
+    private FileFormat ncFile;
+
+    private NC2Dataset dataset;
+
+    /**
+     * Writes a classic format file with a 4 x 6 int variable whose values are their row-major index.
+     */
+    @Before
+    public void openFile() throws Exception
+    {
+        file = File.createTempFile("NC2DatasetTest", ".nc");
+
+        ByteBuffer buf = ByteBuffer.allocate(96 + 24 * 4);
+        buf.put("CDF".getBytes(StandardCharsets.US_ASCII)).put((byte)1);
+        buf.putInt(0); // numrecs
+        buf.putInt(0x0A).putInt(2); // NC_DIMENSION
+        putName(buf, "y").putInt(4);
+        putName(buf, "x").putInt(6);
+        buf.putInt(0).putInt(0); // no global attributes
+        buf.putInt(0x0B).putInt(1); // NC_VARIABLE
+        putName(buf, "data").putInt(2).putInt(0).putInt(1);
+        buf.putInt(0).putInt(0); // no variable attributes
+        buf.putInt(4); // NC_INT
+        buf.putInt(24 * 4); // vsize
+        buf.putInt(96); // begin
+        assertEquals(96, buf.position());
+        for (int i = 0; i < 24; i++)
+            buf.putInt(i);
+
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(buf.array());
+        }
+
+        ncFile = new NC2File(file.getPath());
+        ncFile.open();
+
+        for (HObject obj : ((Group)ncFile.getRootObject()).getMemberList()) {
+            if (obj.getName().equals("data"))
+                dataset = (NC2Dataset)obj;
+        }
+        dataset.init();
+    }
+
+    @After
+    public void closeFile() throws Exception
+    {
+        if (ncFile != null)
+            ncFile.close();
+        if (file != null)
+            file.delete();
+    }
+
+    /**
+     * Test method for {@link hdf.object.nc2.NC2Dataset#read()}.
+     *
+     * <ul>
+     * <li>Read the whole variable.
+     * <li>Read a subset with a stride of 2 in both dimensions; the selected dimension sizes are the
+     * number of points read.
+     * </ul>
+     */
+    @Test
+    public void testReadStrided() throws Exception
+    {
+        log.debug("testReadStrided");
+        int[] values = (int[])dataset.read();
+        assertEquals(24, values.length);
+        assertEquals(23, values[23]);
+
+        long[] start    = dataset.getStartDims();
+        long[] stride   = dataset.getStride();
+        long[] selected = dataset.getSelectedDims();
+        start[0]        = 0;
+        start[1]        = 1;
+        stride[0]       = 2;
+        stride[1]       = 2;
+        selected[0]     = 2;
+        selected[1]     = 3;
+
+        values = (int[])dataset.read();
+        assertArrayEquals(new int[] {1, 3, 5, 13, 15, 17}, values);
+
+        start[0]    = 1;
+        start[1]    = 0;
+        stride[0]   = 3;
+        stride[1]   = 5;
+        selected[0] = 1;
+        selected[1] = 2;
+
+        values = (int[])dataset.read();
+        assertArrayEquals(new int[] {6, 11}, values);
+    }
+
+    /** Writes a name of the classic format: its length and its characters padded to 4 bytes. */
+    private static ByteBuffer putName(ByteBuffer buf, String name)
+    {
+        buf.putInt(name.length()).put(name.getBytes(StandardCharsets.US_ASCII));
+        while ((buf.position() % 4) != 0)
+            buf.put((byte)0);
+
+        return buf;
+    }
+}
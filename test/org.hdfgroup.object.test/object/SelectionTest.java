@@ -0,0 +1,124 @@
+/**
+ *
+ */
+package object;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import hdf.object.Selection;
+
+import org.junit.Test;
+
+/**
+ * Tests the buffer mapping of multi-region and point selections.
+ */
+public class SelectionTest {
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(SelectionTest.class);
+
+    /**
+     * Disjoint hyperslabs are packed in row-major order of the dataset, not in the
+     * order they were added.
+     */
+    @Test
+    public void testHyperslabUnionOrder()
+    {
+        log.debug("testHyperslabUnionOrder");
+        Selection sel = new Selection(new long[] {4, 10});
+        sel.addHyperslab(new long[] {0, 5}, null, new long[] {2, 2});
+        sel.addHyperslab(new long[] {0, 0}, null, new long[] {2, 2});
+
+        assertEquals(Selection.SELECT_HYPERSLABS, sel.getSelectionType());
+        assertEquals(8, sel.getNumberOfPoints());
+        assertArrayEquals(new long[] {0, 1, 5, 6, 10, 11, 15, 16}, sel.getBufferMapping());
+        assertArrayEquals(new long[] {1, 5}, sel.getPoint(6));
+        assertEquals(2, sel.getBufferIndex(0, 5));
+        assertEquals(-1, sel.getBufferIndex(3, 3));
+    }
+
+    /**
+     * Overlapping hyperslabs select each point once.
+     */
+    @Test
+    public void testHyperslabOverlap()
+    {
+        log.debug("testHyperslabOverlap");
+        Selection sel = new Selection(new long[] {20});
+        sel.addHyperslab(new long[] {0}, new long[] {2}, new long[] {5});
+        sel.addHyperslab(new long[] {4}, null, new long[] {3});
+
+        assertArrayEquals(new long[] {0, 2, 4, 5, 6, 8}, sel.getBufferMapping());
+        assertEquals(6, sel.getNumberOfPoints());
+    }
+
+    /**
+     * The number of points of disjoint hyperslabs, including interleaved strides, matches the
+     * buffer mapping; overlapping hyperslabs count shared points once.
+     */
+    @Test
+    public void testNumberOfPoints()
+    {
+        log.debug("testNumberOfPoints");
+        Selection rows = new Selection(new long[] {100, 10});
+        for (int i = 9; i >= 0; i--)
+            rows.addHyperslab(new long[] {i * 10, 0}, null, new long[] {5, 10});
+        assertEquals(500, rows.getNumberOfPoints());
+        assertEquals(500, rows.getBufferMapping().length);
+
+        Selection interleaved = new Selection(new long[] {20});
+        interleaved.addHyperslab(new long[] {0}, new long[] {2}, new long[] {10});
+        interleaved.addHyperslab(new long[] {1}, new long[] {2}, new long[] {10});
+        assertEquals(20, interleaved.getNumberOfPoints());
+        assertEquals(20, interleaved.getBufferMapping().length);
+
+        Selection overlap = new Selection(new long[] {10, 10});
+        overlap.addHyperslab(new long[] {0, 0}, null, new long[] {4, 4});
+        overlap.addHyperslab(new long[] {2, 2}, null, new long[] {4, 4});
+        assertEquals(28, overlap.getNumberOfPoints());
+    }
+
+    /**
+     * Point lists keep the order and duplicates in which the points were added.
+     */
+    @Test
+    public void testPointOrder()
+    {
+        log.debug("testPointOrder");
+        Selection sel = new Selection(new long[] {3, 3});
+        sel.addPoint(2, 2).addPoint(0, 1).addPoint(2, 2);
+
+        assertEquals(Selection.SELECT_POINTS, sel.getSelectionType());
+        assertEquals(3, sel.getNumberOfPoints());
+        assertArrayEquals(new long[] {8, 1, 8}, sel.getBufferMapping());
+        assertArrayEquals(new long[] {0, 1}, sel.getPoint(1));
+        assertEquals(0, sel.getBufferIndex(2, 2));
+        assertEquals(1, sel.getBufferIndex(0, 1));
+        assertEquals(-1, sel.getBufferIndex(1, 1));
+        assertEquals(3, sel.getPointList().length);
+    }
+
+    /**
+     * Invalid selections are rejected.
+     */
+    @Test
+    public void testInvalidSelection()
+    {
+        log.debug("testInvalidSelection");
+        Selection sel = new Selection(new long[] {5, 5});
+        try {
+            sel.addHyperslab(new long[] {4, 0}, null, new long[] {2, 1});
+            fail("out of bounds hyperslab was accepted");
+        }
+        catch (IllegalArgumentException ex) {
+        }
+
+        sel.addPoint(1, 1);
+        try {
+            sel.addHyperslab(new long[] {0, 0}, null, new long[] {1, 1});
+            fail("hyperslab was added to a point selection");
+        }
+        catch (IllegalStateException ex) {
+        }
+    }
+}